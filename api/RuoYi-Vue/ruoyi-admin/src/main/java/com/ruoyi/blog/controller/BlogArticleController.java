@@ -1,11 +1,19 @@
 package com.ruoyi.blog.controller;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import javax.servlet.http.HttpServletResponse;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -13,17 +21,31 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.util.StringUtils;
+import com.ruoyi.common.annotation.HttpCache;
 import com.ruoyi.common.annotation.Log;
 import com.ruoyi.common.core.controller.BaseController;
 import com.ruoyi.common.core.domain.AjaxResult;
 import com.ruoyi.common.enums.BusinessType;
 import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.domain.vo.BlogArticleSearchVo;
+import com.ruoyi.blog.service.IBlogArticleArchiveService;
+import com.ruoyi.blog.service.IBlogArticleRelatedService;
+import com.ruoyi.blog.service.IBlogArticleSearchService;
 import com.ruoyi.blog.service.IBlogArticleService;
+import com.ruoyi.blog.service.IBlogArticleStatService;
+import com.ruoyi.blog.service.IBlogArticleViewService;
+import com.ruoyi.common.utils.file.FileUtils;
 import com.ruoyi.common.utils.poi.ExcelUtil;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.page.PageCursor;
 import com.ruoyi.common.core.page.TableDataInfo;
 import com.ruoyi.common.utils.SecurityUtils;
+import com.ruoyi.framework.web.service.ImageVariantService;
 
 /**
  * 博客文章Controller
@@ -38,12 +60,34 @@ public class BlogArticleController extends BaseController
     @Autowired
     private IBlogArticleService blogArticleService;
 
+    @Autowired
+    private IBlogArticleViewService blogArticleViewService;
+
+    @Autowired
+    private IBlogArticleSearchService blogArticleSearchService;
+
+    @Autowired
+    private IBlogArticleRelatedService blogArticleRelatedService;
+
+    @Autowired
+    private IBlogArticleArchiveService blogArticleArchiveService;
+
+    @Autowired
+    private IBlogArticleStatService blogArticleStatService;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
     /**
      * 查询博客文章列表
      */
     // @PreAuthorize("@ss.hasPermi('blog:article:list')")
+    @HttpCache({ "blog_article", "blog_article_view", "blog_category", "blog_tag", "blog_comment", "image_variant" })
     @GetMapping("/list")
-    public TableDataInfo list(BlogArticle blogArticle, Long tagId)
+    public TableDataInfo list(BlogArticle blogArticle, Long tagId, String fields, String searchMode)
     {
         // 访客默认只展示已发布且未删除的文章，后台可通过显式参数覆盖
         Authentication authentication = SecurityUtils.getAuthentication();
@@ -62,8 +106,54 @@ public class BlogArticleController extends BaseController
         {
             blogArticle.getParams().put("tagId", tagId);
         }
+        // 关键词默认走全文索引，仅后台显式指定 searchMode=like 时对标题、摘要与正文模糊匹配
+        if (!anonymous && "like".equals(searchMode))
+        {
+            blogArticle.getParams().put("likeSearch", Boolean.TRUE);
+        }
+        // 列表默认不返回正文，fields=full 时返回完整字段
+        if ("full".equals(fields))
+        {
+            blogArticle.getParams().put("withContent", Boolean.TRUE);
+        }
+        if (isCursorPage())
+        {
+            PageCursor cursor = startCursorPage(blogArticle);
+            List<BlogArticle> list = blogArticleService.selectBlogArticleList(blogArticle);
+            fillCoverSrcset(list);
+            return getCursorDataTable(list, cursor, BlogArticle::getArticleId);
+        }
         startPage();
         List<BlogArticle> list = blogArticleService.selectBlogArticleList(blogArticle);
+        fillCoverSrcset(list);
+        return getDataTable(list);
+    }
+
+    /**
+     * 填充封面多尺寸地址，尺寸尚未生成时只返回原图
+     */
+    private void fillCoverSrcset(List<BlogArticle> list)
+    {
+        imageVariantService.loadVariants(list.stream().map(BlogArticle::getCoverImageUrl).collect(Collectors.toList()));
+        for (BlogArticle article : list)
+        {
+            article.setCoverSrcset(imageVariantService.getSrcset(article.getCoverImageUrl()));
+            article.setCoverWebpSrcset(imageVariantService.getWebpSrcset(article.getCoverImageUrl()));
+        }
+    }
+
+    /**
+     * 全文检索已发布文章
+     */
+    @GetMapping("/search")
+    public TableDataInfo search(@RequestParam("keyword") String keyword)
+    {
+        if (!StringUtils.hasText(keyword))
+        {
+            return getDataTable(new ArrayList<BlogArticleSearchVo>());
+        }
+        startPage();
+        List<BlogArticleSearchVo> list = blogArticleSearchService.searchBlogArticle(keyword);
         return getDataTable(list);
     }
 
@@ -80,29 +170,140 @@ public class BlogArticleController extends BaseController
         util.exportExcel(response, list, "博客文章数据");
     }
 
+    /**
+     * 查询热门文章（按统计窗口内的浏览量，如 window=24h、7d）
+     */
+    @GetMapping("/trending")
+    public AjaxResult trending(@RequestParam(value = "window", defaultValue = "24h") String window, @RequestParam(value = "limit", defaultValue = "10") int limit)
+    {
+        limit = Math.max(1, Math.min(limit, 50));
+        return success(blogArticleStatService.selectTrendingArticles(window, limit));
+    }
+
+    /**
+     * 查询文章浏览统计（granularity：m=分钟, h=小时, d=天）
+     */
+    @PreAuthorize("@ss.hasPermi('blog:article:query')")
+    @GetMapping("/{articleId}/stats")
+    public AjaxResult stats(@PathVariable("articleId") Long articleId, @RequestParam(value = "granularity", defaultValue = "h") String granularity,
+            @RequestParam(value = "days", defaultValue = "7") int days)
+    {
+        return success(blogArticleStatService.selectArticleStats(articleId, granularity, days));
+    }
+
+    /**
+     * 导入 Markdown 文章归档（zip），异步执行，返回任务ID用于查询进度
+     */
+    @PreAuthorize("@ss.hasPermi('blog:article:add')")
+    @Log(title = "博客文章", businessType = BusinessType.IMPORT)
+    @PostMapping("/importArchive")
+    public AjaxResult importArchive(MultipartFile file) throws Exception
+    {
+        if (file == null || file.isEmpty() || !StringUtils.endsWithIgnoreCase(file.getOriginalFilename(), ".zip"))
+        {
+            return error("请上传zip格式的文章归档");
+        }
+        // 请求结束后上传的临时文件会被清理，先转存供导入线程读取
+        File archive = File.createTempFile("blog-article-import-", ".zip");
+        try
+        {
+            file.transferTo(archive);
+            AjaxResult ajax = AjaxResult.success("导入任务已提交");
+            ajax.put("taskId", blogArticleArchiveService.importArchiveAsync(archive, getUserId(), getUsername()));
+            return ajax;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // 未提交成功时导入线程不会接管临时文件，需在此删除
+            archive.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * 查询文章归档导入进度
+     */
+    @PreAuthorize("@ss.hasPermi('blog:article:add')")
+    @GetMapping("/importArchive/{taskId}")
+    public AjaxResult importProgress(@PathVariable("taskId") String taskId)
+    {
+        Map<String, Object> progress = blogArticleArchiveService.selectImportProgress(taskId);
+        return progress == null ? error("导入任务不存在或已过期") : success(progress);
+    }
+
+    /**
+     * 导出 Markdown 文章归档（zip）
+     */
+    @PreAuthorize("@ss.hasPermi('blog:article:export')")
+    @Log(title = "博客文章", businessType = BusinessType.EXPORT)
+    @PostMapping("/exportArchive")
+    public void exportArchive(HttpServletResponse response) throws IOException
+    {
+        response.setContentType("application/zip");
+        FileUtils.setAttachmentResponseHeader(response, "blog-articles.zip");
+        blogArticleArchiveService.exportArchive(response.getOutputStream());
+    }
+
     /**
      * 获取博客文章详细信息
      */
     // @PreAuthorize("@ss.hasPermi('blog:article:query')")
     @GetMapping(value = "/{articleId}")
-    public AjaxResult getInfo(@PathVariable("articleId") Long articleId)
+    public AjaxResult getInfo(@PathVariable("articleId") Long articleId, WebRequest webRequest, HttpServletResponse response)
     {
-        BlogArticle article = blogArticleService.selectBlogArticleByArticleId(articleId);
+        // 已发布文章走两级缓存，草稿等仅登录用户可回源查询
+        BlogArticle article = blogArticleService.selectPublishedBlogArticleByArticleId(articleId);
         Authentication authentication = SecurityUtils.getAuthentication();
         boolean anonymous = authentication == null
                 || !authentication.isAuthenticated()
                 || authentication instanceof AnonymousAuthenticationToken;
-        if (anonymous)
+        if (article == null)
         {
-            // 访客仅可查看已发布且未删除的文章
-            if (article == null || "0".equals(article.getDelFlag()) == false || "1".equals(article.getStatus()) == false)
+            if (anonymous)
             {
+                // 访客仅可查看已发布且未删除的文章
                 return AjaxResult.error("文章未发布或已删除");
             }
+            article = blogArticleService.selectBlogArticleByArticleId(articleId);
+        }
+        if (article == null)
+        {
+            return success(article);
+        }
+        boolean published = "1".equals(article.getStatus());
+        if (published)
+        {
+            // 协商缓存命中同样计为一次浏览，浏览量先记入内存计数器
+            blogArticleViewService.recordView(articleId);
+        }
+        // ETag 只取文章更新时间与文章、分类版本号，不含实时浏览量；命中304时客户端沿用缓存响应中的浏览量
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        Date modified = article.getUpdateTime() != null ? article.getUpdateTime() : article.getCreateTime();
+        String resource = articleId + "." + Long.toString(modified != null ? modified.getTime() : 0L, 36);
+        if (webRequest.checkNotModified(cacheVersion.buildETag(resource, "blog_article", "blog_category")))
+        {
+            return null;
+        }
+        if (published)
+        {
+            // 返回值合并尚未落库的浏览量增量
+            article.setViewCount(blogArticleViewService.selectViewCount(articleId, article.getViewCount()));
         }
         return success(article);
     }
 
+    /**
+     * 查询相关文章（按共同标签、同分类与发布时间排序）
+     */
+    @HttpCache({ "blog_article", "blog_category" })
+    @GetMapping("/{articleId}/related")
+    public AjaxResult related(@PathVariable("articleId") Long articleId, @RequestParam(value = "limit", defaultValue = "6") int limit)
+    {
+        limit = Math.max(1, Math.min(limit, 20));
+        return success(blogArticleRelatedService.selectRelatedArticles(articleId, limit));
+    }
+
     /**
      * 新增博客文章
      */
@@ -16,13 +16,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.ruoyi.common.annotation.Log;
+import com.ruoyi.common.constant.HttpStatus;
 import com.ruoyi.common.core.controller.BaseController;
 import com.ruoyi.common.core.domain.AjaxResult;
 import com.ruoyi.common.enums.BusinessType;
 import com.ruoyi.blog.domain.BlogComment;
 import com.ruoyi.blog.service.IBlogCommentService;
 import com.ruoyi.common.utils.poi.ExcelUtil;
+import com.ruoyi.common.core.page.PageCursor;
+import com.ruoyi.common.core.page.PageDomain;
 import com.ruoyi.common.core.page.TableDataInfo;
+import com.ruoyi.common.core.page.TableSupport;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.annotation.Anonymous;
 
@@ -59,11 +63,36 @@ public class BlogCommentController extends BaseController
         {
             blogComment.setDelFlag("0");
         }
+        if (isCursorPage())
+        {
+            PageCursor cursor = startCursorPage(blogComment);
+            List<BlogComment> list = blogCommentService.selectBlogCommentList(blogComment);
+            return getCursorDataTable(list, cursor, BlogComment::getCommentId);
+        }
         startPage();
         List<BlogComment> list = blogCommentService.selectBlogCommentList(blogComment);
         return getDataTable(list);
     }
 
+    /**
+     * 查询文章评论树，按顶层评论分页
+     */
+    @Anonymous
+    @GetMapping("/tree/{articleId}")
+    public TableDataInfo tree(@PathVariable("articleId") Long articleId)
+    {
+        // 评论树整篇缓存，在内存中截取当前页主题，不再查询总数
+        List<BlogComment> threads = blogCommentService.selectBlogCommentTree(articleId);
+        PageDomain pageDomain = TableSupport.buildPageRequest();
+        int pageSize = Math.max(1, pageDomain.getPageSize());
+        long offset = (long) (Math.max(1, pageDomain.getPageNum()) - 1) * pageSize;
+        int from = (int) Math.min(offset, threads.size());
+        TableDataInfo rspData = new TableDataInfo(threads.subList(from, Math.min(from + pageSize, threads.size())), threads.size());
+        rspData.setCode(HttpStatus.SUCCESS);
+        rspData.setMsg("查询成功");
+        return rspData;
+    }
+
     /**
      * 导出博客评论列表
      */
@@ -107,7 +136,24 @@ public class BlogCommentController extends BaseController
         } catch (Exception ignored) {
             // 若获取用户信息失败，交由鉴权层返回未授权
         }
-        return toAjax(blogCommentService.insertBlogComment(blogComment));
+        // 校验通过即受理，审核与写库由后台队列完成
+        AjaxResult ajax = AjaxResult.success("评论已提交");
+        ajax.put("acceptId", blogCommentService.submitBlogComment(blogComment));
+        return ajax;
+    }
+
+    /**
+     * 查询评论受理结果
+     */
+    @Anonymous
+    @GetMapping("/accept/{acceptId}")
+    public AjaxResult acceptStatus(@PathVariable("acceptId") String acceptId)
+    {
+        String status = blogCommentService.selectAcceptedStatus(acceptId);
+        AjaxResult ajax = AjaxResult.success();
+        // queued=审核队列中，0=待人工审核，1=已显示，failed=写入失败需重新提交
+        ajax.put("status", status == null ? "queued" : status);
+        return ajax;
     }
 
     /**
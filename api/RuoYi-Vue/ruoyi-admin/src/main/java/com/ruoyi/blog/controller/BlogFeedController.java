@@ -0,0 +1,102 @@
+package com.ruoyi.blog.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import com.ruoyi.blog.service.IBlogFeedService;
+import com.ruoyi.common.annotation.Anonymous;
+
+/**
+ * 博客订阅源与站点地图Controller
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+@RestController
+public class BlogFeedController
+{
+    @Autowired
+    private IBlogFeedService blogFeedService;
+
+    // 浏览器与代理缓存时间（秒）
+    @Value("${blog.feed.checkSeconds:30}")
+    private int checkSeconds;
+
+    /**
+     * RSS 2.0 订阅源
+     */
+    @Anonymous
+    @GetMapping("/blog/feed.xml")
+    public void rss(WebRequest webRequest, HttpServletResponse response) throws IOException
+    {
+        writeFeed(IBlogFeedService.RSS, "application/rss+xml;charset=UTF-8", webRequest, response);
+    }
+
+    /**
+     * Atom 订阅源
+     */
+    @Anonymous
+    @GetMapping("/blog/atom.xml")
+    public void atom(WebRequest webRequest, HttpServletResponse response) throws IOException
+    {
+        writeFeed(IBlogFeedService.ATOM, "application/atom+xml;charset=UTF-8", webRequest, response);
+    }
+
+    /**
+     * 站点地图
+     */
+    @Anonymous
+    @GetMapping("/sitemap.xml")
+    public void sitemap(WebRequest webRequest, HttpServletResponse response) throws IOException
+    {
+        writeFeed(IBlogFeedService.SITEMAP, "application/xml;charset=UTF-8", webRequest, response);
+    }
+
+    /**
+     * 站点地图分页文件，文章超过单个站点地图上限时由 sitemap.xml 索引引用
+     */
+    @Anonymous
+    @GetMapping("/sitemap-{page}.xml")
+    public void sitemapPage(@PathVariable("page") int page, WebRequest webRequest, HttpServletResponse response) throws IOException
+    {
+        writeFeed(String.format(IBlogFeedService.SITEMAP_PAGE, page), "application/xml;charset=UTF-8", webRequest, response);
+    }
+
+    /**
+     * 输出磁盘缓存的订阅源文件，版本未变化时返回304
+     */
+    private void writeFeed(String feedName, String contentType, WebRequest webRequest, HttpServletResponse response) throws IOException
+    {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(checkSeconds, TimeUnit.SECONDS).cachePublic().getHeaderValue());
+        String etag = "\"" + feedName + "-" + blogFeedService.selectFeedVersion() + "\"";
+        if (webRequest.checkNotModified(etag))
+        {
+            return;
+        }
+        File file = blogFeedService.selectFeedFile(feedName);
+        // 先打开再取长度，文件随后被原子替换也不影响本次输出
+        try (FileChannel channel = FileChannel.open(file.toPath()))
+        {
+            long size = channel.size();
+            response.setContentType(contentType);
+            response.setContentLengthLong(size);
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = 0; position < size; )
+            {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
@@ -6,11 +6,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.ruoyi.blog.service.IBlogTermCountService;
 import com.ruoyi.common.annotation.Anonymous;
+import com.ruoyi.common.annotation.HttpCache;
 import com.ruoyi.common.core.domain.AjaxResult;
 
 /**
@@ -20,10 +23,14 @@ import com.ruoyi.common.core.domain.AjaxResult;
 @RequestMapping("/blog/site")
 public class BlogSiteController {
 
+    @Autowired
+    private IBlogTermCountService blogTermCountService;
+
     /**
      * 获取站点信息（无需登录）。
      */
     @Anonymous
+    @HttpCache(value = "blog_site", maxAge = 600, cachePublic = true)
     @GetMapping("/info")
     public AjaxResult getSiteInfo() {
         Map<String, Object> data = new HashMap<>();
@@ -75,4 +82,14 @@ public class BlogSiteController {
 
         return AjaxResult.success(data);
     }
+
+    /**
+     * 获取分类与标签及其已发布文章数（无需登录）。
+     */
+    @Anonymous
+    @HttpCache({ "blog_category", "blog_tag" })
+    @GetMapping("/terms")
+    public AjaxResult getTerms() {
+        return AjaxResult.success(blogTermCountService.selectTermCounts());
+    }
 }
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import com.ruoyi.common.annotation.HttpCache;
 import com.ruoyi.common.annotation.Log;
 import com.ruoyi.common.core.controller.BaseController;
 import com.ruoyi.common.core.domain.AjaxResult;
@@ -38,6 +39,7 @@ public class BlogTagController extends BaseController
      * 查询博客标签列表
      */
     // @PreAuthorize("@ss.hasPermi('blog:tag:list')")
+    @HttpCache("blog_tag")
     @GetMapping("/list")
     public TableDataInfo list(BlogTag blogTag)
     {
@@ -62,6 +62,18 @@ public class BlogArticle extends BaseEntity
     /** 标签ID列表 */
     private Long[] tagIds;
 
+    /** 标签名称，逗号分隔 (非数据库字段，列表显示) */
+    private String tagNames;
+
+    /** 已显示评论数 (非数据库字段，列表显示) */
+    private Long commentCount;
+
+    /** 封面多尺寸 srcset (非数据库字段，列表显示) */
+    private String coverSrcset;
+
+    /** 封面 WebP 多尺寸 srcset (非数据库字段，列表显示) */
+    private String coverWebpSrcset;
+
     public void setArticleId(Long articleId) 
     {
         this.articleId = articleId;
@@ -192,6 +204,46 @@ public class BlogArticle extends BaseEntity
         return tagIds;
     }
 
+    public void setTagNames(String tagNames) 
+    {
+        this.tagNames = tagNames;
+    }
+
+    public String getTagNames() 
+    {
+        return tagNames;
+    }
+
+    public void setCommentCount(Long commentCount) 
+    {
+        this.commentCount = commentCount;
+    }
+
+    public Long getCommentCount() 
+    {
+        return commentCount;
+    }
+
+    public void setCoverSrcset(String coverSrcset) 
+    {
+        this.coverSrcset = coverSrcset;
+    }
+
+    public String getCoverSrcset() 
+    {
+        return coverSrcset;
+    }
+
+    public void setCoverWebpSrcset(String coverWebpSrcset) 
+    {
+        this.coverWebpSrcset = coverWebpSrcset;
+    }
+
+    public String getCoverWebpSrcset() 
+    {
+        return coverWebpSrcset;
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this,ToStringStyle.MULTI_LINE_STYLE)
@@ -208,6 +260,8 @@ public class BlogArticle extends BaseEntity
             .append("delFlag", getDelFlag())
             .append("categoryName", getCategoryName())
             .append("tagIds", getTagIds())
+            .append("tagNames", getTagNames())
+            .append("commentCount", getCommentCount())
             .append("createBy", getCreateBy())
             .append("createTime", getCreateTime())
             .append("updateBy", getUpdateBy())
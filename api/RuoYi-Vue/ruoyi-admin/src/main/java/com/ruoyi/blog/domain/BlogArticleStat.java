@@ -0,0 +1,90 @@
+package com.ruoyi.blog.domain;
+
+import java.util.Date;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.ruoyi.common.core.domain.BaseEntity;
+
+/**
+ * 博客文章浏览统计对象 blog_article_stat
+ * 
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleStat extends BaseEntity
+{
+    private static final long serialVersionUID = 1L;
+
+    /** 粒度：分钟 */
+    public static final String MINUTE = "m";
+
+    /** 粒度：小时 */
+    public static final String HOUR = "h";
+
+    /** 粒度：天 */
+    public static final String DAY = "d";
+
+    /** 文章ID */
+    private Long articleId;
+
+    /** 粒度 (m=分钟, h=小时, d=天) */
+    private String granularity;
+
+    /** 时间桶起点 */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date bucketTime;
+
+    /** 浏览量 */
+    private Long viewCount;
+
+    public void setArticleId(Long articleId) 
+    {
+        this.articleId = articleId;
+    }
+
+    public Long getArticleId() 
+    {
+        return articleId;
+    }
+
+    public void setGranularity(String granularity) 
+    {
+        this.granularity = granularity;
+    }
+
+    public String getGranularity() 
+    {
+        return granularity;
+    }
+
+    public void setBucketTime(Date bucketTime) 
+    {
+        this.bucketTime = bucketTime;
+    }
+
+    public Date getBucketTime() 
+    {
+        return bucketTime;
+    }
+
+    public void setViewCount(Long viewCount) 
+    {
+        this.viewCount = viewCount;
+    }
+
+    public Long getViewCount() 
+    {
+        return viewCount;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this,ToStringStyle.MULTI_LINE_STYLE)
+            .append("articleId", getArticleId())
+            .append("granularity", getGranularity())
+            .append("bucketTime", getBucketTime())
+            .append("viewCount", getViewCount())
+            .toString();
+    }
+}
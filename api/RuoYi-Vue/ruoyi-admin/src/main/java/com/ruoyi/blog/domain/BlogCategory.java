@@ -30,6 +30,10 @@ public class BlogCategory extends BaseEntity
     @Excel(name = "排序字段")
     private Long sort;
 
+    /** 已发布文章数 */
+    @Excel(name = "文章数", type = Excel.Type.EXPORT)
+    private Long articleCount;
+
     public void setCategoryId(Long categoryId) 
     {
         this.categoryId = categoryId;
@@ -70,6 +74,16 @@ public class BlogCategory extends BaseEntity
         return sort;
     }
 
+    public void setArticleCount(Long articleCount) 
+    {
+        this.articleCount = articleCount;
+    }
+
+    public Long getArticleCount() 
+    {
+        return articleCount;
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this,ToStringStyle.MULTI_LINE_STYLE)
@@ -77,6 +91,7 @@ public class BlogCategory extends BaseEntity
             .append("name", getName())
             .append("description", getDescription())
             .append("sort", getSort())
+            .append("articleCount", getArticleCount())
             .append("createBy", getCreateBy())
             .append("createTime", getCreateTime())
             .append("updateBy", getUpdateBy())
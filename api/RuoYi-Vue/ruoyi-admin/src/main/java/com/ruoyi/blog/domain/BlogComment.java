@@ -1,8 +1,11 @@
 package com.ruoyi.blog.domain;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.springframework.data.annotation.Transient;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.ruoyi.common.annotation.Excel;
 import com.ruoyi.common.core.domain.BaseEntity;
 
@@ -52,6 +55,10 @@ public class BlogComment extends BaseEntity
     /** 文章标题 (非数据库字段，用于显示) */
     private String articleTitle;
 
+    /** 回复列表 (非数据库字段，评论树使用) */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<BlogComment> children = new ArrayList<BlogComment>();
+
     @Transient
     private String code;
 
@@ -178,6 +185,16 @@ public class BlogComment extends BaseEntity
         return uuid;
     }
 
+    public List<BlogComment> getChildren()
+    {
+        return children;
+    }
+
+    public void setChildren(List<BlogComment> children)
+    {
+        this.children = children;
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this,ToStringStyle.MULTI_LINE_STYLE)
@@ -22,6 +22,10 @@ public class BlogTag extends BaseEntity
     @Excel(name = "标签名称")
     private String name;
 
+    /** 已发布文章数 */
+    @Excel(name = "文章数", type = Excel.Type.EXPORT)
+    private Long articleCount;
+
     public void setTagId(Long tagId) 
     {
         this.tagId = tagId;
@@ -42,11 +46,22 @@ public class BlogTag extends BaseEntity
         return name;
     }
 
+    public void setArticleCount(Long articleCount) 
+    {
+        this.articleCount = articleCount;
+    }
+
+    public Long getArticleCount() 
+    {
+        return articleCount;
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this,ToStringStyle.MULTI_LINE_STYLE)
             .append("tagId", getTagId())
             .append("name", getName())
+            .append("articleCount", getArticleCount())
             .append("createBy", getCreateBy())
             .append("createTime", getCreateTime())
             .append("updateBy", getUpdateBy())
@@ -0,0 +1,66 @@
+package com.ruoyi.blog.domain.vo;
+
+import com.ruoyi.blog.domain.BlogArticle;
+
+/**
+ * 文章全文检索结果
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleSearchVo extends BlogArticle
+{
+    private static final long serialVersionUID = 1L;
+
+    /** 相关度得分 */
+    private Double score;
+
+    /** 命中片段 (原始正文截取) */
+    private String snippet;
+
+    /** 高亮标题 (已转义，关键词以em标签包裹) */
+    private String highlightTitle;
+
+    /** 高亮片段 (已转义，关键词以em标签包裹) */
+    private String highlightSnippet;
+
+    public Double getScore()
+    {
+        return score;
+    }
+
+    public void setScore(Double score)
+    {
+        this.score = score;
+    }
+
+    public String getSnippet()
+    {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet)
+    {
+        this.snippet = snippet;
+    }
+
+    public String getHighlightTitle()
+    {
+        return highlightTitle;
+    }
+
+    public void setHighlightTitle(String highlightTitle)
+    {
+        this.highlightTitle = highlightTitle;
+    }
+
+    public String getHighlightSnippet()
+    {
+        return highlightSnippet;
+    }
+
+    public void setHighlightSnippet(String highlightSnippet)
+    {
+        this.highlightSnippet = highlightSnippet;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ruoyi.blog.domain.vo;
+
+import com.ruoyi.blog.domain.BlogArticle;
+
+/**
+ * 热门文章
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleTrendingVo extends BlogArticle
+{
+    private static final long serialVersionUID = 1L;
+
+    /** 统计窗口内的浏览量 */
+    private Long windowViews;
+
+    public Long getWindowViews()
+    {
+        return windowViews;
+    }
+
+    public void setWindowViews(Long windowViews)
+    {
+        this.windowViews = windowViews;
+    }
+}
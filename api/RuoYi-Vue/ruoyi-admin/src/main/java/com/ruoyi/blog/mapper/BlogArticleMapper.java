@@ -1,8 +1,11 @@
 package com.ruoyi.blog.mapper;
 
 import java.util.List;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 import com.ruoyi.blog.domain.BlogArticle;
 import com.ruoyi.blog.domain.BlogArticleTag;
+import com.ruoyi.blog.domain.vo.BlogArticleSearchVo;
 
 /**
  * 博客文章Mapper接口
@@ -28,6 +31,15 @@ public interface BlogArticleMapper
      */
     public List<BlogArticle> selectBlogArticleList(BlogArticle blogArticle);
 
+    /**
+     * 全文检索已发布文章
+     * 
+     * @param keyword 关键词
+     * @param terms 检索词，用于定位正文片段
+     * @return 检索结果，按相关度降序
+     */
+    public List<BlogArticleSearchVo> selectBlogArticleSearchList(@Param("keyword") String keyword, @Param("terms") List<String> terms);
+
     /**
      * 新增博客文章
      * 
@@ -60,6 +72,22 @@ public interface BlogArticleMapper
      */
     public int deleteBlogArticleByArticleIds(Long[] articleIds);
 
+    /**
+     * 批量累加文章浏览量
+     * 
+     * @param articles 文章列表 (viewCount为本次增量)
+     * @return 结果
+     */
+    public int updateBlogArticleViewCount(List<BlogArticle> articles);
+
+    /**
+     * 批量查询文章浏览量
+     * 
+     * @param articleIds 文章ID集合
+     * @return 文章列表 (仅包含articleId与viewCount)
+     */
+    public List<BlogArticle> selectBlogArticleViewCounts(Long[] articleIds);
+
     /**
      * 批量新增文章标签关联
      * 
@@ -76,6 +104,15 @@ public interface BlogArticleMapper
      */
     public int deleteBlogArticleTagByArticleId(Long articleId);
 
+    /**
+     * 删除文章与指定标签的关联
+     * 
+     * @param articleId 文章ID
+     * @param tagIds 需要删除的标签ID
+     * @return 结果
+     */
+    public int deleteBlogArticleTagByTagIds(@Param("articleId") Long articleId, @Param("tagIds") List<Long> tagIds);
+
     /**
      * 根据文章ID查询标签ID列表
      * 
@@ -83,4 +120,92 @@ public interface BlogArticleMapper
      * @return 标签ID列表
      */
     public Long[] selectTagIdsByArticleId(Long articleId);
+
+    /**
+     * 查询已发布文章ID列表
+     * 
+     * @param categoryId 分类ID，为空时查询全部已发布文章
+     * @return 文章ID列表
+     */
+    public List<Long> selectPublishedArticleIds(@Param("categoryId") Long categoryId);
+
+    /**
+     * 查询文章的分类与发布状态并加行锁，用于增量维护分类/标签文章数
+     * 
+     * @param articleIds 文章ID集合
+     * @return 文章集合 (仅含 articleId、categoryId、status、delFlag)
+     */
+    public List<BlogArticle> selectBlogArticleTermStates(Long[] articleIds);
+
+    /**
+     * 批量查询文章标签关联
+     * 
+     * @param articleIds 文章ID集合
+     * @return 文章标签关联列表
+     */
+    public List<BlogArticleTag> selectBlogArticleTagByArticleIds(Long[] articleIds);
+
+    /**
+     * 查询已发布文章的精简信息，用于构建相关文章索引
+     * 
+     * @param articleIds 文章ID集合，为空时查询全部已发布文章
+     * @return 文章集合 (不含正文)
+     */
+    public List<BlogArticle> selectBlogArticleRelatedList(@Param("articleIds") Long[] articleIds);
+
+    /**
+     * 查询已发布文章的标签关联，用于构建相关文章索引
+     * 
+     * @param articleIds 文章ID集合，为空时查询全部已发布文章
+     * @return 文章标签关联列表
+     */
+    public List<BlogArticleTag> selectPublishedBlogArticleTagList(@Param("articleIds") Long[] articleIds);
+
+    /**
+     * 流式读取最新的已发布文章，用于生成订阅源，需在事务内遍历
+     * 
+     * @param limit 最大条数
+     * @return 文章游标 (不含正文)，按创建时间倒序
+     */
+    public Cursor<BlogArticle> selectBlogArticleFeedCursor(@Param("limit") int limit);
+
+    /**
+     * 流式读取文章ID大于 lastId 的已发布文章，用于按ID分页生成站点地图，需在事务内遍历
+     * 
+     * @param lastId 上一页最后一篇文章ID，第一页为0
+     * @param limit 最大条数
+     * @return 文章游标 (仅含ID与时间)，按文章ID升序
+     */
+    public Cursor<BlogArticle> selectBlogArticleSitemapCursor(@Param("lastId") long lastId, @Param("limit") int limit);
+
+    /**
+     * 查询站点地图分页最后一篇文章ID
+     * 
+     * @param lastId 上一页最后一篇文章ID，第一页为0
+     * @param limit 每页条数
+     * @return 本页最后一篇文章ID，之后没有文章时为null
+     */
+    public Long selectBlogArticleSitemapPageLastId(@Param("lastId") long lastId, @Param("limit") int limit);
+
+    /**
+     * 统计已发布文章数
+     * 
+     * @return 已发布文章数
+     */
+    public int countPublishedBlogArticle();
+
+    /**
+     * 导入博客文章，列固定以便 BATCH 执行器合并为一个批次
+     * 
+     * @param blogArticle 博客文章
+     * @return 结果
+     */
+    public int insertImportedBlogArticle(BlogArticle blogArticle);
+
+    /**
+     * 流式读取未删除文章（含正文、分类名称与标签名称），用于导出文章归档，需在事务内遍历
+     * 
+     * @return 文章游标，按文章ID升序
+     */
+    public Cursor<BlogArticle> selectBlogArticleArchiveCursor();
 }
@@ -0,0 +1,66 @@
+package com.ruoyi.blog.mapper;
+
+import java.util.Date;
+import java.util.List;
+import org.apache.ibatis.annotations.Param;
+import com.ruoyi.blog.domain.BlogArticleStat;
+import com.ruoyi.blog.domain.vo.BlogArticleTrendingVo;
+
+/**
+ * 博客文章浏览统计Mapper接口
+ * 
+ * @author CYX
+ * @date 2025-11-20
+ */
+public interface BlogArticleStatMapper 
+{
+    /**
+     * 批量累加浏览统计，时间桶已存在时浏览量相加
+     * 
+     * @param stats 浏览统计列表
+     * @return 结果
+     */
+    public int batchAddBlogArticleStat(List<BlogArticleStat> stats);
+
+    /**
+     * 由细粒度统计重新汇总粗粒度统计，覆盖目标时间桶的浏览量
+     * 
+     * @param source 来源粒度
+     * @param target 目标粒度
+     * @param bucketFormat 目标时间桶的 date_format 格式
+     * @param since 重新汇总的起始时间（需为目标时间桶起点）
+     * @return 结果
+     */
+    public int rollupBlogArticleStat(@Param("source") String source, @Param("target") String target,
+            @Param("bucketFormat") String bucketFormat, @Param("since") Date since);
+
+    /**
+     * 删除过期的浏览统计
+     * 
+     * @param granularity 粒度
+     * @param before 截止时间
+     * @param limit 单次删除的最大行数
+     * @return 结果
+     */
+    public int deleteBlogArticleStatBefore(@Param("granularity") String granularity, @Param("before") Date before, @Param("limit") int limit);
+
+    /**
+     * 查询文章的浏览统计
+     * 
+     * @param articleId 文章ID
+     * @param granularity 粒度
+     * @param since 起始时间
+     * @return 浏览统计集合，按时间升序
+     */
+    public List<BlogArticleStat> selectBlogArticleStatList(@Param("articleId") Long articleId, @Param("granularity") String granularity, @Param("since") Date since);
+
+    /**
+     * 查询统计窗口内浏览量最高的已发布文章
+     * 
+     * @param granularity 粒度
+     * @param since 起始时间
+     * @param limit 返回数量
+     * @return 热门文章集合 (不含正文)
+     */
+    public List<BlogArticleTrendingVo> selectTrendingBlogArticleList(@Param("granularity") String granularity, @Param("since") Date since, @Param("limit") int limit);
+}
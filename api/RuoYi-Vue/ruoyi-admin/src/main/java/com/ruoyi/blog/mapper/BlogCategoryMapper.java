@@ -1,6 +1,7 @@
 package com.ruoyi.blog.mapper;
 
 import java.util.List;
+import org.apache.ibatis.annotations.Param;
 import com.ruoyi.blog.domain.BlogCategory;
 
 /**
@@ -58,4 +59,20 @@ public interface BlogCategoryMapper
      * @return 结果
      */
     public int deleteBlogCategoryByCategoryIds(Long[] categoryIds);
+
+    /**
+     * 增减分类的已发布文章数
+     * 
+     * @param categoryId 分类ID
+     * @param delta 增量
+     * @return 结果
+     */
+    public int updateBlogCategoryArticleCount(@Param("categoryId") Long categoryId, @Param("delta") int delta);
+
+    /**
+     * 按文章表重新统计分类的已发布文章数
+     * 
+     * @return 修正的分类数
+     */
+    public int reconcileBlogCategoryArticleCount();
 }
@@ -27,6 +27,22 @@ public interface BlogCommentMapper
      */
     public List<BlogComment> selectBlogCommentList(BlogComment blogComment);
 
+    /**
+     * 查询文章下全部已显示评论，按评论时间升序
+     * 
+     * @param articleId 文章ID
+     * @return 博客评论集合
+     */
+    public List<BlogComment> selectVisibleBlogCommentByArticleId(Long articleId);
+
+    /**
+     * 查询评论所属的文章ID
+     * 
+     * @param commentIds 博客评论主键集合
+     * @return 文章ID集合
+     */
+    public List<Long> selectArticleIdsByCommentIds(Long[] commentIds);
+
     /**
      * 新增博客评论
      * 
@@ -35,6 +51,14 @@ public interface BlogCommentMapper
      */
     public int insertBlogComment(BlogComment blogComment);
 
+    /**
+     * 批量新增博客评论
+     * 
+     * @param blogCommentList 博客评论列表
+     * @return 结果
+     */
+    public int batchInsertBlogComment(List<BlogComment> blogCommentList);
+
     /**
      * 修改博客评论
      * 
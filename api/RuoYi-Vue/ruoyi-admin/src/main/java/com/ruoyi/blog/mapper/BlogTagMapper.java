@@ -1,6 +1,7 @@
 package com.ruoyi.blog.mapper;
 
 import java.util.List;
+import org.apache.ibatis.annotations.Param;
 import com.ruoyi.blog.domain.BlogTag;
 
 /**
@@ -58,4 +59,20 @@ public interface BlogTagMapper
      * @return 结果
      */
     public int deleteBlogTagByTagIds(Long[] tagIds);
+
+    /**
+     * 增减标签的已发布文章数
+     * 
+     * @param tagIds 标签ID集合
+     * @param delta 增量
+     * @return 结果
+     */
+    public int updateBlogTagArticleCount(@Param("tagIds") List<Long> tagIds, @Param("delta") int delta);
+
+    /**
+     * 按文章标签关联重新统计标签的已发布文章数
+     * 
+     * @return 修正的标签数
+     */
+    public int reconcileBlogTagArticleCount();
 }
@@ -0,0 +1,42 @@
+package com.ruoyi.blog.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * 博客文章归档导入导出Service接口
+ *
+ * 归档为 zip 包，每篇文章一个带 front-matter 的 Markdown 文件
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public interface IBlogArticleArchiveService
+{
+    /**
+     * 异步导入文章归档，导入完成后删除归档文件
+     *
+     * @param archive 归档文件
+     * @param userId 作者ID
+     * @param operName 操作用户
+     * @return 导入任务ID
+     */
+    public String importArchiveAsync(File archive, Long userId, String operName);
+
+    /**
+     * 查询导入进度
+     *
+     * @param taskId 导入任务ID
+     * @return 导入进度，任务不存在或已过期时为null
+     */
+    public Map<String, Object> selectImportProgress(String taskId);
+
+    /**
+     * 流式导出全部未删除文章
+     *
+     * @param out 输出流
+     */
+    public void exportArchive(OutputStream out) throws IOException;
+}
@@ -0,0 +1,34 @@
+package com.ruoyi.blog.service;
+
+import java.util.List;
+import com.ruoyi.blog.domain.BlogArticle;
+
+/**
+ * 相关文章Service接口
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public interface IBlogArticleRelatedService
+{
+    /**
+     * 查询相关文章
+     *
+     * @param articleId 文章ID
+     * @param limit 返回数量
+     * @return 相关文章集合 (不含正文)，文章未发布时为空
+     */
+    public List<BlogArticle> selectRelatedArticles(Long articleId, int limit);
+
+    /**
+     * 文章变更后增量刷新索引
+     *
+     * @param articleIds 文章ID
+     */
+    public void refreshArticles(Long... articleIds);
+
+    /**
+     * 全量重建索引
+     */
+    public void rebuildIndex();
+}
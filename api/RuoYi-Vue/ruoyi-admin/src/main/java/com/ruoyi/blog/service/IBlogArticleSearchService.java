@@ -0,0 +1,21 @@
+package com.ruoyi.blog.service;
+
+import java.util.List;
+import com.ruoyi.blog.domain.vo.BlogArticleSearchVo;
+
+/**
+ * 博客文章全文检索Service接口
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public interface IBlogArticleSearchService
+{
+    /**
+     * 全文检索已发布文章，按相关度排序并高亮关键词
+     *
+     * @param keyword 关键词
+     * @return 检索结果
+     */
+    public List<BlogArticleSearchVo> searchBlogArticle(String keyword);
+}
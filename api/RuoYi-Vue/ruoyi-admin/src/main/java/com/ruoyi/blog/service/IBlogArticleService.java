@@ -19,6 +19,14 @@ public interface IBlogArticleService
      */
     public BlogArticle selectBlogArticleByArticleId(Long articleId);
 
+    /**
+     * 查询已发布的博客文章（优先读取缓存）
+     * 
+     * @param articleId 博客文章主键
+     * @return 博客文章，未发布或不存在时返回null
+     */
+    public BlogArticle selectPublishedBlogArticleByArticleId(Long articleId);
+
     /**
      * 查询博客文章列表
      * 
@@ -58,4 +66,9 @@ public interface IBlogArticleService
      * @return 结果
      */
     public int deleteBlogArticleByArticleId(Long articleId);
+
+    /**
+     * 清空已发布文章详情缓存
+     */
+    public void clearBlogArticleCache();
 }
@@ -0,0 +1,39 @@
+package com.ruoyi.blog.service;
+
+/**
+ * 博客文章静态快照Service接口
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public interface IBlogArticleSnapshotService
+{
+    /**
+     * 异步刷新文章快照：已发布文章重新生成，未发布或已删除文章删除快照
+     *
+     * @param articleIds 文章ID
+     */
+    public void refreshSnapshotAsync(Long... articleIds);
+
+    /**
+     * 同步刷新文章快照
+     *
+     * @param articleId 文章ID
+     * @return true=已生成快照；false=已删除快照
+     */
+    public boolean refreshSnapshot(Long articleId);
+
+    /**
+     * 异步刷新分类下全部已发布文章的快照，分类改名或删除后快照中的分类名称需要同步
+     *
+     * @param categoryIds 分类ID
+     */
+    public void refreshCategorySnapshotAsync(Long... categoryIds);
+
+    /**
+     * 同步重新生成全部已发布文章的快照，用于首次上线或快照目录丢失后的补齐
+     *
+     * @return 已生成的快照数
+     */
+    public int refreshAllSnapshots();
+}
@@ -0,0 +1,52 @@
+package com.ruoyi.blog.service;
+
+import java.util.List;
+import com.ruoyi.blog.domain.BlogArticleStat;
+import com.ruoyi.blog.domain.vo.BlogArticleTrendingVo;
+
+/**
+ * 博客文章浏览统计Service接口
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public interface IBlogArticleStatService
+{
+    /**
+     * 记录一次浏览事件
+     *
+     * @param articleId 文章ID
+     */
+    public void recordView(long articleId);
+
+    /**
+     * 将缓冲区中的浏览事件按分钟汇总写入统计表
+     *
+     * @return 写入的浏览事件数
+     */
+    public int flushViewEvents();
+
+    /**
+     * 由分钟统计汇总小时统计、由小时统计汇总天统计，从上次成功汇总的时间桶起补齐，并清理过期的明细统计
+     */
+    public void rollupStats();
+
+    /**
+     * 查询统计窗口内浏览量最高的已发布文章
+     *
+     * @param window 统计窗口，如 1h、24h、7d
+     * @param limit 返回数量
+     * @return 热门文章集合
+     */
+    public List<BlogArticleTrendingVo> selectTrendingArticles(String window, int limit);
+
+    /**
+     * 查询文章的浏览统计
+     *
+     * @param articleId 文章ID
+     * @param granularity 粒度 (m=分钟, h=小时, d=天)
+     * @param days 查询最近天数
+     * @return 浏览统计集合，按时间升序
+     */
+    public List<BlogArticleStat> selectArticleStats(Long articleId, String granularity, int days);
+}
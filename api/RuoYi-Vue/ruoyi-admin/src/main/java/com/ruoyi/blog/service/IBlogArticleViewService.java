@@ -0,0 +1,42 @@
+package com.ruoyi.blog.service;
+
+/**
+ * 博客文章浏览量Service接口
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public interface IBlogArticleViewService
+{
+    /**
+     * 记录一次文章浏览，同一访客在去重窗口内只计一次
+     *
+     * @param articleId 文章ID
+     * @return 是否计入浏览量
+     */
+    public boolean recordView(Long articleId);
+
+    /**
+     * 查询尚未写入数据库的浏览增量
+     *
+     * @param articleId 文章ID
+     * @return 待刷新的浏览增量
+     */
+    public long selectPendingViewCount(Long articleId);
+
+    /**
+     * 查询文章当前浏览量（已落库浏览量加上待刷新增量）
+     *
+     * @param articleId 文章ID
+     * @param storedCount 调用方持有的浏览量（可能来自缓存）
+     * @return 浏览量
+     */
+    public long selectViewCount(Long articleId, Long storedCount);
+
+    /**
+     * 将累计的浏览增量批量写入数据库
+     *
+     * @return 更新的文章数
+     */
+    public int flushViewCount();
+}
@@ -0,0 +1,30 @@
+package com.ruoyi.blog.service;
+
+import com.ruoyi.blog.domain.BlogComment;
+
+/**
+ * 博客评论审核Service接口
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public interface IBlogCommentModerationService
+{
+    /**
+     * 计算游客评论的风险分
+     *
+     * @param blogComment 博客评论
+     * @param ip 提交者IP
+     * @return 风险分，越高越可能是垃圾评论
+     */
+    public int scoreBlogComment(BlogComment blogComment, String ip);
+
+    /**
+     * 审核游客评论，低风险评论自动通过
+     *
+     * @param blogComment 博客评论
+     * @param ip 提交者IP
+     * @return 评论状态 (0=待审核, 1=已显示)
+     */
+    public String moderateBlogComment(BlogComment blogComment, String ip);
+}
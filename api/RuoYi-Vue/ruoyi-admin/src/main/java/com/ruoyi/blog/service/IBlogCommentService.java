@@ -27,6 +27,14 @@ public interface IBlogCommentService
      */
     public List<BlogComment> selectBlogCommentList(BlogComment blogComment);
 
+    /**
+     * 查询文章评论树（按主题倒序，回复按时间正序）
+     * 
+     * @param articleId 文章ID
+     * @return 文章全部顶层评论集合（不可修改），回复挂在children下
+     */
+    public List<BlogComment> selectBlogCommentTree(Long articleId);
+
     /**
      * 新增博客评论
      * 
@@ -35,6 +43,22 @@ public interface IBlogCommentService
      */
     public int insertBlogComment(BlogComment blogComment);
 
+    /**
+     * 提交博客评论，校验通过后进入审核队列异步写入
+     * 
+     * @param blogComment 博客评论
+     * @return 受理编号
+     */
+    public String submitBlogComment(BlogComment blogComment);
+
+    /**
+     * 查询评论受理结果
+     * 
+     * @param acceptId 受理编号
+     * @return 评论状态 (0=待审核, 1=已显示, failed=写入失败)，尚在队列中时返回null
+     */
+    public String selectAcceptedStatus(String acceptId);
+
     /**
      * 修改博客评论
      * 
@@ -0,0 +1,39 @@
+package com.ruoyi.blog.service;
+
+import java.io.File;
+
+/**
+ * 博客订阅源与站点地图Service接口
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public interface IBlogFeedService
+{
+    /** RSS 2.0 订阅源 */
+    public static final String RSS = "feed.xml";
+
+    /** Atom 订阅源 */
+    public static final String ATOM = "atom.xml";
+
+    /** 站点地图，文章超过单个文件上限时为站点地图索引 */
+    public static final String SITEMAP = "sitemap.xml";
+
+    /** 站点地图分页文件，参数为从1开始的页码 */
+    public static final String SITEMAP_PAGE = "sitemap-%d.xml";
+
+    /**
+     * 查询订阅源版本，文章或分类变更后变化
+     *
+     * @return 订阅源版本
+     */
+    public String selectFeedVersion();
+
+    /**
+     * 获取订阅源文件，文章未变更时直接返回磁盘缓存，否则重新生成
+     *
+     * @param feedName 订阅源名称（RSS、ATOM、SITEMAP 或站点地图分页文件）
+     * @return 订阅源文件
+     */
+    public File selectFeedFile(String feedName);
+}
@@ -0,0 +1,48 @@
+package com.ruoyi.blog.service;
+
+import java.util.Map;
+import com.ruoyi.blog.domain.BlogArticle;
+
+/**
+ * 博客分类/标签文章数Service接口
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public interface IBlogTermCountService
+{
+    /**
+     * 查询全部分类与标签及其已发布文章数
+     *
+     * @return categories=分类列表，tags=标签列表（按文章数倒序）
+     */
+    public Map<String, Object> selectTermCounts();
+
+    /**
+     * 锁定并读取文章变更前的分类、标签与发布状态，需在文章变更的同一事务内调用
+     *
+     * @param articleIds 文章ID
+     * @return 文章ID与状态的映射，不存在的文章不在其中
+     */
+    public Map<Long, BlogArticle> lockArticleTermStates(Long... articleIds);
+
+    /**
+     * 比较文章变更前后的状态，增量更新分类与标签的已发布文章数
+     *
+     * @param before 变更前状态
+     * @param articleIds 文章ID
+     */
+    public void updateTermCounts(Map<Long, BlogArticle> before, Long... articleIds);
+
+    /**
+     * 按文章表重新统计，校正增量维护产生的偏差
+     *
+     * @return 修正的分类与标签数
+     */
+    public int reconcileTermCounts();
+
+    /**
+     * 清空分类与标签文章数缓存
+     */
+    public void clearTermCountCache();
+}
@@ -0,0 +1,690 @@
+package com.ruoyi.blog.service.impl;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.alibaba.fastjson2.JSON;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.domain.BlogArticleTag;
+import com.ruoyi.blog.domain.BlogCategory;
+import com.ruoyi.blog.domain.BlogTag;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.mapper.BlogCategoryMapper;
+import com.ruoyi.blog.mapper.BlogTagMapper;
+import com.ruoyi.blog.service.IBlogArticleArchiveService;
+import com.ruoyi.blog.service.IBlogArticleSnapshotService;
+import com.ruoyi.blog.service.IBlogTermCountService;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.redis.RedisCache;
+import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.common.utils.DateUtils;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.Threads;
+import com.ruoyi.common.utils.uuid.IdUtils;
+
+/**
+ * 博客文章归档导入导出Service业务层处理
+ *
+ * 导入时逐个读取 zip 条目，每 batchSize 篇在一个事务内通过 BATCH 执行器按名称解析分类、标签（不存在则新建），
+ * 再批量写入文章与标签关联，批次回滚时新建的分类、标签一并撤销，进度写入 Redis；导出时通过游标逐篇写入 zip
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+@Service
+public class BlogArticleArchiveServiceImpl implements IBlogArticleArchiveService
+{
+    private static final Logger log = LoggerFactory.getLogger(BlogArticleArchiveServiceImpl.class);
+
+    private static final String FRONT_MATTER = "---";
+
+    private static final String MARKDOWN_SUFFIX = ".md";
+
+    /** 导出查询中标签名的分隔符，与 selectBlogArticleArchiveCursor 的 group_concat 一致 */
+    private static final String ARCHIVE_TAG_SEPARATOR = "\n";
+
+    /** 导入进度保留时间（小时） */
+    private static final int PROGRESS_EXPIRE_HOURS = 1;
+
+    /** 导入进度最多记录的失败条目数 */
+    private static final int MAX_ERRORS = 100;
+
+    @Autowired
+    private BlogArticleMapper blogArticleMapper;
+
+    @Autowired
+    private BlogCategoryMapper blogCategoryMapper;
+
+    @Autowired
+    private BlogTagMapper blogTagMapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    @Autowired
+    private IBlogTermCountService blogTermCountService;
+
+    @Autowired
+    private IBlogArticleSnapshotService blogArticleSnapshotService;
+
+    // 每批写入的文章数
+    @Value("${blog.article.archive.batchSize:200}")
+    private int batchSize;
+
+    // 单篇 Markdown 文件的最大字节数
+    @Value("${blog.article.archive.maxEntrySize:10485760}")
+    private int maxEntrySize;
+
+    // 同时执行的导入任务数
+    @Value("${blog.article.archive.workers:1}")
+    private int importWorkers;
+
+    // 排队等待的导入任务数，队列已满时拒绝提交
+    @Value("${blog.article.archive.queueCapacity:2}")
+    private int importQueueCapacity;
+
+    /** BATCH 执行器，语句在事务提交前合并为 JDBC 批量执行 */
+    private SqlSessionTemplate batchSqlSession;
+
+    /** 导入线程池，不与公共线程池共用，繁忙时直接拒绝，避免在请求线程中执行导入 */
+    private ThreadPoolExecutor importExecutor;
+
+    @PostConstruct
+    public void init()
+    {
+        batchSqlSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        importExecutor = new ThreadPoolExecutor(importWorkers, importWorkers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(importQueueCapacity),
+                new BasicThreadFactory.Builder().namingPattern("article-import-%d").daemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        Threads.shutdownAndAwaitTermination(importExecutor);
+    }
+
+    /**
+     * 异步导入文章归档，导入完成后删除归档文件
+     *
+     * @param archive 归档文件
+     * @param userId 作者ID
+     * @param operName 操作用户
+     * @return 导入任务ID
+     */
+    @Override
+    public String importArchiveAsync(File archive, Long userId, String operName)
+    {
+        String taskId = IdUtils.fastSimpleUUID();
+        ImportProgress progress = new ImportProgress();
+        saveProgress(taskId, progress);
+        try
+        {
+            importExecutor.execute(() -> {
+                try
+                {
+                    importArchive(archive, userId, operName, taskId, progress);
+                    progress.status = "finished";
+                }
+                catch (Exception e)
+                {
+                    log.error("导入文章归档失败, taskId={}", taskId, e);
+                    progress.status = "failed";
+                    progress.addError(archive.getName(), "导入中断：" + e.getMessage());
+                }
+                finally
+                {
+                    saveProgress(taskId, progress);
+                    if (archive.exists() && !archive.delete())
+                    {
+                        log.warn("删除导入归档失败: {}", archive.getAbsolutePath());
+                    }
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            redisCache.deleteObject(CacheConstants.BLOG_ARTICLE_IMPORT_KEY + taskId);
+            throw new ServiceException("导入任务繁忙，请稍后再试");
+        }
+        return taskId;
+    }
+
+    /**
+     * 查询导入进度
+     *
+     * @param taskId 导入任务ID
+     * @return 导入进度，任务不存在或已过期时为null
+     */
+    @Override
+    public Map<String, Object> selectImportProgress(String taskId)
+    {
+        return redisCache.getCacheObject(CacheConstants.BLOG_ARTICLE_IMPORT_KEY + taskId);
+    }
+
+    /**
+     * 流式导出全部未删除文章
+     *
+     * @param out 输出流
+     */
+    @Override
+    public void exportArchive(OutputStream out) throws IOException
+    {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // 游标需在同一事务（连接）内遍历
+        transactionTemplate.execute(status -> {
+            try (Cursor<BlogArticle> cursor = blogArticleMapper.selectBlogArticleArchiveCursor())
+            {
+                for (BlogArticle article : cursor)
+                {
+                    ZipEntry entry = new ZipEntry(article.getArticleId() + MARKDOWN_SUFFIX);
+                    Date modified = article.getUpdateTime() != null ? article.getUpdateTime() : article.getCreateTime();
+                    if (modified != null)
+                    {
+                        entry.setTime(modified.getTime());
+                    }
+                    zip.putNextEntry(entry);
+                    zip.write(formatArticle(article).getBytes(StandardCharsets.UTF_8));
+                    zip.closeEntry();
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+        zip.finish();
+        zip.flush();
+    }
+
+    private void importArchive(File archive, Long userId, String operName, String taskId, ImportProgress progress) throws IOException
+    {
+        Map<String, Long> categoryIds = new HashMap<String, Long>();
+        for (BlogCategory category : blogCategoryMapper.selectBlogCategoryList(new BlogCategory()))
+        {
+            categoryIds.putIfAbsent(category.getName(), category.getCategoryId());
+        }
+        Map<String, Long> tagIds = new HashMap<String, Long>();
+        for (BlogTag tag : blogTagMapper.selectBlogTagList(new BlogTag()))
+        {
+            tagIds.putIfAbsent(tag.getName(), tag.getTagId());
+        }
+
+        List<PendingArticle> chunk = new ArrayList<PendingArticle>(batchSize);
+        List<Long> imported = new ArrayList<Long>();
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(archive.toPath())), StandardCharsets.UTF_8))
+        {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null)
+            {
+                if (entry.isDirectory() || !StringUtils.endsWithIgnoreCase(entry.getName(), MARKDOWN_SUFFIX))
+                {
+                    continue;
+                }
+                progress.total++;
+                try
+                {
+                    Map<String, String> meta = new HashMap<String, String>();
+                    String content = parseMarkdown(readEntry(zip), meta);
+                    BlogArticle article = buildArticle(entry.getName(), meta, content, userId, operName);
+                    if (StringUtils.isEmpty(meta.get("category")))
+                    {
+                        throw new ServiceException("缺少分类");
+                    }
+                    chunk.add(new PendingArticle(entry.getName(), article, meta.get("category"), parseList(meta.get("tags"))));
+                }
+                catch (Exception e)
+                {
+                    progress.addError(entry.getName(), e.getMessage());
+                }
+                if (chunk.size() >= batchSize)
+                {
+                    insertChunk(chunk, categoryIds, tagIds, progress, imported);
+                    chunk.clear();
+                    saveProgress(taskId, progress);
+                }
+            }
+        }
+        if (!chunk.isEmpty())
+        {
+            insertChunk(chunk, categoryIds, tagIds, progress, imported);
+        }
+        afterImport(imported);
+    }
+
+    /**
+     * 一批文章在一个事务内批量写入，失败时逐篇重试以定位出错的文件
+     */
+    private void insertChunk(List<PendingArticle> chunk, Map<String, Long> categoryIds, Map<String, Long> tagIds,
+            ImportProgress progress, List<Long> imported)
+    {
+        try
+        {
+            insertInTransaction(chunk, categoryIds, tagIds);
+            for (PendingArticle pending : chunk)
+            {
+                progress.success++;
+                imported.add(pending.article.getArticleId());
+            }
+        }
+        catch (Exception e)
+        {
+            log.warn("批量导入文章失败，逐篇重试: {}", e.getMessage());
+            for (PendingArticle pending : chunk)
+            {
+                try
+                {
+                    insertInTransaction(Collections.singletonList(pending), categoryIds, tagIds);
+                    progress.success++;
+                    imported.add(pending.article.getArticleId());
+                }
+                catch (Exception ex)
+                {
+                    progress.addError(pending.name, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 在事务内写入文章，新建的分类、标签ID在事务提交后才加入名称映射，回滚时不会留下指向已撤销数据的ID
+     */
+    private void insertInTransaction(List<PendingArticle> chunk, Map<String, Long> categoryIds, Map<String, Long> tagIds)
+    {
+        Map<String, Long> categories = new HashMap<String, Long>(categoryIds);
+        Map<String, Long> tags = new HashMap<String, Long>(tagIds);
+        transactionTemplate.execute(status -> {
+            insertBatch(chunk, categories, tags);
+            return null;
+        });
+        categoryIds.putAll(categories);
+        tagIds.putAll(tags);
+    }
+
+    private void insertBatch(List<PendingArticle> chunk, Map<String, Long> categoryIds, Map<String, Long> tagIds)
+    {
+        BlogArticleMapper mapper = batchSqlSession.getMapper(BlogArticleMapper.class);
+        for (PendingArticle pending : chunk)
+        {
+            pending.article.setCategoryId(resolveCategory(pending.category, categoryIds, pending.article.getCreateBy()));
+            pending.article.setTagIds(resolveTags(pending.tags, tagIds, pending.article.getCreateBy()));
+        }
+        for (PendingArticle pending : chunk)
+        {
+            mapper.insertImportedBlogArticle(pending.article);
+        }
+        // 执行文章批次以回填自增ID
+        batchSqlSession.flushStatements();
+        List<BlogArticleTag> articleTags = new ArrayList<BlogArticleTag>();
+        for (PendingArticle pending : chunk)
+        {
+            for (Long tagId : pending.article.getTagIds())
+            {
+                BlogArticleTag articleTag = new BlogArticleTag();
+                articleTag.setArticleId(pending.article.getArticleId());
+                articleTag.setTagId(tagId);
+                articleTags.add(articleTag);
+            }
+        }
+        if (!articleTags.isEmpty())
+        {
+            mapper.batchInsertBlogArticleTag(articleTags);
+        }
+    }
+
+    /**
+     * 导入完成后统一校正分类/标签文章数并刷新索引与缓存，不逐篇触发
+     */
+    private void afterImport(List<Long> imported)
+    {
+        if (imported.isEmpty())
+        {
+            return;
+        }
+        blogTermCountService.reconcileTermCounts();
+        blogTermCountService.clearTermCountCache();
+        blogArticleSnapshotService.refreshSnapshotAsync(imported.toArray(new Long[0]));
+        cacheVersion.increment("blog_article", "blog_category", "blog_tag");
+    }
+
+    /**
+     * 按名称解析分类，不存在时通过 BATCH 执行器新建，须在导入事务内调用
+     */
+    private Long resolveCategory(String name, Map<String, Long> categoryIds, String operName)
+    {
+        Long categoryId = categoryIds.get(name);
+        if (categoryId == null)
+        {
+            BlogCategory category = new BlogCategory();
+            category.setName(name);
+            category.setCreateBy(operName);
+            category.setCreateTime(DateUtils.getNowDate());
+            batchSqlSession.getMapper(BlogCategoryMapper.class).insertBlogCategory(category);
+            // 执行批次以回填自增ID
+            batchSqlSession.flushStatements();
+            categoryId = category.getCategoryId();
+            categoryIds.put(name, categoryId);
+        }
+        return categoryId;
+    }
+
+    /**
+     * 按名称解析标签，不存在时通过 BATCH 执行器新建，须在导入事务内调用
+     */
+    private Long[] resolveTags(List<String> names, Map<String, Long> tagIds, String operName)
+    {
+        Set<Long> ids = new LinkedHashSet<Long>();
+        for (String name : names)
+        {
+            Long tagId = tagIds.get(name);
+            if (tagId == null)
+            {
+                BlogTag tag = new BlogTag();
+                tag.setName(name);
+                tag.setCreateBy(operName);
+                tag.setCreateTime(DateUtils.getNowDate());
+                batchSqlSession.getMapper(BlogTagMapper.class).insertBlogTag(tag);
+                batchSqlSession.flushStatements();
+                tagId = tag.getTagId();
+                tagIds.put(name, tagId);
+            }
+            ids.add(tagId);
+        }
+        return ids.toArray(new Long[0]);
+    }
+
+    private BlogArticle buildArticle(String entryName, Map<String, String> meta, String content, Long userId, String operName)
+    {
+        BlogArticle article = new BlogArticle();
+        String title = meta.get("title");
+        if (StringUtils.isEmpty(title))
+        {
+            String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+            title = fileName.substring(0, fileName.length() - MARKDOWN_SUFFIX.length());
+        }
+        article.setTitle(title);
+        article.setSummary(meta.get("summary"));
+        article.setContent(content);
+        article.setCoverImageUrl(StringUtils.isNotEmpty(meta.get("cover")) ? meta.get("cover") : meta.get("coverImageUrl"));
+        String status = meta.get("status");
+        if (StringUtils.isEmpty(status) && meta.containsKey("draft"))
+        {
+            status = "true".equalsIgnoreCase(meta.get("draft")) ? "0" : "1";
+        }
+        article.setStatus("1".equals(status) || "published".equalsIgnoreCase(status) ? "1" : "0");
+        article.setAllowComment("0".equals(meta.get("allowComment")) ? "0" : "1");
+        Date date = DateUtils.parseDate(meta.get("date"));
+        article.setCreateTime(date != null ? date : DateUtils.getNowDate());
+        article.setCreateBy(operName);
+        article.setUserId(userId);
+        return article;
+    }
+
+    /**
+     * 解析 Markdown 的 front-matter（--- 包围的 key: value 行），返回正文
+     */
+    private String parseMarkdown(String text, Map<String, String> meta)
+    {
+        if (text.startsWith("\uFEFF"))
+        {
+            text = text.substring(1);
+        }
+        text = text.replace("\r\n", "\n");
+        if (!text.startsWith(FRONT_MATTER + "\n"))
+        {
+            return text;
+        }
+        int start = FRONT_MATTER.length() + 1;
+        int end = text.indexOf("\n" + FRONT_MATTER, start - 1);
+        // 结束标记须独占一行
+        while (end >= 0 && end + 4 < text.length() && text.charAt(end + 4) != '\n')
+        {
+            end = text.indexOf("\n" + FRONT_MATTER, end + 4);
+        }
+        if (end < 0)
+        {
+            return text;
+        }
+        String header = end > start ? text.substring(start, end) : "";
+        for (String line : header.split("\n"))
+        {
+            int colon = line.indexOf(':');
+            if (colon <= 0 || line.trim().startsWith("#"))
+            {
+                continue;
+            }
+            meta.put(line.substring(0, colon).trim(), unquote(line.substring(colon + 1).trim()));
+        }
+        return end + 5 < text.length() ? text.substring(end + 5) : "";
+    }
+
+    /**
+     * 生成带 front-matter 的 Markdown，字符串值使用 JSON 转义（同为合法的 YAML）
+     */
+    private String formatArticle(BlogArticle article)
+    {
+        StringBuilder md = new StringBuilder(256 + StringUtils.nvl(article.getContent(), "").length());
+        md.append(FRONT_MATTER).append('\n');
+        appendMeta(md, "title", article.getTitle());
+        appendMeta(md, "summary", article.getSummary());
+        appendMeta(md, "category", article.getCategoryName());
+        if (StringUtils.isNotEmpty(article.getTagNames()))
+        {
+            md.append("tags: ").append(JSON.toJSONString(article.getTagNames().split(ARCHIVE_TAG_SEPARATOR))).append('\n');
+        }
+        appendMeta(md, "status", article.getStatus());
+        appendMeta(md, "allowComment", article.getAllowComment());
+        appendMeta(md, "cover", article.getCoverImageUrl());
+        appendMeta(md, "date", article.getCreateTime() != null ? DateUtils.parseDateToStr(DateUtils.YYYY_MM_DD_HH_MM_SS, article.getCreateTime()) : null);
+        md.append(FRONT_MATTER).append('\n');
+        md.append(StringUtils.nvl(article.getContent(), ""));
+        return md.toString();
+    }
+
+    private void appendMeta(StringBuilder md, String key, String value)
+    {
+        if (StringUtils.isNotEmpty(value))
+        {
+            md.append(key).append(": ").append(JSON.toJSONString(value)).append('\n');
+        }
+    }
+
+    /**
+     * 解析列表值，支持 ["a", "b"]、[a, b] 与 a, b；JSON 数组的元素可以包含逗号
+     */
+    private List<String> parseList(String value)
+    {
+        List<String> items = new ArrayList<String>();
+        if (StringUtils.isEmpty(value))
+        {
+            return items;
+        }
+        String list = value.trim();
+        List<String> elements = null;
+        if (list.startsWith("[") && list.endsWith("]"))
+        {
+            // 元素以双引号开头时按 JSON 数组解析，单引号或无引号的 YAML 行内列表按逗号拆分
+            if (list.substring(1).trim().startsWith("\""))
+            {
+                try
+                {
+                    elements = JSON.parseArray(list, String.class);
+                }
+                catch (Exception e)
+                {
+                    log.debug("标签列表不是合法的JSON数组: {}", list);
+                }
+            }
+            list = list.substring(1, list.length() - 1);
+        }
+        if (elements == null)
+        {
+            elements = new ArrayList<String>();
+            for (String item : list.split(","))
+            {
+                elements.add(unquote(item.trim()));
+            }
+        }
+        for (String element : elements)
+        {
+            // 换行用作导出时的标签分隔符，标签名中的空白统一为空格
+            String name = element == null ? null : element.replaceAll("\\s+", " ").trim();
+            if (StringUtils.isNotEmpty(name))
+            {
+                items.add(name);
+            }
+        }
+        return items;
+    }
+
+    private String unquote(String value)
+    {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\""))
+        {
+            try
+            {
+                return JSON.parseObject(value, String.class);
+            }
+            catch (Exception e)
+            {
+                return value.substring(1, value.length() - 1);
+            }
+        }
+        if (value.length() >= 2 && value.startsWith("'") && value.endsWith("'"))
+        {
+            return value.substring(1, value.length() - 1).replace("''", "'");
+        }
+        return value;
+    }
+
+    /**
+     * 读取当前 zip 条目，超过大小限制时拒绝
+     */
+    private String readEntry(InputStream in) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+        {
+            if (out.size() + read > maxEntrySize)
+            {
+                throw new ServiceException("文件超过" + maxEntrySize + "字节");
+            }
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private void saveProgress(String taskId, ImportProgress progress)
+    {
+        redisCache.setCacheObject(CacheConstants.BLOG_ARTICLE_IMPORT_KEY + taskId, progress.toMap(), PROGRESS_EXPIRE_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * 待写入的文章
+     */
+    private static class PendingArticle
+    {
+        private final String name;
+
+        private final BlogArticle article;
+
+        /** 分类名称 */
+        private final String category;
+
+        /** 标签名称 */
+        private final List<String> tags;
+
+        PendingArticle(String name, BlogArticle article, String category, List<String> tags)
+        {
+            this.name = name;
+            this.article = article;
+            this.category = category;
+            this.tags = tags;
+        }
+    }
+
+    /**
+     * 导入进度，仅由导入线程修改
+     */
+    private static class ImportProgress
+    {
+        private String status = "running";
+
+        private int total;
+
+        private int success;
+
+        private int failure;
+
+        private final List<String> errors = new ArrayList<String>();
+
+        private void addError(String name, String message)
+        {
+            failure++;
+            if (errors.size() < MAX_ERRORS)
+            {
+                errors.add(name + "：" + message);
+            }
+        }
+
+        private Map<String, Object> toMap()
+        {
+            Map<String, Object> map = new LinkedHashMap<String, Object>();
+            map.put("status", status);
+            map.put("total", total);
+            map.put("success", success);
+            map.put("failure", failure);
+            map.put("errors", new ArrayList<String>(errors));
+            return map;
+        }
+    }
+}
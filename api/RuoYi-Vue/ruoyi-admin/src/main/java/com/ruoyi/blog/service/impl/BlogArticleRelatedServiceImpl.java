@@ -0,0 +1,336 @@
+package com.ruoyi.blog.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.domain.BlogArticleTag;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.service.IBlogArticleRelatedService;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.cache.LocalCache;
+
+/**
+ * 相关文章Service业务层处理
+ *
+ * 内存中维护 标签->文章、分类->文章 的倒排索引，相关度 = 标签Jaccard相似度、同分类与发布时间的加权和；
+ * 索引记录构建时的文章与分类版本号，查询时发现版本变化（包括其他节点的变更）即全量重建；
+ * 本节点的文章变更若是两次构建之间唯一的变更，则增量刷新并直接前移版本号
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+@Service
+public class BlogArticleRelatedServiceImpl implements IBlogArticleRelatedService
+{
+    private static final Logger log = LoggerFactory.getLogger(BlogArticleRelatedServiceImpl.class);
+
+    /** 标签相似度权重 */
+    private static final double TAG_WEIGHT = 0.6;
+
+    /** 同分类权重 */
+    private static final double CATEGORY_WEIGHT = 0.25;
+
+    /** 发布时间权重 */
+    private static final double RECENCY_WEIGHT = 0.15;
+
+    /** 发布时间得分的半衰期（天） */
+    private static final double RECENCY_HALF_LIFE_DAYS = 90;
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    /** 单篇文章缓存的最大相关文章数 */
+    public static final int MAX_RESULTS = 20;
+
+    @Autowired
+    private BlogArticleMapper blogArticleMapper;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    /** 当前索引，全量重建时整体替换，读请求无需加锁 */
+    private volatile RelatedIndex index;
+
+    /** 计算结果缓存，key为文章ID，索引变化时清空 */
+    private final LocalCache<Long, List<BlogArticle>> relatedCache = new LocalCache<Long, List<BlogArticle>>("blog_article_related", 1000, 10 * 60 * 1000L);
+
+    /**
+     * 查询相关文章
+     *
+     * @param articleId 文章ID
+     * @param limit 返回数量
+     * @return 相关文章集合 (不含正文)，文章未发布时为空
+     */
+    @Override
+    public List<BlogArticle> selectRelatedArticles(Long articleId, int limit)
+    {
+        RelatedIndex current = index;
+        if (current == null || current.articleVersion != cacheVersion.get("blog_article")
+                || current.categoryVersion != cacheVersion.get("blog_category"))
+        {
+            rebuildIfStale();
+        }
+        List<BlogArticle> related = relatedCache.get(articleId, this::computeRelated);
+        return related.size() > limit ? related.subList(0, limit) : related;
+    }
+
+    /**
+     * 文章变更并递增文章版本号后增量刷新索引
+     *
+     * @param articleIds 文章ID
+     */
+    @Override
+    public synchronized void refreshArticles(Long... articleIds)
+    {
+        RelatedIndex current = index;
+        if (current == null || articleIds == null || articleIds.length == 0)
+        {
+            return;
+        }
+        // 版本号恰好前进一次说明期间没有其他变更，否则留给下次查询全量重建
+        long articleVersion = cacheVersion.get("blog_article");
+        if (current.articleVersion != articleVersion - 1)
+        {
+            return;
+        }
+        Map<Long, ArticleEntry> entries = loadEntries(articleIds);
+        for (Long articleId : articleIds)
+        {
+            current.remove(articleId);
+            ArticleEntry entry = entries.get(articleId);
+            if (entry != null)
+            {
+                current.add(entry);
+            }
+        }
+        current.articleVersion = articleVersion;
+        relatedCache.clear();
+    }
+
+    /**
+     * 全量重建索引
+     */
+    @Override
+    public synchronized void rebuildIndex()
+    {
+        long start = System.currentTimeMillis();
+        // 先取版本号再读数据，读取期间发生的变更会在下次查询时再次重建
+        RelatedIndex rebuilt = new RelatedIndex(cacheVersion.get("blog_article"), cacheVersion.get("blog_category"));
+        Map<Long, ArticleEntry> entries = loadEntries(null);
+        for (ArticleEntry entry : entries.values())
+        {
+            rebuilt.add(entry);
+        }
+        index = rebuilt;
+        relatedCache.clear();
+        log.debug("相关文章索引重建完成，文章{}篇，耗时{}ms", entries.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 加锁后再次检查版本号，并发请求只重建一次
+     */
+    private synchronized void rebuildIfStale()
+    {
+        RelatedIndex current = index;
+        if (current == null || current.articleVersion != cacheVersion.get("blog_article")
+                || current.categoryVersion != cacheVersion.get("blog_category"))
+        {
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * 计算文章的相关文章，最多保留 MAX_RESULTS 篇
+     */
+    private List<BlogArticle> computeRelated(Long articleId)
+    {
+        RelatedIndex current = index;
+        ArticleEntry source = current.articles.get(articleId);
+        if (source == null)
+        {
+            return Collections.emptyList();
+        }
+        // 通过倒排索引累计与每篇候选文章的共同标签数
+        Map<Long, Integer> overlaps = new HashMap<Long, Integer>();
+        for (long tagId : source.tagIds)
+        {
+            Set<Long> ids = current.tagArticles.get(tagId);
+            if (ids != null)
+            {
+                for (Long id : ids)
+                {
+                    overlaps.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+        if (source.article.getCategoryId() != null)
+        {
+            Set<Long> ids = current.categoryArticles.get(source.article.getCategoryId());
+            if (ids != null)
+            {
+                for (Long id : ids)
+                {
+                    overlaps.putIfAbsent(id, 0);
+                }
+            }
+        }
+        overlaps.remove(articleId);
+
+        long now = System.currentTimeMillis();
+        List<ScoredArticle> scored = new ArrayList<ScoredArticle>(overlaps.size());
+        for (Map.Entry<Long, Integer> overlap : overlaps.entrySet())
+        {
+            ArticleEntry candidate = current.articles.get(overlap.getKey());
+            if (candidate == null)
+            {
+                continue;
+            }
+            int union = source.tagIds.length + candidate.tagIds.length - overlap.getValue();
+            double jaccard = union == 0 ? 0 : (double) overlap.getValue() / union;
+            boolean sameCategory = source.article.getCategoryId() != null
+                    && source.article.getCategoryId().equals(candidate.article.getCategoryId());
+            double ageDays = Math.max(0, now - candidate.createTime) / (double) DAY_MILLIS;
+            double recency = Math.pow(0.5, ageDays / RECENCY_HALF_LIFE_DAYS);
+            double score = TAG_WEIGHT * jaccard + (sameCategory ? CATEGORY_WEIGHT : 0) + RECENCY_WEIGHT * recency;
+            scored.add(new ScoredArticle(candidate, score));
+        }
+        scored.sort((a, b) -> a.score != b.score ? Double.compare(b.score, a.score)
+                : Long.compare(b.entry.createTime, a.entry.createTime));
+
+        List<BlogArticle> related = new ArrayList<BlogArticle>(Math.min(scored.size(), MAX_RESULTS));
+        for (int i = 0; i < scored.size() && i < MAX_RESULTS; i++)
+        {
+            related.add(scored.get(i).entry.article);
+        }
+        return Collections.unmodifiableList(related);
+    }
+
+    /**
+     * 读取已发布文章及其标签
+     */
+    private Map<Long, ArticleEntry> loadEntries(Long[] articleIds)
+    {
+        Map<Long, List<Long>> tagIds = new HashMap<Long, List<Long>>();
+        for (BlogArticleTag articleTag : blogArticleMapper.selectPublishedBlogArticleTagList(articleIds))
+        {
+            tagIds.computeIfAbsent(articleTag.getArticleId(), k -> new ArrayList<Long>()).add(articleTag.getTagId());
+        }
+        Map<Long, ArticleEntry> entries = new HashMap<Long, ArticleEntry>();
+        for (BlogArticle article : blogArticleMapper.selectBlogArticleRelatedList(articleIds))
+        {
+            List<Long> tags = tagIds.getOrDefault(article.getArticleId(), Collections.emptyList());
+            entries.put(article.getArticleId(), new ArticleEntry(article, tags));
+        }
+        return entries;
+    }
+
+    /**
+     * 倒排索引
+     */
+    private static class RelatedIndex
+    {
+        /** 构建或最近一次增量刷新时的文章版本号 */
+        private volatile long articleVersion;
+
+        /** 构建时的分类版本号，分类名称随相关文章返回 */
+        private final long categoryVersion;
+
+        /** 文章ID -> 索引项 */
+        private final Map<Long, ArticleEntry> articles = new ConcurrentHashMap<Long, ArticleEntry>();
+
+        /** 标签ID -> 文章ID */
+        private final Map<Long, Set<Long>> tagArticles = new ConcurrentHashMap<Long, Set<Long>>();
+
+        /** 分类ID -> 文章ID */
+        private final Map<Long, Set<Long>> categoryArticles = new ConcurrentHashMap<Long, Set<Long>>();
+
+        RelatedIndex(long articleVersion, long categoryVersion)
+        {
+            this.articleVersion = articleVersion;
+            this.categoryVersion = categoryVersion;
+        }
+
+        private void add(ArticleEntry entry)
+        {
+            Long articleId = entry.article.getArticleId();
+            articles.put(articleId, entry);
+            for (long tagId : entry.tagIds)
+            {
+                tagArticles.computeIfAbsent(tagId, k -> ConcurrentHashMap.newKeySet()).add(articleId);
+            }
+            if (entry.article.getCategoryId() != null)
+            {
+                categoryArticles.computeIfAbsent(entry.article.getCategoryId(), k -> ConcurrentHashMap.newKeySet()).add(articleId);
+            }
+        }
+
+        private void remove(Long articleId)
+        {
+            ArticleEntry entry = articles.remove(articleId);
+            if (entry == null)
+            {
+                return;
+            }
+            for (long tagId : entry.tagIds)
+            {
+                removeFromIndex(tagArticles, tagId, articleId);
+            }
+            if (entry.article.getCategoryId() != null)
+            {
+                removeFromIndex(categoryArticles, entry.article.getCategoryId(), articleId);
+            }
+        }
+
+        private static void removeFromIndex(Map<Long, Set<Long>> index, Long key, Long articleId)
+        {
+            index.computeIfPresent(key, (k, ids) -> {
+                ids.remove(articleId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * 索引项
+     */
+    private static class ArticleEntry
+    {
+        private final BlogArticle article;
+
+        private final long[] tagIds;
+
+        private final long createTime;
+
+        ArticleEntry(BlogArticle article, List<Long> tags)
+        {
+            this.article = article;
+            this.tagIds = new long[tags.size()];
+            for (int i = 0; i < tagIds.length; i++)
+            {
+                tagIds[i] = tags.get(i);
+            }
+            this.createTime = article.getCreateTime() != null ? article.getCreateTime().getTime() : 0L;
+        }
+    }
+
+    private static class ScoredArticle
+    {
+        private final ArticleEntry entry;
+
+        private final double score;
+
+        ScoredArticle(ArticleEntry entry, double score)
+        {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
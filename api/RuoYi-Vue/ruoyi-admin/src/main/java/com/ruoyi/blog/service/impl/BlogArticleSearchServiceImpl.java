@@ -0,0 +1,101 @@
+package com.ruoyi.blog.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import com.ruoyi.blog.domain.vo.BlogArticleSearchVo;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.service.IBlogArticleSearchService;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.html.EscapeUtil;
+
+/**
+ * 博客文章全文检索Service业务层处理
+ *
+ * 基于 blog_article 上的 FULLTEXT (ngram) 索引，InnoDB 在增删改时同步维护索引，无需额外的增量同步
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+@Service
+public class BlogArticleSearchServiceImpl implements IBlogArticleSearchService
+{
+    /** 全文检索布尔模式下的运算符 */
+    private static final Pattern FULLTEXT_OPERATOR = Pattern.compile("[+\\-<>()~*\"@]");
+
+    /** HTML标签 */
+    private static final Pattern HTML_MARK = Pattern.compile(EscapeUtil.RE_HTML_MARK);
+
+    /** 关键词最大长度 */
+    private static final int KEYWORD_MAX_LEN = 64;
+
+    @Autowired
+    private BlogArticleMapper blogArticleMapper;
+
+    /**
+     * 全文检索已发布文章，按相关度排序并高亮关键词
+     *
+     * @param keyword 关键词
+     * @return 检索结果
+     */
+    @Override
+    public List<BlogArticleSearchVo> searchBlogArticle(String keyword)
+    {
+        String normalized = normalizeKeyword(keyword);
+        List<String> terms = StringUtils.str2List(normalized, " ", true, true);
+        List<BlogArticleSearchVo> list = blogArticleMapper.selectBlogArticleSearchList(normalized, terms);
+        for (BlogArticleSearchVo vo : list)
+        {
+            String snippet = StringUtils.isNotEmpty(vo.getSnippet()) ? vo.getSnippet() : vo.getSummary();
+            vo.setHighlightTitle(highlight(vo.getTitle(), terms));
+            vo.setHighlightSnippet(highlight(HTML_MARK.matcher(StringUtils.nvl(snippet, "")).replaceAll(""), terms));
+            vo.setSnippet(null);
+        }
+        return list;
+    }
+
+    /**
+     * 规范化检索关键词：去除全文检索运算符，合并空白并限制长度
+     *
+     * @param keyword 原始关键词
+     * @return 规范化后的关键词
+     */
+    public static String normalizeKeyword(String keyword)
+    {
+        if (StringUtils.isEmpty(keyword))
+        {
+            return "";
+        }
+        String normalized = FULLTEXT_OPERATOR.matcher(keyword).replaceAll(" ").trim().replaceAll("\\s+", " ");
+        return StringUtils.substring(normalized, 0, KEYWORD_MAX_LEN);
+    }
+
+    /**
+     * 转义文本并以em标签包裹命中的关键词
+     */
+    private String highlight(String text, List<String> terms)
+    {
+        String escaped = HtmlUtils.htmlEscape(StringUtils.nvl(text, ""));
+        if (terms.isEmpty())
+        {
+            return escaped;
+        }
+        List<String> quoted = new ArrayList<String>();
+        for (String term : terms)
+        {
+            quoted.add(Pattern.quote(HtmlUtils.htmlEscape(term)));
+        }
+        Matcher matcher = Pattern.compile(StringUtils.join(quoted, "|"), Pattern.CASE_INSENSITIVE).matcher(escaped);
+        StringBuffer sb = new StringBuffer();
+        while (matcher.find())
+        {
+            matcher.appendReplacement(sb, "<em>" + Matcher.quoteReplacement(matcher.group()) + "</em>");
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+}
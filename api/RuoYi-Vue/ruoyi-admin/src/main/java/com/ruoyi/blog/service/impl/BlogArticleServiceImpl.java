@@ -2,15 +2,32 @@ package com.ruoyi.blog.service.impl;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.cache.LocalCache;
+import com.ruoyi.common.core.cache.TwoLevelCache;
+import com.ruoyi.common.core.redis.RedisCache;
 import com.ruoyi.common.utils.DateUtils;
+import com.ruoyi.common.utils.RelationUtils;
 import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.bean.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import com.ruoyi.blog.mapper.BlogArticleMapper;
 import com.ruoyi.blog.domain.BlogArticle;
 import com.ruoyi.blog.domain.BlogArticleTag;
+import com.ruoyi.blog.service.IBlogArticleRelatedService;
 import com.ruoyi.blog.service.IBlogArticleService;
+import com.ruoyi.blog.service.IBlogArticleSnapshotService;
+import com.ruoyi.blog.service.IBlogTermCountService;
 
 /**
  * 博客文章Service业务层处理
@@ -21,9 +38,47 @@ import com.ruoyi.blog.service.IBlogArticleService;
 @Service
 public class BlogArticleServiceImpl implements IBlogArticleService 
 {
+    // 本地缓存最大文章数
+    @Value("${blog.article.cache.localSize:500}")
+    private int localCacheSize;
+
+    // 本地缓存有效期（秒）
+    @Value("${blog.article.cache.localSeconds:60}")
+    private int localCacheSeconds;
+
+    // Redis缓存有效期（分钟）
+    @Value("${blog.article.cache.redisMinutes:30}")
+    private int redisCacheMinutes;
+
     @Autowired
     private BlogArticleMapper blogArticleMapper;
 
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private IBlogArticleSnapshotService blogArticleSnapshotService;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    @Autowired
+    private IBlogTermCountService blogTermCountService;
+
+    @Autowired
+    private IBlogArticleRelatedService blogArticleRelatedService;
+
+    /** 已发布文章详情缓存 */
+    private TwoLevelCache<BlogArticle> articleCache;
+
+    @PostConstruct
+    public void init()
+    {
+        LocalCache<String, BlogArticle> localCache = new LocalCache<String, BlogArticle>(CacheConstants.BLOG_ARTICLE_KEY,
+                localCacheSize, localCacheSeconds * 1000L);
+        articleCache = new TwoLevelCache<BlogArticle>(localCache, redisCache, CacheConstants.BLOG_ARTICLE_KEY, redisCacheMinutes);
+    }
+
     /**
      * 查询博客文章
      * 
@@ -43,6 +98,33 @@ public class BlogArticleServiceImpl implements IBlogArticleService
         return blogArticle;
     }
 
+    /**
+     * 查询已发布的博客文章（优先读取缓存）
+     * 
+     * @param articleId 博客文章主键
+     * @return 博客文章副本，未发布或不存在时返回null
+     */
+    @Override
+    public BlogArticle selectPublishedBlogArticleByArticleId(Long articleId)
+    {
+        if (articleId == null)
+        {
+            return null;
+        }
+        BlogArticle cached = articleCache.get(String.valueOf(articleId), () -> {
+            BlogArticle article = selectBlogArticleByArticleId(articleId);
+            return article != null && "1".equals(article.getStatus()) ? article : null;
+        });
+        if (cached == null)
+        {
+            return null;
+        }
+        // 缓存对象在请求间共享，返回副本避免调用方修改
+        BlogArticle blogArticle = new BlogArticle();
+        BeanUtils.copyBeanProp(blogArticle, cached);
+        return blogArticle;
+    }
+
     /**
      * 查询博客文章列表
      * 
@@ -52,6 +134,11 @@ public class BlogArticleServiceImpl implements IBlogArticleService
     @Override
     public List<BlogArticle> selectBlogArticleList(BlogArticle blogArticle)
     {
+        if (StringUtils.isNotEmpty(blogArticle.getTitle()) && blogArticle.getParams().get("likeSearch") == null)
+        {
+            // 标题关键词走全文索引，去除布尔模式运算符
+            blogArticle.getParams().put("keyword", BlogArticleSearchServiceImpl.normalizeKeyword(blogArticle.getTitle()));
+        }
         return blogArticleMapper.selectBlogArticleList(blogArticle);
     }
 
@@ -71,6 +158,8 @@ public class BlogArticleServiceImpl implements IBlogArticleService
         // 保存文章标签关联
         insertBlogArticleTag(blogArticle);
         
+        blogTermCountService.updateTermCounts(Collections.<Long, BlogArticle>emptyMap(), blogArticle.getArticleId());
+        afterArticleChange(blogArticle.getArticleId());
         return result;
     }
 
@@ -85,14 +174,15 @@ public class BlogArticleServiceImpl implements IBlogArticleService
     public int updateBlogArticle(BlogArticle blogArticle)
     {
         blogArticle.setUpdateTime(DateUtils.getNowDate());
+        Map<Long, BlogArticle> before = blogTermCountService.lockArticleTermStates(blogArticle.getArticleId());
         
-        // 删除原有的文章标签关联
-        blogArticleMapper.deleteBlogArticleTagByArticleId(blogArticle.getArticleId());
+        // 按差异同步文章标签关联，标签未变化时不产生写操作
+        syncBlogArticleTag(blogArticle);
         
-        // 保存新的文章标签关联
-        insertBlogArticleTag(blogArticle);
-        
-        return blogArticleMapper.updateBlogArticle(blogArticle);
+        int rows = blogArticleMapper.updateBlogArticle(blogArticle);
+        blogTermCountService.updateTermCounts(before, blogArticle.getArticleId());
+        afterArticleChange(blogArticle.getArticleId());
+        return rows;
     }
 
     /**
@@ -102,9 +192,14 @@ public class BlogArticleServiceImpl implements IBlogArticleService
      * @return 结果
      */
     @Override
+    @Transactional
     public int deleteBlogArticleByArticleIds(Long[] articleIds)
     {
-        return blogArticleMapper.deleteBlogArticleByArticleIds(articleIds);
+        Map<Long, BlogArticle> before = blogTermCountService.lockArticleTermStates(articleIds);
+        int rows = blogArticleMapper.deleteBlogArticleByArticleIds(articleIds);
+        blogTermCountService.updateTermCounts(before, articleIds);
+        afterArticleChange(articleIds);
+        return rows;
     }
 
     /**
@@ -117,10 +212,58 @@ public class BlogArticleServiceImpl implements IBlogArticleService
     @Transactional
     public int deleteBlogArticleByArticleId(Long articleId)
     {
+        Map<Long, BlogArticle> before = blogTermCountService.lockArticleTermStates(articleId);
         // 删除文章标签关联
         blogArticleMapper.deleteBlogArticleTagByArticleId(articleId);
         
-        return blogArticleMapper.deleteBlogArticleByArticleId(articleId);
+        int rows = blogArticleMapper.deleteBlogArticleByArticleId(articleId);
+        blogTermCountService.updateTermCounts(before, articleId);
+        afterArticleChange(articleId);
+        return rows;
+    }
+
+    /**
+     * 清空已发布文章详情缓存
+     */
+    @Override
+    public void clearBlogArticleCache()
+    {
+        articleCache.clear();
+    }
+
+    /**
+     * 文章变更后清理详情缓存并异步刷新静态快照，存在事务时在提交后执行，避免并发读取回填旧数据
+     * 
+     * @param articleIds 文章ID
+     */
+    private void afterArticleChange(Long... articleIds)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    doAfterArticleChange(articleIds);
+                }
+            });
+        }
+        else
+        {
+            doAfterArticleChange(articleIds);
+        }
+    }
+
+    private void doAfterArticleChange(Long... articleIds)
+    {
+        for (Long articleId : articleIds)
+        {
+            articleCache.evict(String.valueOf(articleId));
+        }
+        blogArticleSnapshotService.refreshSnapshotAsync(articleIds);
+        cacheVersion.increment("blog_article");
+        blogArticleRelatedService.refreshArticles(articleIds);
     }
 
     /**
@@ -133,18 +276,37 @@ public class BlogArticleServiceImpl implements IBlogArticleService
         Long[] tagIds = blogArticle.getTagIds();
         if (StringUtils.isNotNull(tagIds))
         {
-            List<BlogArticleTag> list = new ArrayList<BlogArticleTag>();
-            for (Long tagId : tagIds)
-            {
-                BlogArticleTag bat = new BlogArticleTag();
-                bat.setArticleId(blogArticle.getArticleId());
-                bat.setTagId(tagId);
-                list.add(bat);
-            }
-            if (list.size() > 0)
-            {
-                blogArticleMapper.batchInsertBlogArticleTag(list);
-            }
+            insertBlogArticleTag(blogArticle.getArticleId(), Arrays.asList(tagIds));
+        }
+    }
+
+    /**
+     * 按差异同步文章标签关联，仅删除移除的标签、新增添加的标签
+     * 
+     * @param blogArticle 博客文章对象
+     * @return 变更的关联数
+     */
+    public int syncBlogArticleTag(BlogArticle blogArticle)
+    {
+        Long articleId = blogArticle.getArticleId();
+        return RelationUtils.sync(Arrays.asList(blogArticleMapper.selectTagIdsByArticleId(articleId)), blogArticle.getTagIds(),
+                removed -> blogArticleMapper.deleteBlogArticleTagByTagIds(articleId, removed),
+                added -> insertBlogArticleTag(articleId, added));
+    }
+
+    private void insertBlogArticleTag(Long articleId, List<Long> tagIds)
+    {
+        List<BlogArticleTag> list = new ArrayList<BlogArticleTag>();
+        for (Long tagId : tagIds)
+        {
+            BlogArticleTag bat = new BlogArticleTag();
+            bat.setArticleId(articleId);
+            bat.setTagId(tagId);
+            list.add(bat);
+        }
+        if (list.size() > 0)
+        {
+            blogArticleMapper.batchInsertBlogArticleTag(list);
         }
     }
 }
@@ -0,0 +1,244 @@
+package com.ruoyi.blog.service.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.service.IBlogArticleSnapshotService;
+import com.ruoyi.common.config.RuoYiConfig;
+import com.ruoyi.common.core.domain.AjaxResult;
+import com.ruoyi.common.utils.StringUtils;
+
+/**
+ * 博客文章静态快照Service业务层处理
+ *
+ * 已发布文章在 {profile}/snapshot/article 下生成 JSON 与 HTML 快照及 gzip 预压缩文件，
+ * 通过 /profile/snapshot/** 静态资源直接响应访客请求
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+@Service
+public class BlogArticleSnapshotServiceImpl implements IBlogArticleSnapshotService
+{
+    private static final Logger log = LoggerFactory.getLogger(BlogArticleSnapshotServiceImpl.class);
+
+    /** 文件锁分段数 */
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private BlogArticleMapper blogArticleMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ThreadPoolTaskExecutor threadPoolTaskExecutor;
+
+    /** 已提交但尚未开始的刷新任务，重复编辑时合并为一次 */
+    private final Set<Long> pendingArticles = ConcurrentHashMap.newKeySet();
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public BlogArticleSnapshotServiceImpl()
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++)
+        {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 异步刷新文章快照：已发布文章重新生成，未发布或已删除文章删除快照
+     *
+     * @param articleIds 文章ID
+     */
+    @Override
+    public void refreshSnapshotAsync(Long... articleIds)
+    {
+        for (Long articleId : articleIds)
+        {
+            if (articleId == null || !pendingArticles.add(articleId))
+            {
+                continue;
+            }
+            threadPoolTaskExecutor.execute(() -> {
+                pendingArticles.remove(articleId);
+                try
+                {
+                    refreshSnapshot(articleId);
+                }
+                catch (Exception e)
+                {
+                    log.error("刷新文章快照失败, articleId={}", articleId, e);
+                }
+            });
+        }
+    }
+
+    /**
+     * 同步刷新文章快照
+     *
+     * @param articleId 文章ID
+     * @return true=已生成快照；false=已删除快照
+     */
+    @Override
+    public boolean refreshSnapshot(Long articleId)
+    {
+        // 同一文章的刷新串行执行，保证最后写入的是最后读取的数据
+        synchronized (locks[(int) (Math.abs(articleId % LOCK_STRIPES))])
+        {
+            BlogArticle article = blogArticleMapper.selectBlogArticleByArticleId(articleId);
+            if (article == null || !"1".equals(article.getStatus()))
+            {
+                deleteSnapshot(articleId);
+                return false;
+            }
+            article.setTagIds(blogArticleMapper.selectTagIdsByArticleId(articleId));
+            try
+            {
+                writeSnapshot(articleId + ".json", objectMapper.writeValueAsBytes(AjaxResult.success(article)));
+                writeSnapshot(articleId + ".html", renderHtml(article).getBytes(StandardCharsets.UTF_8));
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 异步刷新分类下全部已发布文章的快照，分类改名或删除后快照中的分类名称需要同步
+     *
+     * @param categoryIds 分类ID
+     */
+    @Override
+    public void refreshCategorySnapshotAsync(Long... categoryIds)
+    {
+        for (Long categoryId : categoryIds)
+        {
+            if (categoryId != null)
+            {
+                List<Long> articleIds = blogArticleMapper.selectPublishedArticleIds(categoryId);
+                refreshSnapshotAsync(articleIds.toArray(new Long[0]));
+            }
+        }
+    }
+
+    /**
+     * 同步重新生成全部已发布文章的快照，用于首次上线或快照目录丢失后的补齐
+     *
+     * @return 已生成的快照数
+     */
+    @Override
+    public int refreshAllSnapshots()
+    {
+        long start = System.currentTimeMillis();
+        int count = 0;
+        for (Long articleId : blogArticleMapper.selectPublishedArticleIds(null))
+        {
+            try
+            {
+                if (refreshSnapshot(articleId))
+                {
+                    count++;
+                }
+            }
+            catch (Exception e)
+            {
+                log.error("生成文章快照失败, articleId={}", articleId, e);
+            }
+        }
+        log.info("文章快照补齐完成，共{}篇，耗时{}ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    /**
+     * 删除文章的全部快照文件
+     */
+    private void deleteSnapshot(Long articleId)
+    {
+        for (String name : new String[] { ".json", ".json.gz", ".html", ".html.gz" })
+        {
+            File file = new File(getSnapshotDir(), articleId + name);
+            if (file.exists() && !file.delete())
+            {
+                log.warn("删除文章快照失败: {}", file.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * 写入快照及其gzip预压缩文件，先写临时文件再原子替换，避免读到半写的文件
+     */
+    private void writeSnapshot(String fileName, byte[] content) throws IOException
+    {
+        File dir = getSnapshotDir();
+        if (!dir.exists() && !dir.mkdirs() && !dir.exists())
+        {
+            throw new IOException("无法创建快照目录: " + dir.getAbsolutePath());
+        }
+        Path target = dir.toPath().resolve(fileName);
+        Path gzipTarget = dir.toPath().resolve(fileName + ".gz");
+
+        Path tmp = Files.createTempFile(dir.toPath(), fileName, ".tmp");
+        Files.write(tmp, content);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Path gzipTmp = Files.createTempFile(dir.toPath(), fileName, ".gz.tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipTmp)))
+        {
+            out.write(content);
+        }
+        Files.move(gzipTmp, gzipTarget, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // 预压缩文件与原文件保持相同的修改时间，Last-Modified 一致
+        gzipTarget.toFile().setLastModified(target.toFile().lastModified());
+    }
+
+    /**
+     * 渲染文章HTML快照，正文为后台编辑器保存的HTML，标题与摘要需转义
+     */
+    private String renderHtml(BlogArticle article)
+    {
+        String title = HtmlUtils.htmlEscape(StringUtils.nvl(article.getTitle(), ""));
+        String summary = HtmlUtils.htmlEscape(StringUtils.nvl(article.getSummary(), ""));
+        StringBuilder html = new StringBuilder(256 + StringUtils.nvl(article.getContent(), "").length());
+        html.append("<!DOCTYPE html>\n<html lang=\"zh-CN\">\n<head>\n");
+        html.append("<meta charset=\"UTF-8\">\n");
+        html.append("<meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n");
+        html.append("<title>").append(title).append("</title>\n");
+        html.append("<meta name=\"description\" content=\"").append(summary).append("\">\n");
+        html.append("</head>\n<body>\n<article>\n");
+        html.append("<h1>").append(title).append("</h1>\n");
+        if (StringUtils.isNotEmpty(article.getCategoryName()))
+        {
+            html.append("<p class=\"category\">").append(HtmlUtils.htmlEscape(article.getCategoryName())).append("</p>\n");
+        }
+        html.append("<div class=\"content\">\n").append(StringUtils.nvl(article.getContent(), "")).append("\n</div>\n");
+        html.append("</article>\n</body>\n</html>\n");
+        return html.toString();
+    }
+
+    private File getSnapshotDir()
+    {
+        return new File(RuoYiConfig.getSnapshotPath(), "article");
+    }
+}
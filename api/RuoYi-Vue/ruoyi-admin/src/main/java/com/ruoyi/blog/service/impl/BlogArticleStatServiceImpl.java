@@ -0,0 +1,402 @@
+package com.ruoyi.blog.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import com.ruoyi.blog.domain.BlogArticleStat;
+import com.ruoyi.blog.domain.vo.BlogArticleTrendingVo;
+import com.ruoyi.blog.mapper.BlogArticleStatMapper;
+import com.ruoyi.blog.service.IBlogArticleStatService;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.LocalCache;
+import com.ruoyi.common.core.redis.RedisCache;
+import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.common.utils.DateUtils;
+
+/**
+ * 博客文章浏览统计Service业务层处理
+ *
+ * 浏览事件写入固定容量的环形缓冲区（预分配数组，记录一次仅一次CAS与两次数组写入），
+ * 定时按文章与分钟汇总后累加到 blog_article_stat 的分钟统计；定时任务再由分钟统计汇总小时、天统计，
+ * 热门文章直接查询预汇总的统计
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+@Service
+public class BlogArticleStatServiceImpl implements IBlogArticleStatService
+{
+    private static final Logger log = LoggerFactory.getLogger(BlogArticleStatServiceImpl.class);
+
+    /** 单次批量写入的最大统计行数 */
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    /** 单次删除的最大过期统计行数 */
+    private static final int PRUNE_BATCH_SIZE = 5000;
+
+    private static final long MINUTE_MILLIS = 60 * 1000L;
+
+    private static final Pattern WINDOW_PATTERN = Pattern.compile("^(\\d{1,4})([hd])$");
+
+    /** 统计窗口上限（天） */
+    private static final int MAX_WINDOW_DAYS = 365;
+
+    // 浏览事件缓冲区容量，向上取整为2的幂
+    @Value("${blog.stat.bufferSize:65536}")
+    private int bufferSize;
+
+    // 缓冲区写入统计表的间隔（秒）
+    @Value("${blog.stat.flushSeconds:10}")
+    private int flushSeconds;
+
+    // 分钟统计保留时间（小时）
+    @Value("${blog.stat.minuteRetentionHours:48}")
+    private int minuteRetentionHours;
+
+    // 小时统计保留时间（天）
+    @Value("${blog.stat.hourRetentionDays:90}")
+    private int hourRetentionDays;
+
+    // 写入失败后暂存待重试的分钟统计条数上限，超出时丢弃最早的统计
+    @Value("${blog.stat.maxUnflushed:100000}")
+    private int maxUnflushed;
+
+    @Autowired
+    private BlogArticleStatMapper blogArticleStatMapper;
+
+    @Autowired
+    private ScheduledExecutorService scheduledExecutorService;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    private ViewRingBuffer buffer;
+
+    /** 写入失败的分钟统计，下次刷新时合并重试 */
+    private Map<String, BlogArticleStat> unflushed = new LinkedHashMap<String, BlogArticleStat>();
+
+    /** 热门文章缓存，key为窗口与数量，统计汇总后清空 */
+    private final LocalCache<String, List<BlogArticleTrendingVo>> trendingCache = new LocalCache<String, List<BlogArticleTrendingVo>>("blog_article_trending", 64, 60 * 1000L);
+
+    @PostConstruct
+    public void init()
+    {
+        buffer = new ViewRingBuffer(bufferSize);
+        scheduledExecutorService.scheduleWithFixedDelay(() -> {
+            try
+            {
+                flushViewEvents();
+            }
+            catch (Exception e)
+            {
+                log.error("写入文章浏览统计异常", e);
+            }
+        }, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停机前将缓冲区中剩余的浏览事件写入统计表
+     */
+    @PreDestroy
+    public void destroy()
+    {
+        flushViewEvents();
+    }
+
+    /**
+     * 记录一次浏览事件，缓冲区已满时丢弃
+     *
+     * @param articleId 文章ID
+     */
+    @Override
+    public void recordView(long articleId)
+    {
+        buffer.offer(articleId, System.currentTimeMillis() / MINUTE_MILLIS);
+    }
+
+    /**
+     * 将缓冲区中的浏览事件按分钟汇总写入统计表
+     *
+     * @return 写入的浏览事件数
+     */
+    @Override
+    public synchronized int flushViewEvents()
+    {
+        Map<String, BlogArticleStat> stats = unflushed;
+        int events = buffer.drain((articleId, minute) -> {
+            BlogArticleStat stat = stats.computeIfAbsent(minute + ":" + articleId, k -> {
+                BlogArticleStat s = new BlogArticleStat();
+                s.setArticleId(articleId);
+                s.setGranularity(BlogArticleStat.MINUTE);
+                s.setBucketTime(new Date(minute * MINUTE_MILLIS));
+                s.setViewCount(0L);
+                return s;
+            });
+            stat.setViewCount(stat.getViewCount() + 1);
+        });
+        long dropped = buffer.resetDropped();
+        if (dropped > 0)
+        {
+            log.warn("浏览事件缓冲区已满，丢弃{}条，可调大 blog.stat.bufferSize", dropped);
+        }
+        trimUnflushed(stats);
+        if (stats.isEmpty())
+        {
+            return events;
+        }
+        List<BlogArticleStat> pending = new ArrayList<BlogArticleStat>(stats.values());
+        for (int i = 0; i < pending.size(); i += FLUSH_BATCH_SIZE)
+        {
+            List<BlogArticleStat> batch = pending.subList(i, Math.min(i + FLUSH_BATCH_SIZE, pending.size()));
+            blogArticleStatMapper.batchAddBlogArticleStat(batch);
+            // 已写入的部分移出，失败时仅重试剩余部分
+            for (BlogArticleStat stat : batch)
+            {
+                stats.remove(stat.getBucketTime().getTime() / MINUTE_MILLIS + ":" + stat.getArticleId());
+            }
+        }
+        return events;
+    }
+
+    /**
+     * 统计表持续写入失败时限制暂存的统计条数，按插入顺序丢弃最早的分钟统计
+     */
+    private void trimUnflushed(Map<String, BlogArticleStat> stats)
+    {
+        int overflow = stats.size() - maxUnflushed;
+        if (overflow <= 0)
+        {
+            return;
+        }
+        long discarded = 0;
+        Iterator<BlogArticleStat> iterator = stats.values().iterator();
+        for (int i = 0; i < overflow && iterator.hasNext(); i++)
+        {
+            discarded += iterator.next().getViewCount();
+            iterator.remove();
+        }
+        log.warn("待写入的浏览统计超过上限{}条，丢弃最早的{}条（{}次浏览）", maxUnflushed, overflow, discarded);
+    }
+
+    /**
+     * 由分钟统计汇总小时统计、由小时统计汇总天统计，并清理过期的明细统计
+     *
+     * 从上次成功汇总开始时所在的小时、天起重新汇总（覆盖写入），任务停止或失败多次后仍能补齐，重复执行结果一致；
+     * 没有汇总记录时汇总分钟统计保留期内的全部数据。汇总起点不早于明细统计保留期内第一个完整的时间桶，
+     * 避免以部分已清理的明细覆盖已汇总的统计
+     */
+    @Override
+    public void rollupStats()
+    {
+        flushViewEvents();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime minuteKept = now.minusHours(minuteRetentionHours).truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        LocalDateTime hourKept = now.minusDays(hourRetentionDays).truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        Number lastRollup = redisCache.getCacheObject(CacheConstants.BLOG_STAT_ROLLUP_KEY);
+        LocalDateTime last = lastRollup == null ? minuteKept
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(lastRollup.longValue()), ZoneId.systemDefault());
+        LocalDateTime hourSince = latest(last.truncatedTo(ChronoUnit.HOURS), minuteKept);
+        LocalDateTime daySince = latest(last.truncatedTo(ChronoUnit.DAYS), hourKept);
+        blogArticleStatMapper.rollupBlogArticleStat(BlogArticleStat.MINUTE, BlogArticleStat.HOUR, "%Y-%m-%d %H:00:00", DateUtils.toDate(hourSince));
+        blogArticleStatMapper.rollupBlogArticleStat(BlogArticleStat.HOUR, BlogArticleStat.DAY, "%Y-%m-%d 00:00:00", DateUtils.toDate(daySince));
+        // 记录本次开始时间，之后写入的明细由下次从该时间所在的时间桶起汇总
+        redisCache.setCacheObject(CacheConstants.BLOG_STAT_ROLLUP_KEY, DateUtils.toDate(now).getTime());
+
+        int pruned = prune(BlogArticleStat.MINUTE, DateUtils.toDate(now.minusHours(minuteRetentionHours)))
+                + prune(BlogArticleStat.HOUR, DateUtils.toDate(now.minusDays(hourRetentionDays)));
+        if (pruned > 0)
+        {
+            log.info("清理过期文章浏览统计{}条", pruned);
+        }
+        trendingCache.clear();
+    }
+
+    /**
+     * 查询统计窗口内浏览量最高的已发布文章
+     *
+     * @param window 统计窗口，如 1h、24h、7d
+     * @param limit 返回数量
+     * @return 热门文章集合
+     */
+    @Override
+    public List<BlogArticleTrendingVo> selectTrendingArticles(String window, int limit)
+    {
+        Matcher matcher = WINDOW_PATTERN.matcher(window == null ? "" : window.trim().toLowerCase());
+        if (!matcher.matches())
+        {
+            throw new ServiceException("统计窗口格式错误，示例：1h、24h、7d");
+        }
+        long hours = Long.parseLong(matcher.group(1)) * ("d".equals(matcher.group(2)) ? 24 : 1);
+        if (hours <= 0 || hours > MAX_WINDOW_DAYS * 24L)
+        {
+            throw new ServiceException("统计窗口需在1小时至" + MAX_WINDOW_DAYS + "天之间");
+        }
+        return trendingCache.get(hours + ":" + limit, key -> {
+            // 按窗口长度选择统计粒度：短窗口用分钟统计保证精度，长窗口用粗粒度统计减少扫描行数
+            LocalDateTime since = LocalDateTime.now().minusHours(hours);
+            String granularity;
+            if (hours <= 2)
+            {
+                granularity = BlogArticleStat.MINUTE;
+                since = since.truncatedTo(ChronoUnit.MINUTES);
+            }
+            else if (hours <= Math.min(14 * 24, hourRetentionDays * 24L))
+            {
+                granularity = BlogArticleStat.HOUR;
+                since = since.truncatedTo(ChronoUnit.HOURS);
+            }
+            else
+            {
+                granularity = BlogArticleStat.DAY;
+                since = since.truncatedTo(ChronoUnit.DAYS);
+            }
+            return blogArticleStatMapper.selectTrendingBlogArticleList(granularity, DateUtils.toDate(since), limit);
+        });
+    }
+
+    /**
+     * 查询文章的浏览统计
+     *
+     * @param articleId 文章ID
+     * @param granularity 粒度 (m=分钟, h=小时, d=天)
+     * @param days 查询最近天数
+     * @return 浏览统计集合，按时间升序
+     */
+    @Override
+    public List<BlogArticleStat> selectArticleStats(Long articleId, String granularity, int days)
+    {
+        if (!BlogArticleStat.MINUTE.equals(granularity) && !BlogArticleStat.HOUR.equals(granularity) && !BlogArticleStat.DAY.equals(granularity))
+        {
+            throw new ServiceException("统计粒度错误，可选值：m、h、d");
+        }
+        Date since = DateUtils.toDate(LocalDateTime.now().minusDays(Math.max(1, Math.min(days, MAX_WINDOW_DAYS))).truncatedTo(ChronoUnit.DAYS));
+        return blogArticleStatMapper.selectBlogArticleStatList(articleId, granularity, since);
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b)
+    {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private int prune(String granularity, Date before)
+    {
+        int total = 0;
+        int rows;
+        do
+        {
+            rows = blogArticleStatMapper.deleteBlogArticleStatBefore(granularity, before, PRUNE_BATCH_SIZE);
+            total += rows;
+        }
+        while (rows >= PRUNE_BATCH_SIZE);
+        return total;
+    }
+
+    /**
+     * 浏览事件消费者，参数为基本类型，避免装箱
+     */
+    @FunctionalInterface
+    private interface ViewEventConsumer
+    {
+        void accept(long articleId, long minute);
+    }
+
+    /**
+     * 多生产者、单消费者的环形缓冲区
+     *
+     * 生产者以CAS占用序号后写入槽位，最后发布序号；消费者按序读取已发布的槽位，遇到未发布的槽位即停止，
+     * 缓冲区满时丢弃新事件而不阻塞请求线程
+     */
+    private static class ViewRingBuffer
+    {
+        private final int mask;
+
+        private final long[] articleIds;
+
+        private final long[] minutes;
+
+        /** 槽位已发布的序号加一，0表示从未写入 */
+        private final AtomicLongArray published;
+
+        private final AtomicLong writeSequence = new AtomicLong();
+
+        private volatile long readSequence;
+
+        private final LongAdder dropped = new LongAdder();
+
+        ViewRingBuffer(int size)
+        {
+            int capacity = Math.max(1024, size);
+            capacity = Integer.bitCount(capacity) == 1 ? capacity : Integer.highestOneBit(capacity) << 1;
+            this.mask = capacity - 1;
+            this.articleIds = new long[capacity];
+            this.minutes = new long[capacity];
+            this.published = new AtomicLongArray(capacity);
+        }
+
+        void offer(long articleId, long minute)
+        {
+            long sequence;
+            do
+            {
+                sequence = writeSequence.get();
+                if (sequence - readSequence >= articleIds.length)
+                {
+                    dropped.increment();
+                    return;
+                }
+            }
+            while (!writeSequence.compareAndSet(sequence, sequence + 1));
+            int index = (int) (sequence & mask);
+            articleIds[index] = articleId;
+            minutes[index] = minute;
+            published.lazySet(index, sequence + 1);
+        }
+
+        int drain(ViewEventConsumer consumer)
+        {
+            long sequence = readSequence;
+            long end = writeSequence.get();
+            int count = 0;
+            while (sequence < end)
+            {
+                int index = (int) (sequence & mask);
+                if (published.get(index) != sequence + 1)
+                {
+                    // 生产者已占用序号但尚未写完，留待下次读取
+                    break;
+                }
+                consumer.accept(articleIds[index], minutes[index]);
+                sequence++;
+                count++;
+            }
+            readSequence = sequence;
+            return count;
+        }
+
+        long resetDropped()
+        {
+            return dropped.sumThenReset();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.ruoyi.blog.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.service.IBlogArticleStatService;
+import com.ruoyi.blog.service.IBlogArticleViewService;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.domain.model.LoginUser;
+import com.ruoyi.common.core.redis.RedisCache;
+import com.ruoyi.common.utils.SecurityUtils;
+import com.ruoyi.common.utils.ServletUtils;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.ip.IpUtils;
+
+/**
+ * 博客文章浏览量Service业务层处理
+ *
+ * 浏览增量先累加在内存分段计数器中，再由定时任务合并为一条批量更新语句写入数据库
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+@Service
+public class BlogArticleViewServiceImpl implements IBlogArticleViewService
+{
+    private static final Logger log = LoggerFactory.getLogger(BlogArticleViewServiceImpl.class);
+
+    /** 单次批量更新的最大文章数 */
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    // 同一访客重复浏览的去重窗口（分钟）
+    @Value("${blog.view.dedupeMinutes:30}")
+    private int dedupeMinutes;
+
+    // 浏览增量刷新到数据库的间隔（秒）
+    @Value("${blog.view.flushSeconds:60}")
+    private int flushSeconds;
+
+    @Autowired
+    private BlogArticleMapper blogArticleMapper;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private ScheduledExecutorService scheduledExecutorService;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    @Autowired
+    private IBlogArticleStatService blogArticleStatService;
+
+    /** 待刷新的浏览增量，key为文章ID */
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<Long, LongAdder>();
+
+    @PostConstruct
+    public void init()
+    {
+        scheduledExecutorService.scheduleWithFixedDelay(() -> {
+            try
+            {
+                flushViewCount();
+            }
+            catch (Exception e)
+            {
+                log.error("刷新文章浏览量异常", e);
+            }
+        }, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停机前将剩余的浏览增量写入数据库
+     */
+    @PreDestroy
+    public void destroy()
+    {
+        flushViewCount();
+    }
+
+    /**
+     * 记录一次文章浏览，同一访客在去重窗口内只计一次
+     *
+     * @param articleId 文章ID
+     * @return 是否计入浏览量
+     */
+    @Override
+    public boolean recordView(Long articleId)
+    {
+        if (articleId == null)
+        {
+            return false;
+        }
+        if (dedupeMinutes > 0)
+        {
+            String viewKey = CacheConstants.BLOG_VIEW_KEY + articleId + ":" + getVisitorKey();
+            if (!redisCache.setCacheObjectIfAbsent(viewKey, 1, dedupeMinutes, TimeUnit.MINUTES))
+            {
+                return false;
+            }
+        }
+        // 在映射的同步块内累加，与刷新后移除空计数器互斥，避免累加到已移除的计数器上
+        pendingViews.compute(articleId, (k, adder) -> {
+            LongAdder current = adder == null ? new LongAdder() : adder;
+            current.increment();
+            return current;
+        });
+        blogArticleStatService.recordView(articleId);
+        return true;
+    }
+
+    /**
+     * 查询尚未写入数据库的浏览增量
+     *
+     * @param articleId 文章ID
+     * @return 待刷新的浏览增量
+     */
+    @Override
+    public long selectPendingViewCount(Long articleId)
+    {
+        LongAdder adder = articleId == null ? null : pendingViews.get(articleId);
+        return adder == null ? 0L : adder.sum();
+    }
+
+    /**
+     * 查询文章当前浏览量（已落库浏览量加上待刷新增量）
+     *
+     * 文章详情可能来自缓存，其浏览量停留在加载时刻；刷新后的浏览量另存于Redis哈希中，取两者较大值
+     *
+     * @param articleId 文章ID
+     * @param storedCount 调用方持有的浏览量（可能来自缓存）
+     * @return 浏览量
+     */
+    @Override
+    public long selectViewCount(Long articleId, Long storedCount)
+    {
+        long viewCount = storedCount == null ? 0L : storedCount;
+        Number flushedCount = redisCache.getCacheMapValue(CacheConstants.BLOG_VIEW_COUNT_KEY, String.valueOf(articleId));
+        if (flushedCount != null)
+        {
+            viewCount = Math.max(viewCount, flushedCount.longValue());
+        }
+        return viewCount + selectPendingViewCount(articleId);
+    }
+
+    /**
+     * 将累计的浏览增量批量写入数据库
+     *
+     * @return 更新的文章数
+     */
+    @Override
+    public synchronized int flushViewCount()
+    {
+        List<BlogArticle> batch = new ArrayList<BlogArticle>();
+        int rows = 0;
+        for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet())
+        {
+            // 以负数抵扣已取出的增量，刷新期间新增的浏览不会丢失
+            long delta = entry.getValue().sum();
+            if (delta == 0)
+            {
+                continue;
+            }
+            entry.getValue().add(-delta);
+            BlogArticle article = new BlogArticle();
+            article.setArticleId(entry.getKey());
+            article.setViewCount(delta);
+            batch.add(article);
+            if (batch.size() >= FLUSH_BATCH_SIZE)
+            {
+                rows += flushBatch(batch);
+                batch = new ArrayList<BlogArticle>();
+            }
+        }
+        if (!batch.isEmpty())
+        {
+            rows += flushBatch(batch);
+        }
+        return rows;
+    }
+
+    /**
+     * 执行一次批量更新，失败时将增量退回计数器等待下次刷新
+     */
+    private int flushBatch(List<BlogArticle> batch)
+    {
+        int rows;
+        try
+        {
+            rows = blogArticleMapper.updateBlogArticleViewCount(batch);
+        }
+        catch (Exception e)
+        {
+            for (BlogArticle article : batch)
+            {
+                pendingViews.computeIfAbsent(article.getArticleId(), k -> new LongAdder()).add(article.getViewCount());
+            }
+            throw e;
+        }
+        refreshFlushedViewCount(batch);
+        // 已落库且期间没有新浏览的文章移出计数器，避免浏览过的文章常驻内存
+        for (BlogArticle article : batch)
+        {
+            pendingViews.computeIfPresent(article.getArticleId(), (k, adder) -> adder.sum() == 0 ? null : adder);
+        }
+        // 文章列表包含浏览量，落库后使列表的ETag失效
+        cacheVersion.increment("blog_article_view");
+        return rows;
+    }
+
+    /**
+     * 将刷新后的浏览量写入Redis哈希，供缓存中的文章详情合并
+     */
+    private void refreshFlushedViewCount(List<BlogArticle> batch)
+    {
+        Long[] articleIds = new Long[batch.size()];
+        for (int i = 0; i < articleIds.length; i++)
+        {
+            articleIds[i] = batch.get(i).getArticleId();
+        }
+        Map<String, Long> viewCounts = new HashMap<String, Long>();
+        for (BlogArticle article : blogArticleMapper.selectBlogArticleViewCounts(articleIds))
+        {
+            viewCounts.put(String.valueOf(article.getArticleId()), article.getViewCount());
+        }
+        redisCache.setCacheMap(CacheConstants.BLOG_VIEW_COUNT_KEY, viewCounts);
+    }
+
+    /**
+     * 访客标识：登录用户使用用户ID，游客使用IP与浏览器标识
+     */
+    private String getVisitorKey()
+    {
+        LoginUser loginUser = null;
+        try
+        {
+            loginUser = SecurityUtils.getLoginUser();
+        }
+        catch (Exception ignored)
+        {
+        }
+        if (loginUser != null)
+        {
+            return "u" + loginUser.getUserId();
+        }
+        HttpServletRequest request = ServletUtils.getRequest();
+        String userAgent = request == null ? null : request.getHeader("User-Agent");
+        return IpUtils.getIpAddr(request) + ":" + Integer.toHexString(StringUtils.nvl(userAgent, "").hashCode());
+    }
+}
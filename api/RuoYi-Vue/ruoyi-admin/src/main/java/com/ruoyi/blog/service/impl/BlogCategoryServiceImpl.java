@@ -1,12 +1,17 @@
 package com.ruoyi.blog.service.impl;
 
 import java.util.List;
+import com.ruoyi.common.core.cache.CacheVersion;
 import com.ruoyi.common.utils.DateUtils;
+import com.ruoyi.common.utils.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import com.ruoyi.blog.mapper.BlogCategoryMapper;
 import com.ruoyi.blog.domain.BlogCategory;
+import com.ruoyi.blog.service.IBlogArticleService;
+import com.ruoyi.blog.service.IBlogArticleSnapshotService;
 import com.ruoyi.blog.service.IBlogCategoryService;
+import com.ruoyi.blog.service.IBlogTermCountService;
 
 /**
  * 博客分类Service业务层处理
@@ -20,6 +25,18 @@ public class BlogCategoryServiceImpl implements IBlogCategoryService
     @Autowired
     private BlogCategoryMapper blogCategoryMapper;
 
+    @Autowired
+    private IBlogArticleService blogArticleService;
+
+    @Autowired
+    private IBlogArticleSnapshotService blogArticleSnapshotService;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    @Autowired
+    private IBlogTermCountService blogTermCountService;
+
     /**
      * 查询博客分类
      * 
@@ -54,7 +71,10 @@ public class BlogCategoryServiceImpl implements IBlogCategoryService
     public int insertBlogCategory(BlogCategory blogCategory)
     {
         blogCategory.setCreateTime(DateUtils.getNowDate());
-        return blogCategoryMapper.insertBlogCategory(blogCategory);
+        int rows = blogCategoryMapper.insertBlogCategory(blogCategory);
+        blogTermCountService.clearTermCountCache();
+        cacheVersion.increment("blog_category");
+        return rows;
     }
 
     /**
@@ -67,7 +87,17 @@ public class BlogCategoryServiceImpl implements IBlogCategoryService
     public int updateBlogCategory(BlogCategory blogCategory)
     {
         blogCategory.setUpdateTime(DateUtils.getNowDate());
-        return blogCategoryMapper.updateBlogCategory(blogCategory);
+        BlogCategory oldCategory = blogCategoryMapper.selectBlogCategoryByCategoryId(blogCategory.getCategoryId());
+        int rows = blogCategoryMapper.updateBlogCategory(blogCategory);
+        blogTermCountService.clearTermCountCache();
+        cacheVersion.increment("blog_category");
+        // 文章详情缓存与静态快照中包含分类名称，分类改名时需要清理
+        if (oldCategory != null && blogCategory.getName() != null && !StringUtils.equals(oldCategory.getName(), blogCategory.getName()))
+        {
+            blogArticleService.clearBlogArticleCache();
+            blogArticleSnapshotService.refreshCategorySnapshotAsync(blogCategory.getCategoryId());
+        }
+        return rows;
     }
 
     /**
@@ -79,7 +109,12 @@ public class BlogCategoryServiceImpl implements IBlogCategoryService
     @Override
     public int deleteBlogCategoryByCategoryIds(Long[] categoryIds)
     {
-        return blogCategoryMapper.deleteBlogCategoryByCategoryIds(categoryIds);
+        int rows = blogCategoryMapper.deleteBlogCategoryByCategoryIds(categoryIds);
+        blogTermCountService.clearTermCountCache();
+        cacheVersion.increment("blog_category");
+        blogArticleService.clearBlogArticleCache();
+        blogArticleSnapshotService.refreshCategorySnapshotAsync(categoryIds);
+        return rows;
     }
 
     /**
@@ -91,6 +126,11 @@ public class BlogCategoryServiceImpl implements IBlogCategoryService
     @Override
     public int deleteBlogCategoryByCategoryId(Long categoryId)
     {
-        return blogCategoryMapper.deleteBlogCategoryByCategoryId(categoryId);
+        int rows = blogCategoryMapper.deleteBlogCategoryByCategoryId(categoryId);
+        blogTermCountService.clearTermCountCache();
+        cacheVersion.increment("blog_category");
+        blogArticleService.clearBlogArticleCache();
+        blogArticleSnapshotService.refreshCategorySnapshotAsync(categoryId);
+        return rows;
     }
 }
@@ -1,20 +1,46 @@
 package com.ruoyi.blog.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import com.ruoyi.common.utils.DateUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.ruoyi.blog.mapper.BlogCommentMapper;
+import com.ruoyi.blog.domain.BlogArticle;
 import com.ruoyi.blog.domain.BlogComment;
+import com.ruoyi.blog.service.IBlogArticleService;
+import com.ruoyi.blog.service.IBlogCommentModerationService;
 import com.ruoyi.blog.service.IBlogCommentService;
 
 import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.cache.LocalCache;
 import com.ruoyi.common.core.domain.model.LoginUser;
 import com.ruoyi.common.core.redis.RedisCache;
 import com.ruoyi.common.exception.user.CaptchaException;
 import com.ruoyi.common.exception.user.CaptchaExpireException;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.Threads;
+import com.ruoyi.common.utils.ip.IpUtils;
+import com.ruoyi.common.utils.uuid.IdUtils;
 import com.ruoyi.system.service.ISysConfigService;
 import com.ruoyi.common.exception.ServiceException;
 
@@ -27,6 +53,8 @@ import com.ruoyi.common.exception.ServiceException;
 @Service
 public class BlogCommentServiceImpl implements IBlogCommentService 
 {
+    private static final Logger log = LoggerFactory.getLogger(BlogCommentServiceImpl.class);
+
     @Autowired
     private BlogCommentMapper blogCommentMapper;
 
@@ -36,6 +64,15 @@ public class BlogCommentServiceImpl implements IBlogCommentService
     @Autowired
     private ISysConfigService configService;
 
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    @Autowired
+    private IBlogCommentModerationService blogCommentModerationService;
+
+    @Autowired
+    private IBlogArticleService blogArticleService;
+
     // 已按你的要求移除后端清洗逻辑，仅保留长度校验与验证码
 
     /**
@@ -43,6 +80,64 @@ public class BlogCommentServiceImpl implements IBlogCommentService
      */
     private static final int COMMENT_TEXT_MAX_LEN = 1000;
 
+    /** 单篇文章评论版本名称前缀，后接文章ID */
+    private static final String ARTICLE_COMMENT_VERSION = "blog_comment:";
+
+    // 评论树本地缓存有效期（秒）
+    @Value("${blog.comment.treeCacheSeconds:300}")
+    private int treeCacheSeconds;
+
+    /** 评论树缓存，key为文章ID:文章评论版本号，value为组装好的评论主题列表 */
+    private LocalCache<String, List<BlogComment>> commentTreeCache;
+
+    // 待审核队列容量
+    @Value("${blog.comment.moderation.queueCapacity:2000}")
+    private int moderationQueueCapacity;
+
+    // 审核线程数
+    @Value("${blog.comment.moderation.workers:2}")
+    private int moderationWorkers;
+
+    // 单次批量写入的最大评论数
+    @Value("${blog.comment.moderation.batchSize:50}")
+    private int moderationBatchSize;
+
+    /** 受理结果保留时间（分钟） */
+    private static final int ACCEPT_EXPIRE_MINUTES = 30;
+
+    /** 受理结果：写入失败 */
+    private static final String ACCEPT_FAILED = "failed";
+
+    /** 待审核评论队列 */
+    private BlockingQueue<PendingComment> moderationQueue;
+
+    private ExecutorService moderationExecutor;
+
+    private volatile boolean running = true;
+
+    @PostConstruct
+    public void init()
+    {
+        commentTreeCache = new LocalCache<String, List<BlogComment>>(CacheConstants.BLOG_COMMENT_TREE_KEY, 1000, treeCacheSeconds * 1000L);
+        moderationQueue = new ArrayBlockingQueue<PendingComment>(moderationQueueCapacity);
+        moderationExecutor = Executors.newFixedThreadPool(moderationWorkers,
+                new BasicThreadFactory.Builder().namingPattern("comment-moderation-%d").daemon(true).build());
+        for (int i = 0; i < moderationWorkers; i++)
+        {
+            moderationExecutor.execute(this::moderationLoop);
+        }
+    }
+
+    /**
+     * 停止接收后处理完队列中剩余的评论
+     */
+    @PreDestroy
+    public void destroy()
+    {
+        running = false;
+        Threads.shutdownAndAwaitTermination(moderationExecutor);
+    }
+
     /**
      * 查询博客评论
      * 
@@ -67,6 +162,53 @@ public class BlogCommentServiceImpl implements IBlogCommentService
         return blogCommentMapper.selectBlogCommentList(blogComment);
     }
 
+    /**
+     * 查询文章评论树（按主题倒序，回复按时间正序）
+     * 
+     * 整篇文章的评论树按文章评论版本缓存，版本在该文章评论变更时递增，分页由调用方在内存中完成
+     * 
+     * @param articleId 文章ID
+     * @return 顶层评论集合（不可修改），回复挂在children下
+     */
+    @Override
+    public List<BlogComment> selectBlogCommentTree(Long articleId)
+    {
+        String key = articleId + ":" + cacheVersion.get(ARTICLE_COMMENT_VERSION + articleId);
+        return commentTreeCache.get(key, k -> buildBlogCommentTree(articleId));
+    }
+
+    /**
+     * 一次查询取出文章全部已显示评论，在内存中按parentId组装评论树
+     * 
+     * @param articleId 文章ID
+     * @return 顶层评论及上级未显示的回复，新主题在前
+     */
+    private List<BlogComment> buildBlogCommentTree(Long articleId)
+    {
+        List<BlogComment> comments = blogCommentMapper.selectVisibleBlogCommentByArticleId(articleId);
+        Map<Long, BlogComment> commentMap = new HashMap<Long, BlogComment>(comments.size() * 4 / 3 + 1);
+        for (BlogComment comment : comments)
+        {
+            commentMap.put(comment.getCommentId(), comment);
+        }
+        List<BlogComment> threads = new ArrayList<BlogComment>();
+        for (BlogComment comment : comments)
+        {
+            BlogComment parent = comment.getParentId() == null ? null : commentMap.get(comment.getParentId());
+            if (parent != null)
+            {
+                parent.getChildren().add(comment);
+            }
+            else
+            {
+                threads.add(comment);
+            }
+        }
+        // 评论按时间正序取出，主题反转为新主题在前
+        Collections.reverse(threads);
+        return Collections.unmodifiableList(threads);
+    }
+
     /**
      * 新增博客评论
      * 
@@ -75,6 +217,66 @@ public class BlogCommentServiceImpl implements IBlogCommentService
      */
     @Override
     public int insertBlogComment(BlogComment blogComment)
+    {
+        prepareBlogComment(blogComment);
+        int rows = blogCommentMapper.insertBlogComment(blogComment);
+        evictBlogCommentTree(Collections.singletonList(blogComment.getArticleId()));
+        return rows;
+    }
+
+    /**
+     * 提交博客评论，校验通过后进入审核队列异步写入
+     * 
+     * @param blogComment 博客评论
+     * @return 受理编号
+     */
+    @Override
+    public String submitBlogComment(BlogComment blogComment)
+    {
+        if (blogComment.getArticleId() == null)
+        {
+            throw new ServiceException("评论文章不能为空");
+        }
+        // 异步写入前校验文章，避免受理后才因文章不存在或关闭评论而丢弃
+        BlogArticle article = blogArticleService.selectPublishedBlogArticleByArticleId(blogComment.getArticleId());
+        if (article == null)
+        {
+            throw new ServiceException("文章未发布或已删除");
+        }
+        if (!"1".equals(article.getAllowComment()))
+        {
+            throw new ServiceException("该文章已关闭评论");
+        }
+        prepareBlogComment(blogComment);
+        // 异步写入时调用方看不到数据库异常，必填项提前校验
+        if (StringUtils.isEmpty(blogComment.getNickname()) || StringUtils.isEmpty(blogComment.getContent()))
+        {
+            throw new ServiceException("昵称和评论内容不能为空");
+        }
+        PendingComment pending = new PendingComment(IdUtils.fastSimpleUUID(), blogComment, IpUtils.getIpAddr());
+        if (!moderationQueue.offer(pending))
+        {
+            throw new ServiceException("评论提交繁忙，请稍后再试");
+        }
+        return pending.acceptId;
+    }
+
+    /**
+     * 查询评论受理结果
+     * 
+     * @param acceptId 受理编号
+     * @return 评论状态 (0=待审核, 1=已显示, failed=写入失败)，尚在队列中时返回null
+     */
+    @Override
+    public String selectAcceptedStatus(String acceptId)
+    {
+        return redisCache.getCacheObject(CacheConstants.BLOG_COMMENT_ACCEPT_KEY + acceptId);
+    }
+
+    /**
+     * 绑定评论人、校验验证码与内容长度
+     */
+    private void prepareBlogComment(BlogComment blogComment)
     {
         blogComment.setDelFlag("0");
         blogComment.setCreateTime(DateUtils.getNowDate());
@@ -113,7 +315,101 @@ public class BlogCommentServiceImpl implements IBlogCommentService
             throw new ServiceException("评论内容过长，最多" + COMMENT_TEXT_MAX_LEN + "字");
         }
         blogComment.setContent(content);
-        return blogCommentMapper.insertBlogComment(blogComment);
+    }
+
+    /**
+     * 审核线程：批量取出待审核评论，评分后批量写入
+     */
+    private void moderationLoop()
+    {
+        List<PendingComment> batch = new ArrayList<PendingComment>(moderationBatchSize);
+        while (running || !moderationQueue.isEmpty())
+        {
+            try
+            {
+                PendingComment first = moderationQueue.poll(1, TimeUnit.SECONDS);
+                if (first == null)
+                {
+                    continue;
+                }
+                batch.add(first);
+                moderationQueue.drainTo(batch, moderationBatchSize - 1);
+                moderateBatch(batch);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch (Exception e)
+            {
+                log.error("评论审核批次处理失败", e);
+                for (PendingComment pending : batch)
+                {
+                    setAcceptedStatus(pending.acceptId, ACCEPT_FAILED);
+                }
+            }
+            finally
+            {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 评分并批量写入一批评论，批量写入失败时逐条重试，避免单条异常数据拖累整批
+     */
+    private void moderateBatch(List<PendingComment> batch)
+    {
+        List<BlogComment> comments = new ArrayList<BlogComment>(batch.size());
+        for (PendingComment pending : batch)
+        {
+            BlogComment comment = pending.comment;
+            if (!"1".equals(comment.getStatus()))
+            {
+                comment.setStatus(blogCommentModerationService.moderateBlogComment(comment, pending.ip));
+            }
+            if (comment.getParentId() == null)
+            {
+                comment.setParentId(0L);
+            }
+            comments.add(comment);
+        }
+        try
+        {
+            blogCommentMapper.batchInsertBlogComment(comments);
+        }
+        catch (Exception e)
+        {
+            log.warn("评论批量写入失败，改为逐条写入: {}", e.getMessage());
+            for (BlogComment comment : comments)
+            {
+                try
+                {
+                    blogCommentMapper.insertBlogComment(comment);
+                }
+                catch (Exception ex)
+                {
+                    comment.setStatus(ACCEPT_FAILED);
+                    log.error("评论写入失败, articleId={}", comment.getArticleId(), ex);
+                }
+            }
+        }
+        Set<Long> articleIds = new HashSet<Long>();
+        for (PendingComment pending : batch)
+        {
+            setAcceptedStatus(pending.acceptId, pending.comment.getStatus());
+            articleIds.add(pending.comment.getArticleId());
+        }
+        evictBlogCommentTree(articleIds);
+    }
+
+    /**
+     * 记录受理结果，供提交方轮询
+     */
+    private void setAcceptedStatus(String acceptId, String status)
+    {
+        redisCache.setCacheObject(CacheConstants.BLOG_COMMENT_ACCEPT_KEY + acceptId, status, ACCEPT_EXPIRE_MINUTES, TimeUnit.MINUTES);
     }
 
     /**
@@ -153,7 +449,15 @@ public class BlogCommentServiceImpl implements IBlogCommentService
             throw new ServiceException("评论内容过长，最多" + COMMENT_TEXT_MAX_LEN + "字");
         }
         blogComment.setContent(content);
-        return blogCommentMapper.updateBlogComment(blogComment);
+        // 修改前取出原文章ID，评论被移到其他文章时两篇文章的评论树都失效
+        Set<Long> articleIds = new HashSet<Long>(blogCommentMapper.selectArticleIdsByCommentIds(new Long[] { blogComment.getCommentId() }));
+        int rows = blogCommentMapper.updateBlogComment(blogComment);
+        if (blogComment.getArticleId() != null)
+        {
+            articleIds.add(blogComment.getArticleId());
+        }
+        evictBlogCommentTree(articleIds);
+        return rows;
     }
 
     /**
@@ -165,7 +469,10 @@ public class BlogCommentServiceImpl implements IBlogCommentService
     @Override
     public int deleteBlogCommentByCommentIds(Long[] commentIds)
     {
-        return blogCommentMapper.deleteBlogCommentByCommentIds(commentIds);
+        List<Long> articleIds = blogCommentMapper.selectArticleIdsByCommentIds(commentIds);
+        int rows = blogCommentMapper.deleteBlogCommentByCommentIds(commentIds);
+        evictBlogCommentTree(articleIds);
+        return rows;
     }
 
     /**
@@ -177,6 +484,47 @@ public class BlogCommentServiceImpl implements IBlogCommentService
     @Override
     public int deleteBlogCommentByCommentId(Long commentId)
     {
-        return blogCommentMapper.deleteBlogCommentByCommentId(commentId);
+        List<Long> articleIds = blogCommentMapper.selectArticleIdsByCommentIds(new Long[] { commentId });
+        int rows = blogCommentMapper.deleteBlogCommentByCommentId(commentId);
+        evictBlogCommentTree(articleIds);
+        return rows;
+    }
+
+    /**
+     * 递增评论版本号与所涉文章的评论版本号，含评论数的文章列表与这些文章在各节点的评论树缓存随之失效
+     * 
+     * @param articleIds 评论所属的文章ID
+     */
+    private void evictBlogCommentTree(Collection<Long> articleIds)
+    {
+        List<String> names = new ArrayList<String>(articleIds.size() + 1);
+        names.add("blog_comment");
+        for (Long articleId : articleIds)
+        {
+            if (articleId != null)
+            {
+                names.add(ARTICLE_COMMENT_VERSION + articleId);
+            }
+        }
+        cacheVersion.increment(names.toArray(new String[0]));
+    }
+
+    /**
+     * 已受理待审核的评论
+     */
+    private static class PendingComment
+    {
+        private final String acceptId;
+
+        private final BlogComment comment;
+
+        private final String ip;
+
+        PendingComment(String acceptId, BlogComment comment, String ip)
+        {
+            this.acceptId = acceptId;
+            this.comment = comment;
+            this.ip = ip;
+        }
     }
 }
@@ -0,0 +1,502 @@
+package com.ruoyi.blog.service.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.service.IBlogFeedService;
+import com.ruoyi.common.config.RuoYiConfig;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.common.utils.StringUtils;
+
+/**
+ * 博客订阅源与站点地图Service业务层处理
+ *
+ * 通过 MyBatis 游标逐行读取文章并直接写入 StAX，不在内存中构建文章列表；
+ * 生成结果缓存在 {profile}/snapshot/feed 下，并记录生成时的文章与分类版本号，版本未变化时直接复用；
+ * 地址超过单个站点地图上限时，sitemap.xml 改为站点地图索引，文章按ID键集分页写入 sitemap-N.xml
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+@Service
+public class BlogFeedServiceImpl implements IBlogFeedService
+{
+    private static final Logger log = LoggerFactory.getLogger(BlogFeedServiceImpl.class);
+
+    private static final String VERSION_SUFFIX = ".version";
+
+    /** 单个站点地图文件最多收录的地址数 */
+    private static final int SITEMAP_MAX_URLS = 50000;
+
+    /** 每个站点地图分页文件收录的文章数，第一页另含首页地址 */
+    private static final int SITEMAP_PAGE_ARTICLES = SITEMAP_MAX_URLS - 1;
+
+    /** 站点地图分页文件名 */
+    private static final Pattern SITEMAP_PAGE_NAME = Pattern.compile("sitemap-([1-9]\\d{0,5})\\.xml");
+
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+
+    private static final String SITEMAP_NS = "http://www.sitemaps.org/schemas/sitemap/0.9";
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    @Autowired
+    private BlogArticleMapper blogArticleMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    // 前台站点地址
+    @Value("${blog.feed.siteUrl:http://localhost}")
+    private String siteUrl;
+
+    // 订阅源标题
+    @Value("${blog.feed.title:Blog}")
+    private String title;
+
+    // 订阅源描述
+    @Value("${blog.feed.description:}")
+    private String description;
+
+    // 文章详情页路径
+    @Value("${blog.feed.articlePath:/article/{id}}")
+    private String articlePath;
+
+    // RSS/Atom 收录的最新文章数
+    @Value("${blog.feed.size:50}")
+    private int size;
+
+    /** 订阅源名称 -> 已生成文件对应的版本 */
+    private final Map<String, String> generatedVersions = new ConcurrentHashMap<String, String>();
+
+    private final Map<String, Object> locks = new ConcurrentHashMap<String, Object>();
+
+    /** 当前版本的站点地图分页数与分页边界 */
+    private volatile SitemapPages sitemapPages;
+
+    @PostConstruct
+    public void init()
+    {
+        siteUrl = StringUtils.removeEnd(siteUrl, "/");
+    }
+
+    /**
+     * 查询订阅源版本，文章或分类变更后变化
+     *
+     * @return 订阅源版本
+     */
+    @Override
+    public String selectFeedVersion()
+    {
+        return Long.toString(cacheVersion.get("blog_article"), 36) + "-" + Long.toString(cacheVersion.get("blog_category"), 36);
+    }
+
+    /**
+     * 获取订阅源文件，文章未变更时直接返回磁盘缓存，否则重新生成
+     *
+     * @param feedName 订阅源名称（RSS、ATOM、SITEMAP）
+     * @return 订阅源文件
+     */
+    @Override
+    public File selectFeedFile(String feedName)
+    {
+        String version = selectFeedVersion();
+        int page = getSitemapPage(feedName);
+        if (!RSS.equals(feedName) && !ATOM.equals(feedName) && !SITEMAP.equals(feedName)
+                && (page == 0 || page > selectSitemapPageCount(version)))
+        {
+            throw new ServiceException("订阅源不存在");
+        }
+        File file = new File(getFeedDir(), feedName);
+        if (version.equals(generatedVersions.get(feedName)) && file.exists())
+        {
+            return file;
+        }
+        // 同一订阅源只由一个线程生成，其余请求等待后复用结果
+        synchronized (locks.computeIfAbsent(feedName, k -> new Object()))
+        {
+            if (!version.equals(generatedVersions.get(feedName)))
+            {
+                // 重启后读取磁盘上记录的版本，文章未变更时无需重新生成
+                if (!file.exists() || !version.equals(readVersion(feedName)))
+                {
+                    long start = System.currentTimeMillis();
+                    generateFeed(feedName, version);
+                    log.info("订阅源 {} 已生成，版本{}，耗时{}ms", feedName, version, System.currentTimeMillis() - start);
+                }
+                generatedVersions.put(feedName, version);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * 生成订阅源到临时文件后原子替换，再写入版本文件
+     */
+    private void generateFeed(String feedName, String version)
+    {
+        try
+        {
+            File dir = getFeedDir();
+            if (!dir.exists() && !dir.mkdirs() && !dir.exists())
+            {
+                throw new IOException("无法创建订阅源目录: " + dir.getAbsolutePath());
+            }
+            Path tmp = Files.createTempFile(dir.toPath(), feedName, ".tmp");
+            try
+            {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp)))
+                {
+                    // 游标需在同一事务（连接）内遍历
+                    transactionTemplate.execute(status -> {
+                        writeFeed(feedName, version, out);
+                        return null;
+                    });
+                }
+                Files.move(tmp, dir.toPath().resolve(feedName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally
+            {
+                Files.deleteIfExists(tmp);
+            }
+            Files.write(dir.toPath().resolve(feedName + VERSION_SUFFIX), version.getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeFeed(String feedName, String version, OutputStream out)
+    {
+        XMLStreamWriter writer = null;
+        try
+        {
+            writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            int page = getSitemapPage(feedName);
+            if (RSS.equals(feedName) || ATOM.equals(feedName))
+            {
+                try (Cursor<BlogArticle> cursor = blogArticleMapper.selectBlogArticleFeedCursor(size))
+                {
+                    if (RSS.equals(feedName))
+                    {
+                        writeRss(writer, cursor);
+                    }
+                    else
+                    {
+                        writeAtom(writer, cursor);
+                    }
+                }
+            }
+            else if (page == 0 && selectSitemapPageCount(version) > 1)
+            {
+                writeSitemapIndex(writer, selectSitemapPageCount(version));
+            }
+            else
+            {
+                page = Math.max(page, 1);
+                long lastId = selectSitemapPageStart(version, page);
+                try (Cursor<BlogArticle> cursor = blogArticleMapper.selectBlogArticleSitemapCursor(lastId, SITEMAP_PAGE_ARTICLES))
+                {
+                    writeSitemap(writer, cursor, page == 1);
+                }
+            }
+            writer.writeEndDocument();
+            writer.flush();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        catch (XMLStreamException e)
+        {
+            throw new ServiceException("生成订阅源失败：" + e.getMessage());
+        }
+        finally
+        {
+            closeQuietly(writer);
+        }
+    }
+
+    /**
+     * RSS 2.0，频道更新时间取最新一篇文章（按创建时间倒序的第一条）
+     */
+    private void writeRss(XMLStreamWriter writer, Cursor<BlogArticle> cursor) throws XMLStreamException
+    {
+        writer.writeStartElement("rss");
+        writer.writeAttribute("version", "2.0");
+        writer.writeStartElement("channel");
+        writeElement(writer, "title", title);
+        writeElement(writer, "link", siteUrl + "/");
+        writeElement(writer, "description", description);
+        boolean first = true;
+        for (BlogArticle article : cursor)
+        {
+            if (first)
+            {
+                writeElement(writer, "lastBuildDate", formatDate(lastModified(article), DateTimeFormatter.RFC_1123_DATE_TIME));
+                first = false;
+            }
+            String link = articleUrl(article);
+            writer.writeStartElement("item");
+            writeElement(writer, "title", article.getTitle());
+            writeElement(writer, "link", link);
+            writer.writeStartElement("guid");
+            writer.writeAttribute("isPermaLink", "true");
+            writer.writeCharacters(link);
+            writer.writeEndElement();
+            writeElement(writer, "pubDate", formatDate(article.getCreateTime(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            writeElement(writer, "description", article.getSummary());
+            writeElement(writer, "category", article.getCategoryName());
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+        writer.writeEndElement();
+    }
+
+    /**
+     * Atom 1.0，feed 的 updated 为必填项，无文章时取生成时间
+     */
+    private void writeAtom(XMLStreamWriter writer, Cursor<BlogArticle> cursor) throws XMLStreamException
+    {
+        writer.writeStartElement("feed");
+        writer.writeDefaultNamespace(ATOM_NS);
+        writeElement(writer, "title", title);
+        writeElement(writer, "subtitle", description);
+        writeElement(writer, "id", siteUrl + "/");
+        writer.writeEmptyElement("link");
+        writer.writeAttribute("href", siteUrl + "/");
+        boolean first = true;
+        for (BlogArticle article : cursor)
+        {
+            if (first)
+            {
+                writeElement(writer, "updated", formatDate(lastModified(article), DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+                first = false;
+            }
+            String link = articleUrl(article);
+            writer.writeStartElement("entry");
+            writeElement(writer, "title", article.getTitle());
+            writer.writeEmptyElement("link");
+            writer.writeAttribute("href", link);
+            writeElement(writer, "id", link);
+            writeElement(writer, "published", formatDate(article.getCreateTime(), DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            writeElement(writer, "updated", formatDate(lastModified(article), DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            writeElement(writer, "summary", article.getSummary());
+            if (StringUtils.isNotEmpty(article.getCategoryName()))
+            {
+                writer.writeEmptyElement("category");
+                writer.writeAttribute("term", article.getCategoryName());
+            }
+            writer.writeEndElement();
+        }
+        if (first)
+        {
+            writeElement(writer, "updated", formatDate(new Date(), DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        }
+        writer.writeEndElement();
+    }
+
+    private void writeSitemap(XMLStreamWriter writer, Cursor<BlogArticle> cursor, boolean withHome) throws XMLStreamException
+    {
+        writer.writeStartElement("urlset");
+        writer.writeDefaultNamespace(SITEMAP_NS);
+        if (withHome)
+        {
+            writer.writeStartElement("url");
+            writeElement(writer, "loc", siteUrl + "/");
+            writer.writeEndElement();
+        }
+        for (BlogArticle article : cursor)
+        {
+            writer.writeStartElement("url");
+            writeElement(writer, "loc", articleUrl(article));
+            writeElement(writer, "lastmod", formatDate(lastModified(article), DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+
+    /**
+     * 站点地图索引，依次列出各分页文件
+     */
+    private void writeSitemapIndex(XMLStreamWriter writer, int pages) throws XMLStreamException
+    {
+        writer.writeStartElement("sitemapindex");
+        writer.writeDefaultNamespace(SITEMAP_NS);
+        for (int page = 1; page <= pages; page++)
+        {
+            writer.writeStartElement("sitemap");
+            writeElement(writer, "loc", siteUrl + "/" + String.format(SITEMAP_PAGE, page));
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+
+    /**
+     * 站点地图分页页码，非分页文件返回0
+     */
+    private static int getSitemapPage(String feedName)
+    {
+        Matcher matcher = SITEMAP_PAGE_NAME.matcher(StringUtils.nvl(feedName, ""));
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+
+    /**
+     * 当前版本的站点地图分页数
+     */
+    private int selectSitemapPageCount(String version)
+    {
+        return selectSitemapPages(version).pages;
+    }
+
+    /**
+     * 站点地图分页起始位置，即上一页最后一篇文章ID；逐页查询分页边界并按版本缓存
+     */
+    private long selectSitemapPageStart(String version, int page)
+    {
+        SitemapPages current = selectSitemapPages(version);
+        long lastId = 0;
+        for (int p = 1; p < page; p++)
+        {
+            Long pageLastId = current.lastIds.get(p);
+            if (pageLastId == null)
+            {
+                pageLastId = blogArticleMapper.selectBlogArticleSitemapPageLastId(lastId, SITEMAP_PAGE_ARTICLES);
+                if (pageLastId == null)
+                {
+                    break;
+                }
+                current.lastIds.put(p, pageLastId);
+            }
+            lastId = pageLastId;
+        }
+        return lastId;
+    }
+
+    /**
+     * 当前版本的站点地图分页信息，版本变化后重新统计
+     */
+    private SitemapPages selectSitemapPages(String version)
+    {
+        SitemapPages current = sitemapPages;
+        if (current == null || !current.version.equals(version))
+        {
+            int count = blogArticleMapper.countPublishedBlogArticle();
+            current = new SitemapPages(version, Math.max(1, (count + SITEMAP_PAGE_ARTICLES - 1) / SITEMAP_PAGE_ARTICLES));
+            sitemapPages = current;
+        }
+        return current;
+    }
+
+    /**
+     * 写入文本元素，值为空时跳过
+     */
+    private void writeElement(XMLStreamWriter writer, String name, String value) throws XMLStreamException
+    {
+        if (StringUtils.isEmpty(value))
+        {
+            return;
+        }
+        writer.writeStartElement(name);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    private String articleUrl(BlogArticle article)
+    {
+        return siteUrl + articlePath.replace("{id}", String.valueOf(article.getArticleId()));
+    }
+
+    private static Date lastModified(BlogArticle article)
+    {
+        return article.getUpdateTime() != null ? article.getUpdateTime() : article.getCreateTime();
+    }
+
+    private static String formatDate(Date date, DateTimeFormatter formatter)
+    {
+        return date == null ? null : formatter.format(ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()));
+    }
+
+    private String readVersion(String feedName)
+    {
+        Path path = getFeedDir().toPath().resolve(feedName + VERSION_SUFFIX);
+        try
+        {
+            return Files.exists(path) ? new String(Files.readAllBytes(path), StandardCharsets.UTF_8) : null;
+        }
+        catch (IOException e)
+        {
+            log.warn("读取订阅源版本失败: {}", path, e);
+            return null;
+        }
+    }
+
+    private static void closeQuietly(XMLStreamWriter writer)
+    {
+        if (writer != null)
+        {
+            try
+            {
+                writer.close();
+            }
+            catch (XMLStreamException e)
+            {
+                log.warn("关闭XML写入器失败", e);
+            }
+        }
+    }
+
+    private File getFeedDir()
+    {
+        return new File(RuoYiConfig.getSnapshotPath(), "feed");
+    }
+
+    private static class SitemapPages
+    {
+        private final String version;
+
+        private final int pages;
+
+        /** 页码 -> 该页最后一篇文章ID */
+        private final Map<Integer, Long> lastIds = new ConcurrentHashMap<Integer, Long>();
+
+        SitemapPages(String version, int pages)
+        {
+            this.version = version;
+            this.pages = pages;
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.ruoyi.blog.service.impl;
 
 import java.util.List;
+import com.ruoyi.common.core.cache.CacheVersion;
 import com.ruoyi.common.utils.DateUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import com.ruoyi.blog.mapper.BlogTagMapper;
 import com.ruoyi.blog.domain.BlogTag;
 import com.ruoyi.blog.service.IBlogTagService;
+import com.ruoyi.blog.service.IBlogTermCountService;
 
 /**
  * 博客标签Service业务层处理
@@ -20,6 +22,12 @@ public class BlogTagServiceImpl implements IBlogTagService
     @Autowired
     private BlogTagMapper blogTagMapper;
 
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    @Autowired
+    private IBlogTermCountService blogTermCountService;
+
     /**
      * 查询博客标签
      * 
@@ -54,7 +62,10 @@ public class BlogTagServiceImpl implements IBlogTagService
     public int insertBlogTag(BlogTag blogTag)
     {
         blogTag.setCreateTime(DateUtils.getNowDate());
-        return blogTagMapper.insertBlogTag(blogTag);
+        int rows = blogTagMapper.insertBlogTag(blogTag);
+        blogTermCountService.clearTermCountCache();
+        cacheVersion.increment("blog_tag");
+        return rows;
     }
 
     /**
@@ -67,7 +78,10 @@ public class BlogTagServiceImpl implements IBlogTagService
     public int updateBlogTag(BlogTag blogTag)
     {
         blogTag.setUpdateTime(DateUtils.getNowDate());
-        return blogTagMapper.updateBlogTag(blogTag);
+        int rows = blogTagMapper.updateBlogTag(blogTag);
+        blogTermCountService.clearTermCountCache();
+        cacheVersion.increment("blog_tag");
+        return rows;
     }
 
     /**
@@ -79,7 +93,10 @@ public class BlogTagServiceImpl implements IBlogTagService
     @Override
     public int deleteBlogTagByTagIds(Long[] tagIds)
     {
-        return blogTagMapper.deleteBlogTagByTagIds(tagIds);
+        int rows = blogTagMapper.deleteBlogTagByTagIds(tagIds);
+        blogTermCountService.clearTermCountCache();
+        cacheVersion.increment("blog_tag");
+        return rows;
     }
 
     /**
@@ -91,6 +108,9 @@ public class BlogTagServiceImpl implements IBlogTagService
     @Override
     public int deleteBlogTagByTagId(Long tagId)
     {
-        return blogTagMapper.deleteBlogTagByTagId(tagId);
+        int rows = blogTagMapper.deleteBlogTagByTagId(tagId);
+        blogTermCountService.clearTermCountCache();
+        cacheVersion.increment("blog_tag");
+        return rows;
     }
 }
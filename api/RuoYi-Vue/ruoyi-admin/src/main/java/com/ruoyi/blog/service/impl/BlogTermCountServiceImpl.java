@@ -0,0 +1,244 @@
+package com.ruoyi.blog.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.domain.BlogArticleTag;
+import com.ruoyi.blog.domain.BlogCategory;
+import com.ruoyi.blog.domain.BlogTag;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.mapper.BlogCategoryMapper;
+import com.ruoyi.blog.mapper.BlogTagMapper;
+import com.ruoyi.blog.service.IBlogTermCountService;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.cache.LocalCache;
+
+/**
+ * 博客分类/标签文章数Service业务层处理
+ *
+ * blog_category、blog_tag 的 article_count 为已发布且未删除文章数的物化结果，
+ * 文章增删改时按变更前后状态增量维护，定时任务按文章表对账校正
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+@Service
+public class BlogTermCountServiceImpl implements IBlogTermCountService
+{
+    private static final Logger log = LoggerFactory.getLogger(BlogTermCountServiceImpl.class);
+
+    private static final String TERM_COUNTS = "terms";
+
+    @Autowired
+    private BlogArticleMapper blogArticleMapper;
+
+    @Autowired
+    private BlogCategoryMapper blogCategoryMapper;
+
+    @Autowired
+    private BlogTagMapper blogTagMapper;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    /** 分类与标签文章数缓存，变更提交后清理，多节点间最多延迟60秒 */
+    private final LocalCache<String, Map<String, Object>> termCache = new LocalCache<String, Map<String, Object>>("blog_term_count", 1, 60 * 1000L);
+
+    /**
+     * 查询全部分类与标签及其已发布文章数
+     *
+     * @return categories=分类列表，tags=标签列表（按文章数倒序）
+     */
+    @Override
+    public Map<String, Object> selectTermCounts()
+    {
+        return termCache.get(TERM_COUNTS, key -> {
+            List<BlogTag> tags = blogTagMapper.selectBlogTagList(new BlogTag());
+            tags.sort((a, b) -> Long.compare(nvl(b.getArticleCount()), nvl(a.getArticleCount())));
+            Map<String, Object> terms = new HashMap<String, Object>();
+            terms.put("categories", Collections.unmodifiableList(blogCategoryMapper.selectBlogCategoryList(new BlogCategory())));
+            terms.put("tags", Collections.unmodifiableList(tags));
+            return Collections.unmodifiableMap(terms);
+        });
+    }
+
+    /**
+     * 锁定并读取文章变更前的分类、标签与发布状态，需在文章变更的同一事务内调用
+     *
+     * @param articleIds 文章ID
+     * @return 文章ID与状态的映射，不存在的文章不在其中
+     */
+    @Override
+    public Map<Long, BlogArticle> lockArticleTermStates(Long... articleIds)
+    {
+        return selectTermStates(articleIds);
+    }
+
+    /**
+     * 比较文章变更前后的状态，增量更新分类与标签的已发布文章数
+     *
+     * @param before 变更前状态
+     * @param articleIds 文章ID
+     */
+    @Override
+    public void updateTermCounts(Map<Long, BlogArticle> before, Long... articleIds)
+    {
+        Map<Long, BlogArticle> after = selectTermStates(articleIds);
+        // 按ID排序更新，并发事务以相同顺序加锁
+        Map<Long, Integer> categoryDelta = new TreeMap<Long, Integer>();
+        Map<Long, Integer> tagDelta = new TreeMap<Long, Integer>();
+        for (Long articleId : articleIds)
+        {
+            countTerms(before.get(articleId), -1, categoryDelta, tagDelta);
+            countTerms(after.get(articleId), 1, categoryDelta, tagDelta);
+        }
+        boolean changed = false;
+        for (Map.Entry<Long, Integer> entry : categoryDelta.entrySet())
+        {
+            if (entry.getValue() != 0)
+            {
+                blogCategoryMapper.updateBlogCategoryArticleCount(entry.getKey(), entry.getValue());
+                changed = true;
+            }
+        }
+        // 增量相同的标签合并为一条语句
+        Map<Integer, List<Long>> tagsByDelta = new TreeMap<Integer, List<Long>>();
+        for (Map.Entry<Long, Integer> entry : tagDelta.entrySet())
+        {
+            if (entry.getValue() != 0)
+            {
+                tagsByDelta.computeIfAbsent(entry.getValue(), k -> new ArrayList<Long>()).add(entry.getKey());
+            }
+        }
+        for (Map.Entry<Integer, List<Long>> entry : tagsByDelta.entrySet())
+        {
+            blogTagMapper.updateBlogTagArticleCount(entry.getValue(), entry.getKey());
+            changed = true;
+        }
+        if (changed)
+        {
+            afterTermCountChange();
+        }
+    }
+
+    /**
+     * 按文章表重新统计，校正增量维护产生的偏差
+     *
+     * @return 修正的分类与标签数
+     */
+    @Override
+    public int reconcileTermCounts()
+    {
+        int rows = blogCategoryMapper.reconcileBlogCategoryArticleCount() + blogTagMapper.reconcileBlogTagArticleCount();
+        if (rows > 0)
+        {
+            log.warn("分类/标签文章数存在偏差，已校正{}条", rows);
+            afterTermCountChange();
+        }
+        return rows;
+    }
+
+    /**
+     * 清空分类与标签文章数缓存
+     */
+    @Override
+    public void clearTermCountCache()
+    {
+        termCache.clear();
+    }
+
+    /**
+     * 读取文章的分类、标签与发布状态
+     */
+    private Map<Long, BlogArticle> selectTermStates(Long[] articleIds)
+    {
+        Map<Long, BlogArticle> states = new HashMap<Long, BlogArticle>();
+        if (articleIds == null || articleIds.length == 0)
+        {
+            return states;
+        }
+        for (BlogArticle article : blogArticleMapper.selectBlogArticleTermStates(articleIds))
+        {
+            states.put(article.getArticleId(), article);
+        }
+        Map<Long, List<Long>> tagIds = new HashMap<Long, List<Long>>();
+        for (BlogArticleTag articleTag : blogArticleMapper.selectBlogArticleTagByArticleIds(articleIds))
+        {
+            tagIds.computeIfAbsent(articleTag.getArticleId(), k -> new ArrayList<Long>()).add(articleTag.getTagId());
+        }
+        for (Map.Entry<Long, List<Long>> entry : tagIds.entrySet())
+        {
+            BlogArticle article = states.get(entry.getKey());
+            if (article != null)
+            {
+                article.setTagIds(entry.getValue().toArray(new Long[0]));
+            }
+        }
+        return states;
+    }
+
+    /**
+     * 已发布且未删除的文章计入其分类与标签
+     */
+    private void countTerms(BlogArticle state, int sign, Map<Long, Integer> categoryDelta, Map<Long, Integer> tagDelta)
+    {
+        if (state == null || !"1".equals(state.getStatus()) || !"0".equals(state.getDelFlag()))
+        {
+            return;
+        }
+        if (state.getCategoryId() != null)
+        {
+            categoryDelta.merge(state.getCategoryId(), sign, Integer::sum);
+        }
+        if (state.getTagIds() != null)
+        {
+            for (Long tagId : state.getTagIds())
+            {
+                tagDelta.merge(tagId, sign, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * 文章数变更后清理缓存并使分类/标签列表的ETag失效，存在事务时在提交后执行
+     */
+    private void afterTermCountChange()
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    doAfterTermCountChange();
+                }
+            });
+        }
+        else
+        {
+            doAfterTermCountChange();
+        }
+    }
+
+    private void doAfterTermCountChange()
+    {
+        termCache.clear();
+        cacheVersion.increment("blog_category", "blog_tag");
+    }
+
+    private static long nvl(Long value)
+    {
+        return value == null ? 0L : value;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ruoyi.blog.task;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.ruoyi.blog.service.IBlogArticleSnapshotService;
+import com.ruoyi.blog.service.IBlogArticleStatService;
+import com.ruoyi.blog.service.IBlogTermCountService;
+
+/**
+ * 博客定时任务
+ * 
+ * @author CYX
+ * @date 2025-11-20
+ */
+@Component("blogTask")
+public class BlogTask
+{
+    @Autowired
+    private IBlogTermCountService blogTermCountService;
+
+    @Autowired
+    private IBlogArticleStatService blogArticleStatService;
+
+    @Autowired
+    private IBlogArticleSnapshotService blogArticleSnapshotService;
+
+    /**
+     * 校正分类与标签的已发布文章数
+     */
+    public void reconcileTermCounts()
+    {
+        blogTermCountService.reconcileTermCounts();
+    }
+
+    /**
+     * 汇总文章浏览的小时、天统计并清理过期明细
+     */
+    public void rollupArticleStats()
+    {
+        blogArticleStatService.rollupStats();
+    }
+
+    /**
+     * 重新生成全部已发布文章的静态快照（一次性任务，手动执行）
+     */
+    public void refreshArticleSnapshots()
+    {
+        blogArticleSnapshotService.refreshAllSnapshots();
+    }
+}
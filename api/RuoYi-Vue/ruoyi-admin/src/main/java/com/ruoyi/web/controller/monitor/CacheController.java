@@ -1,7 +1,6 @@
 package com.ruoyi.web.controller.monitor;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,9 +16,14 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import com.alibaba.fastjson2.JSON;
 import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.LocalCache;
 import com.ruoyi.common.core.domain.AjaxResult;
+import com.ruoyi.common.core.redis.RedisCache;
+import com.ruoyi.common.core.redis.ScanPage;
 import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.web.service.TokenService;
 import com.ruoyi.system.domain.SysCache;
 
 /**
@@ -34,6 +38,15 @@ public class CacheController
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
 
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private TokenService tokenService;
+
+    /** 键名列表最多返回的数量 */
+    private static final int MAX_LIST_KEYS = 10000;
+
     private final static List<SysCache> caches = new ArrayList<SysCache>();
     {
         caches.add(new SysCache(CacheConstants.LOGIN_TOKEN_KEY, "用户信息"));
@@ -43,6 +56,7 @@ public class CacheController
         caches.add(new SysCache(CacheConstants.REPEAT_SUBMIT_KEY, "防重提交"));
         caches.add(new SysCache(CacheConstants.RATE_LIMIT_KEY, "限流处理"));
         caches.add(new SysCache(CacheConstants.PWD_ERR_CNT_KEY, "密码错误次数"));
+        caches.add(new SysCache(CacheConstants.BLOG_ARTICLE_KEY, "博客文章"));
     }
 
     @PreAuthorize("@ss.hasPermi('monitor:cache:list')")
@@ -53,9 +67,10 @@ public class CacheController
         Properties commandStats = (Properties) redisTemplate.execute((RedisCallback<Object>) connection -> connection.info("commandstats"));
         Object dbSize = redisTemplate.execute((RedisCallback<Object>) connection -> connection.dbSize());
 
-        Map<String, Object> result = new HashMap<>(3);
+        Map<String, Object> result = new HashMap<>(4);
         result.put("info", info);
         result.put("dbSize", dbSize);
+        result.put("localCaches", LocalCache.getAllStats());
 
         List<Map<String, String>> pieList = new ArrayList<>();
         commandStats.stringPropertyNames().forEach(key -> {
@@ -78,17 +93,36 @@ public class CacheController
 
     @PreAuthorize("@ss.hasPermi('monitor:cache:list')")
     @GetMapping("/getKeys/{cacheName}")
-    public AjaxResult getCacheKeys(@PathVariable String cacheName)
+    public AjaxResult getCacheKeys(@PathVariable String cacheName, String cursor, Integer pageSize)
     {
-        Set<String> cacheKeys = redisTemplate.keys(cacheName + "*");
-        return AjaxResult.success(new TreeSet<>(cacheKeys));
+        // 未传游标时最多返回 MAX_LIST_KEYS 个并排序，传游标时按 SCAN 顺序返回一页及下一页游标
+        if (cursor == null)
+        {
+            ScanPage page = redisCache.scanKeys(cacheName + "*", ScanPage.START, MAX_LIST_KEYS);
+            List<String> cacheKeys = page.getKeys();
+            boolean hasMore = !page.isFinished() || cacheKeys.size() > MAX_LIST_KEYS;
+            Set<String> sortedKeys = new TreeSet<>(cacheKeys.size() > MAX_LIST_KEYS ? cacheKeys.subList(0, MAX_LIST_KEYS) : cacheKeys);
+            return AjaxResult.success(sortedKeys).put("hasMore", hasMore);
+        }
+        int size = pageSize == null ? 100 : Math.min(Math.max(pageSize, 1), 1000);
+        ScanPage page = redisCache.scanKeys(cacheName + "*", cursor, size);
+        return AjaxResult.success(page.getKeys()).put("cursor", page.getCursor()).put("hasMore", !page.isFinished());
     }
 
     @PreAuthorize("@ss.hasPermi('monitor:cache:list')")
     @GetMapping("/getValue/{cacheName}/{cacheKey}")
     public AjaxResult getCacheValue(@PathVariable String cacheName, @PathVariable String cacheKey)
     {
-        String cacheValue = redisTemplate.opsForValue().get(cacheKey);
+        String cacheValue;
+        if (cacheKey.startsWith(CacheConstants.LOGIN_TOKEN_KEY))
+        {
+            // 登录用户为二进制格式，转为JSON展示
+            cacheValue = JSON.toJSONString(tokenService.getLoginUserByUuid(StringUtils.removeStart(cacheKey, CacheConstants.LOGIN_TOKEN_KEY)));
+        }
+        else
+        {
+            cacheValue = redisTemplate.opsForValue().get(cacheKey);
+        }
         SysCache sysCache = new SysCache(cacheName, cacheKey, cacheValue);
         return AjaxResult.success(sysCache);
     }
@@ -97,8 +131,12 @@ public class CacheController
     @DeleteMapping("/clearCacheName/{cacheName}")
     public AjaxResult clearCacheName(@PathVariable String cacheName)
     {
-        Collection<String> cacheKeys = redisTemplate.keys(cacheName + "*");
-        redisTemplate.delete(cacheKeys);
+        redisCache.deleteByPattern(cacheName + "*");
+        if (CacheConstants.LOGIN_TOKEN_KEY.equals(cacheName))
+        {
+            redisCache.deleteByPattern(CacheConstants.LOGIN_TOKEN_INDEX_KEY + "*");
+            tokenService.clearLoginUserCache();
+        }
         return AjaxResult.success();
     }
 
@@ -106,7 +144,14 @@ public class CacheController
     @DeleteMapping("/clearCacheKey/{cacheKey}")
     public AjaxResult clearCacheKey(@PathVariable String cacheKey)
     {
-        redisTemplate.delete(cacheKey);
+        if (cacheKey.startsWith(CacheConstants.LOGIN_TOKEN_KEY))
+        {
+            tokenService.delLoginUser(StringUtils.removeStart(cacheKey, CacheConstants.LOGIN_TOKEN_KEY));
+        }
+        else
+        {
+            redisTemplate.delete(cacheKey);
+        }
         return AjaxResult.success();
     }
 
@@ -114,8 +159,9 @@ public class CacheController
     @DeleteMapping("/clearCacheAll")
     public AjaxResult clearCacheAll()
     {
-        Collection<String> cacheKeys = redisTemplate.keys("*");
-        redisTemplate.delete(cacheKeys);
+        // 保留缓存版本号，清理业务缓存不应使客户端持有的ETag全部失效；图片尺寸记录对应磁盘文件，清除后会重新生成全部尺寸
+        redisCache.deleteByPattern("*", key -> !key.startsWith(CacheConstants.HTTP_CACHE_VERSION_KEY) && !CacheConstants.IMAGE_VARIANT_KEY.equals(key));
+        tokenService.clearLoginUserCache();
         return AjaxResult.success();
     }
 }
@@ -1,7 +1,6 @@
 package com.ruoyi.web.controller.monitor;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,14 +11,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.ruoyi.common.annotation.Log;
-import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.constant.HttpStatus;
 import com.ruoyi.common.core.controller.BaseController;
 import com.ruoyi.common.core.domain.AjaxResult;
 import com.ruoyi.common.core.domain.model.LoginUser;
+import com.ruoyi.common.core.page.PageDomain;
 import com.ruoyi.common.core.page.TableDataInfo;
-import com.ruoyi.common.core.redis.RedisCache;
+import com.ruoyi.common.core.page.TableSupport;
 import com.ruoyi.common.enums.BusinessType;
+import com.ruoyi.common.utils.ServletUtils;
 import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.web.service.TokenService;
 import com.ruoyi.system.domain.SysUserOnline;
 import com.ruoyi.system.service.ISysUserOnlineService;
 
@@ -36,18 +38,32 @@ public class SysUserOnlineController extends BaseController
     private ISysUserOnlineService userOnlineService;
 
     @Autowired
-    private RedisCache redisCache;
+    private TokenService tokenService;
 
     @PreAuthorize("@ss.hasPermi('monitor:online:list')")
     @GetMapping("/list")
     public TableDataInfo list(String ipaddr, String userName)
     {
-        Collection<String> keys = redisCache.keys(CacheConstants.LOGIN_TOKEN_KEY + "*");
+        // 按会话索引读取；未传分页参数或同时按地址和用户名筛选时读取全部后再分页
+        boolean paged = ServletUtils.getParameter(TableSupport.PAGE_NUM) != null;
+        boolean filterBoth = StringUtils.isNotEmpty(ipaddr) && StringUtils.isNotEmpty(userName);
+        PageDomain pageDomain = TableSupport.buildPageRequest();
+        long offset = (long) (Math.max(1, pageDomain.getPageNum()) - 1) * pageDomain.getPageSize();
+        List<LoginUser> users;
+        long total = -1;
+        if (paged && !filterBoth)
+        {
+            total = tokenService.countOnlineLoginUsers(ipaddr, userName);
+            users = tokenService.selectOnlineLoginUsers(ipaddr, userName, offset, pageDomain.getPageSize());
+        }
+        else
+        {
+            users = tokenService.selectOnlineLoginUsers(ipaddr, userName, 0, -1);
+        }
         List<SysUserOnline> userOnlineList = new ArrayList<SysUserOnline>();
-        for (String key : keys)
+        for (LoginUser user : users)
         {
-            LoginUser user = redisCache.getCacheObject(key);
-            if (StringUtils.isNotEmpty(ipaddr) && StringUtils.isNotEmpty(userName))
+            if (filterBoth)
             {
                 userOnlineList.add(userOnlineService.selectOnlineByInfo(ipaddr, userName, user));
             }
@@ -64,9 +80,20 @@ public class SysUserOnlineController extends BaseController
                 userOnlineList.add(userOnlineService.loginUserToUserOnline(user));
             }
         }
-        Collections.reverse(userOnlineList);
         userOnlineList.removeAll(Collections.singleton(null));
-        return getDataTable(userOnlineList);
+        if (total < 0)
+        {
+            total = userOnlineList.size();
+            if (paged)
+            {
+                int from = (int) Math.min(offset, userOnlineList.size());
+                userOnlineList = userOnlineList.subList(from, (int) Math.min(from + pageDomain.getPageSize(), userOnlineList.size()));
+            }
+        }
+        TableDataInfo rspData = new TableDataInfo(userOnlineList, total);
+        rspData.setCode(HttpStatus.SUCCESS);
+        rspData.setMsg("查询成功");
+        return rspData;
     }
 
     /**
@@ -77,7 +104,18 @@ public class SysUserOnlineController extends BaseController
     @DeleteMapping("/{tokenId}")
     public AjaxResult forceLogout(@PathVariable String tokenId)
     {
-        redisCache.deleteObject(CacheConstants.LOGIN_TOKEN_KEY + tokenId);
+        tokenService.delLoginUser(tokenId);
         return success();
     }
+
+    /**
+     * 强退用户的全部会话
+     */
+    @PreAuthorize("@ss.hasPermi('monitor:online:forceLogout')")
+    @Log(title = "在线用户", businessType = BusinessType.FORCE)
+    @DeleteMapping("/user/{userName}")
+    public AjaxResult forceLogoutUser(@PathVariable String userName)
+    {
+        return success(tokenService.delLoginUserByUserName(userName));
+    }
 }
@@ -1,7 +1,8 @@
 package com.ruoyi.web.controller.system;
 
+import java.util.HashSet;
 import java.util.List;
-import org.apache.commons.lang3.ArrayUtils;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -53,7 +54,8 @@ public class SysDeptController extends BaseController
     public AjaxResult excludeChild(@PathVariable(value = "deptId", required = false) Long deptId)
     {
         List<SysDept> depts = deptService.selectDeptList(new SysDept());
-        depts.removeIf(d -> d.getDeptId().intValue() == deptId || ArrayUtils.contains(StringUtils.split(d.getAncestors(), ","), deptId + ""));
+        Set<Long> excludeIds = new HashSet<Long>(deptService.selectDeptAndChildIds(deptId));
+        depts.removeIf(d -> excludeIds.contains(d.getDeptId()));
         return success(depts);
     }
 
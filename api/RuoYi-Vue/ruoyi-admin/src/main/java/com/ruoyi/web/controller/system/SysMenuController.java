@@ -19,6 +19,7 @@ import com.ruoyi.common.core.domain.AjaxResult;
 import com.ruoyi.common.core.domain.entity.SysMenu;
 import com.ruoyi.common.enums.BusinessType;
 import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.web.service.SysPermissionService;
 import com.ruoyi.system.service.ISysMenuService;
 
 /**
@@ -33,6 +34,9 @@ public class SysMenuController extends BaseController
     @Autowired
     private ISysMenuService menuService;
 
+    @Autowired
+    private SysPermissionService permissionService;
+
     /**
      * 获取菜单列表
      */
@@ -118,7 +122,14 @@ public class SysMenuController extends BaseController
             return error("修改菜单'" + menu.getMenuName() + "'失败，上级菜单不能选择自己");
         }
         menu.setUpdateBy(getUsername());
-        return toAjax(menuService.updateMenu(menu));
+        SysMenu old = menuService.selectMenuById(menu.getMenuId());
+        int rows = menuService.updateMenu(menu);
+        // 权限标识或状态变化时在线会话的权限随之变化
+        if (old != null && (!StringUtils.equals(old.getPerms(), menu.getPerms()) || !StringUtils.equals(old.getStatus(), menu.getStatus())))
+        {
+            permissionService.refreshAllLoginUsers();
+        }
+        return toAjax(rows);
     }
 
     /**
@@ -27,6 +27,7 @@ import com.ruoyi.common.enums.BusinessType;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.poi.ExcelUtil;
+import com.ruoyi.framework.web.service.SysPermissionService;
 import com.ruoyi.system.service.ISysDeptService;
 import com.ruoyi.system.service.ISysPostService;
 import com.ruoyi.system.service.ISysRoleService;
@@ -44,6 +45,9 @@ public class SysUserController extends BaseController
     @Autowired
     private ISysUserService userService;
 
+    @Autowired
+    private SysPermissionService permissionService;
+
     @Autowired
     private ISysRoleService roleService;
 
@@ -168,7 +172,9 @@ public class SysUserController extends BaseController
             return error("修改用户'" + user.getUserName() + "'失败，邮箱账号已存在");
         }
         user.setUpdateBy(getUsername());
-        return toAjax(userService.updateUser(user));
+        int rows = userService.updateUser(user);
+        permissionService.refreshLoginUsers(user.getUserId());
+        return toAjax(rows);
     }
 
     /**
@@ -212,7 +218,9 @@ public class SysUserController extends BaseController
         userService.checkUserAllowed(user);
         userService.checkUserDataScope(user.getUserId());
         user.setUpdateBy(getUsername());
-        return toAjax(userService.updateUserStatus(user));
+        int rows = userService.updateUserStatus(user);
+        permissionService.refreshLoginUsers(user.getUserId());
+        return toAjax(rows);
     }
 
     /**
@@ -241,6 +249,7 @@ public class SysUserController extends BaseController
         userService.checkUserDataScope(userId);
         roleService.checkRoleDataScope(roleIds);
         userService.insertUserAuth(userId, roleIds);
+        permissionService.refreshLoginUsers(userId);
         return success();
     }
 
@@ -0,0 +1,96 @@
+package com.ruoyi.blog.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.Date;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.service.IBlogArticleService;
+import com.ruoyi.blog.service.IBlogArticleViewService;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.domain.AjaxResult;
+
+/**
+ * 博客文章详情协商缓存测试
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleControllerTest
+{
+    private BlogArticleController controller;
+
+    private IBlogArticleViewService viewService;
+
+    private CacheVersion cacheVersion;
+
+    @BeforeEach
+    public void setUp()
+    {
+        BlogArticle article = new BlogArticle();
+        article.setArticleId(10L);
+        article.setStatus("1");
+        article.setViewCount(5L);
+        article.setUpdateTime(new Date(1700000000000L));
+        IBlogArticleService articleService = mock(IBlogArticleService.class);
+        when(articleService.selectPublishedBlogArticleByArticleId(10L)).thenReturn(article);
+        viewService = mock(IBlogArticleViewService.class);
+        cacheVersion = mock(CacheVersion.class);
+        when(cacheVersion.buildETag(anyString(), anyString(), anyString())).thenAnswer(invocation -> "W/\"" + invocation.getArgument(0) + "\"");
+        controller = new BlogArticleController();
+        ReflectionTestUtils.setField(controller, "blogArticleService", articleService);
+        ReflectionTestUtils.setField(controller, "blogArticleViewService", viewService);
+        ReflectionTestUtils.setField(controller, "cacheVersion", cacheVersion);
+    }
+
+    @Test
+    public void etagIgnoresViewCount()
+    {
+        when(viewService.selectViewCount(10L, 5L)).thenReturn(6L, 7L);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        AjaxResult body = controller.getInfo(10L, new ServletWebRequest(new MockHttpServletRequest("GET", "/blog/article/10"), first), first);
+        assertNotNull(body);
+        assertEquals(6L, ((BlogArticle) body.get(AjaxResult.DATA_TAG)).getViewCount());
+        String etag = first.getHeader(HttpHeaders.ETAG);
+
+        // 浏览量变化后重新校验仍命中304
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/blog/article/10");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertNull(controller.getInfo(10L, new ServletWebRequest(request, second), second));
+        assertEquals(304, second.getStatus());
+        assertEquals(etag, second.getHeader(HttpHeaders.ETAG));
+        verify(cacheVersion, times(2)).buildETag(anyString(), eq("blog_article"), eq("blog_category"));
+    }
+
+    @Test
+    public void notModifiedStillCountsView()
+    {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        controller.getInfo(10L, new ServletWebRequest(new MockHttpServletRequest("GET", "/blog/article/10"), first), first);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/blog/article/10");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        controller.getInfo(10L, new ServletWebRequest(request, second), second);
+
+        verify(viewService, times(2)).recordView(10L);
+        // 304 不读取合并后的浏览量
+        verify(viewService, times(1)).selectViewCount(any(), anyLong());
+    }
+}
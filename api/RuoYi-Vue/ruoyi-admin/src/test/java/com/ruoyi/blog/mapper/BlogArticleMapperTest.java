@@ -0,0 +1,147 @@
+package com.ruoyi.blog.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.InputStream;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.domain.BlogArticleTag;
+import com.ruoyi.blog.domain.vo.BlogArticleSearchVo;
+
+/**
+ * 博客文章 数据层SQL测试
+ *
+ * 只解析映射文件并生成SQL，不连接数据库
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleMapperTest
+{
+    private static final String MAPPER = "mapper/blog/BlogArticleMapper.xml";
+
+    private static final String NAMESPACE = BlogArticleMapper.class.getName();
+
+    private static Configuration configuration;
+
+    @BeforeAll
+    public static void parseMapper() throws Exception
+    {
+        configuration = new Configuration();
+        configuration.getTypeAliasRegistry().registerAlias(BlogArticle.class);
+        configuration.getTypeAliasRegistry().registerAlias(BlogArticleTag.class);
+        configuration.getTypeAliasRegistry().registerAlias(BlogArticleSearchVo.class);
+        try (InputStream inputStream = Resources.getResourceAsStream(MAPPER))
+        {
+            new XMLMapperBuilder(inputStream, configuration, MAPPER, configuration.getSqlFragments()).parse();
+        }
+    }
+
+    @Test
+    public void listOmitsContentByDefault()
+    {
+        String columns = selectColumns(new BlogArticle());
+
+        assertFalse(columns.contains("ba.content"));
+        assertTrue(columns.contains("as tag_names"));
+        assertTrue(columns.contains("as comment_count"));
+    }
+
+    @Test
+    public void listWithContentSelectsFullColumns()
+    {
+        BlogArticle article = new BlogArticle();
+        article.getParams().put("withContent", Boolean.TRUE);
+
+        String columns = selectColumns(article);
+
+        assertTrue(columns.contains("ba.content"));
+        assertFalse(columns.contains("tag_names"));
+    }
+
+    @Test
+    public void tagNamesAndCommentCountMapped()
+    {
+        StringBuilder columns = new StringBuilder();
+        for (ResultMapping mapping : configuration.getResultMap(NAMESPACE + ".BlogArticleResult").getResultMappings())
+        {
+            columns.append(mapping.getProperty()).append('=').append(mapping.getColumn()).append(';');
+        }
+
+        assertTrue(columns.toString().contains("tagNames=tag_names;"));
+        assertTrue(columns.toString().contains("commentCount=comment_count;"));
+    }
+
+    @Test
+    public void listFiltersStillApplied()
+    {
+        BlogArticle article = new BlogArticle();
+        article.setStatus("1");
+        article.getParams().put("tagId", 3L);
+
+        String sql = sql(article);
+
+        assertTrue(sql.contains("ba.del_flag = '0'"));
+        assertTrue(sql.contains("ba.status = ?"));
+        assertTrue(sql.contains("bat.tag_id = ?"));
+    }
+
+    @Test
+    public void keywordUsesFulltextIndex()
+    {
+        BlogArticle article = new BlogArticle();
+        article.setTitle("缓存");
+        article.getParams().put("keyword", "缓存");
+
+        String sql = sql(article);
+
+        assertTrue(sql.contains("match(ba.title, ba.summary, ba.content) against(? in natural language mode)"));
+        assertFalse(sql.contains("like"));
+    }
+
+    @Test
+    public void singleCharacterKeywordMatchesTitle()
+    {
+        BlogArticle article = new BlogArticle();
+        article.setTitle("锁");
+        article.getParams().put("keyword", "锁");
+
+        String sql = sql(article);
+
+        assertTrue(sql.contains("ba.title like concat('%', ?, '%')"));
+        assertFalse(sql.contains("ba.content like"));
+    }
+
+    @Test
+    public void likeSearchOnlyWhenRequested()
+    {
+        BlogArticle article = new BlogArticle();
+        article.setTitle("缓存");
+        article.getParams().put("likeSearch", Boolean.TRUE);
+
+        String sql = sql(article);
+
+        assertTrue(sql.contains("ba.content like concat('%', ?, '%')"));
+        assertFalse(sql.contains("match("));
+    }
+
+    /**
+     * 列表语句 from 之前的查询列
+     */
+    private static String selectColumns(BlogArticle article)
+    {
+        String sql = sql(article);
+        return sql.substring(0, sql.indexOf(" from blog_article ba"));
+    }
+
+    private static String sql(BlogArticle article)
+    {
+        String sql = configuration.getMappedStatement(NAMESPACE + ".selectBlogArticleList").getBoundSql(article).getSql();
+        return sql.trim().replaceAll("\\s+", " ");
+    }
+}
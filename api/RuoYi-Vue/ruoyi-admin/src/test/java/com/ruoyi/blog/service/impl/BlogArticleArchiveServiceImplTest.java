@@ -0,0 +1,388 @@
+package com.ruoyi.blog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import javax.sql.DataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.domain.BlogArticleTag;
+import com.ruoyi.blog.domain.BlogCategory;
+import com.ruoyi.blog.domain.BlogTag;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.mapper.BlogCategoryMapper;
+import com.ruoyi.blog.mapper.BlogTagMapper;
+import com.ruoyi.blog.service.IBlogArticleSnapshotService;
+import com.ruoyi.blog.service.IBlogTermCountService;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.redis.RedisCache;
+import com.ruoyi.common.utils.DateUtils;
+
+/**
+ * 文章归档导入导出测试
+ *
+ * 已有分类：后端(5)；已有标签：java(7)
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleArchiveServiceImplTest
+{
+    @TempDir
+    Path tempDir;
+
+    private BlogArticleArchiveServiceImpl service;
+
+    private BlogArticleMapper articleMapper;
+
+    /** BATCH 执行器取得的文章Mapper */
+    private BlogArticleMapper batchArticleMapper;
+
+    private BlogCategoryMapper batchCategoryMapper;
+
+    private BlogTagMapper batchTagMapper;
+
+    private IBlogTermCountService termCountService;
+
+    private IBlogArticleSnapshotService snapshotService;
+
+    private CacheVersion cacheVersion;
+
+    /** 写入的文章 */
+    private final List<BlogArticle> inserted = new ArrayList<BlogArticle>();
+
+    /** 写入的文章标签关联 */
+    private final List<BlogArticleTag> insertedTags = new ArrayList<BlogArticleTag>();
+
+    /** 导入进度，key为Redis键 */
+    private final Map<String, Map<String, Object>> progresses = new ConcurrentHashMap<String, Map<String, Object>>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp()
+    {
+        articleMapper = mock(BlogArticleMapper.class);
+        BlogCategoryMapper categoryMapper = mock(BlogCategoryMapper.class);
+        when(categoryMapper.selectBlogCategoryList(any())).thenReturn(Collections.singletonList(category(5L, "后端")));
+        BlogTagMapper tagMapper = mock(BlogTagMapper.class);
+        when(tagMapper.selectBlogTagList(any())).thenReturn(Collections.singletonList(tag(7L, "java")));
+
+        AtomicLong ids = new AtomicLong(100);
+        batchArticleMapper = mock(BlogArticleMapper.class);
+        doAnswer(invocation -> {
+            BlogArticle article = invocation.getArgument(0);
+            article.setArticleId(1000L + inserted.size());
+            inserted.add(article);
+            return 1;
+        }).when(batchArticleMapper).insertImportedBlogArticle(any());
+        doAnswer(invocation -> {
+            insertedTags.addAll(invocation.<List<BlogArticleTag>>getArgument(0));
+            return 1;
+        }).when(batchArticleMapper).batchInsertBlogArticleTag(anyList());
+        batchCategoryMapper = mock(BlogCategoryMapper.class);
+        doAnswer(invocation -> {
+            invocation.<BlogCategory>getArgument(0).setCategoryId(ids.getAndIncrement());
+            return 1;
+        }).when(batchCategoryMapper).insertBlogCategory(any());
+        batchTagMapper = mock(BlogTagMapper.class);
+        doAnswer(invocation -> {
+            invocation.<BlogTag>getArgument(0).setTagId(ids.getAndIncrement());
+            return 1;
+        }).when(batchTagMapper).insertBlogTag(any());
+        SqlSessionTemplate batchSqlSession = mock(SqlSessionTemplate.class);
+        when(batchSqlSession.getMapper(BlogArticleMapper.class)).thenReturn(batchArticleMapper);
+        when(batchSqlSession.getMapper(BlogCategoryMapper.class)).thenReturn(batchCategoryMapper);
+        when(batchSqlSession.getMapper(BlogTagMapper.class)).thenReturn(batchTagMapper);
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            int articles = inserted.size();
+            int articleTags = insertedTags.size();
+            try
+            {
+                return ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null);
+            }
+            catch (RuntimeException e)
+            {
+                // 模拟回滚，撤销本事务写入的数据
+                inserted.subList(articles, inserted.size()).clear();
+                insertedTags.subList(articleTags, insertedTags.size()).clear();
+                throw e;
+            }
+        });
+        RedisCache redisCache = mock(RedisCache.class);
+        doAnswer(invocation -> {
+            progresses.put(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(redisCache).setCacheObject(anyString(), any(), any(), any());
+        SqlSessionFactory sqlSessionFactory = mock(SqlSessionFactory.class);
+        when(sqlSessionFactory.getConfiguration()).thenReturn(new Configuration(new Environment("test", new JdbcTransactionFactory(), mock(DataSource.class))));
+        termCountService = mock(IBlogTermCountService.class);
+        snapshotService = mock(IBlogArticleSnapshotService.class);
+        cacheVersion = mock(CacheVersion.class);
+
+        service = new BlogArticleArchiveServiceImpl();
+        ReflectionTestUtils.setField(service, "blogArticleMapper", articleMapper);
+        ReflectionTestUtils.setField(service, "blogCategoryMapper", categoryMapper);
+        ReflectionTestUtils.setField(service, "blogTagMapper", tagMapper);
+        ReflectionTestUtils.setField(service, "sqlSessionFactory", sqlSessionFactory);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "redisCache", redisCache);
+        ReflectionTestUtils.setField(service, "cacheVersion", cacheVersion);
+        ReflectionTestUtils.setField(service, "blogTermCountService", termCountService);
+        ReflectionTestUtils.setField(service, "blogArticleSnapshotService", snapshotService);
+        ReflectionTestUtils.setField(service, "batchSize", 200);
+        ReflectionTestUtils.setField(service, "maxEntrySize", 1024);
+        ReflectionTestUtils.setField(service, "importWorkers", 1);
+        ReflectionTestUtils.setField(service, "importQueueCapacity", 2);
+        service.init();
+        ReflectionTestUtils.setField(service, "batchSqlSession", batchSqlSession);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        service.destroy();
+    }
+
+    @Test
+    public void exportThenImportRoundTrip() throws Exception
+    {
+        // 导出查询以换行分隔标签名，标签名可以含逗号
+        BlogArticle published = article(1L, "Hello: \"World\"", "后端", "java\nspring, boot", "1");
+        published.setSummary("摘要：含冒号");
+        published.setAllowComment("0");
+        published.setContent("正文\n---\n分隔线之后");
+        BlogArticle draft = article(2L, "草稿", "随笔", null, "0");
+        when(articleMapper.selectBlogArticleArchiveCursor()).thenReturn(new ListCursor<BlogArticle>(Arrays.asList(published, draft)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportArchive(out);
+        assertEquals(Arrays.asList("1.md", "2.md"), entryNames(out.toByteArray()));
+        File archive = tempDir.resolve("export.zip").toFile();
+        Files.write(archive.toPath(), out.toByteArray());
+
+        Map<String, Object> progress = importAndWait(archive);
+
+        assertEquals("finished", progress.get("status"));
+        assertEquals(2, progress.get("total"));
+        assertEquals(2, progress.get("success"));
+        assertEquals(0, progress.get("failure"));
+        assertFalse(archive.exists());
+        assertEquals(2, inserted.size());
+        BlogArticle first = inserted.get(0);
+        assertEquals("Hello: \"World\"", first.getTitle());
+        assertEquals("摘要：含冒号", first.getSummary());
+        assertEquals("正文\n---\n分隔线之后", first.getContent());
+        assertEquals("1", first.getStatus());
+        assertEquals("0", first.getAllowComment());
+        assertEquals(published.getCreateTime(), first.getCreateTime());
+        assertEquals(Long.valueOf(5L), first.getCategoryId());
+        assertArrayEquals(new Long[] { 7L, 100L }, first.getTagIds());
+        ArgumentCaptor<BlogTag> createdTag = ArgumentCaptor.forClass(BlogTag.class);
+        verify(batchTagMapper).insertBlogTag(createdTag.capture());
+        assertEquals("spring, boot", createdTag.getValue().getName());
+        assertEquals(Long.valueOf(9L), first.getUserId());
+        assertEquals("admin", first.getCreateBy());
+        BlogArticle second = inserted.get(1);
+        assertEquals("0", second.getStatus());
+        assertEquals("1", second.getAllowComment());
+        assertEquals(Long.valueOf(101L), second.getCategoryId());
+        assertEquals(0, second.getTagIds().length);
+        assertEquals(2, insertedTags.size());
+        assertEquals(Long.valueOf(1000L), insertedTags.get(1).getArticleId());
+        assertEquals(Long.valueOf(100L), insertedTags.get(1).getTagId());
+
+        verify(termCountService).reconcileTermCounts();
+        verify(termCountService).clearTermCountCache();
+        verify(snapshotService).refreshSnapshotAsync(1000L, 1001L);
+        verify(cacheVersion).increment("blog_article", "blog_category", "blog_tag");
+    }
+
+    @Test
+    public void failedBatchRetriedPerArticle() throws Exception
+    {
+        doAnswer(invocation -> {
+            BlogArticle article = invocation.getArgument(0);
+            if ("bad".equals(article.getTitle()))
+            {
+                throw new IllegalStateException("duplicate");
+            }
+            article.setArticleId(1000L + inserted.size());
+            inserted.add(article);
+            return 1;
+        }).when(batchArticleMapper).insertImportedBlogArticle(any());
+        Map<String, String> entries = new LinkedHashMap<String, String>();
+        entries.put("good.md", "---\ntitle: good\ncategory: 新分类\n---\n正文");
+        entries.put("bad.md", "---\ncategory: 新分类\n---\n正文");
+        entries.put("nocat.md", "没有 front-matter");
+        entries.put("readme.txt", "忽略");
+
+        Map<String, Object> progress = importAndWait(zip(entries));
+
+        assertEquals("finished", progress.get("status"));
+        assertEquals(3, progress.get("total"));
+        assertEquals(1, progress.get("success"));
+        assertEquals(2, progress.get("failure"));
+        assertEquals(Arrays.asList("nocat.md：缺少分类", "bad.md：duplicate"), progress.get("errors"));
+        // 首个批次回滚后新建的分类随之撤销，重试时重新创建一次，之后复用已提交的ID
+        verify(batchCategoryMapper, times(2)).insertBlogCategory(any());
+        assertEquals(1, inserted.size());
+        verify(snapshotService).refreshSnapshotAsync(inserted.get(0).getArticleId());
+    }
+
+    @Test
+    public void parseFrontMatterVariants() throws Exception
+    {
+        Map<String, String> entries = new LinkedHashMap<String, String>();
+        entries.put("posts/无标题.md", "\uFEFF---\r\n# 注释: 忽略\r\ncategory: 后端\r\ntags: ['java', 'it''s']\r\ndraft: true\r\ndate: 2024-05-06\r\n---\r\n第一行\r\n第二行");
+        entries.put("big.md", "---\ncategory: 后端\n---\n" + String.join("", Collections.nCopies(1100, "x")));
+
+        Map<String, Object> progress = importAndWait(zip(entries));
+
+        assertEquals(1, progress.get("success"));
+        assertEquals(Collections.singletonList("big.md：文件超过1024字节"), progress.get("errors"));
+        BlogArticle article = inserted.get(0);
+        assertEquals("无标题", article.getTitle());
+        assertEquals("第一行\n第二行", article.getContent());
+        assertEquals("0", article.getStatus());
+        assertEquals(DateUtils.parseDate("2024-05-06"), article.getCreateTime());
+        assertEquals(Long.valueOf(5L), article.getCategoryId());
+        assertArrayEquals(new Long[] { 7L, 100L }, article.getTagIds());
+        verify(batchTagMapper).insertBlogTag(any());
+    }
+
+    @Test
+    public void jsonTagListKeepsCommas() throws Exception
+    {
+        Map<String, Object> progress = importAndWait(zip(Collections.singletonMap("a.md",
+                "---\ncategory: 后端\ntags: [\"java\", \"a, b\", \"\"]\n---\n正文")));
+
+        assertEquals(1, progress.get("success"));
+        assertArrayEquals(new Long[] { 7L, 100L }, inserted.get(0).getTagIds());
+        ArgumentCaptor<BlogTag> createdTag = ArgumentCaptor.forClass(BlogTag.class);
+        verify(batchTagMapper).insertBlogTag(createdTag.capture());
+        assertEquals("a, b", createdTag.getValue().getName());
+    }
+
+    @Test
+    public void nothingImportedSkipsRefresh() throws Exception
+    {
+        Map<String, Object> progress = importAndWait(zip(Collections.singletonMap("empty.md", "")));
+
+        assertEquals(1, progress.get("failure"));
+        verify(termCountService, never()).reconcileTermCounts();
+        verify(cacheVersion, never()).increment("blog_article", "blog_category", "blog_tag");
+    }
+
+    /**
+     * 提交导入并等待导入线程结束，返回最终进度
+     */
+    private Map<String, Object> importAndWait(File archive)
+    {
+        String taskId = service.importArchiveAsync(archive, 9L, "admin");
+        service.destroy();
+        Map<String, Object> progress = progresses.get(CacheConstants.BLOG_ARTICLE_IMPORT_KEY + taskId);
+        assertTrue(progress != null);
+        return progress;
+    }
+
+    private File zip(Map<String, String> entries) throws Exception
+    {
+        File archive = Files.createTempFile(tempDir, "import", ".zip").toFile();
+        try (OutputStream out = Files.newOutputStream(archive.toPath()); ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8))
+        {
+            for (Map.Entry<String, String> entry : entries.entrySet())
+            {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return archive;
+    }
+
+    private static List<String> entryNames(byte[] archive) throws Exception
+    {
+        List<String> names = new ArrayList<String>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive), StandardCharsets.UTF_8))
+        {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null)
+            {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+
+    private static BlogArticle article(Long articleId, String title, String categoryName, String tagNames, String status)
+    {
+        BlogArticle article = new BlogArticle();
+        article.setArticleId(articleId);
+        article.setTitle(title);
+        article.setCategoryName(categoryName);
+        article.setTagNames(tagNames);
+        article.setStatus(status);
+        article.setAllowComment("1");
+        article.setCreateTime(DateUtils.parseDate("2025-01-02 03:04:05"));
+        return article;
+    }
+
+    private static BlogCategory category(Long categoryId, String name)
+    {
+        BlogCategory category = new BlogCategory();
+        category.setCategoryId(categoryId);
+        category.setName(name);
+        return category;
+    }
+
+    private static BlogTag tag(Long tagId, String name)
+    {
+        BlogTag tag = new BlogTag();
+        tag.setTagId(tagId);
+        tag.setName(name);
+        return tag;
+    }
+}
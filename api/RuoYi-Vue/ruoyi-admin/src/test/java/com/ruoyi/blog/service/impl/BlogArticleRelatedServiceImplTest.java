@@ -0,0 +1,155 @@
+package com.ruoyi.blog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.domain.BlogArticleTag;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.common.core.cache.CacheVersion;
+
+/**
+ * 相关文章测试
+ *
+ * 文章1：分类10，标签1/2/3；文章2与之完全相同；文章3为其他分类、标签1/2；
+ * 文章4为同分类、无标签；文章5无任何关联
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleRelatedServiceImplTest
+{
+    private BlogArticleRelatedServiceImpl service;
+
+    private BlogArticleMapper mapper;
+
+    private CacheVersion cacheVersion;
+
+    private final Date now = new Date();
+
+    @BeforeEach
+    public void setUp()
+    {
+        mapper = mock(BlogArticleMapper.class);
+        cacheVersion = mock(CacheVersion.class);
+        when(cacheVersion.get("blog_article")).thenReturn(1L);
+        when(cacheVersion.get("blog_category")).thenReturn(1L);
+        when(mapper.selectBlogArticleRelatedList(isNull())).thenReturn(Arrays.asList(article(1L, 10L, now), article(2L, 10L, now),
+                article(3L, 20L, now), article(4L, 10L, now), article(5L, 30L, now)));
+        when(mapper.selectPublishedBlogArticleTagList(isNull())).thenReturn(tags(new long[][] {
+                { 1, 1 }, { 1, 2 }, { 1, 3 }, { 2, 1 }, { 2, 2 }, { 2, 3 }, { 3, 1 }, { 3, 2 }, { 5, 9 } }));
+        service = new BlogArticleRelatedServiceImpl();
+        ReflectionTestUtils.setField(service, "blogArticleMapper", mapper);
+        ReflectionTestUtils.setField(service, "cacheVersion", cacheVersion);
+    }
+
+    @Test
+    public void rankedByTagsCategoryAndRecency()
+    {
+        assertEquals(Arrays.asList(2L, 3L, 4L), ids(service.selectRelatedArticles(1L, 10)));
+        assertEquals(Arrays.asList(2L, 3L), ids(service.selectRelatedArticles(1L, 2)));
+    }
+
+    @Test
+    public void newerArticleRankedFirst()
+    {
+        Date old = new Date(now.getTime() - 365 * 24 * 60 * 60 * 1000L);
+        when(mapper.selectBlogArticleRelatedList(isNull())).thenReturn(Arrays.asList(article(1L, 10L, now),
+                article(2L, 10L, old), article(3L, 10L, now)));
+        when(mapper.selectPublishedBlogArticleTagList(isNull())).thenReturn(new ArrayList<BlogArticleTag>());
+
+        assertEquals(Arrays.asList(3L, 2L), ids(service.selectRelatedArticles(1L, 10)));
+    }
+
+    @Test
+    public void unknownArticleHasNoRelated()
+    {
+        assertTrue(service.selectRelatedArticles(99L, 10).isEmpty());
+        assertTrue(service.selectRelatedArticles(5L, 10).isEmpty());
+    }
+
+    @Test
+    public void indexBuiltOnceAndRebuiltOnVersionChange()
+    {
+        service.selectRelatedArticles(1L, 10);
+        service.selectRelatedArticles(2L, 10);
+        verify(mapper, times(1)).selectBlogArticleRelatedList(isNull());
+
+        when(cacheVersion.get("blog_category")).thenReturn(2L);
+        service.selectRelatedArticles(1L, 10);
+        verify(mapper, times(2)).selectBlogArticleRelatedList(isNull());
+    }
+
+    @Test
+    public void localChangeRefreshedIncrementally()
+    {
+        service.selectRelatedArticles(1L, 10);
+        when(cacheVersion.get("blog_article")).thenReturn(2L);
+        when(mapper.selectBlogArticleRelatedList(any(Long[].class))).thenReturn(Arrays.asList(article(6L, 10L, now)));
+        when(mapper.selectPublishedBlogArticleTagList(any(Long[].class))).thenReturn(tags(new long[][] { { 6, 1 }, { 6, 2 }, { 6, 3 } }));
+
+        service.refreshArticles(6L, 2L);
+
+        // 文章2已下线，文章6新发布
+        assertEquals(Arrays.asList(6L, 3L, 4L), ids(service.selectRelatedArticles(1L, 10)));
+        verify(mapper, times(1)).selectBlogArticleRelatedList(isNull());
+    }
+
+    @Test
+    public void concurrentChangeFallsBackToRebuild()
+    {
+        service.selectRelatedArticles(1L, 10);
+        // 期间其他节点也有变更，版本号前进了两次
+        when(cacheVersion.get("blog_article")).thenReturn(3L);
+
+        service.refreshArticles(6L);
+        service.selectRelatedArticles(1L, 10);
+
+        verify(mapper, times(0)).selectBlogArticleRelatedList(any(Long[].class));
+        verify(mapper, times(2)).selectBlogArticleRelatedList(isNull());
+    }
+
+    private static BlogArticle article(Long articleId, Long categoryId, Date createTime)
+    {
+        BlogArticle article = new BlogArticle();
+        article.setArticleId(articleId);
+        article.setCategoryId(categoryId);
+        article.setCreateTime(createTime);
+        return article;
+    }
+
+    private static List<BlogArticleTag> tags(long[][] pairs)
+    {
+        List<BlogArticleTag> list = new ArrayList<BlogArticleTag>();
+        for (long[] pair : pairs)
+        {
+            BlogArticleTag articleTag = new BlogArticleTag();
+            articleTag.setArticleId(pair[0]);
+            articleTag.setTagId(pair[1]);
+            list.add(articleTag);
+        }
+        return list;
+    }
+
+    private static List<Long> ids(List<BlogArticle> articles)
+    {
+        List<Long> ids = new ArrayList<Long>();
+        for (BlogArticle article : articles)
+        {
+            ids.add(article.getArticleId());
+        }
+        return ids;
+    }
+}
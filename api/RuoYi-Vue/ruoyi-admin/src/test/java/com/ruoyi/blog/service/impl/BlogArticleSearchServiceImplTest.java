@@ -0,0 +1,83 @@
+package com.ruoyi.blog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.blog.domain.vo.BlogArticleSearchVo;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+
+/**
+ * 文章全文检索测试
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleSearchServiceImplTest
+{
+    private BlogArticleSearchServiceImpl service;
+
+    private BlogArticleMapper mapper;
+
+    @BeforeEach
+    public void setUp()
+    {
+        mapper = mock(BlogArticleMapper.class);
+        service = new BlogArticleSearchServiceImpl();
+        ReflectionTestUtils.setField(service, "blogArticleMapper", mapper);
+    }
+
+    @Test
+    public void keywordNormalized()
+    {
+        assertEquals("java spring", BlogArticleSearchServiceImpl.normalizeKeyword("  +java   -spring* "));
+        assertEquals("a b", BlogArticleSearchServiceImpl.normalizeKeyword("\"a\" (b)"));
+        assertEquals("", BlogArticleSearchServiceImpl.normalizeKeyword(null));
+        assertEquals(64, BlogArticleSearchServiceImpl.normalizeKeyword(String.join("", Collections.nCopies(100, "x"))).length());
+    }
+
+    @Test
+    public void resultsHighlightedAndEscaped()
+    {
+        BlogArticleSearchVo vo = vo("Java<script>入门", "摘要", "<p>学习 java 与 Spring</p>");
+        when(mapper.selectBlogArticleSearchList(anyString(), anyList())).thenReturn(Collections.singletonList(vo));
+
+        List<BlogArticleSearchVo> list = service.searchBlogArticle("+java spring*");
+
+        verify(mapper).selectBlogArticleSearchList("java spring", Arrays.asList("java", "spring"));
+        assertEquals("<em>Java</em>&lt;script&gt;入门", list.get(0).getHighlightTitle());
+        assertEquals("学习 <em>java</em> 与 <em>Spring</em>", list.get(0).getHighlightSnippet());
+        assertNull(list.get(0).getSnippet());
+    }
+
+    @Test
+    public void snippetFallsBackToSummary()
+    {
+        BlogArticleSearchVo vo = vo("标题", "a&b 的摘要", null);
+        when(mapper.selectBlogArticleSearchList(anyString(), anyList())).thenReturn(Collections.singletonList(vo));
+
+        List<BlogArticleSearchVo> list = service.searchBlogArticle("a&b");
+
+        assertEquals("标题", list.get(0).getHighlightTitle());
+        assertEquals("<em>a&amp;b</em> 的摘要", list.get(0).getHighlightSnippet());
+    }
+
+    private static BlogArticleSearchVo vo(String title, String summary, String snippet)
+    {
+        BlogArticleSearchVo vo = new BlogArticleSearchVo();
+        vo.setArticleId(1L);
+        vo.setTitle(title);
+        vo.setSummary(summary);
+        vo.setSnippet(snippet);
+        return vo;
+    }
+}
@@ -0,0 +1,171 @@
+package com.ruoyi.blog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.service.IBlogArticleRelatedService;
+import com.ruoyi.blog.service.IBlogArticleSnapshotService;
+import com.ruoyi.blog.service.IBlogTermCountService;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.redis.RedisCache;
+
+/**
+ * 已发布文章详情缓存测试
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleServiceImplTest
+{
+    private BlogArticleServiceImpl service;
+
+    private BlogArticleMapper mapper;
+
+    private RedisCache redisCache;
+
+    private IBlogArticleSnapshotService snapshotService;
+
+    private CacheVersion cacheVersion;
+
+    private IBlogArticleRelatedService relatedService;
+
+    @BeforeEach
+    public void setUp()
+    {
+        mapper = mock(BlogArticleMapper.class);
+        when(mapper.selectBlogArticleByArticleId(1L)).thenAnswer(invocation -> article(1L, "1", "正文"));
+        when(mapper.selectBlogArticleByArticleId(2L)).thenAnswer(invocation -> article(2L, "0", "草稿"));
+        when(mapper.selectTagIdsByArticleId(anyLong())).thenReturn(new Long[] { 3L });
+        redisCache = mock(RedisCache.class);
+        snapshotService = mock(IBlogArticleSnapshotService.class);
+        cacheVersion = mock(CacheVersion.class);
+        relatedService = mock(IBlogArticleRelatedService.class);
+        IBlogTermCountService termCountService = mock(IBlogTermCountService.class);
+        service = new BlogArticleServiceImpl();
+        ReflectionTestUtils.setField(service, "localCacheSize", 100);
+        ReflectionTestUtils.setField(service, "localCacheSeconds", 60);
+        ReflectionTestUtils.setField(service, "redisCacheMinutes", 30);
+        ReflectionTestUtils.setField(service, "blogArticleMapper", mapper);
+        ReflectionTestUtils.setField(service, "redisCache", redisCache);
+        ReflectionTestUtils.setField(service, "blogArticleSnapshotService", snapshotService);
+        ReflectionTestUtils.setField(service, "cacheVersion", cacheVersion);
+        ReflectionTestUtils.setField(service, "blogTermCountService", termCountService);
+        ReflectionTestUtils.setField(service, "blogArticleRelatedService", relatedService);
+        service.init();
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void publishedDetailCachedAsCopies()
+    {
+        BlogArticle first = service.selectPublishedBlogArticleByArticleId(1L);
+        first.setContent("调用方修改");
+        BlogArticle second = service.selectPublishedBlogArticleByArticleId(1L);
+
+        assertNotSame(first, second);
+        assertEquals("正文", second.getContent());
+        assertEquals(Long.valueOf(3L), second.getTagIds()[0]);
+        verify(mapper, times(1)).selectBlogArticleByArticleId(1L);
+        ArgumentCaptor<BlogArticle> cached = ArgumentCaptor.forClass(BlogArticle.class);
+        verify(redisCache).setCacheObject(eq(CacheConstants.BLOG_ARTICLE_KEY + "1"), cached.capture(), eq(30), eq(TimeUnit.MINUTES));
+        assertEquals("正文", cached.getValue().getContent());
+    }
+
+    @Test
+    public void unpublishedArticleNotCached()
+    {
+        assertNull(service.selectPublishedBlogArticleByArticleId(2L));
+        assertNull(service.selectPublishedBlogArticleByArticleId(2L));
+        assertNull(service.selectPublishedBlogArticleByArticleId(null));
+
+        verify(mapper, times(2)).selectBlogArticleByArticleId(2L);
+    }
+
+    @Test
+    public void updateEvictsAfterCommit()
+    {
+        service.selectPublishedBlogArticleByArticleId(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.updateBlogArticle(article(1L, "1", "新正文"));
+        service.selectPublishedBlogArticleByArticleId(1L);
+        verify(mapper, times(1)).selectBlogArticleByArticleId(1L);
+        verify(redisCache, never()).deleteObject(CacheConstants.BLOG_ARTICLE_KEY + "1");
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+        {
+            synchronization.afterCommit();
+        }
+        service.selectPublishedBlogArticleByArticleId(1L);
+
+        verify(mapper, times(2)).selectBlogArticleByArticleId(1L);
+        verify(redisCache).deleteObject(CacheConstants.BLOG_ARTICLE_KEY + "1");
+        verify(snapshotService).refreshSnapshotAsync(1L);
+        verify(cacheVersion).increment("blog_article");
+        verify(relatedService).refreshArticles(1L);
+    }
+
+    @Test
+    public void deleteEvictsWithoutTransaction()
+    {
+        service.selectPublishedBlogArticleByArticleId(1L);
+
+        service.deleteBlogArticleByArticleIds(new Long[] { 1L, 2L });
+        service.selectPublishedBlogArticleByArticleId(1L);
+
+        verify(mapper, times(2)).selectBlogArticleByArticleId(1L);
+        verify(redisCache).deleteObject(CacheConstants.BLOG_ARTICLE_KEY + "2");
+        verify(snapshotService).refreshSnapshotAsync(1L, 2L);
+    }
+
+    @Test
+    public void listKeywordNormalizedForFulltext()
+    {
+        BlogArticle query = new BlogArticle();
+        query.setTitle(" +缓存  -设计* ");
+        service.selectBlogArticleList(query);
+        assertEquals("缓存 设计", query.getParams().get("keyword"));
+
+        BlogArticle likeQuery = new BlogArticle();
+        likeQuery.setTitle("缓存");
+        likeQuery.getParams().put("likeSearch", Boolean.TRUE);
+        service.selectBlogArticleList(likeQuery);
+        assertNull(likeQuery.getParams().get("keyword"));
+    }
+
+    private static BlogArticle article(Long articleId, String status, String content)
+    {
+        BlogArticle article = new BlogArticle();
+        article.setArticleId(articleId);
+        article.setTitle("文章" + articleId);
+        article.setStatus(status);
+        article.setContent(content);
+        return article;
+    }
+}
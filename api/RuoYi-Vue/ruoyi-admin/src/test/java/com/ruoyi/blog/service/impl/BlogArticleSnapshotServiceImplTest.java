@@ -0,0 +1,147 @@
+package com.ruoyi.blog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.common.config.RuoYiConfig;
+
+/**
+ * 文章静态快照测试
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleSnapshotServiceImplTest
+{
+    @TempDir
+    Path profile;
+
+    private BlogArticleSnapshotServiceImpl service;
+
+    private BlogArticleMapper mapper;
+
+    /** 提交到线程池但尚未执行的任务 */
+    private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    @BeforeEach
+    public void setUp()
+    {
+        new RuoYiConfig().setProfile(profile.toString());
+        mapper = mock(BlogArticleMapper.class);
+        when(mapper.selectBlogArticleByArticleId(1L)).thenAnswer(invocation -> article(1L, "1"));
+        when(mapper.selectTagIdsByArticleId(1L)).thenReturn(new Long[] { 3L });
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> tasks.add(invocation.getArgument(0))).when(executor).execute(any(Runnable.class));
+        service = new BlogArticleSnapshotServiceImpl();
+        ReflectionTestUtils.setField(service, "blogArticleMapper", mapper);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "threadPoolTaskExecutor", executor);
+    }
+
+    @Test
+    public void publishedArticleWritesSnapshots() throws Exception
+    {
+        assertTrue(service.refreshSnapshot(1L));
+
+        Path dir = snapshotDir();
+        String json = new String(Files.readAllBytes(dir.resolve("1.json")), StandardCharsets.UTF_8);
+        String html = new String(Files.readAllBytes(dir.resolve("1.html")), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"content\":\"<p>正文</p>\""));
+        assertTrue(json.contains("\"tagIds\":[3]"));
+        assertTrue(html.contains("<title>A &amp; B &lt;C&gt;</title>"));
+        assertTrue(html.contains("<p class=\"category\">技术</p>"));
+        assertTrue(html.contains("<div class=\"content\">\n<p>正文</p>\n</div>"));
+        assertArrayEquals(Files.readAllBytes(dir.resolve("1.json")), gunzip(dir.resolve("1.json.gz")));
+        assertArrayEquals(Files.readAllBytes(dir.resolve("1.html")), gunzip(dir.resolve("1.html.gz")));
+        assertEquals(dir.resolve("1.html").toFile().lastModified(), dir.resolve("1.html.gz").toFile().lastModified());
+        // 不残留临时文件
+        assertEquals(4, dir.toFile().list().length);
+    }
+
+    @Test
+    public void unpublishedArticleDeletesSnapshots()
+    {
+        service.refreshSnapshot(1L);
+        when(mapper.selectBlogArticleByArticleId(1L)).thenAnswer(invocation -> article(1L, "0"));
+
+        assertFalse(service.refreshSnapshot(1L));
+
+        assertEquals(0, snapshotDir().toFile().list().length);
+    }
+
+    @Test
+    public void pendingRefreshesCoalesced()
+    {
+        service.refreshSnapshotAsync(1L, 1L, null);
+        service.refreshSnapshotAsync(1L);
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        assertTrue(Files.exists(snapshotDir().resolve("1.json")));
+
+        // 任务开始执行后的编辑重新提交
+        service.refreshSnapshotAsync(1L);
+        assertEquals(2, tasks.size());
+    }
+
+    @Test
+    public void refreshAllSkipsFailures()
+    {
+        when(mapper.selectPublishedArticleIds(null)).thenReturn(Arrays.asList(1L, 2L, 3L));
+        when(mapper.selectBlogArticleByArticleId(2L)).thenThrow(new IllegalStateException("db"));
+
+        assertEquals(1, service.refreshAllSnapshots());
+
+        verify(mapper, times(1)).selectBlogArticleByArticleId(3L);
+        assertTrue(Files.exists(snapshotDir().resolve("1.html.gz")));
+    }
+
+    private Path snapshotDir()
+    {
+        return profile.resolve("snapshot").resolve("article");
+    }
+
+    private static byte[] gunzip(Path file) throws Exception
+    {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file)))
+        {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+
+    private static BlogArticle article(Long articleId, String status)
+    {
+        BlogArticle article = new BlogArticle();
+        article.setArticleId(articleId);
+        article.setTitle("A & B <C>");
+        article.setSummary("摘要");
+        article.setContent("<p>正文</p>");
+        article.setCategoryName("技术");
+        article.setStatus(status);
+        return article;
+    }
+}
@@ -0,0 +1,220 @@
+package com.ruoyi.blog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.blog.domain.BlogArticleStat;
+import com.ruoyi.blog.mapper.BlogArticleStatMapper;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.redis.RedisCache;
+
+/**
+ * 文章浏览统计缓冲、分钟汇总与定时汇总测试
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleStatServiceImplTest
+{
+    private BlogArticleStatServiceImpl service;
+
+    private BlogArticleStatMapper mapper;
+
+    private RedisCache redisCache;
+
+    /** 已写入统计表的行 */
+    private final List<BlogArticleStat> written = new ArrayList<BlogArticleStat>();
+
+    @BeforeEach
+    public void setUp()
+    {
+        mapper = mock(BlogArticleStatMapper.class);
+        restoreMapper();
+        service = new BlogArticleStatServiceImpl();
+        ReflectionTestUtils.setField(service, "bufferSize", 1024);
+        ReflectionTestUtils.setField(service, "flushSeconds", 10);
+        ReflectionTestUtils.setField(service, "maxUnflushed", 100000);
+        ReflectionTestUtils.setField(service, "minuteRetentionHours", 48);
+        ReflectionTestUtils.setField(service, "hourRetentionDays", 90);
+        redisCache = mock(RedisCache.class);
+        ReflectionTestUtils.setField(service, "redisCache", redisCache);
+        ReflectionTestUtils.setField(service, "blogArticleStatMapper", mapper);
+        ReflectionTestUtils.setField(service, "scheduledExecutorService", mock(ScheduledExecutorService.class));
+        service.init();
+    }
+
+    @Test
+    public void flushAggregatesViewsPerArticleAndMinute()
+    {
+        service.recordView(1L);
+        service.recordView(1L);
+        service.recordView(1L);
+        service.recordView(2L);
+
+        assertEquals(4, service.flushViewEvents());
+        Map<Long, Long> views = sumViews();
+        assertEquals(3L, views.get(1L));
+        assertEquals(1L, views.get(2L));
+        for (BlogArticleStat stat : written)
+        {
+            assertEquals(BlogArticleStat.MINUTE, stat.getGranularity());
+            assertEquals(0, stat.getBucketTime().getTime() % (60 * 1000L));
+        }
+        // 已写入的事件不会再次写入
+        written.clear();
+        assertEquals(0, service.flushViewEvents());
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    public void failedWriteIsRetriedOnNextFlush()
+    {
+        doThrow(new RuntimeException("db down")).when(mapper).batchAddBlogArticleStat(anyList());
+        service.recordView(1L);
+        service.recordView(1L);
+        assertThrows(RuntimeException.class, () -> service.flushViewEvents());
+
+        restoreMapper();
+        service.recordView(1L);
+        assertEquals(1, service.flushViewEvents());
+        assertEquals(3L, sumViews().get(1L));
+    }
+
+    @Test
+    public void retainedStatsAreCappedDroppingOldest()
+    {
+        ReflectionTestUtils.setField(service, "maxUnflushed", 2);
+        doThrow(new RuntimeException("db down")).when(mapper).batchAddBlogArticleStat(anyList());
+        for (long articleId = 1; articleId <= 5; articleId++)
+        {
+            service.recordView(articleId);
+        }
+        assertThrows(RuntimeException.class, () -> service.flushViewEvents());
+
+        restoreMapper();
+        service.flushViewEvents();
+        Map<Long, Long> views = sumViews();
+        assertEquals(2, views.size());
+        assertTrue(views.containsKey(4L) && views.containsKey(5L));
+    }
+
+    @Test
+    public void eventsBeyondBufferCapacityAreDropped()
+    {
+        for (int i = 0; i < 1100; i++)
+        {
+            service.recordView(1L);
+        }
+        assertEquals(1024, service.flushViewEvents());
+        assertEquals(1024L, sumViews().get(1L));
+    }
+
+    @Test
+    public void firstRollupCoversMinuteRetention()
+    {
+        LocalDateTime before = LocalDateTime.now();
+
+        service.rollupStats();
+
+        // 保留期内第一个完整的小时
+        assertEquals(toDate(before.minusHours(48).truncatedTo(ChronoUnit.HOURS).plusHours(1)), rollupSince(BlogArticleStat.HOUR));
+        assertEquals(toDate(before.minusHours(47).truncatedTo(ChronoUnit.DAYS)), rollupSince(BlogArticleStat.DAY));
+        ArgumentCaptor<Long> recorded = ArgumentCaptor.forClass(Long.class);
+        verify(redisCache).setCacheObject(eq(CacheConstants.BLOG_STAT_ROLLUP_KEY), recorded.capture());
+        assertTrue(recorded.getValue() >= toDate(before).getTime());
+    }
+
+    @Test
+    public void rollupResumesFromLastSuccess()
+    {
+        // 上次汇总在5小时前，其间的任务均未执行
+        LocalDateTime last = LocalDateTime.now().minusHours(5);
+        when(redisCache.getCacheObject(CacheConstants.BLOG_STAT_ROLLUP_KEY)).thenReturn(toDate(last).getTime());
+
+        service.rollupStats();
+
+        assertEquals(toDate(last.truncatedTo(ChronoUnit.HOURS)), rollupSince(BlogArticleStat.HOUR));
+        assertEquals(toDate(last.truncatedTo(ChronoUnit.DAYS)), rollupSince(BlogArticleStat.DAY));
+    }
+
+    @Test
+    public void rollupNeverStartsBeforeRetainedDetail()
+    {
+        LocalDateTime before = LocalDateTime.now();
+        when(redisCache.getCacheObject(CacheConstants.BLOG_STAT_ROLLUP_KEY)).thenReturn(toDate(before.minusDays(200)).getTime());
+
+        service.rollupStats();
+
+        assertEquals(toDate(before.minusHours(48).truncatedTo(ChronoUnit.HOURS).plusHours(1)), rollupSince(BlogArticleStat.HOUR));
+        assertEquals(toDate(before.minusDays(90).truncatedTo(ChronoUnit.DAYS).plusDays(1)), rollupSince(BlogArticleStat.DAY));
+    }
+
+    @Test
+    public void failedRollupKeepsLastSuccess()
+    {
+        doThrow(new RuntimeException("db down")).when(mapper).rollupBlogArticleStat(anyString(), anyString(), anyString(), any(Date.class));
+
+        assertThrows(RuntimeException.class, () -> service.rollupStats());
+        verify(redisCache, never()).setCacheObject(anyString(), any());
+    }
+
+    /**
+     * 汇总到指定粒度时的起始时间
+     */
+    private Date rollupSince(String target)
+    {
+        ArgumentCaptor<Date> since = ArgumentCaptor.forClass(Date.class);
+        verify(mapper).rollupBlogArticleStat(anyString(), eq(target), anyString(), since.capture());
+        return since.getValue();
+    }
+
+    private static Date toDate(LocalDateTime time)
+    {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * 统计表写入成功，记录写入的行
+     */
+    private void restoreMapper()
+    {
+        doAnswer(invocation -> {
+            List<BlogArticleStat> batch = invocation.getArgument(0);
+            written.addAll(batch);
+            return batch.size();
+        }).when(mapper).batchAddBlogArticleStat(anyList());
+    }
+
+    private Map<Long, Long> sumViews()
+    {
+        Map<Long, Long> views = new HashMap<Long, Long>();
+        for (BlogArticleStat stat : written)
+        {
+            views.merge(stat.getArticleId(), stat.getViewCount(), Long::sum);
+        }
+        return views;
+    }
+}
@@ -0,0 +1,164 @@
+package com.ruoyi.blog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.service.IBlogArticleStatService;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.redis.RedisCache;
+
+/**
+ * 文章浏览量写后合并测试
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogArticleViewServiceImplTest
+{
+    private BlogArticleViewServiceImpl service;
+
+    private BlogArticleMapper mapper;
+
+    private RedisCache redisCache;
+
+    private CacheVersion cacheVersion;
+
+    private IBlogArticleStatService statService;
+
+    /** 每次批量更新写入的增量，key为文章ID */
+    private final List<Map<Long, Long>> flushed = new ArrayList<Map<Long, Long>>();
+
+    @BeforeEach
+    public void setUp()
+    {
+        mapper = mock(BlogArticleMapper.class);
+        redisCache = mock(RedisCache.class);
+        cacheVersion = mock(CacheVersion.class);
+        statService = mock(IBlogArticleStatService.class);
+        doAnswer(invocation -> {
+            Map<Long, Long> deltas = new HashMap<Long, Long>();
+            for (BlogArticle article : invocation.<List<BlogArticle>>getArgument(0))
+            {
+                deltas.put(article.getArticleId(), article.getViewCount());
+            }
+            flushed.add(deltas);
+            return deltas.size();
+        }).when(mapper).updateBlogArticleViewCount(anyList());
+        service = new BlogArticleViewServiceImpl();
+        ReflectionTestUtils.setField(service, "dedupeMinutes", 0);
+        ReflectionTestUtils.setField(service, "flushSeconds", 60);
+        ReflectionTestUtils.setField(service, "blogArticleMapper", mapper);
+        ReflectionTestUtils.setField(service, "redisCache", redisCache);
+        ReflectionTestUtils.setField(service, "scheduledExecutorService", mock(ScheduledExecutorService.class));
+        ReflectionTestUtils.setField(service, "cacheVersion", cacheVersion);
+        ReflectionTestUtils.setField(service, "blogArticleStatService", statService);
+        service.init();
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void flushMergesViewsIntoOneBatch()
+    {
+        service.recordView(1L);
+        service.recordView(1L);
+        service.recordView(1L);
+        service.recordView(2L);
+        assertEquals(3L, service.selectPendingViewCount(1L));
+
+        assertEquals(2, service.flushViewCount());
+        assertEquals(1, flushed.size());
+        assertEquals(3L, flushed.get(0).get(1L));
+        assertEquals(1L, flushed.get(0).get(2L));
+        assertEquals(0L, service.selectPendingViewCount(1L));
+        verify(statService, times(3)).recordView(1L);
+        verify(cacheVersion).increment("blog_article_view");
+        verify(redisCache).setCacheMap(eq(CacheConstants.BLOG_VIEW_COUNT_KEY), any());
+
+        // 没有新浏览时不再写库
+        assertEquals(0, service.flushViewCount());
+        assertEquals(1, flushed.size());
+    }
+
+    @Test
+    public void failedFlushKeepsDeltas()
+    {
+        doThrow(new RuntimeException("db down")).when(mapper).updateBlogArticleViewCount(anyList());
+        service.recordView(1L);
+        service.recordView(1L);
+
+        assertThrows(RuntimeException.class, () -> service.flushViewCount());
+        assertEquals(2L, service.selectPendingViewCount(1L));
+        verify(cacheVersion, never()).increment("blog_article_view");
+    }
+
+    @Test
+    public void viewCountMergesFlushedAndPending()
+    {
+        when(redisCache.getCacheMapValue(CacheConstants.BLOG_VIEW_COUNT_KEY, "1")).thenReturn(15L);
+        service.recordView(1L);
+        service.recordView(1L);
+
+        // 缓存中的详情停留在10，刷新后的15与待刷新的2合并
+        assertEquals(17L, service.selectViewCount(1L, 10L));
+        assertEquals(0L, service.selectViewCount(2L, null));
+    }
+
+    @Test
+    public void sameVisitorCountedOnceInWindow()
+    {
+        ReflectionTestUtils.setField(service, "dedupeMinutes", 30);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("User-Agent", "test-agent");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        when(redisCache.setCacheObjectIfAbsent(anyString(), any(), eq(30L), eq(TimeUnit.MINUTES))).thenReturn(true, false);
+
+        assertTrue(service.recordView(1L));
+        assertFalse(service.recordView(1L));
+        assertEquals(1L, service.selectPendingViewCount(1L));
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        verify(redisCache, times(2)).setCacheObjectIfAbsent(key.capture(), any(), eq(30L), eq(TimeUnit.MINUTES));
+        assertTrue(key.getValue().startsWith(CacheConstants.BLOG_VIEW_KEY + "1:"));
+        verify(statService, times(1)).recordView(1L);
+    }
+
+    @Test
+    public void nullArticleIgnored()
+    {
+        assertFalse(service.recordView(null));
+        assertEquals(0L, service.selectPendingViewCount(null));
+    }
+}
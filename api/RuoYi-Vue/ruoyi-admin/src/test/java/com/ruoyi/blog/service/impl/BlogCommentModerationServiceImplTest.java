@@ -0,0 +1,93 @@
+package com.ruoyi.blog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.blog.domain.BlogComment;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.redis.RedisCache;
+
+/**
+ * 博客评论审核评分测试
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogCommentModerationServiceImplTest
+{
+    private BlogCommentModerationServiceImpl service;
+
+    private RedisCache redisCache;
+
+    /** 模拟的提交频率计数器 */
+    private final Map<String, Long> counters = new HashMap<String, Long>();
+
+    @BeforeEach
+    public void setUp()
+    {
+        redisCache = mock(RedisCache.class);
+        when(redisCache.increment(anyString())).thenAnswer(invocation -> counters.merge(invocation.getArgument(0), 1L, Long::sum));
+        service = new BlogCommentModerationServiceImpl();
+        ReflectionTestUtils.setField(service, "redisCache", redisCache);
+        ReflectionTestUtils.setField(service, "approveBelow", 3);
+        ReflectionTestUtils.setField(service, "spamWordsConfig", "Casino, 代开发票");
+        service.init();
+    }
+
+    @Test
+    public void plainCommentApproved()
+    {
+        assertEquals(0, service.scoreBlogComment(comment("写得很好，受益匪浅", null), "10.0.0.1"));
+        assertEquals("1", service.moderateBlogComment(comment("谢谢分享", null), "10.0.0.2"));
+    }
+
+    @Test
+    public void linksSpamWordsAndRepeatsScored()
+    {
+        assertEquals(4, service.scoreBlogComment(comment("see http://a.example and www.b.example", null), null));
+        assertEquals(3, service.scoreBlogComment(comment("best CASINO online", null), null));
+        assertEquals(3, service.scoreBlogComment(comment("专业代开发票", null), null));
+        assertEquals(2, service.scoreBlogComment(comment("顶顶顶顶顶顶顶顶顶顶", null), null));
+        assertEquals("0", service.moderateBlogComment(comment("casino http://a.example", null), null));
+    }
+
+    @Test
+    public void submitRateScoredPerIpAndEmail()
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            assertEquals(0, service.scoreBlogComment(comment("第" + i + "条", " A@Example.com "), "10.0.0.1"));
+        }
+        // 第4次提交，IP与邮箱各计2分
+        assertEquals(4, service.scoreBlogComment(comment("第4条", "a@example.com"), "10.0.0.1"));
+        assertEquals(Long.valueOf(4L), counters.get(CacheConstants.BLOG_COMMENT_RATE_KEY + "email:a@example.com"));
+        verify(redisCache).expire(CacheConstants.BLOG_COMMENT_RATE_KEY + "ip:10.0.0.1", 600);
+    }
+
+    @Test
+    public void scoringFailureSendsToReview()
+    {
+        when(redisCache.increment(anyString())).thenThrow(new RuntimeException("redis down"));
+
+        assertEquals("0", service.moderateBlogComment(comment("谢谢分享", null), "10.0.0.1"));
+        verify(redisCache, never()).expire(anyString(), anyLong());
+    }
+
+    private static BlogComment comment(String content, String email)
+    {
+        BlogComment comment = new BlogComment();
+        comment.setArticleId(1L);
+        comment.setContent(content);
+        comment.setEmail(email);
+        return comment;
+    }
+}
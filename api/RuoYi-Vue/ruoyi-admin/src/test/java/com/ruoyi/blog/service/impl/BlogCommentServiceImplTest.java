@@ -0,0 +1,245 @@
+package com.ruoyi.blog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.domain.BlogComment;
+import com.ruoyi.blog.mapper.BlogCommentMapper;
+import com.ruoyi.blog.service.IBlogArticleService;
+import com.ruoyi.blog.service.IBlogCommentModerationService;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.redis.RedisCache;
+import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.system.service.ISysConfigService;
+
+/**
+ * 博客评论Service测试
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogCommentServiceImplTest
+{
+    private BlogCommentServiceImpl service;
+
+    private BlogCommentMapper mapper;
+
+    private CacheVersion cacheVersion;
+
+    private RedisCache redisCache;
+
+    private IBlogCommentModerationService moderationService;
+
+    private IBlogArticleService articleService;
+
+    @BeforeEach
+    public void setUp()
+    {
+        mapper = mock(BlogCommentMapper.class);
+        cacheVersion = mock(CacheVersion.class);
+        when(cacheVersion.get(anyString())).thenReturn(1L);
+        redisCache = mock(RedisCache.class);
+        moderationService = mock(IBlogCommentModerationService.class);
+        articleService = mock(IBlogArticleService.class);
+        service = new BlogCommentServiceImpl();
+        ReflectionTestUtils.setField(service, "blogCommentMapper", mapper);
+        ReflectionTestUtils.setField(service, "redisCache", redisCache);
+        ReflectionTestUtils.setField(service, "configService", mock(ISysConfigService.class));
+        ReflectionTestUtils.setField(service, "cacheVersion", cacheVersion);
+        ReflectionTestUtils.setField(service, "blogCommentModerationService", moderationService);
+        ReflectionTestUtils.setField(service, "blogArticleService", articleService);
+        ReflectionTestUtils.setField(service, "treeCacheSeconds", 300);
+        ReflectionTestUtils.setField(service, "moderationQueueCapacity", 10);
+        ReflectionTestUtils.setField(service, "moderationWorkers", 1);
+        ReflectionTestUtils.setField(service, "moderationBatchSize", 50);
+        service.init();
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        service.destroy();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void commentTreeBuiltFromOneQuery()
+    {
+        // 1 -> (3 -> 4, 5)，2无回复，6的上级未显示
+        when(mapper.selectVisibleBlogCommentByArticleId(10L)).thenReturn(Arrays.asList(comment(1L, 0L), comment(2L, 0L),
+                comment(3L, 1L), comment(4L, 3L), comment(5L, 1L), comment(6L, 99L)));
+
+        List<BlogComment> threads = service.selectBlogCommentTree(10L);
+
+        assertEquals(Arrays.asList(6L, 2L, 1L), ids(threads));
+        assertTrue(threads.get(1).getChildren().isEmpty());
+        BlogComment thread = threads.get(2);
+        assertEquals(Arrays.asList(3L, 5L), ids(thread.getChildren()));
+        assertEquals(Arrays.asList(4L), ids(thread.getChildren().get(0).getChildren()));
+        assertTrue(thread.getChildren().get(1).getChildren().isEmpty());
+        verify(mapper, times(1)).selectVisibleBlogCommentByArticleId(10L);
+    }
+
+    @Test
+    public void treeCachedUntilArticleVersionChanges()
+    {
+        when(mapper.selectVisibleBlogCommentByArticleId(10L)).thenReturn(Arrays.asList(comment(1L, 0L), comment(2L, 1L)));
+        when(mapper.selectVisibleBlogCommentByArticleId(11L)).thenReturn(Arrays.asList(comment(7L, 0L)));
+
+        assertSame(service.selectBlogCommentTree(10L), service.selectBlogCommentTree(10L));
+        service.selectBlogCommentTree(11L);
+        verify(mapper, times(1)).selectVisibleBlogCommentByArticleId(10L);
+
+        // 只有文章10的评论变更
+        when(cacheVersion.get("blog_comment:10")).thenReturn(2L);
+        when(mapper.selectVisibleBlogCommentByArticleId(10L)).thenReturn(Arrays.asList(comment(1L, 0L), comment(2L, 1L), comment(3L, 1L)));
+
+        List<BlogComment> threads = service.selectBlogCommentTree(10L);
+        service.selectBlogCommentTree(11L);
+        verify(mapper, times(2)).selectVisibleBlogCommentByArticleId(10L);
+        verify(mapper, times(1)).selectVisibleBlogCommentByArticleId(11L);
+        assertEquals(Arrays.asList(2L, 3L), ids(threads.get(0).getChildren()));
+    }
+
+    @Test
+    public void writesBumpArticleCommentVersion()
+    {
+        when(mapper.selectArticleIdsByCommentIds(any(Long[].class))).thenReturn(Arrays.asList(10L), Arrays.asList(10L, 11L), Arrays.asList(10L));
+        BlogComment moved = comment(4L, 0L);
+        moved.setArticleId(12L);
+
+        service.deleteBlogCommentByCommentId(1L);
+        service.deleteBlogCommentByCommentIds(new Long[] { 2L, 3L });
+        service.updateBlogComment(moved);
+
+        verify(cacheVersion).increment("blog_comment", "blog_comment:10");
+        verify(cacheVersion).increment("blog_comment", "blog_comment:10", "blog_comment:11");
+        verify(cacheVersion).increment("blog_comment", "blog_comment:10", "blog_comment:12");
+    }
+
+    @Test
+    public void guestCommentModeratedAndWrittenAsync()
+    {
+        acceptComments("1");
+        when(moderationService.moderateBlogComment(any(BlogComment.class), eq("127.0.0.1"))).thenReturn("1");
+
+        String acceptId = service.submitBlogComment(guestComment());
+
+        verify(redisCache, timeout(5000)).setCacheObject(CacheConstants.BLOG_COMMENT_ACCEPT_KEY + acceptId, "1", 30, TimeUnit.MINUTES);
+        ArgumentCaptor<List<BlogComment>> batch = captor();
+        verify(mapper).batchInsertBlogComment(batch.capture());
+        BlogComment written = batch.getValue().get(0);
+        assertEquals("1", written.getStatus());
+        assertEquals(0L, written.getParentId());
+        verify(mapper, never()).insertBlogComment(any(BlogComment.class));
+        verify(cacheVersion, timeout(5000)).increment("blog_comment", "blog_comment:10");
+    }
+
+    @Test
+    public void failedBatchRetriedOneByOne()
+    {
+        acceptComments("1");
+        when(moderationService.moderateBlogComment(any(BlogComment.class), anyString())).thenReturn("0");
+        doThrow(new RuntimeException("batch failed")).when(mapper).batchInsertBlogComment(anyList());
+        doThrow(new RuntimeException("row failed")).when(mapper).insertBlogComment(any(BlogComment.class));
+
+        String acceptId = service.submitBlogComment(guestComment());
+
+        verify(redisCache, timeout(5000)).setCacheObject(CacheConstants.BLOG_COMMENT_ACCEPT_KEY + acceptId, "failed", 30, TimeUnit.MINUTES);
+        verify(mapper).insertBlogComment(any(BlogComment.class));
+    }
+
+    @Test
+    public void closedArticleRejectedBeforeQueue()
+    {
+        acceptComments("0");
+
+        assertThrows(ServiceException.class, () -> service.submitBlogComment(guestComment()));
+        when(articleService.selectPublishedBlogArticleByArticleId(10L)).thenReturn(null);
+        assertThrows(ServiceException.class, () -> service.submitBlogComment(guestComment()));
+        verify(moderationService, never()).moderateBlogComment(any(BlogComment.class), anyString());
+    }
+
+    @Test
+    public void fullQueueRejectsSubmit()
+    {
+        acceptComments("1");
+        // 停止审核线程后队列只进不出
+        service.destroy();
+        for (int i = 0; i < 10; i++)
+        {
+            service.submitBlogComment(guestComment());
+        }
+
+        assertThrows(ServiceException.class, () -> service.submitBlogComment(guestComment()));
+    }
+
+    private void acceptComments(String allowComment)
+    {
+        BlogArticle article = new BlogArticle();
+        article.setArticleId(10L);
+        article.setAllowComment(allowComment);
+        when(articleService.selectPublishedBlogArticleByArticleId(10L)).thenReturn(article);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    private static BlogComment guestComment()
+    {
+        BlogComment comment = new BlogComment();
+        comment.setArticleId(10L);
+        comment.setNickname("游客");
+        comment.setContent(" 写得很好 ");
+        return comment;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<BlogComment>> captor()
+    {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private static BlogComment comment(Long commentId, Long parentId)
+    {
+        BlogComment comment = new BlogComment();
+        comment.setCommentId(commentId);
+        comment.setParentId(parentId);
+        comment.setArticleId(10L);
+        return comment;
+    }
+
+    private static List<Long> ids(List<BlogComment> comments)
+    {
+        List<Long> ids = new ArrayList<Long>();
+        for (BlogComment comment : comments)
+        {
+            ids.add(comment.getCommentId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,261 @@
+package com.ruoyi.blog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.w3c.dom.Document;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.service.IBlogFeedService;
+import com.ruoyi.common.config.RuoYiConfig;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.exception.ServiceException;
+
+/**
+ * 订阅源与站点地图生成测试
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogFeedServiceImplTest
+{
+    @TempDir
+    Path profile;
+
+    private BlogArticleMapper mapper;
+
+    private TransactionTemplate transactionTemplate;
+
+    /** 缓存版本号，key为缓存名称 */
+    private final Map<String, Long> versions = new HashMap<String, Long>();
+
+    private List<BlogArticle> articles;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp()
+    {
+        new RuoYiConfig().setProfile(profile.toString());
+        versions.put("blog_article", 1L);
+        versions.put("blog_category", 1L);
+        articles = new ArrayList<BlogArticle>(Arrays.asList(article(2L, "A & B <C>", "摘要"), article(1L, "第一篇", null)));
+        mapper = mock(BlogArticleMapper.class);
+        when(mapper.selectBlogArticleFeedCursor(anyInt())).thenAnswer(invocation -> {
+            int limit = invocation.getArgument(0);
+            return new ListCursor<BlogArticle>(articles.subList(0, Math.min(limit, articles.size())));
+        });
+        when(mapper.selectBlogArticleSitemapCursor(anyLong(), anyInt())).thenAnswer(invocation -> {
+            return new ListCursor<BlogArticle>(sitemapPage(invocation.getArgument(0), invocation.getArgument(1)));
+        });
+        when(mapper.selectBlogArticleSitemapPageLastId(anyLong(), anyInt())).thenAnswer(invocation -> {
+            List<BlogArticle> page = sitemapPage(invocation.getArgument(0), invocation.getArgument(1));
+            return page.isEmpty() ? null : page.get(page.size() - 1).getArticleId();
+        });
+        when(mapper.countPublishedBlogArticle()).thenAnswer(invocation -> articles.size());
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    public void rssEscapesContent() throws Exception
+    {
+        File file = newService().selectFeedFile(IBlogFeedService.RSS);
+
+        String xml = read(file);
+        assertTrue(xml.contains("<title>A &amp; B &lt;C&gt;</title>"));
+        assertTrue(xml.contains("<link>http://blog.test/article/2</link>"));
+        assertTrue(xml.contains("<lastBuildDate>"));
+        assertFalse(xml.contains("<description></description>"));
+        Document document = parse(file);
+        assertEquals("rss", document.getDocumentElement().getTagName());
+        assertEquals(2, document.getElementsByTagName("item").getLength());
+        assertEquals("1-1", read(new File(file.getParentFile(), IBlogFeedService.RSS + ".version")));
+        verify(mapper).selectBlogArticleFeedCursor(50);
+    }
+
+    @Test
+    public void atomHasUpdatedWithoutArticles() throws Exception
+    {
+        articles.clear();
+
+        Document document = parse(newService().selectFeedFile(IBlogFeedService.ATOM));
+
+        assertEquals("feed", document.getDocumentElement().getTagName());
+        assertEquals("http://www.w3.org/2005/Atom", document.getDocumentElement().getNamespaceURI());
+        assertEquals(1, document.getElementsByTagName("updated").getLength());
+        assertEquals(0, document.getElementsByTagName("entry").getLength());
+    }
+
+    @Test
+    public void reuseUntilVersionChanges() throws Exception
+    {
+        BlogFeedServiceImpl service = newService();
+        service.selectFeedFile(IBlogFeedService.RSS);
+        service.selectFeedFile(IBlogFeedService.RSS);
+        verify(mapper, times(1)).selectBlogArticleFeedCursor(anyInt());
+
+        // 重启后版本文件一致，仍复用磁盘上的结果
+        newService().selectFeedFile(IBlogFeedService.RSS);
+        verify(mapper, times(1)).selectBlogArticleFeedCursor(anyInt());
+
+        articles.add(0, article(3L, "新文章", null));
+        versions.put("blog_article", 2L);
+        File file = service.selectFeedFile(IBlogFeedService.RSS);
+
+        verify(mapper, times(2)).selectBlogArticleFeedCursor(anyInt());
+        assertTrue(read(file).contains("http://blog.test/article/3"));
+        assertEquals("2-1", service.selectFeedVersion());
+    }
+
+    @Test
+    public void sitemapIncludesHome() throws Exception
+    {
+        Document document = parse(newService().selectFeedFile(IBlogFeedService.SITEMAP));
+
+        assertEquals("urlset", document.getDocumentElement().getTagName());
+        assertEquals(3, document.getElementsByTagName("url").getLength());
+        assertEquals("http://blog.test/", document.getElementsByTagName("loc").item(0).getTextContent());
+        assertEquals("http://blog.test/article/1", document.getElementsByTagName("loc").item(1).getTextContent());
+        verify(mapper).selectBlogArticleSitemapCursor(0L, 49999);
+    }
+
+    @Test
+    public void sitemapIndexWhenOverLimit() throws Exception
+    {
+        when(mapper.countPublishedBlogArticle()).thenReturn(60000);
+        BlogFeedServiceImpl service = newService();
+
+        Document index = parse(service.selectFeedFile(IBlogFeedService.SITEMAP));
+        assertEquals("sitemapindex", index.getDocumentElement().getTagName());
+        assertEquals(2, index.getElementsByTagName("sitemap").getLength());
+        assertEquals("http://blog.test/sitemap-2.xml", index.getElementsByTagName("loc").item(1).getTextContent());
+        verify(mapper, never()).selectBlogArticleSitemapCursor(anyLong(), anyInt());
+
+        service.selectFeedFile("sitemap-2.xml");
+        verify(mapper).selectBlogArticleSitemapCursor(eq(2L), eq(49999));
+        assertThrows(ServiceException.class, () -> service.selectFeedFile("sitemap-3.xml"));
+    }
+
+    @Test
+    public void sitemapPagesSeekByArticleId() throws Exception
+    {
+        articles.clear();
+        for (long articleId = 50001; articleId > 0; articleId--)
+        {
+            articles.add(article(articleId, "文章" + articleId, null));
+        }
+        BlogFeedServiceImpl service = newService();
+
+        Document second = parse(service.selectFeedFile("sitemap-2.xml"));
+        assertEquals(2, second.getElementsByTagName("url").getLength());
+        assertEquals("http://blog.test/article/50000", second.getElementsByTagName("loc").item(0).getTextContent());
+        verify(mapper).selectBlogArticleSitemapCursor(49999L, 49999);
+
+        // 第一页含首页地址，与第二页不重叠
+        Document first = parse(service.selectFeedFile("sitemap-1.xml"));
+        assertEquals(50000, first.getElementsByTagName("url").getLength());
+        assertEquals("http://blog.test/article/49999", first.getElementsByTagName("loc").item(49999).getTextContent());
+
+        // 分页边界按版本缓存，版本变化后重新查询
+        versions.put("blog_article", 2L);
+        service.selectFeedFile("sitemap-2.xml");
+        verify(mapper, times(2)).selectBlogArticleSitemapPageLastId(0L, 49999);
+        verify(mapper, never()).selectBlogArticleFeedCursor(anyInt());
+    }
+
+    @Test
+    public void unknownFeedRejected()
+    {
+        BlogFeedServiceImpl service = newService();
+
+        assertThrows(ServiceException.class, () -> service.selectFeedFile("../ruoyi.yml"));
+        assertThrows(ServiceException.class, () -> service.selectFeedFile("sitemap-0.xml"));
+        assertThrows(ServiceException.class, () -> service.selectFeedFile(null));
+    }
+
+    private BlogFeedServiceImpl newService()
+    {
+        CacheVersion cacheVersion = mock(CacheVersion.class);
+        when(cacheVersion.get(any())).thenAnswer(invocation -> versions.getOrDefault(invocation.<String>getArgument(0), 0L));
+        BlogFeedServiceImpl service = new BlogFeedServiceImpl();
+        ReflectionTestUtils.setField(service, "blogArticleMapper", mapper);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "cacheVersion", cacheVersion);
+        ReflectionTestUtils.setField(service, "siteUrl", "http://blog.test/");
+        ReflectionTestUtils.setField(service, "title", "测试博客");
+        ReflectionTestUtils.setField(service, "description", "");
+        ReflectionTestUtils.setField(service, "articlePath", "/article/{id}");
+        ReflectionTestUtils.setField(service, "size", 50);
+        service.init();
+        return service;
+    }
+
+    /**
+     * 模拟按文章ID键集分页
+     */
+    private List<BlogArticle> sitemapPage(long lastId, int limit)
+    {
+        List<BlogArticle> page = new ArrayList<BlogArticle>();
+        for (BlogArticle article : articles)
+        {
+            if (article.getArticleId() > lastId)
+            {
+                page.add(article);
+            }
+        }
+        page.sort(Comparator.comparing(BlogArticle::getArticleId));
+        return page.subList(0, Math.min(limit, page.size()));
+    }
+
+    private static BlogArticle article(Long articleId, String title, String categoryName)
+    {
+        BlogArticle article = new BlogArticle();
+        article.setArticleId(articleId);
+        article.setTitle(title);
+        article.setSummary("摘要" + articleId);
+        article.setCategoryName(categoryName);
+        article.setCreateTime(new Date(1700000000000L + articleId * 1000));
+        return article;
+    }
+
+    private static String read(File file) throws IOException
+    {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static Document parse(File file) throws Exception
+    {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(file);
+    }
+}
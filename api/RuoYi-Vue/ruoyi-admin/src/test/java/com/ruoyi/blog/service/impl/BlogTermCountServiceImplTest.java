@@ -0,0 +1,203 @@
+package com.ruoyi.blog.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.ruoyi.blog.domain.BlogArticle;
+import com.ruoyi.blog.domain.BlogArticleTag;
+import com.ruoyi.blog.domain.BlogCategory;
+import com.ruoyi.blog.domain.BlogTag;
+import com.ruoyi.blog.mapper.BlogArticleMapper;
+import com.ruoyi.blog.mapper.BlogCategoryMapper;
+import com.ruoyi.blog.mapper.BlogTagMapper;
+import com.ruoyi.common.core.cache.CacheVersion;
+
+/**
+ * 分类/标签文章数增量维护测试
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+public class BlogTermCountServiceImplTest
+{
+    private BlogTermCountServiceImpl service;
+
+    private BlogArticleMapper articleMapper;
+
+    private BlogCategoryMapper categoryMapper;
+
+    private BlogTagMapper tagMapper;
+
+    private CacheVersion cacheVersion;
+
+    @BeforeEach
+    public void setUp()
+    {
+        articleMapper = mock(BlogArticleMapper.class);
+        categoryMapper = mock(BlogCategoryMapper.class);
+        tagMapper = mock(BlogTagMapper.class);
+        cacheVersion = mock(CacheVersion.class);
+        service = new BlogTermCountServiceImpl();
+        ReflectionTestUtils.setField(service, "blogArticleMapper", articleMapper);
+        ReflectionTestUtils.setField(service, "blogCategoryMapper", categoryMapper);
+        ReflectionTestUtils.setField(service, "blogTagMapper", tagMapper);
+        ReflectionTestUtils.setField(service, "cacheVersion", cacheVersion);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void publishCountsCategoryAndTags()
+    {
+        givenStates(Arrays.asList(state(1L, "0", 5L)), tags(1L, 1L, 2L),
+                Arrays.asList(state(1L, "1", 5L)), tags(1L, 1L, 2L, 3L));
+
+        service.updateTermCounts(service.lockArticleTermStates(1L), 1L);
+
+        verify(categoryMapper).updateBlogCategoryArticleCount(5L, 1);
+        verify(tagMapper).updateBlogTagArticleCount(Arrays.asList(1L, 2L, 3L), 1);
+        verify(cacheVersion).increment("blog_category", "blog_tag");
+    }
+
+    @Test
+    public void editAppliesOnlyDifferences()
+    {
+        givenStates(Arrays.asList(state(1L, "1", 5L)), tags(1L, 1L, 2L),
+                Arrays.asList(state(1L, "1", 6L)), tags(1L, 2L, 3L));
+
+        service.updateTermCounts(service.lockArticleTermStates(1L), 1L);
+
+        verify(categoryMapper).updateBlogCategoryArticleCount(5L, -1);
+        verify(categoryMapper).updateBlogCategoryArticleCount(6L, 1);
+        verify(tagMapper).updateBlogTagArticleCount(Collections.singletonList(1L), -1);
+        verify(tagMapper).updateBlogTagArticleCount(Collections.singletonList(3L), 1);
+        verify(tagMapper, times(2)).updateBlogTagArticleCount(anyList(), anyInt());
+    }
+
+    @Test
+    public void unchangedTermsSkipWrites()
+    {
+        givenStates(Arrays.asList(state(1L, "1", 5L)), tags(1L, 1L),
+                Arrays.asList(state(1L, "1", 5L)), tags(1L, 1L));
+
+        service.updateTermCounts(service.lockArticleTermStates(1L), 1L);
+
+        verify(categoryMapper, never()).updateBlogCategoryArticleCount(anyLong(), anyInt());
+        verify(tagMapper, never()).updateBlogTagArticleCount(anyList(), anyInt());
+        verify(cacheVersion, never()).increment("blog_category", "blog_tag");
+    }
+
+    @Test
+    public void deletedArticleUncounted()
+    {
+        BlogArticle deleted = state(1L, "1", 5L);
+        deleted.setDelFlag("2");
+        givenStates(Arrays.asList(state(1L, "1", 5L), state(2L, "1", 5L)), tags(1L, 1L),
+                Arrays.asList(deleted), new ArrayList<BlogArticleTag>());
+
+        service.updateTermCounts(service.lockArticleTermStates(1L, 2L), 1L, 2L);
+
+        // 文章2物理删除后查不到，同样扣减
+        verify(categoryMapper).updateBlogCategoryArticleCount(5L, -2);
+        verify(tagMapper).updateBlogTagArticleCount(Collections.singletonList(1L), -1);
+    }
+
+    @Test
+    public void cacheClearedAfterCommit()
+    {
+        givenStates(Arrays.asList(state(1L, "0", 5L)), tags(1L),
+                Arrays.asList(state(1L, "1", 5L)), tags(1L));
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.updateTermCounts(service.lockArticleTermStates(1L), 1L);
+        verify(cacheVersion, never()).increment("blog_category", "blog_tag");
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+        {
+            synchronization.afterCommit();
+        }
+        verify(cacheVersion).increment("blog_category", "blog_tag");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void termCountsSortedAndCached()
+    {
+        when(categoryMapper.selectBlogCategoryList(any(BlogCategory.class))).thenReturn(new ArrayList<BlogCategory>());
+        when(tagMapper.selectBlogTagList(any(BlogTag.class))).thenReturn(new ArrayList<BlogTag>(Arrays.asList(tag(1L, 2L), tag(2L, null), tag(3L, 9L))));
+
+        Map<String, Object> terms = service.selectTermCounts();
+        service.selectTermCounts();
+
+        List<BlogTag> tags = (List<BlogTag>) terms.get("tags");
+        assertEquals(Arrays.asList(3L, 1L, 2L), Arrays.asList(tags.get(0).getTagId(), tags.get(1).getTagId(), tags.get(2).getTagId()));
+        verify(tagMapper, times(1)).selectBlogTagList(any(BlogTag.class));
+
+        when(categoryMapper.reconcileBlogCategoryArticleCount()).thenReturn(1);
+        assertEquals(1, service.reconcileTermCounts());
+        service.selectTermCounts();
+        verify(tagMapper, times(2)).selectBlogTagList(any(BlogTag.class));
+    }
+
+    private void givenStates(List<BlogArticle> before, List<BlogArticleTag> beforeTags, List<BlogArticle> after, List<BlogArticleTag> afterTags)
+    {
+        when(articleMapper.selectBlogArticleTermStates(any(Long[].class))).thenReturn(before, after);
+        when(articleMapper.selectBlogArticleTagByArticleIds(any(Long[].class))).thenReturn(beforeTags, afterTags);
+    }
+
+    private static BlogArticle state(Long articleId, String status, Long categoryId)
+    {
+        BlogArticle article = new BlogArticle();
+        article.setArticleId(articleId);
+        article.setStatus(status);
+        article.setDelFlag("0");
+        article.setCategoryId(categoryId);
+        return article;
+    }
+
+    private static List<BlogArticleTag> tags(Long articleId, Long... tagIds)
+    {
+        List<BlogArticleTag> list = new ArrayList<BlogArticleTag>();
+        for (Long tagId : tagIds)
+        {
+            BlogArticleTag articleTag = new BlogArticleTag();
+            articleTag.setArticleId(articleId);
+            articleTag.setTagId(tagId);
+            list.add(articleTag);
+        }
+        return list;
+    }
+
+    private static BlogTag tag(Long tagId, Long articleCount)
+    {
+        BlogTag tag = new BlogTag();
+        tag.setTagId(tagId);
+        tag.setArticleCount(articleCount);
+        return tag;
+    }
+}
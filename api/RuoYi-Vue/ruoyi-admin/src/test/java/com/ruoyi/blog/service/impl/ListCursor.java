@@ -0,0 +1,54 @@
+package com.ruoyi.blog.service.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * 基于列表的 MyBatis 游标，替代数据库游标供测试遍历
+ *
+ * @author CYX
+ * @date 2025-11-20
+ */
+class ListCursor<T> implements Cursor<T>
+{
+    private final List<T> rows;
+
+    private boolean open = true;
+
+    ListCursor(List<T> rows)
+    {
+        this.rows = new ArrayList<T>(rows);
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return open;
+    }
+
+    @Override
+    public boolean isConsumed()
+    {
+        return false;
+    }
+
+    @Override
+    public int getCurrentIndex()
+    {
+        return -1;
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return rows.iterator();
+    }
+
+    @Override
+    public void close()
+    {
+        open = false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ruoyi.common.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * HTTP条件请求缓存注解
+ *
+ * 根据所依赖数据的版本号生成弱ETag，客户端携带匹配的 If-None-Match 时直接返回304，不再执行查询与序列化
+ *
+ * @author ruoyi
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface HttpCache
+{
+    /**
+     * 依赖的缓存版本名称，任一版本递增即视为资源已修改
+     */
+    public String[] value();
+
+    /**
+     * Cache-Control max-age（秒），0 表示每次使用前都需再验证
+     */
+    public int maxAge() default 0;
+
+    /**
+     * 是否允许代理等共享缓存存储，默认仅允许浏览器缓存
+     */
+    public boolean cachePublic() default false;
+}
@@ -119,4 +119,12 @@ public class RuoYiConfig
     {
         return getProfile() + "/upload";
     }
+
+    /**
+     * 获取静态快照路径
+     */
+    public static String getSnapshotPath()
+    {
+        return getProfile() + "/snapshot";
+    }
 }
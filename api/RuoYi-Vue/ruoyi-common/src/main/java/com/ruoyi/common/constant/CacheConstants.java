@@ -12,6 +12,26 @@ public class CacheConstants
      */
     public static final String LOGIN_TOKEN_KEY = "login_tokens:";
 
+    /**
+     * 登录用户变更通知 redis channel，消息为令牌uuid，* 表示全部
+     */
+    public static final String LOGIN_TOKEN_CHANNEL = "channel:login_tokens";
+
+    /**
+     * 两级缓存失效通知 redis channel 前缀，后接缓存键前缀，消息为键，* 表示全部
+     */
+    public static final String TWO_LEVEL_CACHE_CHANNEL = "channel:two_level_cache:";
+
+    /**
+     * 在线会话索引 redis key，有序集合，分值为过期时间
+     */
+    public static final String LOGIN_TOKEN_INDEX_KEY = "login_token_index:";
+
+    /**
+     * 会话权限字典 redis key
+     */
+    public static final String SESSION_PERM_DICT_KEY = "sys_session_perm_dict";
+
     /**
      * 验证码 redis key
      */
@@ -41,4 +61,79 @@ public class CacheConstants
      * 登录账户密码错误次数 redis key
      */
     public static final String PWD_ERR_CNT_KEY = "pwd_err_cnt:";
+
+    /**
+     * 博客文章浏览去重 redis key
+     */
+    public static final String BLOG_VIEW_KEY = "blog_view:";
+
+    /**
+     * 博客文章已刷新浏览量 redis key
+     */
+    public static final String BLOG_VIEW_COUNT_KEY = "blog_view_count";
+
+    /**
+     * 博客文章详情 cache key
+     */
+    public static final String BLOG_ARTICLE_KEY = "blog_article:";
+
+    /**
+     * 博客评论树 cache key
+     */
+    public static final String BLOG_COMMENT_TREE_KEY = "blog_comment_tree:";
+
+    /**
+     * HTTP缓存版本号 redis key
+     */
+    public static final String HTTP_CACHE_VERSION_KEY = "http_cache_version:";
+
+    /**
+     * 博客评论提交频率 redis key
+     */
+    public static final String BLOG_COMMENT_RATE_KEY = "blog_comment_rate:";
+
+    /**
+     * 博客评论受理结果 redis key
+     */
+    public static final String BLOG_COMMENT_ACCEPT_KEY = "blog_comment_accept:";
+
+    /**
+     * 博客文章导入进度 redis key
+     */
+    public static final String BLOG_ARTICLE_IMPORT_KEY = "blog_article_import:";
+
+    /**
+     * 博客文章浏览统计上次成功汇总时间 redis key
+     */
+    public static final String BLOG_STAT_ROLLUP_KEY = "blog_stat_rollup";
+
+    /**
+     * 上传图片已生成尺寸记录 redis key，Hash结构，字段为资源路径
+     */
+    public static final String IMAGE_VARIANT_KEY = "image_variant";
+
+    /**
+     * 上传图片尺寸版本名称，尺寸生成完成后递增，使引用封面 srcset 的列表重新生成
+     */
+    public static final String IMAGE_VARIANT_VERSION = "image_variant";
+
+    /**
+     * 前端路由 cache key
+     */
+    public static final String SYS_ROUTERS_KEY = "sys_routers:";
+
+    /**
+     * 菜单版本名称
+     */
+    public static final String MENU_VERSION = "sys_menu";
+
+    /**
+     * 部门结构版本名称
+     */
+    public static final String DEPT_VERSION = "sys_dept";
+
+    /**
+     * 数据权限版本名称
+     */
+    public static final String DATA_SCOPE_VERSION = "sys_data_scope";
 }
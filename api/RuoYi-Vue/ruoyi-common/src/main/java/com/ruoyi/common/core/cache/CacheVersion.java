@@ -0,0 +1,90 @@
+package com.ruoyi.common.core.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.redis.RedisCache;
+
+/**
+ * 缓存版本号
+ *
+ * 数据变更时递增对应名称的版本号，HTTP条件请求以版本号生成ETag；
+ * 版本号保存在Redis中供多节点共享，本地仅缓存1秒以减少读取次数；
+ * 版本号不存在时以当前毫秒时间戳为初值，Redis数据丢失后重新生成的版本号仍大于丢失前的版本号，旧ETag不会误命中
+ *
+ * @author ruoyi
+ */
+@Component
+public class CacheVersion
+{
+    /** 本地版本号缓存时间（毫秒） */
+    private static final long LOCAL_EXPIRE_MILLIS = 1000;
+
+    private final LocalCache<String, Long> localVersions = new LocalCache<String, Long>("cache_version", 256, LOCAL_EXPIRE_MILLIS);
+
+    @Autowired
+    private RedisCache redisCache;
+
+    /**
+     * 获取版本号
+     *
+     * @param name 版本名称
+     * @return 版本号
+     */
+    public long get(String name)
+    {
+        return localVersions.get(name, key -> {
+            Number version = redisCache.getCacheObject(CacheConstants.HTTP_CACHE_VERSION_KEY + key);
+            return version != null ? version.longValue() : initialize(key);
+        });
+    }
+
+    /**
+     * 数据变更后递增版本号
+     *
+     * @param names 版本名称
+     */
+    public void increment(String... names)
+    {
+        for (String name : names)
+        {
+            String key = CacheConstants.HTTP_CACHE_VERSION_KEY + name;
+            if (!redisCache.hasKey(key))
+            {
+                initialize(name);
+            }
+            localVersions.put(name, redisCache.increment(key));
+        }
+    }
+
+    /**
+     * 生成弱ETag，格式为 W/"资源标识-版本号..."
+     *
+     * @param resource 资源标识，区分同一版本下的不同响应
+     * @param names 依赖的版本名称
+     * @return 弱ETag
+     */
+    public String buildETag(String resource, String... names)
+    {
+        StringBuilder etag = new StringBuilder("W/\"").append(resource);
+        for (String name : names)
+        {
+            etag.append('-').append(Long.toString(get(name), 36));
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * 以当前毫秒时间戳初始化版本号，多个节点同时初始化时以先写入的为准
+     *
+     * @param name 版本名称
+     * @return 当前版本号
+     */
+    private long initialize(String name)
+    {
+        String key = CacheConstants.HTTP_CACHE_VERSION_KEY + name;
+        redisCache.setCounterIfAbsent(key, System.currentTimeMillis());
+        Number version = redisCache.getCacheObject(key);
+        return version == null ? 0L : version.longValue();
+    }
+}
@@ -0,0 +1,260 @@
+package com.ruoyi.common.core.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 进程内本地缓存，容量有界并支持过期时间
+ *
+ * 读写基于ConcurrentHashMap无全局锁；超出容量时按最近访问时间批量淘汰最久未使用的条目
+ *
+ * @author ruoyi
+ */
+public class LocalCache<K, V>
+{
+    /** 已创建的本地缓存，用于缓存监控 */
+    private static final Map<String, LocalCache<?, ?>> CACHES = new ConcurrentHashMap<String, LocalCache<?, ?>>();
+
+    /** 每次淘汰的比例 */
+    private static final double EVICT_RATIO = 0.1;
+
+    private final String name;
+
+    private final int maximumSize;
+
+    private final long expireMillis;
+
+    private final ConcurrentHashMap<K, Entry<V>> store = new ConcurrentHashMap<K, Entry<V>>();
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder remoteHitCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 创建本地缓存
+     *
+     * @param name 缓存名称
+     * @param maximumSize 最大条目数
+     * @param expireMillis 写入后过期时间（毫秒），小于等于0表示不过期
+     */
+    public LocalCache(String name, int maximumSize, long expireMillis)
+    {
+        this.name = name;
+        this.maximumSize = Math.max(1, maximumSize);
+        this.expireMillis = expireMillis;
+        CACHES.put(name, this);
+    }
+
+    /**
+     * 获取缓存值，不存在或已过期时返回null
+     *
+     * @param key 键
+     * @return 值
+     */
+    public V get(K key)
+    {
+        Entry<V> entry = store.get(key);
+        if (entry == null)
+        {
+            missCount.increment();
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (entry.isExpired(now))
+        {
+            store.remove(key, entry);
+            missCount.increment();
+            return null;
+        }
+        entry.accessTime = now;
+        hitCount.increment();
+        return entry.value;
+    }
+
+    /**
+     * 获取缓存值，不存在时通过加载函数加载并写入缓存
+     *
+     * @param key 键
+     * @param loader 加载函数，返回null时不缓存
+     * @return 值
+     */
+    public V get(K key, Function<K, V> loader)
+    {
+        V value = get(key);
+        if (value == null)
+        {
+            value = loader.apply(key);
+            if (value != null)
+            {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param key 键
+     * @param value 值
+     */
+    public void put(K key, V value)
+    {
+        long now = System.currentTimeMillis();
+        store.put(key, new Entry<V>(value, expireMillis > 0 ? now + expireMillis : Long.MAX_VALUE, now));
+        if (store.size() > maximumSize)
+        {
+            evict();
+        }
+    }
+
+    /**
+     * 删除缓存
+     *
+     * @param key 键
+     */
+    public void remove(K key)
+    {
+        store.remove(key);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear()
+    {
+        store.clear();
+    }
+
+    /**
+     * 记录一次本地未命中但由二级缓存命中的读取
+     */
+    public void recordRemoteHit()
+    {
+        remoteHitCount.increment();
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int size()
+    {
+        return store.size();
+    }
+
+    /**
+     * 获取缓存统计信息
+     *
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats()
+    {
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
+        long requests = hits + misses;
+        Map<String, Object> stats = new LinkedHashMap<String, Object>();
+        stats.put("name", name);
+        stats.put("size", store.size());
+        stats.put("maximumSize", maximumSize);
+        stats.put("expireMillis", expireMillis);
+        stats.put("hitCount", hits);
+        stats.put("missCount", misses);
+        stats.put("remoteHitCount", remoteHitCount.sum());
+        stats.put("evictionCount", evictionCount.sum());
+        stats.put("hitRate", requests == 0 ? 0D : (double) hits / requests);
+        return stats;
+    }
+
+    /**
+     * 获取所有本地缓存的统计信息
+     *
+     * @return 统计信息列表
+     */
+    public static List<Map<String, Object>> getAllStats()
+    {
+        List<Map<String, Object>> list = new ArrayList<Map<String, Object>>();
+        for (LocalCache<?, ?> cache : CACHES.values())
+        {
+            list.add(cache.getStats());
+        }
+        return list;
+    }
+
+    /**
+     * 先清理过期条目，仍超出容量时淘汰最久未访问的一批条目
+     */
+    private void evict()
+    {
+        if (!evicting.compareAndSet(false, true))
+        {
+            return;
+        }
+        try
+        {
+            long now = System.currentTimeMillis();
+            store.entrySet().removeIf(e -> {
+                if (e.getValue().isExpired(now))
+                {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            });
+            int overflow = store.size() - maximumSize;
+            if (overflow <= 0)
+            {
+                return;
+            }
+            int count = Math.max(overflow, (int) (maximumSize * EVICT_RATIO));
+            List<Map.Entry<K, Entry<V>>> entries = new ArrayList<Map.Entry<K, Entry<V>>>(store.entrySet());
+            entries.sort((a, b) -> Long.compare(a.getValue().accessTime, b.getValue().accessTime));
+            for (int i = 0; i < count && i < entries.size(); i++)
+            {
+                Map.Entry<K, Entry<V>> e = entries.get(i);
+                if (store.remove(e.getKey(), e.getValue()))
+                {
+                    evictionCount.increment();
+                }
+            }
+        }
+        finally
+        {
+            evicting.set(false);
+        }
+    }
+
+    private static final class Entry<V>
+    {
+        private final V value;
+
+        private final long expireTime;
+
+        private volatile long accessTime;
+
+        private Entry(V value, long expireTime, long accessTime)
+        {
+            this.value = value;
+            this.expireTime = expireTime;
+            this.accessTime = accessTime;
+        }
+
+        private boolean isExpired(long now)
+        {
+            return now >= expireTime;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.ruoyi.common.core.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.redis.RedisCache;
+
+/**
+ * 两级缓存：一级为进程内LocalCache，二级为Redis
+ *
+ * 读取顺序为本地缓存、Redis、加载函数，同一键的并发未命中只加载一次；
+ * 失效时清理两级缓存，并通过Redis频道通知其他节点清理各自的本地缓存
+ *
+ * @author ruoyi
+ */
+public class TwoLevelCache<V>
+{
+    /** 清空全部的通知消息 */
+    private static final String ALL_KEYS = "*";
+
+    private final LocalCache<String, V> localCache;
+
+    private final RedisCache redisCache;
+
+    private final String keyPrefix;
+
+    private final int redisExpireMinutes;
+
+    /** 正在加载的键 */
+    private final ConcurrentHashMap<String, CompletableFuture<V>> loading = new ConcurrentHashMap<String, CompletableFuture<V>>();
+
+    /** 失效次数，加载期间发生过失效时不回填，避免写回旧值 */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 创建两级缓存
+     *
+     * @param localCache 一级本地缓存
+     * @param redisCache Redis缓存
+     * @param keyPrefix Redis键前缀
+     * @param redisExpireMinutes Redis过期时间（分钟）
+     */
+    public TwoLevelCache(LocalCache<String, V> localCache, RedisCache redisCache, String keyPrefix, int redisExpireMinutes)
+    {
+        this.localCache = localCache;
+        this.redisCache = redisCache;
+        this.keyPrefix = keyPrefix;
+        this.redisExpireMinutes = redisExpireMinutes;
+        redisCache.subscribe(getChannel(), this::onInvalidate);
+    }
+
+    /**
+     * 获取缓存值，两级缓存均未命中时调用加载函数并回填
+     *
+     * @param key 键
+     * @param loader 加载函数，返回null时不缓存
+     * @return 值
+     */
+    public V get(String key, Supplier<V> loader)
+    {
+        V value = localCache.get(key);
+        if (value != null)
+        {
+            return value;
+        }
+        CompletableFuture<V> future = new CompletableFuture<V>();
+        CompletableFuture<V> running = loading.putIfAbsent(key, future);
+        if (running != null)
+        {
+            return await(running);
+        }
+        try
+        {
+            value = load(key, loader);
+            future.complete(value);
+            return value;
+        }
+        catch (RuntimeException e)
+        {
+            future.completeExceptionally(e);
+            throw e;
+        }
+        finally
+        {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 删除指定键的两级缓存，并通知其他节点
+     *
+     * @param key 键
+     */
+    public void evict(String key)
+    {
+        invalidations.incrementAndGet();
+        localCache.remove(key);
+        redisCache.deleteObject(keyPrefix + key);
+        redisCache.publish(getChannel(), key);
+    }
+
+    /**
+     * 清空两级缓存，并通知其他节点
+     */
+    public void clear()
+    {
+        invalidations.incrementAndGet();
+        localCache.clear();
+        redisCache.deleteByPattern(keyPrefix + "*");
+        redisCache.publish(getChannel(), ALL_KEYS);
+    }
+
+    public LocalCache<String, V> getLocalCache()
+    {
+        return localCache;
+    }
+
+    public String getKeyPrefix()
+    {
+        return keyPrefix;
+    }
+
+    private V load(String key, Supplier<V> loader)
+    {
+        long invalidation = invalidations.get();
+        V value = redisCache.getCacheObject(keyPrefix + key);
+        if (value != null)
+        {
+            localCache.recordRemoteHit();
+            if (invalidation == invalidations.get())
+            {
+                localCache.put(key, value);
+            }
+            return value;
+        }
+        value = loader.get();
+        if (value != null && invalidation == invalidations.get())
+        {
+            redisCache.setCacheObject(keyPrefix + key, value, redisExpireMinutes, TimeUnit.MINUTES);
+            localCache.put(key, value);
+        }
+        return value;
+    }
+
+    private V await(CompletableFuture<V> running)
+    {
+        try
+        {
+            return running.join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 收到失效通知时清理本地缓存（包括本节点自己发出的通知）
+     */
+    private void onInvalidate(Object message)
+    {
+        invalidations.incrementAndGet();
+        if (ALL_KEYS.equals(message))
+        {
+            localCache.clear();
+        }
+        else if (message != null)
+        {
+            localCache.remove(message.toString());
+        }
+    }
+
+    private String getChannel()
+    {
+        return CacheConstants.TWO_LEVEL_CACHE_CHANNEL + keyPrefix;
+    }
+}
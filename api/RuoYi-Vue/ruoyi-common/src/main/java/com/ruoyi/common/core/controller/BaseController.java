@@ -3,6 +3,8 @@ package com.ruoyi.common.core.controller;
 import java.beans.PropertyEditorSupport;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.WebDataBinder;
@@ -11,7 +13,9 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.ruoyi.common.constant.HttpStatus;
 import com.ruoyi.common.core.domain.AjaxResult;
+import com.ruoyi.common.core.domain.BaseEntity;
 import com.ruoyi.common.core.domain.model.LoginUser;
+import com.ruoyi.common.core.page.PageCursor;
 import com.ruoyi.common.core.page.PageDomain;
 import com.ruoyi.common.core.page.TableDataInfo;
 import com.ruoyi.common.core.page.TableSupport;
@@ -55,6 +59,33 @@ public class BaseController
         PageUtils.startPage();
     }
 
+    /**
+     * 是否为游标分页请求
+     */
+    protected boolean isCursorPage()
+    {
+        return TableSupport.isCursorRequest();
+    }
+
+    /**
+     * 设置游标分页数据，查询条件通过 params.cursorTime / params.cursorId 传入mapper，
+     * mapper需按 create_time desc, 主键 desc 排序
+     */
+    protected PageCursor startCursorPage(BaseEntity entity)
+    {
+        PageCursor cursor = TableSupport.buildCursorRequest();
+        Map<String, Object> params = entity.getParams();
+        params.put("cursorMode", Boolean.TRUE);
+        if (!cursor.isFirstPage())
+        {
+            params.put("cursorTime", cursor.getCreateTime());
+            params.put("cursorId", cursor.getId());
+        }
+        // 多取一条用于判断是否存在下一页，且不执行count查询
+        PageHelper.startPage(1, cursor.getPageSize() + 1, false);
+        return cursor;
+    }
+
     /**
      * 设置请求排序数据
      */
@@ -90,6 +121,26 @@ public class BaseController
         return rspData;
     }
 
+    /**
+     * 响应请求游标分页数据，游标分页不统计总数，total固定为-1
+     */
+    protected <T extends BaseEntity> TableDataInfo getCursorDataTable(List<T> list, PageCursor cursor, Function<T, Long> idGetter)
+    {
+        TableDataInfo rspData = new TableDataInfo();
+        rspData.setCode(HttpStatus.SUCCESS);
+        rspData.setMsg("查询成功");
+        List<T> rows = list;
+        if (list.size() > cursor.getPageSize())
+        {
+            rows = list.subList(0, cursor.getPageSize());
+            T last = rows.get(rows.size() - 1);
+            rspData.setNextCursor(PageCursor.encode(last.getCreateTime(), idGetter.apply(last)));
+        }
+        rspData.setRows(rows);
+        rspData.setTotal(-1);
+        return rspData;
+    }
+
     /**
      * 返回成功
      */
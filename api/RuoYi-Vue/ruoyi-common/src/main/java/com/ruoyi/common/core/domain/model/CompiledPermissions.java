@@ -0,0 +1,100 @@
+package com.ruoyi.common.core.domain.model;
+
+/**
+ * 预编译的用户权限
+ *
+ * 权限按全局权限ID存为位图，校验只需一次位运算；编译之后才注册的权限ID不在位图覆盖范围内，
+ * 此时按保留的通配符权限逐段匹配
+ *
+ * @author ruoyi
+ */
+public class CompiledPermissions
+{
+    /** 权限分段分隔符 */
+    private static final String SEGMENT_DELIMITER = ":";
+
+    /** 通配符 */
+    private static final String WILDCARD = "*";
+
+    /** 是否拥有全部权限 */
+    private final boolean all;
+
+    /** 权限位图 */
+    private final long[] words;
+
+    /** 编译时已注册的权限数量 */
+    private final int coveredSize;
+
+    /** 含通配符的权限，已按分隔符拆分 */
+    private final String[][] wildcards;
+
+    public CompiledPermissions(boolean all, long[] words, int coveredSize, String[][] wildcards)
+    {
+        this.all = all;
+        this.words = words;
+        this.coveredSize = coveredSize;
+        this.wildcards = wildcards;
+    }
+
+    /**
+     * 判断是否拥有权限
+     *
+     * @param id 权限ID
+     * @param permission 权限字符串，用于匹配编译后注册的权限
+     * @return 是否拥有
+     */
+    public boolean has(int id, String permission)
+    {
+        if (all)
+        {
+            return true;
+        }
+        if (id < coveredSize)
+        {
+            int index = id >>> 6;
+            return index < words.length && (words[index] & (1L << id)) != 0;
+        }
+        return matchWildcard(permission);
+    }
+
+    public boolean isAll()
+    {
+        return all;
+    }
+
+    private boolean matchWildcard(String permission)
+    {
+        if (wildcards.length == 0 || permission == null)
+        {
+            return false;
+        }
+        String[] segments = permission.split(SEGMENT_DELIMITER);
+        for (String[] pattern : wildcards)
+        {
+            if (matches(pattern, segments))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 逐段匹配，通配符匹配任意单个分段
+     */
+    public static boolean matches(String[] pattern, String[] segments)
+    {
+        if (pattern.length != segments.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < pattern.length; i++)
+        {
+            if (!WILDCARD.equals(pattern[i]) && !pattern[i].equals(segments[i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
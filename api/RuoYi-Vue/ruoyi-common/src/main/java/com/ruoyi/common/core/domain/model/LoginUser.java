@@ -71,6 +71,16 @@ public class LoginUser implements UserDetails
      */
     private SysUser user;
 
+    /**
+     * 用户信息已修改但尚未写回缓存，不序列化
+     */
+    private transient boolean dirty;
+
+    /**
+     * 预编译的权限，权限列表变更时清空，不序列化
+     */
+    private transient CompiledPermissions compiledPermissions;
+
     public LoginUser()
     {
     }
@@ -246,6 +256,7 @@ public class LoginUser implements UserDetails
     public void setPermissions(Set<String> permissions)
     {
         this.permissions = permissions;
+        this.compiledPermissions = null;
     }
 
     public SysUser getUser()
@@ -258,6 +269,28 @@ public class LoginUser implements UserDetails
         this.user = user;
     }
 
+    @JSONField(serialize = false)
+    public CompiledPermissions getCompiledPermissions()
+    {
+        return compiledPermissions;
+    }
+
+    public void setCompiledPermissions(CompiledPermissions compiledPermissions)
+    {
+        this.compiledPermissions = compiledPermissions;
+    }
+
+    @JSONField(serialize = false)
+    public boolean isDirty()
+    {
+        return dirty;
+    }
+
+    public void setDirty(boolean dirty)
+    {
+        this.dirty = dirty;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities()
     {
@@ -0,0 +1,97 @@
+package com.ruoyi.common.core.page;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.common.utils.StringUtils;
+
+/**
+ * 游标分页对象
+ *
+ * 游标由上一页最后一行的 (create_time, id) 编码而成，下一页只需查询排在其后的记录，无需count与offset
+ *
+ * @author ruoyi
+ */
+public class PageCursor
+{
+    /** 上一页最后一行的创建时间，首页为null */
+    private Date createTime;
+
+    /** 上一页最后一行的主键，首页为null */
+    private Long id;
+
+    /** 每页显示记录数 */
+    private int pageSize;
+
+    public PageCursor(Date createTime, Long id, int pageSize)
+    {
+        this.createTime = createTime;
+        this.id = id;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @param cursor 游标字符串，为空表示首页
+     * @param pageSize 每页显示记录数
+     * @return 游标分页对象
+     */
+    public static PageCursor decode(String cursor, int pageSize)
+    {
+        if (StringUtils.isEmpty(cursor))
+        {
+            return new PageCursor(null, null, pageSize);
+        }
+        try
+        {
+            String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = text.indexOf('_');
+            long time = Long.parseLong(text.substring(0, index));
+            long id = Long.parseLong(text.substring(index + 1));
+            return new PageCursor(new Date(time), id, pageSize);
+        }
+        catch (RuntimeException e)
+        {
+            throw new ServiceException("分页游标无效");
+        }
+    }
+
+    /**
+     * 生成游标字符串
+     *
+     * @param createTime 最后一行的创建时间
+     * @param id 最后一行的主键
+     * @return 游标字符串
+     */
+    public static String encode(Date createTime, Long id)
+    {
+        if (createTime == null || id == null)
+        {
+            return null;
+        }
+        String text = createTime.getTime() + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirstPage()
+    {
+        return createTime == null;
+    }
+
+    public Date getCreateTime()
+    {
+        return createTime;
+    }
+
+    public Long getId()
+    {
+        return id;
+    }
+
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+}
@@ -18,6 +18,9 @@ public class TableDataInfo implements Serializable
     /** 列表数据 */
     private List<?> rows;
 
+    /** 下一页游标（游标分页时返回，没有更多数据时为null） */
+    private String nextCursor;
+
     /** 消息状态码 */
     private int code;
 
@@ -63,6 +66,16 @@ public class TableDataInfo implements Serializable
         this.rows = rows;
     }
 
+    public String getNextCursor()
+    {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor)
+    {
+        this.nextCursor = nextCursor;
+    }
+
     public int getCode()
     {
         return code;
@@ -35,6 +35,11 @@ public class TableSupport
      */
     public static final String REASONABLE = "reasonable";
 
+    /**
+     * 分页游标，携带该参数（首页为空值）即启用游标分页
+     */
+    public static final String CURSOR = "cursor";
+
     /**
      * 封装分页对象
      */
@@ -53,4 +58,21 @@ public class TableSupport
     {
         return getPageDomain();
     }
+
+    /**
+     * 是否为游标分页请求
+     */
+    public static boolean isCursorRequest()
+    {
+        return ServletUtils.getParameter(CURSOR) != null;
+    }
+
+    /**
+     * 封装游标分页对象
+     */
+    public static PageCursor buildCursorRequest()
+    {
+        int pageSize = Convert.toInt(ServletUtils.getParameter(PAGE_SIZE), 10);
+        return PageCursor.decode(ServletUtils.getParameter(CURSOR), Math.max(1, pageSize));
+    }
 }
@@ -1,17 +1,37 @@
 package com.ruoyi.common.core.redis;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
 import org.springframework.data.redis.core.BoundSetOperations;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Component;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.api.async.RedisKeyAsyncCommands;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
 
 /**
  * spring redis 工具类
@@ -22,9 +42,15 @@ import org.springframework.stereotype.Component;
 @Component
 public class RedisCache
 {
+    /** SCAN 每次返回数量的提示值，同时作为批量删除的批次大小 */
+    public static final int SCAN_COUNT = 1000;
+
     @Autowired
     public RedisTemplate redisTemplate;
 
+    @Autowired(required = false)
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
     /**
      * 缓存基本的对象，Integer、String、实体类等
      *
@@ -49,6 +75,21 @@ public class RedisCache
         redisTemplate.opsForValue().set(key, value, timeout, timeUnit);
     }
 
+    /**
+     * 仅当key不存在时缓存基本的对象
+     *
+     * @param key 缓存的键值
+     * @param value 缓存的值
+     * @param timeout 时间
+     * @param timeUnit 时间颗粒度
+     * @return true=设置成功；false=key已存在
+     */
+    public <T> boolean setCacheObjectIfAbsent(final String key, final T value, final long timeout, final TimeUnit timeUnit)
+    {
+        Boolean result = redisTemplate.opsForValue().setIfAbsent(key, value, timeout, timeUnit);
+        return Boolean.TRUE.equals(result);
+    }
+
     /**
      * 设置有效时间
      *
@@ -108,6 +149,31 @@ public class RedisCache
         return operation.get(key);
     }
 
+    /**
+     * 将键值的数值加一，键不存在时从0开始
+     *
+     * @param key 缓存键值
+     * @return 加一后的值
+     */
+    public long increment(final String key)
+    {
+        return redisTemplate.opsForValue().increment(key);
+    }
+
+    /**
+     * 键不存在时设置计数器初值，以纯数字写入，可继续使用 increment 递增
+     *
+     * @param key 缓存键值
+     * @param value 初值
+     * @return true=设置成功；false=key已存在
+     */
+    public boolean setCounterIfAbsent(final String key, final long value)
+    {
+        Boolean result = (Boolean) redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.setNX(
+                key.getBytes(StandardCharsets.UTF_8), Long.toString(value).getBytes(StandardCharsets.UTF_8)));
+        return Boolean.TRUE.equals(result);
+    }
+
     /**
      * 删除单个对象
      *
@@ -258,6 +324,8 @@ public class RedisCache
     /**
      * 获得缓存的基本对象列表
      *
+     * KEYS 会阻塞Redis，键数量较多时请使用 scanKeys 或 deleteByPattern
+     *
      * @param pattern 字符串前缀
      * @return 对象列表
      */
@@ -265,4 +333,253 @@ public class RedisCache
     {
         return redisTemplate.keys(pattern);
     }
+
+    /**
+     * 按模式分批遍历键，基于 SCAN 不阻塞Redis；集群模式下依次遍历各主节点
+     *
+     * @param pattern 匹配模式
+     * @param count 每次 SCAN 的 COUNT 提示
+     * @param consumer 每批键的处理，返回false时停止遍历
+     */
+    public void scan(final String pattern, final int count, final Predicate<List<String>> consumer)
+    {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            ScanOptions options = ScanOptions.scanOptions().match(pattern).count(count).build();
+            if (connection instanceof RedisClusterConnection)
+            {
+                RedisClusterConnection clusterConnection = (RedisClusterConnection) connection;
+                for (RedisClusterNode node : clusterConnection.clusterGetNodes())
+                {
+                    if (node.isMaster() && !scanCursor(clusterConnection.scan(node, options), count, consumer))
+                    {
+                        break;
+                    }
+                }
+            }
+            else
+            {
+                scanCursor(connection.scan(options), count, consumer);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 从游标处读取一页匹配的键，顺序为 SCAN 返回顺序
+     *
+     * 游标由上一页返回，翻页时不重复遍历已读取的键；集群模式下游标为“节点ID:节点游标”，依次遍历各主节点。
+     * 单次 SCAN 返回的数量不固定，本页可能略多于 limit
+     *
+     * @param pattern 匹配模式
+     * @param cursor 上一页返回的游标，首页为 ScanPage.START
+     * @param limit 本页读取的数量
+     * @return 本页的键与下一页游标
+     */
+    public ScanPage scanKeys(final String pattern, final String cursor, final int limit)
+    {
+        return (ScanPage) redisTemplate.execute((RedisCallback<ScanPage>) connection -> {
+            ScanArgs args = ScanArgs.Builder.matches(pattern).limit(limit);
+            List<String> keys = new ArrayList<String>();
+            if (!(connection instanceof RedisClusterConnection))
+            {
+                RedisKeyAsyncCommands<byte[], byte[]> commands = (RedisKeyAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+                return new ScanPage(keys, scanNode(commands, cursor, args, keys, limit));
+            }
+            RedisClusterConnection clusterConnection = (RedisClusterConnection) connection;
+            RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands = (RedisAdvancedClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            List<String> nodeIds = new ArrayList<String>();
+            for (RedisClusterNode node : clusterConnection.clusterGetNodes())
+            {
+                if (node.isMaster())
+                {
+                    nodeIds.add(node.getId());
+                }
+            }
+            Collections.sort(nodeIds);
+            int nodeIndex = 0;
+            String nodeCursor = ScanPage.START;
+            if (!ScanPage.START.equals(cursor))
+            {
+                int separator = cursor.lastIndexOf(':');
+                nodeIndex = separator < 0 ? -1 : nodeIds.indexOf(cursor.substring(0, separator));
+                if (nodeIndex < 0)
+                {
+                    // 节点已下线或游标无效
+                    return new ScanPage(keys, ScanPage.START);
+                }
+                nodeCursor = cursor.substring(separator + 1);
+            }
+            while (nodeIndex < nodeIds.size() && keys.size() < limit)
+            {
+                nodeCursor = scanNode(commands.getConnection(nodeIds.get(nodeIndex)), nodeCursor, args, keys, limit);
+                if (ScanPage.START.equals(nodeCursor))
+                {
+                    nodeIndex++;
+                }
+            }
+            return new ScanPage(keys, nodeIndex < nodeIds.size() ? nodeIds.get(nodeIndex) + ":" + nodeCursor : ScanPage.START);
+        });
+    }
+
+    /**
+     * 删除匹配模式的全部键，基于 SCAN 遍历并分批 UNLINK
+     *
+     * @param pattern 匹配模式
+     * @return 删除的键数量
+     */
+    public long deleteByPattern(final String pattern)
+    {
+        long[] deleted = { 0 };
+        scan(pattern, SCAN_COUNT, batch -> {
+            deleted[0] += unlink(batch);
+            return true;
+        });
+        return deleted[0];
+    }
+
+    /**
+     * 删除匹配模式且满足条件的键，基于 SCAN 遍历并分批 UNLINK
+     *
+     * @param pattern 匹配模式
+     * @param filter 返回true的键才删除
+     * @return 删除的键数量
+     */
+    public long deleteByPattern(final String pattern, final Predicate<String> filter)
+    {
+        long[] deleted = { 0 };
+        scan(pattern, SCAN_COUNT, batch -> {
+            batch.removeIf(filter.negate());
+            deleted[0] += unlink(batch);
+            return true;
+        });
+        return deleted[0];
+    }
+
+    /**
+     * 异步删除键，单机模式下一次 UNLINK，集群模式下按哈希槽分组
+     *
+     * @param keys 键
+     * @return 删除的键数量
+     */
+    public long unlink(final Collection<String> keys)
+    {
+        if (keys == null || keys.isEmpty())
+        {
+            return 0;
+        }
+        byte[][] rawKeys = new byte[keys.size()][];
+        int i = 0;
+        for (String key : keys)
+        {
+            rawKeys[i++] = key.getBytes(StandardCharsets.UTF_8);
+        }
+        Long deleted = (Long) redisTemplate.execute((RedisCallback<Long>) connection -> {
+            if (!(connection instanceof RedisClusterConnection))
+            {
+                return connection.unlink(rawKeys);
+            }
+            // 集群模式下多键命令要求同一槽位，按槽位分组
+            Map<Integer, List<byte[]>> slotKeys = new HashMap<Integer, List<byte[]>>();
+            for (byte[] rawKey : rawKeys)
+            {
+                slotKeys.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(rawKey), slot -> new ArrayList<byte[]>()).add(rawKey);
+            }
+            long count = 0;
+            for (List<byte[]> group : slotKeys.values())
+            {
+                Long removed = connection.unlink(group.toArray(new byte[0][]));
+                count += removed == null ? 0 : removed;
+            }
+            return count;
+        });
+        return deleted == null ? 0 : deleted;
+    }
+
+    /**
+     * 从游标处连续 SCAN 单个节点，直到读满 limit 或遍历结束
+     *
+     * @return 该节点的下一次游标，遍历结束时为 ScanPage.START
+     */
+    private static String scanNode(RedisKeyAsyncCommands<byte[], byte[]> commands, String cursor, ScanArgs args, List<String> keys, int limit)
+    {
+        String current = cursor;
+        do
+        {
+            KeyScanCursor<byte[]> result;
+            try
+            {
+                result = commands.scan(ScanCursor.of(current), args).get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("SCAN被中断", e);
+            }
+            catch (ExecutionException e)
+            {
+                throw new IllegalStateException("SCAN执行失败", e.getCause());
+            }
+            for (byte[] key : result.getKeys())
+            {
+                keys.add(new String(key, StandardCharsets.UTF_8));
+            }
+            current = result.isFinished() ? ScanPage.START : result.getCursor();
+        }
+        while (!ScanPage.START.equals(current) && keys.size() < limit);
+        return current;
+    }
+
+    /**
+     * 读取游标并按批交给处理函数
+     *
+     * @return 是否继续遍历
+     */
+    private static boolean scanCursor(Cursor<byte[]> cursor, int count, Predicate<List<String>> consumer)
+    {
+        try (Cursor<byte[]> keys = cursor)
+        {
+            List<String> batch = new ArrayList<String>(count);
+            while (keys.hasNext())
+            {
+                batch.add(new String(keys.next(), StandardCharsets.UTF_8));
+                if (batch.size() >= count)
+                {
+                    if (!consumer.test(batch))
+                    {
+                        return false;
+                    }
+                    batch = new ArrayList<String>(count);
+                }
+            }
+            return batch.isEmpty() || consumer.test(batch);
+        }
+    }
+
+    /**
+     * 发布消息
+     *
+     * @param channel 频道
+     * @param message 消息内容
+     */
+    public void publish(final String channel, final Object message)
+    {
+        redisTemplate.convertAndSend(channel, message);
+    }
+
+    /**
+     * 订阅频道
+     *
+     * @param channel 频道
+     * @param listener 消息处理，参数为反序列化后的消息内容
+     */
+    public void subscribe(final String channel, final Consumer<Object> listener)
+    {
+        if (redisMessageListenerContainer == null)
+        {
+            return;
+        }
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            listener.accept(redisTemplate.getValueSerializer().deserialize(message.getBody()));
+        }, new ChannelTopic(channel));
+    }
 }
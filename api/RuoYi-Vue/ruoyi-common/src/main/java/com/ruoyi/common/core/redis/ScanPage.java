@@ -0,0 +1,44 @@
+package com.ruoyi.common.core.redis;
+
+import java.util.List;
+
+/**
+ * 按游标读取的一页键
+ *
+ * @author ruoyi
+ */
+public class ScanPage
+{
+    /** 起始游标，也表示遍历结束 */
+    public static final String START = "0";
+
+    /** 本页的键 */
+    private final List<String> keys;
+
+    /** 下一页的游标 */
+    private final String cursor;
+
+    public ScanPage(List<String> keys, String cursor)
+    {
+        this.keys = keys;
+        this.cursor = cursor;
+    }
+
+    public List<String> getKeys()
+    {
+        return keys;
+    }
+
+    public String getCursor()
+    {
+        return cursor;
+    }
+
+    /**
+     * 是否已遍历全部键
+     */
+    public boolean isFinished()
+    {
+        return START.equals(cursor);
+    }
+}
@@ -1,6 +1,5 @@
 package com.ruoyi.common.utils;
 
-import java.util.Collection;
 import java.util.List;
 import com.alibaba.fastjson2.JSONArray;
 import com.ruoyi.common.constant.CacheConstants;
@@ -222,8 +221,7 @@ public class DictUtils
      */
     public static void clearDictCache()
     {
-        Collection<String> keys = SpringUtils.getBean(RedisCache.class).keys(CacheConstants.SYS_DICT_KEY + "*");
-        SpringUtils.getBean(RedisCache.class).deleteObject(keys);
+        SpringUtils.getBean(RedisCache.class).deleteByPattern(CacheConstants.SYS_DICT_KEY + "*");
     }
 
     /**
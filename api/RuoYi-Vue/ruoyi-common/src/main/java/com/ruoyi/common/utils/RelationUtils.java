@@ -0,0 +1,73 @@
+package com.ruoyi.common.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 关联表差异写入工具类
+ *
+ * 用户角色、角色菜单等关联更新时，比较现有与目标关联，仅删除多余项、插入缺失项，关联未变化时不产生写操作
+ *
+ * @author ruoyi
+ */
+public class RelationUtils
+{
+    private RelationUtils()
+    {
+    }
+
+    /**
+     * 按差异同步关联
+     *
+     * @param current 现有关联ID，调用方应在同一事务内加锁读取
+     * @param target 目标关联ID，为空表示清空关联
+     * @param deleter 删除多余关联
+     * @param inserter 插入缺失关联
+     * @return 变更的关联数（删除数 + 新增数）
+     */
+    public static <T> int sync(Collection<T> current, T[] target, Consumer<List<T>> deleter, Consumer<List<T>> inserter)
+    {
+        Set<T> targetSet = new LinkedHashSet<T>();
+        if (target != null)
+        {
+            for (T id : target)
+            {
+                if (id != null)
+                {
+                    targetSet.add(id);
+                }
+            }
+        }
+        Set<T> currentSet = current == null ? new LinkedHashSet<T>() : new LinkedHashSet<T>(current);
+
+        List<T> removed = new ArrayList<T>();
+        for (T id : currentSet)
+        {
+            if (!targetSet.contains(id))
+            {
+                removed.add(id);
+            }
+        }
+        List<T> added = new ArrayList<T>();
+        for (T id : targetSet)
+        {
+            if (!currentSet.contains(id))
+            {
+                added.add(id);
+            }
+        }
+        if (!removed.isEmpty())
+        {
+            deleter.accept(removed);
+        }
+        if (!added.isEmpty())
+        {
+            inserter.accept(added);
+        }
+        return removed.size() + added.size();
+    }
+}
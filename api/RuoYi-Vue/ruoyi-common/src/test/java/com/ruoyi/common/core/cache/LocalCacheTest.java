@@ -0,0 +1,72 @@
+package com.ruoyi.common.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 本地缓存测试
+ *
+ * @author ruoyi
+ */
+public class LocalCacheTest
+{
+    @Test
+    public void getReturnsPutValueUntilRemoved()
+    {
+        LocalCache<String, String> cache = new LocalCache<String, String>("test_basic", 10, 0);
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+        cache.remove("a");
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void expiredEntryIsNotReturned() throws InterruptedException
+    {
+        LocalCache<String, String> cache = new LocalCache<String, String>("test_expire", 10, 10);
+        cache.put("a", "1");
+        Thread.sleep(30);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyAccessedWhenFull() throws InterruptedException
+    {
+        LocalCache<String, String> cache = new LocalCache<String, String>("test_evict", 4, 0);
+        for (int i = 0; i < 4; i++)
+        {
+            cache.put("k" + i, "v" + i);
+            Thread.sleep(2);
+        }
+        // 访问k0后k1成为最久未访问的条目
+        cache.get("k0");
+        Thread.sleep(2);
+        cache.put("k4", "v4");
+        assertEquals(4, cache.size());
+        assertEquals("v0", cache.get("k0"));
+        assertNull(cache.get("k1"));
+    }
+
+    @Test
+    public void loaderResultIsCachedAndNullIsNot()
+    {
+        LocalCache<String, String> cache = new LocalCache<String, String>("test_loader", 10, 0);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("a!", cache.get("a", k -> {
+            loads.incrementAndGet();
+            return k + "!";
+        }));
+        assertEquals("a!", cache.get("a", k -> {
+            loads.incrementAndGet();
+            return k + "?";
+        }));
+        assertEquals(1, loads.get());
+        assertNull(cache.get("b", k -> null));
+        assertNull(cache.get("b"));
+        assertTrue((Long) cache.getStats().get("hitCount") >= 1);
+    }
+}
@@ -0,0 +1,142 @@
+package com.ruoyi.common.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.redis.RedisCache;
+
+/**
+ * 两级缓存测试
+ *
+ * @author ruoyi
+ */
+public class TwoLevelCacheTest
+{
+    private static final String PREFIX = "test_two_level:";
+
+    private RedisCache redisCache;
+
+    private TwoLevelCache<String> cache;
+
+    private Consumer<Object> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp()
+    {
+        redisCache = mock(RedisCache.class);
+        cache = new TwoLevelCache<String>(new LocalCache<String, String>("test_two_level", 100, 0), redisCache, PREFIX, 5);
+        ArgumentCaptor<Consumer<Object>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(redisCache).subscribe(eq(CacheConstants.TWO_LEVEL_CACHE_CHANNEL + PREFIX), captor.capture());
+        listener = captor.getValue();
+    }
+
+    @Test
+    public void loadsOnceAndFillsBothLevels()
+    {
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("v", cache.get("k", () -> {
+            loads.incrementAndGet();
+            return "v";
+        }));
+        assertEquals("v", cache.get("k", () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+        assertEquals(1, loads.get());
+        verify(redisCache).setCacheObject(PREFIX + "k", "v", 5, TimeUnit.MINUTES);
+        verify(redisCache, times(1)).getCacheObject(PREFIX + "k");
+    }
+
+    @Test
+    public void redisHitSkipsLoader()
+    {
+        when(redisCache.getCacheObject(PREFIX + "k")).thenReturn("remote");
+        assertEquals("remote", cache.get("k", () -> "loaded"));
+        verify(redisCache, never()).setCacheObject(anyString(), any(), any(Integer.class), any(TimeUnit.class));
+    }
+
+    @Test
+    public void invalidationMessageDropsLocalEntry()
+    {
+        cache.get("k", () -> "v1");
+        listener.accept("k");
+        assertEquals("v2", cache.get("k", () -> "v2"));
+
+        cache.get("other", () -> "x");
+        listener.accept("*");
+        assertEquals(0, cache.getLocalCache().size());
+    }
+
+    @Test
+    public void evictClearsRedisAndNotifiesOtherNodes()
+    {
+        cache.get("k", () -> "v");
+        cache.evict("k");
+        verify(redisCache).deleteObject(PREFIX + "k");
+        verify(redisCache).publish(CacheConstants.TWO_LEVEL_CACHE_CHANNEL + PREFIX, "k");
+        assertEquals("v2", cache.get("k", () -> "v2"));
+    }
+
+    @Test
+    public void concurrentMissesLoadOnce() throws Exception
+    {
+        int threads = 8;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < threads; i++)
+            {
+                results.add(executor.submit(() -> cache.get("k", () -> {
+                    loads.incrementAndGet();
+                    started.countDown();
+                    try
+                    {
+                        release.await(5, TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "v";
+                })));
+            }
+            started.await(5, TimeUnit.SECONDS);
+            // 留出时间让其余线程进入等待
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results)
+            {
+                assertEquals("v", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.ruoyi.common.core.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import com.github.pagehelper.Page;
+import com.github.pagehelper.PageHelper;
+import com.ruoyi.common.core.domain.BaseEntity;
+import com.ruoyi.common.core.page.PageCursor;
+import com.ruoyi.common.core.page.TableDataInfo;
+
+/**
+ * 游标分页测试
+ *
+ * @author ruoyi
+ */
+public class BaseControllerTest
+{
+    private final TestController controller = new TestController();
+
+    @AfterEach
+    public void tearDown()
+    {
+        PageHelper.clearPage();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void cursorParameterEnablesCursorMode()
+    {
+        request(null, null);
+        assertFalse(controller.isCursorPage());
+
+        request("", "10");
+        assertTrue(controller.isCursorPage());
+    }
+
+    @Test
+    public void firstPageFetchesOneExtraRowWithoutCount()
+    {
+        request("", "2");
+        Row query = new Row(null, null);
+
+        PageCursor cursor = controller.startCursorPage(query);
+
+        assertTrue(cursor.isFirstPage());
+        assertEquals(Boolean.TRUE, query.getParams().get("cursorMode"));
+        assertFalse(query.getParams().containsKey("cursorTime"));
+        Page<Object> page = PageHelper.getLocalPage();
+        assertEquals(3, page.getPageSize());
+        assertFalse(page.isCount());
+    }
+
+    @Test
+    public void nextPagePassesLastRowToMapper()
+    {
+        Date createTime = new Date(1763600000000L);
+        request(PageCursor.encode(createTime, 7L), "2");
+        Row query = new Row(null, null);
+
+        controller.startCursorPage(query);
+
+        assertEquals(createTime, query.getParams().get("cursorTime"));
+        assertEquals(7L, query.getParams().get("cursorId"));
+    }
+
+    @Test
+    public void extraRowTrimmedIntoNextCursor()
+    {
+        PageCursor cursor = new PageCursor(null, null, 2);
+        List<Row> rows = new ArrayList<Row>();
+        rows.add(new Row(new Date(3000L), 3L));
+        rows.add(new Row(new Date(2000L), 2L));
+        rows.add(new Row(new Date(1000L), 1L));
+
+        TableDataInfo table = controller.getCursorDataTable(rows, cursor, Row::getId);
+
+        assertEquals(2, table.getRows().size());
+        assertEquals(-1, table.getTotal());
+        PageCursor next = PageCursor.decode(table.getNextCursor(), 2);
+        assertEquals(2L, next.getId());
+        assertEquals(new Date(2000L), next.getCreateTime());
+    }
+
+    @Test
+    public void lastPageHasNoNextCursor()
+    {
+        List<Row> rows = new ArrayList<Row>();
+        rows.add(new Row(new Date(1000L), 1L));
+
+        TableDataInfo table = controller.getCursorDataTable(rows, new PageCursor(null, null, 2), Row::getId);
+
+        assertEquals(1, table.getRows().size());
+        assertNull(table.getNextCursor());
+    }
+
+    private static void request(String cursor, String pageSize)
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (cursor != null)
+        {
+            request.setParameter("cursor", cursor);
+        }
+        if (pageSize != null)
+        {
+            request.setParameter("pageSize", pageSize);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static class TestController extends BaseController
+    {
+    }
+
+    private static class Row extends BaseEntity
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Long id;
+
+        Row(Date createTime, Long id)
+        {
+            this.id = id;
+            setCreateTime(createTime);
+        }
+
+        public Long getId()
+        {
+            return id;
+        }
+    }
+}
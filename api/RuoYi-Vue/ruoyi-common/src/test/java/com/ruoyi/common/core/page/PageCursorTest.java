@@ -0,0 +1,56 @@
+package com.ruoyi.common.core.page;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+import com.ruoyi.common.exception.ServiceException;
+
+/**
+ * 游标分页对象测试
+ *
+ * @author ruoyi
+ */
+public class PageCursorTest
+{
+    @Test
+    public void encodeAndDecode()
+    {
+        Date createTime = new Date(1763600000123L);
+        String cursor = PageCursor.encode(createTime, 42L);
+
+        PageCursor pageCursor = PageCursor.decode(cursor, 20);
+
+        assertFalse(pageCursor.isFirstPage());
+        assertEquals(createTime, pageCursor.getCreateTime());
+        assertEquals(42L, pageCursor.getId());
+        assertEquals(20, pageCursor.getPageSize());
+        // URL安全且无填充，可直接作为请求参数
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    public void emptyCursorIsFirstPage()
+    {
+        assertTrue(PageCursor.decode(null, 10).isFirstPage());
+        assertTrue(PageCursor.decode("", 10).isFirstPage());
+        assertNull(PageCursor.decode("", 10).getId());
+    }
+
+    @Test
+    public void invalidCursorRejected()
+    {
+        assertThrows(ServiceException.class, () -> PageCursor.decode("not a cursor", 10));
+        assertThrows(ServiceException.class, () -> PageCursor.decode("MTIz", 10));
+    }
+
+    @Test
+    public void encodeWithoutKeyReturnsNull()
+    {
+        assertNull(PageCursor.encode(null, 1L));
+        assertNull(PageCursor.encode(new Date(), null));
+    }
+}
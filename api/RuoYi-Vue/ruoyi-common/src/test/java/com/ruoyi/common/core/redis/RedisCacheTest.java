@@ -0,0 +1,229 @@
+package com.ruoyi.common.core.redis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+
+/**
+ * Redis工具类 SCAN / UNLINK 测试
+ *
+ * @author ruoyi
+ */
+public class RedisCacheTest
+{
+    private RedisCache redisCache;
+
+    private RedisTemplate<Object, Object> redisTemplate;
+
+    /** 每次 UNLINK 的键 */
+    private List<List<String>> unlinked;
+
+    /** 当前连接 */
+    private RedisConnection connection;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp()
+    {
+        unlinked = new ArrayList<List<String>>();
+        redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenAnswer(invocation -> ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection));
+        redisCache = new RedisCache();
+        redisCache.redisTemplate = redisTemplate;
+    }
+
+    @Test
+    public void unlinkOnceOutsideCluster()
+    {
+        connection = connection(RedisConnection.class, null);
+
+        assertEquals(3, redisCache.unlink(Arrays.asList("{a}1", "{b}1", "{c}1")));
+        assertEquals(1, unlinked.size());
+        assertEquals(Arrays.asList("{a}1", "{b}1", "{c}1"), unlinked.get(0));
+    }
+
+    @Test
+    public void unlinkGroupedBySlotInCluster()
+    {
+        connection = connection(RedisClusterConnection.class, null);
+
+        assertEquals(3, redisCache.unlink(Arrays.asList("{a}1", "{b}1", "{a}2")));
+        assertEquals(2, unlinked.size());
+        for (List<String> group : unlinked)
+        {
+            assertTrue(group.equals(Arrays.asList("{a}1", "{a}2")) || group.equals(Collections.singletonList("{b}1")));
+        }
+    }
+
+    @Test
+    public void unlinkEmptySkipsRedis()
+    {
+        assertEquals(0, redisCache.unlink(Collections.<String>emptyList()));
+        assertEquals(0, redisCache.unlink(null));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void deleteByPatternUnlinksScannedKeys()
+    {
+        Cursor<byte[]> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true, true, false);
+        when(cursor.next()).thenReturn(bytes("sys_dict:a"), bytes("sys_dict:b"));
+        connection = connection(RedisConnection.class, cursor);
+
+        assertEquals(2, redisCache.deleteByPattern("sys_dict:*"));
+        assertEquals(Collections.singletonList(Arrays.asList("sys_dict:a", "sys_dict:b")), unlinked);
+    }
+
+    @Test
+    public void scanKeysContinuesFromCursor()
+    {
+        Map<String, KeyScanCursor<byte[]>> pages = new HashMap<String, KeyScanCursor<byte[]>>();
+        pages.put("0", page("5", "k1", "k2"));
+        pages.put("5", page(null, "k3"));
+        RedisClusterAsyncCommands<byte[], byte[]> commands = commands(pages);
+        connection = mock(RedisConnection.class);
+        when(connection.getNativeConnection()).thenReturn(commands);
+
+        ScanPage first = redisCache.scanKeys("k*", ScanPage.START, 2);
+        ScanPage second = redisCache.scanKeys("k*", first.getCursor(), 2);
+
+        assertEquals(Arrays.asList("k1", "k2"), first.getKeys());
+        assertEquals("5", first.getCursor());
+        assertFalse(first.isFinished());
+        assertEquals(Collections.singletonList("k3"), second.getKeys());
+        assertTrue(second.isFinished());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void scanKeysWalksClusterMasters()
+    {
+        Map<String, KeyScanCursor<byte[]>> pagesA = new HashMap<String, KeyScanCursor<byte[]>>();
+        pagesA.put("0", page(null, "a1"));
+        Map<String, KeyScanCursor<byte[]>> pagesB = new HashMap<String, KeyScanCursor<byte[]>>();
+        pagesB.put("0", page("7", "b1"));
+        pagesB.put("7", page(null, "b2"));
+        RedisAdvancedClusterAsyncCommands<byte[], byte[]> nativeCommands = mock(RedisAdvancedClusterAsyncCommands.class);
+        RedisClusterAsyncCommands<byte[], byte[]> commandsA = commands(pagesA);
+        RedisClusterAsyncCommands<byte[], byte[]> commandsB = commands(pagesB);
+        when(nativeCommands.getConnection("a")).thenReturn(commandsA);
+        when(nativeCommands.getConnection("b")).thenReturn(commandsB);
+        RedisClusterConnection clusterConnection = mock(RedisClusterConnection.class);
+        when(clusterConnection.getNativeConnection()).thenReturn(nativeCommands);
+        when(clusterConnection.clusterGetNodes()).thenReturn(Arrays.asList(node("b", RedisNode.NodeType.MASTER),
+                node("c", RedisNode.NodeType.SLAVE), node("a", RedisNode.NodeType.MASTER)));
+        connection = clusterConnection;
+
+        ScanPage first = redisCache.scanKeys("*", ScanPage.START, 2);
+        ScanPage second = redisCache.scanKeys("*", first.getCursor(), 2);
+        ScanPage invalid = redisCache.scanKeys("*", "gone:3", 2);
+
+        assertEquals(Arrays.asList("a1", "b1"), first.getKeys());
+        assertEquals("b:7", first.getCursor());
+        assertEquals(Collections.singletonList("b2"), second.getKeys());
+        assertTrue(second.isFinished());
+        assertTrue(invalid.getKeys().isEmpty());
+        assertTrue(invalid.isFinished());
+        verify(nativeCommands, never()).getConnection("c");
+    }
+
+    /**
+     * 创建连接，记录 UNLINK 的键，SCAN 返回给定游标
+     */
+    private <T extends RedisConnection> T connection(Class<T> type, Cursor<byte[]> cursor)
+    {
+        return mock(type, invocation -> {
+            String name = invocation.getMethod().getName();
+            if ("unlink".equals(name))
+            {
+                List<String> keys = new ArrayList<String>();
+                for (Object argument : invocation.getArguments())
+                {
+                    if (argument instanceof byte[][])
+                    {
+                        for (byte[] key : (byte[][]) argument)
+                        {
+                            keys.add(new String(key, StandardCharsets.UTF_8));
+                        }
+                    }
+                    else if (argument instanceof byte[])
+                    {
+                        keys.add(new String((byte[]) argument, StandardCharsets.UTF_8));
+                    }
+                }
+                unlinked.add(keys);
+                return (long) keys.size();
+            }
+            return "scan".equals(name) ? cursor : null;
+        });
+    }
+
+    /**
+     * 按游标返回预置结果的节点命令
+     */
+    @SuppressWarnings("unchecked")
+    private static RedisClusterAsyncCommands<byte[], byte[]> commands(Map<String, KeyScanCursor<byte[]>> pages)
+    {
+        RedisClusterAsyncCommands<byte[], byte[]> commands = mock(RedisClusterAsyncCommands.class);
+        when(commands.scan(any(ScanCursor.class), any(ScanArgs.class))).thenAnswer(invocation -> {
+            KeyScanCursor<byte[]> result = pages.get(((ScanCursor) invocation.getArgument(0)).getCursor());
+            return mock(RedisFuture.class, future -> "get".equals(future.getMethod().getName()) ? result : null);
+        });
+        return commands;
+    }
+
+    /**
+     * 一次 SCAN 的结果，next为null表示遍历结束
+     */
+    private static KeyScanCursor<byte[]> page(String next, String... keys)
+    {
+        KeyScanCursor<byte[]> cursor = new KeyScanCursor<byte[]>();
+        for (String key : keys)
+        {
+            cursor.getKeys().add(bytes(key));
+        }
+        cursor.setCursor(next == null ? ScanPage.START : next);
+        cursor.setFinished(next == null);
+        return cursor;
+    }
+
+    private static RedisClusterNode node(String id, RedisNode.NodeType type)
+    {
+        return RedisClusterNode.newRedisClusterNode().listeningAt("127.0.0.1", 7000).withId(id).promotedAs(type).build();
+    }
+
+    private static byte[] bytes(String value)
+    {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
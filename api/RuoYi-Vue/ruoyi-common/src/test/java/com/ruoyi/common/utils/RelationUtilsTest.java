@@ -0,0 +1,60 @@
+package com.ruoyi.common.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 关联表差异写入工具类测试
+ *
+ * @author ruoyi
+ */
+public class RelationUtilsTest
+{
+    private final List<List<Long>> deleted = new ArrayList<List<Long>>();
+
+    private final List<List<Long>> inserted = new ArrayList<List<Long>>();
+
+    @Test
+    public void onlyDifferencesWritten()
+    {
+        int changed = sync(Arrays.asList(1L, 2L, 3L), new Long[] { 2L, 3L, 4L, 5L });
+
+        assertEquals(3, changed);
+        assertEquals(Collections.singletonList(Arrays.asList(1L)), deleted);
+        assertEquals(Collections.singletonList(Arrays.asList(4L, 5L)), inserted);
+    }
+
+    @Test
+    public void unchangedRelationsSkipWrites()
+    {
+        assertEquals(0, sync(Arrays.asList(3L, 1L, 2L), new Long[] { 1L, 2L, 3L }));
+        assertTrue(deleted.isEmpty());
+        assertTrue(inserted.isEmpty());
+    }
+
+    @Test
+    public void emptyTargetClearsAll()
+    {
+        assertEquals(2, sync(Arrays.asList(1L, 2L), null));
+        assertEquals(Collections.singletonList(Arrays.asList(1L, 2L)), deleted);
+        assertTrue(inserted.isEmpty());
+    }
+
+    @Test
+    public void duplicatesAndNullsIgnored()
+    {
+        assertEquals(2, sync(null, new Long[] { 7L, null, 7L, 8L }));
+        assertTrue(deleted.isEmpty());
+        assertEquals(Collections.singletonList(Arrays.asList(7L, 8L)), inserted);
+    }
+
+    private int sync(List<Long> current, Long[] target)
+    {
+        return RelationUtils.sync(current, target, deleted::add, inserted::add);
+    }
+}
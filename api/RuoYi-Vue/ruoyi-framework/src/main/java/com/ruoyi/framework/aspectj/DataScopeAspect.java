@@ -5,9 +5,13 @@ import java.util.List;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import com.ruoyi.common.annotation.DataScope;
+import com.ruoyi.common.constant.CacheConstants;
 import com.ruoyi.common.constant.UserConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.cache.LocalCache;
 import com.ruoyi.common.core.domain.BaseEntity;
 import com.ruoyi.common.core.domain.entity.SysRole;
 import com.ruoyi.common.core.domain.entity.SysUser;
@@ -16,6 +20,7 @@ import com.ruoyi.common.core.text.Convert;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.framework.security.context.PermissionContextHolder;
+import com.ruoyi.system.service.ISysDeptService;
 
 /**
  * 数据过滤处理
@@ -56,6 +61,22 @@ public class DataScopeAspect
      */
     public static final String DATA_SCOPE = "dataScope";
 
+    /**
+     * 部门及以下数据权限展开为ID列表的最大数量，超出时使用闭包表子查询
+     */
+    private static final int MAX_INLINE_DEPT_IDS = 1000;
+
+    /**
+     * 数据权限SQL缓存，角色或部门变更后版本号变化，旧条目不再命中
+     */
+    private final LocalCache<String, String> dataScopeCache = new LocalCache<String, String>("data_scope_sql", 10000, 30 * 60 * 1000L);
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    @Autowired
+    private ISysDeptService deptService;
+
     @Before("@annotation(controllerDataScope)")
     public void doBefore(JoinPoint point, DataScope controllerDataScope) throws Throwable
     {
@@ -88,26 +109,69 @@ public class DataScopeAspect
      * @param userAlias 用户别名
      * @param permission 权限字符
      */
-    public static void dataScopeFilter(JoinPoint joinPoint, SysUser user, String deptAlias, String userAlias, String permission)
+    public void dataScopeFilter(JoinPoint joinPoint, SysUser user, String deptAlias, String userAlias, String permission)
+    {
+        Object params = joinPoint.getArgs()[0];
+        if (StringUtils.isNotNull(params) && params instanceof BaseEntity)
+        {
+            String sql = dataScopeCache.get(buildCacheKey(user, deptAlias, userAlias, permission),
+                    key -> buildDataScopeSql(user, deptAlias, userAlias, permission));
+            if (StringUtils.isNotEmpty(sql))
+            {
+                BaseEntity baseEntity = (BaseEntity) params;
+                baseEntity.getParams().put(DATA_SCOPE, sql);
+            }
+        }
+    }
+
+    /**
+     * 缓存键：用户、部门、角色、别名、权限字符及数据权限、菜单与部门结构的版本号
+     *
+     * 角色的权限字符来自菜单，菜单修改或删除只递增菜单版本号，同样需要重新生成
+     */
+    private String buildCacheKey(SysUser user, String deptAlias, String userAlias, String permission)
+    {
+        StringBuilder key = new StringBuilder();
+        key.append(user.getUserId()).append(':').append(user.getDeptId()).append(':');
+        for (SysRole role : user.getRoles())
+        {
+            key.append(role.getRoleId()).append(',');
+        }
+        key.append(':').append(deptAlias).append(':').append(userAlias).append(':').append(permission);
+        key.append(':').append(cacheVersion.get(CacheConstants.DATA_SCOPE_VERSION));
+        key.append(':').append(cacheVersion.get(CacheConstants.MENU_VERSION));
+        key.append(':').append(cacheVersion.get(CacheConstants.DEPT_VERSION));
+        return key.toString();
+    }
+
+    /**
+     * 生成数据权限SQL
+     *
+     * @return 以 AND 开头的过滤条件，全部数据权限时为空字符串
+     */
+    private String buildDataScopeSql(SysUser user, String deptAlias, String userAlias, String permission)
     {
         StringBuilder sqlString = new StringBuilder();
         List<String> conditions = new ArrayList<String>();
         List<String> scopeCustomIds = new ArrayList<String>();
-        user.getRoles().forEach(role -> {
-            if (DATA_SCOPE_CUSTOM.equals(role.getDataScope()) && StringUtils.equals(role.getStatus(), UserConstants.ROLE_NORMAL) && StringUtils.containsAny(role.getPermissions(), Convert.toStrArray(permission)))
+        String[] permissions = Convert.toStrArray(permission);
+        List<SysRole> roles = new ArrayList<SysRole>();
+        for (SysRole role : user.getRoles())
+        {
+            if (StringUtils.equals(role.getStatus(), UserConstants.ROLE_NORMAL) && StringUtils.containsAny(role.getPermissions(), permissions))
             {
-                scopeCustomIds.add(Convert.toStr(role.getRoleId()));
+                roles.add(role);
+                if (DATA_SCOPE_CUSTOM.equals(role.getDataScope()))
+                {
+                    scopeCustomIds.add(Convert.toStr(role.getRoleId()));
+                }
             }
-        });
+        }
 
-        for (SysRole role : user.getRoles())
+        for (SysRole role : roles)
         {
             String dataScope = role.getDataScope();
-            if (conditions.contains(dataScope) || StringUtils.equals(role.getStatus(), UserConstants.ROLE_DISABLE))
-            {
-                continue;
-            }
-            if (!StringUtils.containsAny(role.getPermissions(), Convert.toStrArray(permission)))
+            if (conditions.contains(dataScope))
             {
                 continue;
             }
@@ -135,7 +199,16 @@ public class DataScopeAspect
             }
             else if (DATA_SCOPE_DEPT_AND_CHILD.equals(dataScope))
             {
-                sqlString.append(StringUtils.format(" OR {}.dept_id IN ( SELECT dept_id FROM sys_dept WHERE dept_id = {} or find_in_set( {} , ancestors ) )", deptAlias, user.getDeptId(), user.getDeptId()));
+                List<Long> deptIds = deptService.selectDeptAndChildIds(user.getDeptId());
+                if (!deptIds.isEmpty() && deptIds.size() <= MAX_INLINE_DEPT_IDS)
+                {
+                    // 按内存中的部门树展开为ID列表，可直接使用dept_id索引
+                    sqlString.append(StringUtils.format(" OR {}.dept_id IN ( {} ) ", deptAlias, StringUtils.join(deptIds, ",")));
+                }
+                else
+                {
+                    sqlString.append(StringUtils.format(" OR {}.dept_id IN ( SELECT descendant_id FROM sys_dept_closure WHERE ancestor_id = {} ) ", deptAlias, user.getDeptId()));
+                }
             }
             else if (DATA_SCOPE_SELF.equals(dataScope))
             {
@@ -160,13 +233,9 @@ public class DataScopeAspect
 
         if (StringUtils.isNotBlank(sqlString.toString()))
         {
-            Object params = joinPoint.getArgs()[0];
-            if (StringUtils.isNotNull(params) && params instanceof BaseEntity)
-            {
-                BaseEntity baseEntity = (BaseEntity) params;
-                baseEntity.getParams().put(DATA_SCOPE, " AND (" + sqlString.substring(4) + ")");
-            }
+            return " AND (" + sqlString.substring(4) + ")";
         }
+        return "";
     }
 
     /**
@@ -0,0 +1,422 @@
+package com.ruoyi.framework.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import com.ruoyi.common.core.domain.entity.SysDept;
+import com.ruoyi.common.core.domain.entity.SysRole;
+import com.ruoyi.common.core.domain.entity.SysUser;
+import com.ruoyi.common.core.domain.model.LoginUser;
+import com.ruoyi.framework.web.service.SessionPermissionDictionary;
+import com.ruoyi.framework.web.service.SessionPermissionDictionary.Dictionary;
+
+/**
+ * 登录用户Redis二进制序列化
+ *
+ * 格式：魔数、版本、权限字典纪元，随后按固定顺序写出字段；权限写为字典ID，未分配ID的权限写原文。
+ * 读取时兼容旧的JSON格式，读出的JSON会话标记为已修改，下次续期时改写为二进制
+ *
+ * @author ruoyi
+ */
+public class LoginUserRedisSerializer implements RedisSerializer<LoginUser>
+{
+    private static final byte MAGIC = (byte) 0xB7;
+
+    private static final byte VERSION = 1;
+
+    /** 权限ID为0表示其后为权限原文 */
+    private static final int INLINE_PERMISSION = 0;
+
+    private final SessionPermissionDictionary permissionDictionary;
+
+    private final FastJson2JsonRedisSerializer<Object> jsonSerializer = new FastJson2JsonRedisSerializer<Object>(Object.class);
+
+    /** 是否写出二进制格式，否则仍写JSON */
+    private final boolean binary;
+
+    public LoginUserRedisSerializer(SessionPermissionDictionary permissionDictionary, boolean binary)
+    {
+        this.permissionDictionary = permissionDictionary;
+        this.binary = binary;
+    }
+
+    @Override
+    public byte[] serialize(LoginUser loginUser) throws SerializationException
+    {
+        if (loginUser == null)
+        {
+            return new byte[0];
+        }
+        if (!binary)
+        {
+            return jsonSerializer.serialize(loginUser);
+        }
+        Set<String> permissions = new HashSet<String>();
+        addAll(permissions, loginUser.getPermissions());
+        if (loginUser.getUser() != null && loginUser.getUser().getRoles() != null)
+        {
+            for (SysRole role : loginUser.getUser().getRoles())
+            {
+                addAll(permissions, role.getPermissions());
+            }
+        }
+        Dictionary dictionary = permissionDictionary.intern(permissions);
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(dictionary.getEpoch());
+            writeLong(out, loginUser.getUserId());
+            writeLong(out, loginUser.getDeptId());
+            writeString(out, loginUser.getToken());
+            writeLong(out, loginUser.getLoginTime());
+            writeLong(out, loginUser.getExpireTime());
+            writeString(out, loginUser.getIpaddr());
+            writeString(out, loginUser.getLoginLocation());
+            writeString(out, loginUser.getBrowser());
+            writeString(out, loginUser.getOs());
+            writePermissions(out, loginUser.getPermissions(), dictionary);
+            writeUser(out, loginUser.getUser(), dictionary);
+            out.flush();
+            return bytes.toByteArray();
+        }
+        catch (IOException e)
+        {
+            throw new SerializationException("登录用户序列化失败", e);
+        }
+    }
+
+    @Override
+    public LoginUser deserialize(byte[] bytes) throws SerializationException
+    {
+        if (bytes == null || bytes.length == 0)
+        {
+            return null;
+        }
+        if (bytes[0] != MAGIC)
+        {
+            // 旧的JSON格式
+            Object value = jsonSerializer.deserialize(bytes);
+            if (!(value instanceof LoginUser))
+            {
+                return null;
+            }
+            LoginUser loginUser = (LoginUser) value;
+            loginUser.setDirty(binary);
+            return loginUser;
+        }
+        try
+        {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            in.readByte();
+            byte version = in.readByte();
+            if (version != VERSION)
+            {
+                return null;
+            }
+            long epoch = in.readLong();
+            SessionReader reader = new SessionReader(in);
+            LoginUser loginUser = new LoginUser();
+            loginUser.setUserId(reader.readLong());
+            loginUser.setDeptId(reader.readLong());
+            loginUser.setToken(reader.readString());
+            loginUser.setLoginTime(reader.readLong());
+            loginUser.setExpireTime(reader.readLong());
+            loginUser.setIpaddr(reader.readString());
+            loginUser.setLoginLocation(reader.readString());
+            loginUser.setBrowser(reader.readString());
+            loginUser.setOs(reader.readString());
+            loginUser.setPermissions(reader.readPermissions());
+            loginUser.setUser(reader.readUser());
+            // 统一解析字典ID，纪元失效时会话作废
+            if (!reader.ids.isEmpty())
+            {
+                Dictionary dictionary = permissionDictionary.resolve(epoch, reader.ids);
+                if (dictionary == null || !reader.resolvePermissions(dictionary))
+                {
+                    return null;
+                }
+            }
+            return loginUser;
+        }
+        catch (IOException e)
+        {
+            throw new SerializationException("登录用户反序列化失败", e);
+        }
+    }
+
+    private static void addAll(Set<String> target, Set<String> source)
+    {
+        if (source != null)
+        {
+            target.addAll(source);
+        }
+    }
+
+    private static void writeUser(DataOutputStream out, SysUser user, Dictionary dictionary) throws IOException
+    {
+        out.writeBoolean(user != null);
+        if (user == null)
+        {
+            return;
+        }
+        writeLong(out, user.getUserId());
+        writeLong(out, user.getDeptId());
+        writeString(out, user.getUserName());
+        writeString(out, user.getNickName());
+        writeString(out, user.getEmail());
+        writeString(out, user.getPhonenumber());
+        writeString(out, user.getSex());
+        writeString(out, user.getAvatar());
+        writeString(out, user.getPassword());
+        writeString(out, user.getStatus());
+        writeString(out, user.getDelFlag());
+        writeString(out, user.getLoginIp());
+        writeDate(out, user.getLoginDate());
+        writeDate(out, user.getPwdUpdateDate());
+        writeString(out, user.getCreateBy());
+        writeDate(out, user.getCreateTime());
+        writeString(out, user.getUpdateBy());
+        writeDate(out, user.getUpdateTime());
+        writeString(out, user.getRemark());
+        SysDept dept = user.getDept();
+        out.writeBoolean(dept != null);
+        if (dept != null)
+        {
+            writeLong(out, dept.getDeptId());
+            writeLong(out, dept.getParentId());
+            writeString(out, dept.getAncestors());
+            writeString(out, dept.getDeptName());
+            writeLong(out, dept.getOrderNum() == null ? null : dept.getOrderNum().longValue());
+            writeString(out, dept.getLeader());
+            writeString(out, dept.getPhone());
+            writeString(out, dept.getEmail());
+            writeString(out, dept.getStatus());
+            writeString(out, dept.getDelFlag());
+        }
+        List<SysRole> roles = user.getRoles();
+        out.writeInt(roles == null ? -1 : roles.size());
+        if (roles == null)
+        {
+            return;
+        }
+        for (SysRole role : roles)
+        {
+            writeLong(out, role.getRoleId());
+            writeString(out, role.getRoleName());
+            writeString(out, role.getRoleKey());
+            writeLong(out, role.getRoleSort() == null ? null : role.getRoleSort().longValue());
+            writeString(out, role.getDataScope());
+            out.writeBoolean(role.isMenuCheckStrictly());
+            out.writeBoolean(role.isDeptCheckStrictly());
+            writeString(out, role.getStatus());
+            writeString(out, role.getDelFlag());
+            out.writeBoolean(role.isFlag());
+            writePermissions(out, role.getPermissions(), dictionary);
+        }
+    }
+
+    private static void writePermissions(DataOutputStream out, Set<String> permissions, Dictionary dictionary) throws IOException
+    {
+        out.writeInt(permissions == null ? -1 : permissions.size());
+        if (permissions == null)
+        {
+            return;
+        }
+        for (String permission : permissions)
+        {
+            int id = permission == null ? INLINE_PERMISSION : dictionary.getId(permission);
+            out.writeInt(id);
+            if (id == INLINE_PERMISSION)
+            {
+                writeString(out, permission);
+            }
+        }
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException
+    {
+        out.writeBoolean(value != null);
+        if (value != null)
+        {
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeDate(DataOutputStream out, Date value) throws IOException
+    {
+        writeLong(out, value == null ? null : value.getTime());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        out.writeBoolean(value != null);
+        if (value != null)
+        {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * 读取会话字段，权限ID先占位，读完后统一通过字典解析
+     */
+    private static class SessionReader
+    {
+        private final DataInputStream in;
+
+        /** 会话中出现的权限ID */
+        private final Set<Integer> ids = new HashSet<Integer>();
+
+        /** 待解析的权限集合及其中的ID */
+        private final List<Set<String>> pendingSets = new ArrayList<Set<String>>();
+
+        private final List<List<Integer>> pendingIds = new ArrayList<List<Integer>>();
+
+        SessionReader(DataInputStream in)
+        {
+            this.in = in;
+        }
+
+        Set<String> readPermissions() throws IOException
+        {
+            int size = in.readInt();
+            if (size < 0)
+            {
+                return null;
+            }
+            Set<String> permissions = new HashSet<String>(Math.max(16, size * 2));
+            List<Integer> setIds = new ArrayList<Integer>(size);
+            for (int i = 0; i < size; i++)
+            {
+                int id = in.readInt();
+                if (id == INLINE_PERMISSION)
+                {
+                    permissions.add(readString());
+                }
+                else
+                {
+                    setIds.add(id);
+                    ids.add(id);
+                }
+            }
+            if (!setIds.isEmpty())
+            {
+                pendingSets.add(permissions);
+                pendingIds.add(setIds);
+            }
+            return permissions;
+        }
+
+        boolean resolvePermissions(Dictionary dictionary)
+        {
+            for (int i = 0; i < pendingSets.size(); i++)
+            {
+                for (Integer id : pendingIds.get(i))
+                {
+                    String permission = dictionary.getPermission(id);
+                    if (permission == null)
+                    {
+                        return false;
+                    }
+                    pendingSets.get(i).add(permission);
+                }
+            }
+            return true;
+        }
+
+        SysUser readUser() throws IOException
+        {
+            if (!in.readBoolean())
+            {
+                return null;
+            }
+            SysUser user = new SysUser();
+            user.setUserId(readLong());
+            user.setDeptId(readLong());
+            user.setUserName(readString());
+            user.setNickName(readString());
+            user.setEmail(readString());
+            user.setPhonenumber(readString());
+            user.setSex(readString());
+            user.setAvatar(readString());
+            user.setPassword(readString());
+            user.setStatus(readString());
+            user.setDelFlag(readString());
+            user.setLoginIp(readString());
+            user.setLoginDate(readDate());
+            user.setPwdUpdateDate(readDate());
+            user.setCreateBy(readString());
+            user.setCreateTime(readDate());
+            user.setUpdateBy(readString());
+            user.setUpdateTime(readDate());
+            user.setRemark(readString());
+            if (in.readBoolean())
+            {
+                SysDept dept = new SysDept();
+                dept.setDeptId(readLong());
+                dept.setParentId(readLong());
+                dept.setAncestors(readString());
+                dept.setDeptName(readString());
+                Long orderNum = readLong();
+                dept.setOrderNum(orderNum == null ? null : orderNum.intValue());
+                dept.setLeader(readString());
+                dept.setPhone(readString());
+                dept.setEmail(readString());
+                dept.setStatus(readString());
+                dept.setDelFlag(readString());
+                user.setDept(dept);
+            }
+            int roleCount = in.readInt();
+            if (roleCount >= 0)
+            {
+                List<SysRole> roles = new ArrayList<SysRole>(roleCount);
+                for (int i = 0; i < roleCount; i++)
+                {
+                    SysRole role = new SysRole();
+                    role.setRoleId(readLong());
+                    role.setRoleName(readString());
+                    role.setRoleKey(readString());
+                    Long roleSort = readLong();
+                    role.setRoleSort(roleSort == null ? null : roleSort.intValue());
+                    role.setDataScope(readString());
+                    role.setMenuCheckStrictly(in.readBoolean());
+                    role.setDeptCheckStrictly(in.readBoolean());
+                    role.setStatus(readString());
+                    role.setDelFlag(readString());
+                    role.setFlag(in.readBoolean());
+                    role.setPermissions(readPermissions());
+                    roles.add(role);
+                }
+                user.setRoles(roles);
+            }
+            return user;
+        }
+
+        Long readLong() throws IOException
+        {
+            return in.readBoolean() ? in.readLong() : null;
+        }
+
+        Date readDate() throws IOException
+        {
+            Long time = readLong();
+            return time == null ? null : new Date(time);
+        }
+
+        String readString() throws IOException
+        {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+    }
+}
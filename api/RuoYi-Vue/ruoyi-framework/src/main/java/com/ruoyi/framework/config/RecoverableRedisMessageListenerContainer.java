@@ -0,0 +1,59 @@
+package com.ruoyi.framework.config;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 可感知订阅重连的redis消息订阅容器
+ *
+ * 订阅连接断开期间发布的消息不会补发，重新订阅后执行注册的回调，由订阅方清理依赖通知维护的本地缓存
+ *
+ * @author ruoyi
+ */
+public class RecoverableRedisMessageListenerContainer extends RedisMessageListenerContainer
+{
+    private static final Logger log = LoggerFactory.getLogger(RecoverableRedisMessageListenerContainer.class);
+
+    private final List<Runnable> recoveryCallbacks = new CopyOnWriteArrayList<Runnable>();
+
+    /**
+     * 注册订阅重连回调
+     *
+     * @param callback 重连后执行的回调
+     */
+    public void addRecoveryCallback(Runnable callback)
+    {
+        recoveryCallbacks.add(callback);
+    }
+
+    @Override
+    protected void handleSubscriptionException(Throwable ex)
+    {
+        super.handleSubscriptionException(ex);
+        if (isRunning())
+        {
+            runRecoveryCallbacks();
+        }
+    }
+
+    /**
+     * 执行订阅重连回调，单个回调异常不影响其他回调
+     */
+    protected void runRecoveryCallbacks()
+    {
+        for (Runnable callback : recoveryCallbacks)
+        {
+            try
+            {
+                callback.run();
+            }
+            catch (Exception e)
+            {
+                log.error("执行订阅重连回调异常", e);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.ruoyi.framework.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +9,8 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import com.ruoyi.common.core.domain.model.LoginUser;
+import com.ruoyi.framework.web.service.SessionPermissionDictionary;
 
 /**
  * redis配置
@@ -39,6 +42,32 @@ public class RedisConfig extends CachingConfigurerSupport
         return template;
     }
 
+    /**
+     * 登录用户专用模板，token.serializer=binary 时写出二进制格式，读取兼容JSON
+     */
+    @Bean
+    public RedisTemplate<String, LoginUser> sessionRedisTemplate(RedisConnectionFactory connectionFactory,
+            SessionPermissionDictionary permissionDictionary, @Value("${token.serializer:binary}") String serializer)
+    {
+        RedisTemplate<String, LoginUser> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new LoginUserRedisSerializer(permissionDictionary, "binary".equals(serializer)));
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * redis消息订阅容器，订阅重连后通知订阅方
+     */
+    @Bean
+    public RecoverableRedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory)
+    {
+        RecoverableRedisMessageListenerContainer container = new RecoverableRedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
     @Bean
     public DefaultRedisScript<Long> limitScript()
     {
@@ -0,0 +1,73 @@
+package com.ruoyi.framework.interceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import com.ruoyi.common.annotation.HttpCache;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.utils.StringUtils;
+
+/**
+ * HTTP条件请求拦截器
+ *
+ * 在进入控制器之前比较 If-None-Match，未修改时直接返回304，跳过查询与响应体序列化
+ *
+ * @author ruoyi
+ */
+@Component
+public class HttpCacheInterceptor implements HandlerInterceptor
+{
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception
+    {
+        if (!(handler instanceof HandlerMethod))
+        {
+            return true;
+        }
+        HttpCache annotation = ((HandlerMethod) handler).getMethodAnnotation(HttpCache.class);
+        if (annotation == null || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())))
+        {
+            return true;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, buildCacheControl(annotation).getHeaderValue());
+        // 登录用户与游客看到的数据可能不同
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        String etag = cacheVersion.buildETag(getResourceTag(request), annotation.value());
+        // 未修改时已设置304状态与ETag响应头，修改时仅设置ETag响应头
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    /**
+     * 资源标识：同一接口不同查询参数、不同令牌的响应互不复用；取SHA-256摘要，避免令牌出现在ETag中
+     */
+    private String getResourceTag(HttpServletRequest request) throws NoSuchAlgorithmException
+    {
+        String resource = request.getRequestURI()
+                + "?" + StringUtils.nvl(request.getQueryString(), "")
+                + "|" + StringUtils.nvl(request.getHeader(HttpHeaders.AUTHORIZATION), "");
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(resource.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private CacheControl buildCacheControl(HttpCache annotation)
+    {
+        CacheControl cacheControl = annotation.maxAge() > 0
+                ? CacheControl.maxAge(annotation.maxAge(), TimeUnit.SECONDS).mustRevalidate()
+                : CacheControl.noCache();
+        return annotation.cachePublic() ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+    }
+}
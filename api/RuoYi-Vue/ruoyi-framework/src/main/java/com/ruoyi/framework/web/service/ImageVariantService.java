@@ -0,0 +1,479 @@
+package com.ruoyi.framework.web.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.config.RuoYiConfig;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.constant.Constants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.cache.LocalCache;
+import com.ruoyi.common.core.redis.RedisCache;
+import com.ruoyi.common.utils.StringUtils;
+
+/**
+ * 上传图片多尺寸处理
+ *
+ * 上传的图片在原文件旁异步生成缩略图（_thumb）与中图（_medium），运行环境存在 WebP 编码器时另生成 .webp 版本；
+ * 生成完成后将原图宽度与已生成的尺寸记录到Redis，列表接口按记录拼接 srcset，无需检查磁盘，未记录时仅返回原图
+ *
+ * @author ruoyi
+ */
+@Component
+public class ImageVariantService
+{
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    /** 可缩放的图片格式，gif 可能为动图，不处理 */
+    private static final String[] RESIZABLE_EXTENSION = { "jpg", "jpeg", "png", "bmp" };
+
+    private static final String WEBP = "webp";
+
+    /** 尺寸后缀与宽度，按宽度升序 */
+    private static final String[] VARIANT_SUFFIX = { "_thumb", "_medium" };
+
+    private static final int[] VARIANT_WIDTH = { 320, 960 };
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    /** 原图单边像素上限，超出时不解码 */
+    private static final int MAX_DIMENSION = 16384;
+
+    /** 原图总像素上限，超出时不解码 */
+    private static final long MAX_PIXELS = 40000000L;
+
+    /** ImageIO 未内置 WebP 编码器，引入插件（如 webp-imageio）后自动启用 */
+    private static final boolean WEBP_SUPPORTED = ImageIO.getImageWritersByFormatName(WEBP).hasNext();
+
+    @Autowired
+    private ThreadPoolTaskExecutor threadPoolTaskExecutor;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    /** 已提交但尚未完成的原图路径 */
+    private final Set<String> pendingFiles = ConcurrentHashMap.newKeySet();
+
+    /** 资源路径 -> 尺寸记录，有效期内不重复读取Redis */
+    private final LocalCache<String, Variants> variantCache = new LocalCache<String, Variants>("image_variant", 2048, 5 * 60 * 1000L);
+
+    /** 已尝试生成尺寸的原图，避免过小或损坏的图片被反复解码 */
+    private final LocalCache<String, Boolean> attemptCache = new LocalCache<String, Boolean>("image_variant_attempt", 10000, 24 * 60 * 60 * 1000L);
+
+    /**
+     * 异步生成图片的各尺寸版本
+     *
+     * @param url 上传后返回的资源路径或完整地址
+     */
+    public void generateVariantsAsync(String url)
+    {
+        String resourcePath = resolveResourcePath(url);
+        File original = resolveUploadFile(resourcePath);
+        if (original == null || !isResizable(original))
+        {
+            return;
+        }
+        String path = original.getAbsolutePath();
+        attemptCache.put(path, Boolean.TRUE);
+        if (!pendingFiles.add(path))
+        {
+            return;
+        }
+        threadPoolTaskExecutor.execute(() -> {
+            try
+            {
+                generateVariants(original, resourcePath);
+            }
+            catch (Exception e)
+            {
+                log.warn("生成图片尺寸失败: {}", path, e);
+            }
+            finally
+            {
+                pendingFiles.remove(path);
+            }
+        });
+    }
+
+    /**
+     * 批量读取图片的尺寸记录，列表接口在逐条获取 srcset 前调用，一次往返读取整页记录
+     *
+     * @param urls 图片地址
+     */
+    public void loadVariants(Collection<String> urls)
+    {
+        List<Object> resourcePaths = new ArrayList<Object>();
+        for (String url : urls)
+        {
+            String resourcePath = resolveResourcePath(url);
+            if (resourcePath != null && variantCache.get(resourcePath) == null && !resourcePaths.contains(resourcePath))
+            {
+                resourcePaths.add(resourcePath);
+            }
+        }
+        if (resourcePaths.isEmpty())
+        {
+            return;
+        }
+        List<String> records = redisCache.getMultiCacheMapValue(CacheConstants.IMAGE_VARIANT_KEY, resourcePaths);
+        for (int i = 0; i < resourcePaths.size(); i++)
+        {
+            String resourcePath = (String) resourcePaths.get(i);
+            variantCache.put(resourcePath, toVariants(resourcePath, records.get(i)));
+        }
+    }
+
+    /**
+     * 获取图片原格式的 srcset
+     *
+     * @param url 图片地址
+     * @return srcset，无可用尺寸时为null
+     */
+    public String getSrcset(String url)
+    {
+        Variants variants = selectVariants(url);
+        if (variants == null || variants.count == 0)
+        {
+            return null;
+        }
+        StringBuilder srcset = buildSrcset(url, variantExtension(StringUtils.substringBefore(url, "?")), variants.count);
+        appendCandidate(srcset, url, variants.width);
+        return srcset.toString();
+    }
+
+    /**
+     * 获取图片 WebP 格式的 srcset
+     *
+     * @param url 图片地址
+     * @return srcset，无可用尺寸时为null
+     */
+    public String getWebpSrcset(String url)
+    {
+        Variants variants = selectVariants(url);
+        if (variants == null || variants.count == 0 || !variants.webp)
+        {
+            return null;
+        }
+        return buildSrcset(url, WEBP, variants.count).toString();
+    }
+
+    private Variants selectVariants(String url)
+    {
+        String resourcePath = resolveResourcePath(url);
+        if (resourcePath == null)
+        {
+            return null;
+        }
+        return variantCache.get(resourcePath, key -> toVariants(key, redisCache.getCacheMapValue(CacheConstants.IMAGE_VARIANT_KEY, key)));
+    }
+
+    /**
+     * 解析尺寸记录；历史图片尚无记录时补充生成
+     */
+    private Variants toVariants(String resourcePath, String record)
+    {
+        if (record != null)
+        {
+            String[] fields = record.split(":");
+            return new Variants(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), "1".equals(fields[2]));
+        }
+        File original = resolveUploadFile(resourcePath);
+        if (original != null && isResizable(original) && attemptCache.get(original.getAbsolutePath()) == null && original.exists())
+        {
+            generateVariantsAsync(Constants.RESOURCE_PREFIX + resourcePath);
+        }
+        return Variants.NONE;
+    }
+
+    /**
+     * 生成完成后记录原图宽度与尺寸数，格式为 宽度:尺寸数:是否有WebP；
+     * 递增尺寸版本号，生成前已缓存（srcset 为空）的列表响应随之失效
+     */
+    private void recordVariants(String resourcePath, int width, int count, boolean webp)
+    {
+        redisCache.setCacheMapValue(CacheConstants.IMAGE_VARIANT_KEY, resourcePath, width + ":" + count + ":" + (webp ? "1" : "0"));
+        variantCache.put(resourcePath, new Variants(width, count, webp));
+        if (count > 0)
+        {
+            cacheVersion.increment(CacheConstants.IMAGE_VARIANT_VERSION);
+        }
+    }
+
+    /**
+     * 先读取图片头检查尺寸，超出上限的图片不解码；按最大目标宽度抽样解码，减少大图的内存占用
+     */
+    private void generateVariants(File original, String resourcePath) throws IOException
+    {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original))
+        {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext())
+            {
+                return;
+            }
+            ImageReader reader = readers.next();
+            try
+            {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width > MAX_DIMENSION || height > MAX_DIMENSION || (long) width * height > MAX_PIXELS)
+                {
+                    log.warn("图片尺寸{}x{}超出上限，不生成缩略图: {}", width, height, original.getAbsolutePath());
+                    recordVariants(resourcePath, width, 0, false);
+                    return;
+                }
+                // 只缩小不放大
+                int count = 0;
+                while (count < VARIANT_WIDTH.length && width > VARIANT_WIDTH[count])
+                {
+                    count++;
+                }
+                if (count == 0)
+                {
+                    recordVariants(resourcePath, width, 0, false);
+                    return;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, width / (VARIANT_WIDTH[count - 1] * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                String extension = variantExtension(original.getName());
+                boolean alpha = "png".equals(extension) && image.getColorModel().hasAlpha();
+                for (int i = 0; i < count; i++)
+                {
+                    BufferedImage scaled = resize(image, VARIANT_WIDTH[i], alpha);
+                    writeImage(scaled, extension, getVariantFile(original, VARIANT_SUFFIX[i], extension));
+                    if (WEBP_SUPPORTED)
+                    {
+                        writeImage(scaled, WEBP, getVariantFile(original, VARIANT_SUFFIX[i], WEBP));
+                    }
+                }
+                recordVariants(resourcePath, width, count, WEBP_SUPPORTED);
+            }
+            finally
+            {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 逐级减半后缩放到目标宽度，避免一次大比例双线性缩放产生锯齿
+     */
+    private BufferedImage resize(BufferedImage image, int targetWidth, boolean alpha)
+    {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do
+        {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            try
+            {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!alpha)
+                {
+                    // 透明背景转为白底，JPEG 不支持透明通道
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, width, height);
+                }
+                g.drawImage(current, 0, 0, width, height, null);
+            }
+            finally
+            {
+                g.dispose();
+            }
+            current = next;
+        }
+        while (width > targetWidth);
+        return current;
+    }
+
+    /**
+     * 写入临时文件后原子替换，避免读到半写的图片
+     */
+    private void writeImage(BufferedImage image, String format, File target) throws IOException
+    {
+        String formatName = "jpeg".equals(format) ? "jpg" : format;
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
+        if (!writers.hasNext())
+        {
+            return;
+        }
+        ImageWriter writer = writers.next();
+        Path tmp = Files.createTempFile(target.getParentFile().toPath(), target.getName(), ".tmp");
+        try
+        {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile()))
+            {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if ("jpg".equals(formatName) && param.canWriteCompressed())
+                {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(JPEG_QUALITY);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            finally
+            {
+                writer.dispose();
+            }
+            Files.move(tmp, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 将资源地址解析为上传目录下的资源路径（如 /upload/2025/01/01/a.jpg），不在上传目录下的地址返回null
+     */
+    private static String resolveResourcePath(String url)
+    {
+        if (StringUtils.isEmpty(url))
+        {
+            return null;
+        }
+        int index = url.indexOf(Constants.RESOURCE_PREFIX + "/upload/");
+        if (index < 0)
+        {
+            return null;
+        }
+        return StringUtils.substringBefore(url.substring(index + Constants.RESOURCE_PREFIX.length()), "?");
+    }
+
+    /**
+     * 将资源路径解析为上传目录下的文件，越出上传目录的路径返回null
+     */
+    private static File resolveUploadFile(String resourcePath)
+    {
+        if (resourcePath == null)
+        {
+            return null;
+        }
+        File file = new File(RuoYiConfig.getProfile() + resourcePath);
+        try
+        {
+            String uploadPath = new File(RuoYiConfig.getUploadPath()).getCanonicalPath();
+            return file.getCanonicalPath().startsWith(uploadPath + File.separator) ? file : null;
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+    }
+
+    private static boolean isResizable(File file)
+    {
+        String extension = FilenameUtils.getExtension(file.getName());
+        if (FilenameUtils.getBaseName(file.getName()).endsWith(VARIANT_SUFFIX[0]) || FilenameUtils.getBaseName(file.getName()).endsWith(VARIANT_SUFFIX[1]))
+        {
+            return false;
+        }
+        for (String allowed : RESIZABLE_EXTENSION)
+        {
+            if (allowed.equalsIgnoreCase(extension))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 尺寸文件的扩展名，统一为小写，写入文件与拼接地址均使用此扩展名
+     */
+    private static String variantExtension(String fileName)
+    {
+        return FilenameUtils.getExtension(fileName).toLowerCase();
+    }
+
+    private static File getVariantFile(File original, String suffix, String extension)
+    {
+        return new File(original.getParentFile(), FilenameUtils.getBaseName(original.getName()) + suffix + "." + extension);
+    }
+
+    /**
+     * 按已生成的尺寸数拼接候选地址，尺寸文件与原图同目录、同名加后缀
+     */
+    private static StringBuilder buildSrcset(String url, String extension, int count)
+    {
+        String path = StringUtils.substringBefore(url, "?");
+        String urlBase = path.substring(0, path.lastIndexOf('.'));
+        StringBuilder srcset = new StringBuilder();
+        for (int i = 0; i < count; i++)
+        {
+            appendCandidate(srcset, urlBase + VARIANT_SUFFIX[i] + "." + extension, VARIANT_WIDTH[i]);
+        }
+        return srcset;
+    }
+
+    private static void appendCandidate(StringBuilder srcset, String url, int width)
+    {
+        if (srcset.length() > 0)
+        {
+            srcset.append(", ");
+        }
+        srcset.append(url).append(' ').append(width).append('w');
+    }
+
+    /**
+     * 图片尺寸记录
+     */
+    private static class Variants
+    {
+        private static final Variants NONE = new Variants(0, 0, false);
+
+        /** 原图宽度 */
+        private final int width;
+
+        /** 已生成的尺寸数，对应 VARIANT_WIDTH 的前若干项 */
+        private final int count;
+
+        private final boolean webp;
+
+        Variants(int width, int count, boolean webp)
+        {
+            this.width = width;
+            this.count = count;
+            this.webp = webp;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.ruoyi.framework.web.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.constant.Constants;
+import com.ruoyi.common.core.domain.model.CompiledPermissions;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.system.mapper.SysMenuMapper;
+
+/**
+ * 全局权限ID注册表
+ *
+ * 启动时按 sys_menu.perms 分配ID，之后遇到的新权限追加注册，ID不回收；
+ * 权限按分段存入前缀树，用于展开含通配符的用户权限
+ *
+ * @author ruoyi
+ */
+@Component
+public class PermissionRegistry
+{
+    private static final String SEGMENT_DELIMITER = ":";
+
+    private static final String WILDCARD = "*";
+
+    @Autowired
+    private SysMenuMapper menuMapper;
+
+    /** 权限 -> ID */
+    private final Map<String, Integer> permissionIds = new ConcurrentHashMap<String, Integer>();
+
+    /** 分段前缀树，写入与遍历均在同步块内 */
+    private final TrieNode root = new TrieNode();
+
+    @PostConstruct
+    public void init()
+    {
+        for (String perms : menuMapper.selectMenuPerms())
+        {
+            if (StringUtils.isNotEmpty(perms))
+            {
+                for (String permission : perms.trim().split(Constants.PERMISSION_DELIMETER))
+                {
+                    register(permission);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取权限ID，未注册时注册
+     *
+     * @param permission 权限字符串，需已去除首尾空格
+     * @return 权限ID
+     */
+    public int getId(String permission)
+    {
+        Integer id = permissionIds.get(permission);
+        return id != null ? id : register(permission);
+    }
+
+    /**
+     * 将用户权限编译为位图
+     *
+     * @param permissions 用户权限
+     * @return 编译结果
+     */
+    public synchronized CompiledPermissions compile(Collection<String> permissions)
+    {
+        BitSet bits = new BitSet();
+        List<String[]> wildcards = new ArrayList<String[]>();
+        boolean all = false;
+        if (permissions != null)
+        {
+            for (String raw : permissions)
+            {
+                String permission = StringUtils.trim(raw);
+                if (StringUtils.isEmpty(permission))
+                {
+                    continue;
+                }
+                if (Constants.ALL_PERMISSION.equals(permission))
+                {
+                    all = true;
+                }
+                else if (permission.contains(WILDCARD))
+                {
+                    String[] pattern = permission.split(SEGMENT_DELIMITER);
+                    wildcards.add(pattern);
+                    collect(root, pattern, 0, bits);
+                }
+                else
+                {
+                    bits.set(register(permission));
+                }
+            }
+        }
+        return new CompiledPermissions(all, bits.toLongArray(), permissionIds.size(), wildcards.toArray(new String[0][]));
+    }
+
+    /**
+     * 注册权限，已注册时返回原ID
+     */
+    private synchronized int register(String permission)
+    {
+        String key = permission.trim();
+        Integer id = permissionIds.get(key);
+        if (id != null)
+        {
+            return id;
+        }
+        id = permissionIds.size();
+        TrieNode node = root;
+        for (String segment : key.split(SEGMENT_DELIMITER))
+        {
+            node = node.children.computeIfAbsent(segment, s -> new TrieNode());
+        }
+        node.id = id;
+        permissionIds.put(key, id);
+        return id;
+    }
+
+    /**
+     * 按通配符模式遍历前缀树，收集匹配的权限ID
+     */
+    private void collect(TrieNode node, String[] pattern, int depth, BitSet bits)
+    {
+        if (depth == pattern.length)
+        {
+            if (node.id >= 0)
+            {
+                bits.set(node.id);
+            }
+            return;
+        }
+        if (WILDCARD.equals(pattern[depth]))
+        {
+            for (TrieNode child : node.children.values())
+            {
+                collect(child, pattern, depth + 1, bits);
+            }
+        }
+        else
+        {
+            TrieNode child = node.children.get(pattern[depth]);
+            if (child != null)
+            {
+                collect(child, pattern, depth + 1, bits);
+            }
+        }
+    }
+
+    private static class TrieNode
+    {
+        private final Map<String, TrieNode> children = new HashMap<String, TrieNode>();
+
+        private int id = -1;
+    }
+}
@@ -1,10 +1,14 @@
 package com.ruoyi.framework.web.service;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import com.ruoyi.common.constant.Constants;
+import com.ruoyi.common.core.cache.LocalCache;
 import com.ruoyi.common.core.domain.entity.SysRole;
+import com.ruoyi.common.core.domain.model.CompiledPermissions;
 import com.ruoyi.common.core.domain.model.LoginUser;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.StringUtils;
@@ -18,6 +22,12 @@ import com.ruoyi.framework.security.context.PermissionContextHolder;
 @Service("ss")
 public class PermissionService
 {
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
+    /** 注解中的权限表达式 -> 解析后的权限，表达式来自代码，数量有限 */
+    private final LocalCache<String, ParsedPermissions> expressionCache = new LocalCache<String, ParsedPermissions>("permission_expression", 4096, 0);
+
     /**
      * 验证用户是否具备某权限
      * 
@@ -35,8 +45,14 @@ public class PermissionService
         {
             return false;
         }
-        PermissionContextHolder.setContext(permission);
-        return hasPermissions(loginUser.getPermissions(), permission);
+        ParsedPermissions parsed = expressionCache.get(permission, key -> parse(key, false));
+        if (getCompiledPermissions(loginUser).has(parsed.ids[0], parsed.permissions[0]))
+        {
+            // 仅校验通过的请求会进入数据权限切面
+            PermissionContextHolder.setContext(permission);
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -67,12 +83,13 @@ public class PermissionService
         {
             return false;
         }
-        PermissionContextHolder.setContext(permissions);
-        Set<String> authorities = loginUser.getPermissions();
-        for (String permission : permissions.split(Constants.PERMISSION_DELIMETER))
+        ParsedPermissions parsed = expressionCache.get(permissions, key -> parse(key, true));
+        CompiledPermissions compiled = getCompiledPermissions(loginUser);
+        for (int i = 0; i < parsed.ids.length; i++)
         {
-            if (permission != null && hasPermissions(authorities, permission))
+            if (compiled.has(parsed.ids[i], parsed.permissions[i]))
             {
+                PermissionContextHolder.setContext(permissions);
                 return true;
             }
         }
@@ -146,14 +163,57 @@ public class PermissionService
     }
 
     /**
-     * 判断是否包含权限
-     * 
-     * @param permissions 权限列表
-     * @param permission 权限字符串
-     * @return 用户是否具备某权限
+     * 获取登录用户的预编译权限，首次校验时编译并随登录用户缓存
+     */
+    private CompiledPermissions getCompiledPermissions(LoginUser loginUser)
+    {
+        CompiledPermissions compiled = loginUser.getCompiledPermissions();
+        if (compiled == null)
+        {
+            compiled = permissionRegistry.compile(loginUser.getPermissions());
+            loginUser.setCompiledPermissions(compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * 解析权限表达式为权限ID
      */
-    private boolean hasPermissions(Set<String> permissions, String permission)
+    private ParsedPermissions parse(String expression, boolean multiple)
     {
-        return permissions.contains(Constants.ALL_PERMISSION) || permissions.contains(StringUtils.trim(permission));
+        List<String> permissions = new ArrayList<String>();
+        if (multiple)
+        {
+            for (String permission : expression.split(Constants.PERMISSION_DELIMETER))
+            {
+                if (StringUtils.isNotEmpty(StringUtils.trim(permission)))
+                {
+                    permissions.add(StringUtils.trim(permission));
+                }
+            }
+        }
+        else
+        {
+            permissions.add(StringUtils.trim(expression));
+        }
+        ParsedPermissions parsed = new ParsedPermissions(permissions.toArray(new String[0]));
+        for (int i = 0; i < parsed.permissions.length; i++)
+        {
+            parsed.ids[i] = permissionRegistry.getId(parsed.permissions[i]);
+        }
+        return parsed;
+    }
+
+    private static class ParsedPermissions
+    {
+        private final String[] permissions;
+
+        private final int[] ids;
+
+        ParsedPermissions(String[] permissions)
+        {
+            this.permissions = permissions;
+            this.ids = new int[permissions.length];
+        }
     }
 }
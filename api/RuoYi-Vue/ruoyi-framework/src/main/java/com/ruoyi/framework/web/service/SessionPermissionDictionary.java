@@ -0,0 +1,234 @@
+package com.ruoyi.framework.web.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.constant.CacheConstants;
+
+/**
+ * 会话权限字典
+ *
+ * 各节点共享的 权限字符串 -> 整数ID 映射，存于Redis哈希，ID只增不复用；
+ * 字典被清空后重新生成纪元（epoch），旧纪元编码的会话无法解析，按未登录处理
+ *
+ * @author ruoyi
+ */
+@Component
+public class SessionPermissionDictionary
+{
+    private static final Logger log = LoggerFactory.getLogger(SessionPermissionDictionary.class);
+
+    private static final String EPOCH_FIELD = "epoch";
+
+    private static final String ID_PREFIX = "i:";
+
+    /** 校验本地纪元是否仍有效的间隔 */
+    private static final long VERIFY_INTERVAL = 60 * 1000L;
+
+    /**
+     * 批量分配ID：ARGV[1]为候选纪元，其余为权限字符串，返回 {纪元, id1, id2...}
+     */
+    private static final String ALLOCATE_SCRIPT = "local epoch = redis.call('hget', KEYS[1], 'epoch')\n" +
+            "if not epoch then\n" +
+            "    epoch = ARGV[1]\n" +
+            "    redis.call('hset', KEYS[1], 'epoch', epoch)\n" +
+            "end\n" +
+            "local result = { tonumber(epoch) }\n" +
+            "for i = 2, #ARGV do\n" +
+            "    local id = redis.call('hget', KEYS[1], 'p:' .. ARGV[i])\n" +
+            "    if not id then\n" +
+            "        id = redis.call('hincrby', KEYS[1], 'seq', 1)\n" +
+            "        redis.call('hset', KEYS[1], 'p:' .. ARGV[i], id)\n" +
+            "        redis.call('hset', KEYS[1], 'i:' .. id, ARGV[i])\n" +
+            "    end\n" +
+            "    result[i] = tonumber(id)\n" +
+            "end\n" +
+            "return result";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ALLOCATE = new DefaultRedisScript<List>(ALLOCATE_SCRIPT, List.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private volatile Dictionary dictionary = new Dictionary(0L);
+
+    private volatile long verifyTime;
+
+    /**
+     * 确保权限均已分配ID
+     *
+     * @param permissions 权限字符串
+     * @return 当前字典，分配失败的权限在字典中不存在，由调用方按原文编码
+     */
+    public Dictionary intern(Collection<String> permissions)
+    {
+        Dictionary current = verifyEpoch();
+        List<String> missing = new ArrayList<String>();
+        for (String permission : permissions)
+        {
+            if (permission != null && current.getId(permission) == 0)
+            {
+                missing.add(permission);
+            }
+        }
+        if (missing.isEmpty())
+        {
+            return current;
+        }
+        try
+        {
+            List<String> args = new ArrayList<String>(missing.size() + 1);
+            args.add(String.valueOf(System.currentTimeMillis()));
+            args.addAll(missing);
+            List<?> result = stringRedisTemplate.execute(ALLOCATE, Collections.singletonList(CacheConstants.SESSION_PERM_DICT_KEY), args.toArray());
+            current = switchEpoch(((Number) result.get(0)).longValue());
+            for (int i = 0; i < missing.size(); i++)
+            {
+                current.put(missing.get(i), ((Number) result.get(i + 1)).intValue());
+            }
+        }
+        catch (Exception e)
+        {
+            log.warn("分配会话权限ID失败'{}'", e.getMessage());
+        }
+        return current;
+    }
+
+    /**
+     * 获取指定纪元的字典，并补全本地缺少的ID
+     *
+     * @param epoch 会话编码时的纪元
+     * @param ids 会话中的权限ID
+     * @return 字典，纪元已失效或ID无法解析时为null
+     */
+    public Dictionary resolve(long epoch, Collection<Integer> ids)
+    {
+        Dictionary current = dictionary;
+        if (current.epoch != epoch)
+        {
+            String stored = (String) stringRedisTemplate.opsForHash().get(CacheConstants.SESSION_PERM_DICT_KEY, EPOCH_FIELD);
+            if (stored == null || Long.parseLong(stored) != epoch)
+            {
+                return null;
+            }
+            current = switchEpoch(epoch);
+        }
+        List<Object> missing = new ArrayList<Object>();
+        for (Integer id : ids)
+        {
+            if (current.getPermission(id) == null)
+            {
+                missing.add(ID_PREFIX + id);
+            }
+        }
+        if (missing.isEmpty())
+        {
+            return current;
+        }
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(CacheConstants.SESSION_PERM_DICT_KEY, missing);
+        for (int i = 0; i < missing.size(); i++)
+        {
+            if (values.get(i) == null)
+            {
+                return null;
+            }
+            String id = ((String) missing.get(i)).substring(ID_PREFIX.length());
+            current.put((String) values.get(i), Integer.parseInt(id));
+        }
+        return current;
+    }
+
+    /**
+     * 定期确认Redis中的字典未被清空，避免继续按已失效的纪元编码
+     */
+    private Dictionary verifyEpoch()
+    {
+        Dictionary current = dictionary;
+        long now = System.currentTimeMillis();
+        if (current.epoch == 0 || now - verifyTime < VERIFY_INTERVAL)
+        {
+            return current;
+        }
+        verifyTime = now;
+        try
+        {
+            String stored = (String) stringRedisTemplate.opsForHash().get(CacheConstants.SESSION_PERM_DICT_KEY, EPOCH_FIELD);
+            if (stored == null || Long.parseLong(stored) != current.epoch)
+            {
+                // 本地映射全部作废，随后重新分配
+                return switchEpoch(0L);
+            }
+        }
+        catch (Exception e)
+        {
+            log.warn("校验会话权限字典失败'{}'", e.getMessage());
+        }
+        return current;
+    }
+
+    /**
+     * 纪元变化时丢弃本地映射
+     */
+    private synchronized Dictionary switchEpoch(long epoch)
+    {
+        if (dictionary.epoch != epoch)
+        {
+            dictionary = new Dictionary(epoch);
+        }
+        return dictionary;
+    }
+
+    /**
+     * 单个纪元内的双向映射
+     */
+    public static class Dictionary
+    {
+        private final long epoch;
+
+        private final Map<String, Integer> permissionIds = new ConcurrentHashMap<String, Integer>();
+
+        private final Map<Integer, String> idPermissions = new ConcurrentHashMap<Integer, String>();
+
+        Dictionary(long epoch)
+        {
+            this.epoch = epoch;
+        }
+
+        public long getEpoch()
+        {
+            return epoch;
+        }
+
+        /**
+         * 获取权限ID，未分配时返回0
+         */
+        public int getId(String permission)
+        {
+            Integer id = permissionIds.get(permission);
+            return id == null ? 0 : id;
+        }
+
+        public String getPermission(int id)
+        {
+            return idPermissions.get(id);
+        }
+
+        private void put(String permission, int id)
+        {
+            // 同一权限字符串只保留一个实例
+            String interned = permission.intern();
+            permissionIds.put(interned, id);
+            idPermissions.put(id, interned);
+        }
+    }
+}
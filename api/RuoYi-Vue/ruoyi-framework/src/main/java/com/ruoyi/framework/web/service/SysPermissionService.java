@@ -1,9 +1,12 @@
 package com.ruoyi.framework.web.service;
 
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import com.ruoyi.common.constant.UserConstants;
@@ -12,6 +15,7 @@ import com.ruoyi.common.core.domain.entity.SysUser;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.system.service.ISysMenuService;
 import com.ruoyi.system.service.ISysRoleService;
+import com.ruoyi.system.service.ISysUserService;
 
 /**
  * 用户权限处理
@@ -27,6 +31,15 @@ public class SysPermissionService
     @Autowired
     private ISysMenuService menuService;
 
+    @Autowired
+    private ISysUserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private ThreadPoolTaskExecutor threadPoolTaskExecutor;
+
     /**
      * 获取角色数据权限
      * 
@@ -85,4 +98,78 @@ public class SysPermissionService
         }
         return perms;
     }
+
+    /**
+     * 角色的菜单、数据权限或状态变更后，重新加载该角色下用户的在线会话
+     * 
+     * @param roleId 角色ID
+     */
+    public void refreshLoginUsersByRoleId(Long roleId)
+    {
+        refreshOnlineUsers(userService.selectUserNamesByRoleId(roleId));
+    }
+
+    /**
+     * 菜单权限标识变更后，重新加载全部在线会话
+     */
+    public void refreshAllLoginUsers()
+    {
+        threadPoolTaskExecutor.execute(() -> reloadLoginUsers(tokenService.selectOnlineUserNames()));
+    }
+
+    /**
+     * 用户的角色、部门或状态变更后，重新加载其在线会话
+     * 
+     * @param userIds 用户ID
+     */
+    public void refreshLoginUsers(Long... userIds)
+    {
+        if (userIds.length > 0)
+        {
+            refreshOnlineUsers(userService.selectUserNamesByUserIds(userIds));
+        }
+    }
+
+    /**
+     * 去重后提交到线程池重新加载，不占用管理请求；调用方的事务已提交，重新加载时读取的是修改后的数据
+     */
+    private void refreshOnlineUsers(Collection<String> userNames)
+    {
+        Set<String> distinct = new LinkedHashSet<String>(userNames);
+        if (!distinct.isEmpty())
+        {
+            threadPoolTaskExecutor.execute(() -> reloadLoginUsers(distinct));
+        }
+    }
+
+    /**
+     * 逐个重新加载用户的在线会话，先查会话索引，跳过没有在线会话的用户
+     */
+    private void reloadLoginUsers(Collection<String> userNames)
+    {
+        for (String userName : userNames)
+        {
+            if (tokenService.hasLoginUser(userName))
+            {
+                refreshLoginUser(userService.selectUserByUserName(userName));
+            }
+        }
+    }
+
+    /**
+     * 以数据库中的用户信息与权限覆盖其全部在线会话
+     */
+    private void refreshLoginUser(SysUser user)
+    {
+        if (user == null)
+        {
+            return;
+        }
+        Set<String> permissions = getMenuPermission(user);
+        tokenService.updateLoginUsers(user.getUserName(), loginUser -> {
+            loginUser.setUser(user);
+            loginUser.setDeptId(user.getDeptId());
+            loginUser.setPermissions(permissions);
+        });
+    }
 }
@@ -1,16 +1,28 @@
 package com.ruoyi.framework.web.service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.stereotype.Component;
 import com.ruoyi.common.constant.CacheConstants;
 import com.ruoyi.common.constant.Constants;
+import com.ruoyi.common.core.cache.LocalCache;
 import com.ruoyi.common.core.domain.model.LoginUser;
 import com.ruoyi.common.core.redis.RedisCache;
 import com.ruoyi.common.utils.ServletUtils;
@@ -18,6 +30,7 @@ import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.ip.AddressUtils;
 import com.ruoyi.common.utils.ip.IpUtils;
 import com.ruoyi.common.utils.uuid.IdUtils;
+import com.ruoyi.framework.config.RecoverableRedisMessageListenerContainer;
 import eu.bitwalker.useragentutils.UserAgent;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -51,9 +64,70 @@ public class TokenService
 
     private static final Long MILLIS_MINUTE_TWENTY = 20 * 60 * 1000L;
 
+    /** 变更通知中表示清空全部本地用户缓存 */
+    private static final String ALL_TOKENS = "*";
+
+    /** 全部在线会话索引 */
+    private static final String INDEX_ALL = CacheConstants.LOGIN_TOKEN_INDEX_KEY + "all";
+
+    /** 每次批量读取会话的数量 */
+    private static final int INDEX_BATCH_SIZE = 500;
+
+    // 本地用户缓存最大条数
+    @Value("${token.localCache.maxSize:10000}")
+    private int localCacheMaxSize;
+
+    // 本地用户缓存有效期（秒），小于等于0时关闭本地缓存
+    @Value("${token.localCache.expireSeconds:10}")
+    private int localCacheExpireSeconds;
+
+    // 同一令牌两次续期的最小间隔（秒）
+    @Value("${token.refreshInterval:60}")
+    private int refreshInterval;
+
     @Autowired
     private RedisCache redisCache;
 
+    @Autowired
+    private RedisTemplate<String, LoginUser> sessionRedisTemplate;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RecoverableRedisMessageListenerContainer redisMessageListenerContainer;
+
+    /** 令牌uuid -> 登录用户，省去每次请求读取并反序列化Redis中的用户信息 */
+    private LocalCache<String, LoginUser> loginUserCache;
+
+    /** 令牌uuid -> 本节点最近续期时间，条目过期即允许再次续期 */
+    private LocalCache<String, Long> refreshTimeCache;
+
+    @PostConstruct
+    public void init()
+    {
+        refreshTimeCache = new LocalCache<String, Long>("login_token_refresh", localCacheMaxSize, Math.max(1, refreshInterval) * MILLIS_SECOND);
+        if (localCacheExpireSeconds <= 0)
+        {
+            return;
+        }
+        loginUserCache = new LocalCache<String, LoginUser>("login_user", localCacheMaxSize, localCacheExpireSeconds * MILLIS_SECOND);
+        // 其他节点删除或修改登录用户时清理本节点缓存
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            Object uuid = redisCache.redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (ALL_TOKENS.equals(uuid))
+            {
+                loginUserCache.clear();
+            }
+            else if (uuid != null)
+            {
+                loginUserCache.remove(uuid.toString());
+            }
+        }, new ChannelTopic(CacheConstants.LOGIN_TOKEN_CHANNEL));
+        // 断线期间的变更通知已丢失，重新订阅后清空本节点缓存
+        redisMessageListenerContainer.addRecoveryCallback(loginUserCache::clear);
+    }
+
     /**
      * 获取用户身份信息
      * 
@@ -70,9 +144,7 @@ public class TokenService
                 Claims claims = parseToken(token);
                 // 解析对应的权限以及用户信息
                 String uuid = (String) claims.get(Constants.LOGIN_USER_KEY);
-                String userKey = getTokenKey(uuid);
-                LoginUser user = redisCache.getCacheObject(userKey);
-                return user;
+                return getLoginUserByUuid(uuid);
             }
             catch (Exception e)
             {
@@ -82,6 +154,45 @@ public class TokenService
         return null;
     }
 
+    /**
+     * 根据令牌uuid获取用户身份信息，优先读取本地缓存
+     *
+     * 本地缓存命中时不访问Redis，令牌删除与用户信息修改依赖变更通知，订阅重连时清空本地缓存，
+     * 其余通知丢失的情况最多延迟一个本地缓存有效期生效
+     *
+     * @param uuid 令牌uuid
+     * @return 用户信息
+     */
+    public LoginUser getLoginUserByUuid(String uuid)
+    {
+        if (loginUserCache == null)
+        {
+            return sessionRedisTemplate.opsForValue().get(getTokenKey(uuid));
+        }
+        LoginUser user = loginUserCache.get(uuid);
+        if (user != null)
+        {
+            return user;
+        }
+        user = sessionRedisTemplate.opsForValue().get(getTokenKey(uuid));
+        if (user != null)
+        {
+            // 续期只延长键的过期时间，以键的剩余时间为准
+            long ttl = redisCache.getExpire(getTokenKey(uuid));
+            if (ttl > 0)
+            {
+                user.setExpireTime(System.currentTimeMillis() + ttl * MILLIS_SECOND);
+            }
+            loginUserCache.recordRemoteHit();
+            loginUserCache.put(uuid, user);
+        }
+        else
+        {
+            loginUserCache.remove(uuid);
+        }
+        return user;
+    }
+
     /**
      * 设置用户身份信息
      */
@@ -90,6 +201,8 @@ public class TokenService
         if (StringUtils.isNotNull(loginUser) && StringUtils.isNotEmpty(loginUser.getToken()))
         {
             refreshToken(loginUser);
+            // 权限等信息变更，其他节点需重新读取
+            publishLoginUserChange(loginUser.getToken());
         }
     }
 
@@ -100,8 +213,252 @@ public class TokenService
     {
         if (StringUtils.isNotEmpty(token))
         {
+            LoginUser loginUser = getLoginUserByUuid(token);
             String userKey = getTokenKey(token);
             redisCache.deleteObject(userKey);
+            removeSessionIndex(token, loginUser);
+            if (loginUserCache != null)
+            {
+                loginUserCache.remove(token);
+            }
+            publishLoginUserChange(token);
+        }
+    }
+
+    /**
+     * 删除用户的全部会话
+     *
+     * @param userName 用户名
+     * @return 删除的会话数，不含索引中已过期的令牌
+     */
+    public int delLoginUserByUserName(String userName)
+    {
+        if (StringUtils.isEmpty(userName))
+        {
+            return 0;
+        }
+        // 先读取索引再逐项删除，不在脚本中拼接键名，集群模式下各键可分布在不同槽位
+        String userIndexKey = getUserIndexKey(userName);
+        Set<String> tokenSet = stringRedisTemplate.opsForZSet().range(userIndexKey, 0, -1);
+        if (tokenSet == null || tokenSet.isEmpty())
+        {
+            return 0;
+        }
+        List<String> tokens = new ArrayList<String>(tokenSet);
+        List<String> keys = new ArrayList<String>(tokens.size());
+        for (String token : tokens)
+        {
+            keys.add(getTokenKey(token));
+        }
+        // 删除前读取会话，用于清理登录地址索引
+        List<LoginUser> loginUsers = sessionRedisTemplate.opsForValue().multiGet(keys);
+        long deleted = redisCache.unlink(keys);
+        Map<String, List<String>> ipTokens = new HashMap<String, List<String>>();
+        for (int i = 0; i < tokens.size(); i++)
+        {
+            LoginUser loginUser = loginUsers == null ? null : loginUsers.get(i);
+            if (loginUser != null && StringUtils.isNotEmpty(loginUser.getIpaddr()))
+            {
+                ipTokens.computeIfAbsent(getIpIndexKey(loginUser.getIpaddr()), k -> new ArrayList<String>()).add(tokens.get(i));
+            }
+        }
+        Object[] members = tokens.toArray();
+        // 只移除已读取的令牌，期间新登录的会话仍保留在索引中
+        stringRedisTemplate.opsForZSet().remove(userIndexKey, members);
+        stringRedisTemplate.opsForZSet().remove(INDEX_ALL, members);
+        for (Map.Entry<String, List<String>> entry : ipTokens.entrySet())
+        {
+            stringRedisTemplate.opsForZSet().remove(entry.getKey(), entry.getValue().toArray());
+        }
+        for (String token : tokens)
+        {
+            if (loginUserCache != null)
+            {
+                loginUserCache.remove(token);
+            }
+            publishLoginUserChange(token);
+        }
+        return (int) deleted;
+    }
+
+    /**
+     * 修改用户的全部在线会话，保留各会话的剩余有效期，并通知各节点重新读取
+     *
+     * @param userName 用户名
+     * @param updater 会话修改，如重新加载用户信息与权限
+     * @return 修改的会话数
+     */
+    public int updateLoginUsers(String userName, Consumer<LoginUser> updater)
+    {
+        if (StringUtils.isEmpty(userName))
+        {
+            return 0;
+        }
+        Set<String> tokens = stringRedisTemplate.opsForZSet().range(getUserIndexKey(userName), 0, -1);
+        if (tokens == null)
+        {
+            return 0;
+        }
+        int updated = 0;
+        for (String token : tokens)
+        {
+            String userKey = getTokenKey(token);
+            LoginUser loginUser = sessionRedisTemplate.opsForValue().get(userKey);
+            long ttl = redisCache.getExpire(userKey);
+            if (loginUser == null || ttl <= 0)
+            {
+                continue;
+            }
+            updater.accept(loginUser);
+            // 仅在会话仍存在时写回，避免与并发的退出登录竞争而恢复已删除的会话
+            if (Boolean.TRUE.equals(sessionRedisTemplate.opsForValue().setIfPresent(userKey, loginUser, ttl, TimeUnit.SECONDS)))
+            {
+                updated++;
+            }
+            if (loginUserCache != null)
+            {
+                loginUserCache.remove(token);
+            }
+            publishLoginUserChange(token);
+        }
+        return updated;
+    }
+
+    /**
+     * 用户是否有未过期的在线会话，只读取用户会话索引
+     *
+     * @param userName 用户名
+     * @return 结果
+     */
+    public boolean hasLoginUser(String userName)
+    {
+        if (StringUtils.isEmpty(userName))
+        {
+            return false;
+        }
+        Long count = stringRedisTemplate.opsForZSet().count(getUserIndexKey(userName), System.currentTimeMillis(), Double.MAX_VALUE);
+        return count != null && count > 0;
+    }
+
+    /**
+     * 查询全部在线用户的用户名
+     *
+     * @return 用户名
+     */
+    public Set<String> selectOnlineUserNames()
+    {
+        Set<String> userNames = new HashSet<String>();
+        for (LoginUser loginUser : selectOnlineLoginUsers(null, null, 0, 0))
+        {
+            if (loginUser.getUser() != null)
+            {
+                userNames.add(loginUser.getUsername());
+            }
+        }
+        return userNames;
+    }
+
+    /**
+     * 统计在线会话数，同时清理已过期的索引
+     *
+     * @param ipaddr 登录地址，可为空
+     * @param userName 用户名，可为空
+     * @return 会话数
+     */
+    public long countOnlineLoginUsers(String ipaddr, String userName)
+    {
+        String indexKey = getIndexKey(ipaddr, userName);
+        stringRedisTemplate.opsForZSet().removeRangeByScore(indexKey, 0, System.currentTimeMillis());
+        Long count = stringRedisTemplate.opsForZSet().zCard(indexKey);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 按过期时间倒序分页读取在线会话，登录地址优先于用户名作为索引
+     *
+     * @param ipaddr 登录地址，可为空
+     * @param userName 用户名，可为空
+     * @param offset 起始位置
+     * @param limit 条数，小于等于0表示读取到末尾
+     * @return 登录用户，已失效的会话从索引中移除且不返回
+     */
+    public List<LoginUser> selectOnlineLoginUsers(String ipaddr, String userName, long offset, long limit)
+    {
+        String indexKey = getIndexKey(ipaddr, userName);
+        List<LoginUser> result = new ArrayList<LoginUser>();
+        long end = limit > 0 ? offset + limit : Long.MAX_VALUE;
+        for (long start = offset; start < end; start += INDEX_BATCH_SIZE)
+        {
+            long stop = Math.min(end, start + INDEX_BATCH_SIZE) - 1;
+            Set<String> tokens = stringRedisTemplate.opsForZSet().reverseRange(indexKey, start, stop);
+            if (tokens == null || tokens.isEmpty())
+            {
+                break;
+            }
+            List<String> tokenList = new ArrayList<String>(tokens);
+            List<String> keys = new ArrayList<String>(tokenList.size());
+            for (String token : tokenList)
+            {
+                keys.add(getTokenKey(token));
+            }
+            List<LoginUser> users = sessionRedisTemplate.opsForValue().multiGet(keys);
+            List<String> stale = new ArrayList<String>();
+            for (int i = 0; i < tokenList.size(); i++)
+            {
+                LoginUser user = users == null ? null : users.get(i);
+                if (user == null)
+                {
+                    stale.add(tokenList.get(i));
+                }
+                else
+                {
+                    result.add(user);
+                }
+            }
+            if (!stale.isEmpty())
+            {
+                Object[] members = stale.toArray();
+                stringRedisTemplate.opsForZSet().remove(indexKey, members);
+                stringRedisTemplate.opsForZSet().remove(INDEX_ALL, members);
+            }
+            if (tokenList.size() < stop - start + 1)
+            {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 清空所有节点的本地用户缓存，用于批量删除登录用户后
+     */
+    public void clearLoginUserCache()
+    {
+        if (loginUserCache != null)
+        {
+            loginUserCache.clear();
+        }
+        publishLoginUserChange(ALL_TOKENS);
+    }
+
+    /**
+     * 通知各节点清理本地用户缓存
+     *
+     * @param uuid 令牌uuid，* 表示全部
+     */
+    private void publishLoginUserChange(String uuid)
+    {
+        if (loginUserCache == null)
+        {
+            return;
+        }
+        try
+        {
+            redisCache.publish(CacheConstants.LOGIN_TOKEN_CHANNEL, uuid);
+        }
+        catch (Exception e)
+        {
+            log.error("发布登录用户变更通知异常'{}'", e.getMessage());
         }
     }
 
@@ -127,6 +484,8 @@ public class TokenService
     /**
      * 验证令牌有效期，相差不足20分钟，自动刷新缓存
      * 
+     * 同一令牌在续期间隔内只续期一次；用户信息未标记修改时仅延长Redis过期时间，不重写用户信息
+     * 
      * @param loginUser 登录信息
      * @return 令牌
      */
@@ -134,9 +493,31 @@ public class TokenService
     {
         long expireTime = loginUser.getExpireTime();
         long currentTime = System.currentTimeMillis();
-        if (expireTime - currentTime <= MILLIS_MINUTE_TWENTY)
+        if (expireTime - currentTime > MILLIS_MINUTE_TWENTY && !loginUser.isDirty())
+        {
+            return;
+        }
+        String token = loginUser.getToken();
+        if (refreshTimeCache.get(token) != null && !loginUser.isDirty())
+        {
+            return;
+        }
+        refreshTimeCache.put(token, currentTime);
+        if (loginUser.isDirty())
         {
             refreshToken(loginUser);
+            publishLoginUserChange(token);
+        }
+        else if (redisCache.expire(getTokenKey(token), this.expireTime, TimeUnit.MINUTES))
+        {
+            // Redis中的过期时间字段不再更新，本节点缓存的用户按实际过期时间判断
+            loginUser.setExpireTime(currentTime + this.expireTime * MILLIS_MINUTE);
+            addSessionIndex(loginUser);
+        }
+        else if (loginUserCache != null)
+        {
+            // 令牌已被删除，不再续期
+            loginUserCache.remove(token);
         }
     }
 
@@ -151,7 +532,92 @@ public class TokenService
         loginUser.setExpireTime(loginUser.getLoginTime() + expireTime * MILLIS_MINUTE);
         // 根据uuid将loginUser缓存
         String userKey = getTokenKey(loginUser.getToken());
-        redisCache.setCacheObject(userKey, loginUser, expireTime, TimeUnit.MINUTES);
+        sessionRedisTemplate.opsForValue().set(userKey, loginUser, expireTime, TimeUnit.MINUTES);
+        addSessionIndex(loginUser);
+        loginUser.setDirty(false);
+        if (loginUserCache != null)
+        {
+            loginUserCache.put(loginUser.getToken(), loginUser);
+        }
+    }
+
+    /**
+     * 写入在线会话索引，分值为过期时间；用户与登录地址索引随会话一同过期
+     */
+    private void addSessionIndex(LoginUser loginUser)
+    {
+        String token = loginUser.getToken();
+        double score = loginUser.getExpireTime();
+        String userIndexKey = loginUser.getUser() == null ? null : getUserIndexKey(loginUser.getUsername());
+        String ipIndexKey = StringUtils.isEmpty(loginUser.getIpaddr()) ? null : getIpIndexKey(loginUser.getIpaddr());
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>()
+        {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations)
+            {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForZSet().add(INDEX_ALL, token, score);
+                for (String indexKey : new String[] { userIndexKey, ipIndexKey })
+                {
+                    if (indexKey != null)
+                    {
+                        ops.opsForZSet().add(indexKey, token, score);
+                        ops.expire(indexKey, expireTime, TimeUnit.MINUTES);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 从在线会话索引中移除
+     */
+    private void removeSessionIndex(String token, LoginUser loginUser)
+    {
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>()
+        {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations)
+            {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForZSet().remove(INDEX_ALL, token);
+                if (loginUser != null && loginUser.getUser() != null)
+                {
+                    ops.opsForZSet().remove(getUserIndexKey(loginUser.getUsername()), token);
+                }
+                if (loginUser != null && StringUtils.isNotEmpty(loginUser.getIpaddr()))
+                {
+                    ops.opsForZSet().remove(getIpIndexKey(loginUser.getIpaddr()), token);
+                }
+                return null;
+            }
+        });
+    }
+
+    private String getIndexKey(String ipaddr, String userName)
+    {
+        if (StringUtils.isNotEmpty(ipaddr))
+        {
+            return getIpIndexKey(ipaddr);
+        }
+        if (StringUtils.isNotEmpty(userName))
+        {
+            return getUserIndexKey(userName);
+        }
+        return INDEX_ALL;
+    }
+
+    private String getUserIndexKey(String userName)
+    {
+        return CacheConstants.LOGIN_TOKEN_INDEX_KEY + "user:" + userName;
+    }
+
+    private String getIpIndexKey(String ipaddr)
+    {
+        return CacheConstants.LOGIN_TOKEN_INDEX_KEY + "ip:" + ipaddr;
     }
 
     /**
@@ -0,0 +1,162 @@
+package com.ruoyi.framework.aspectj;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.aspectj.lang.JoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.domain.entity.SysRole;
+import com.ruoyi.common.core.domain.entity.SysUser;
+import com.ruoyi.system.service.ISysDeptService;
+
+/**
+ * 数据权限SQL生成与缓存测试
+ *
+ * @author ruoyi
+ */
+public class DataScopeAspectTest
+{
+    private static final String PERMISSION = "system:user:list";
+
+    private DataScopeAspect aspect;
+
+    private ISysDeptService deptService;
+
+    /** 缓存版本号，key为缓存名称 */
+    private final Map<String, Long> versions = new HashMap<String, Long>();
+
+    @BeforeEach
+    public void setUp()
+    {
+        versions.put(CacheConstants.DATA_SCOPE_VERSION, 1L);
+        versions.put(CacheConstants.MENU_VERSION, 1L);
+        versions.put(CacheConstants.DEPT_VERSION, 1L);
+        CacheVersion cacheVersion = mock(CacheVersion.class);
+        when(cacheVersion.get(anyString())).thenAnswer(invocation -> versions.get(invocation.<String>getArgument(0)));
+        deptService = mock(ISysDeptService.class);
+        when(deptService.selectDeptAndChildIds(100L)).thenReturn(Arrays.asList(100L, 101L, 103L));
+        aspect = new DataScopeAspect();
+        ReflectionTestUtils.setField(aspect, "cacheVersion", cacheVersion);
+        ReflectionTestUtils.setField(aspect, "deptService", deptService);
+    }
+
+    @Test
+    public void deptAndChildInlinesDeptIds()
+    {
+        SysUser user = user(1L, role(10L, DataScopeAspect.DATA_SCOPE_DEPT_AND_CHILD, PERMISSION));
+
+        assertThat(filter(user, PERMISSION)).isEqualTo(" AND (d.dept_id IN ( 100,101,103 ) )");
+    }
+
+    @Test
+    public void largeSubtreeUsesClosureTable()
+    {
+        List<Long> deptIds = new ArrayList<Long>();
+        for (long deptId = 100; deptId <= 1100; deptId++)
+        {
+            deptIds.add(deptId);
+        }
+        when(deptService.selectDeptAndChildIds(100L)).thenReturn(deptIds);
+        SysUser user = user(1L, role(10L, DataScopeAspect.DATA_SCOPE_DEPT_AND_CHILD, PERMISSION));
+
+        assertThat(filter(user, PERMISSION)).isEqualTo(" AND (d.dept_id IN ( SELECT descendant_id FROM sys_dept_closure WHERE ancestor_id = 100 ) )");
+    }
+
+    @Test
+    public void sqlCachedUntilVersionChanges()
+    {
+        SysUser user = user(1L, role(10L, DataScopeAspect.DATA_SCOPE_DEPT_AND_CHILD, PERMISSION));
+        filter(user, PERMISSION);
+        filter(user(1L, role(10L, DataScopeAspect.DATA_SCOPE_DEPT_AND_CHILD, PERMISSION)), PERMISSION);
+        verify(deptService, times(1)).selectDeptAndChildIds(100L);
+
+        // 部门结构变更后重新生成
+        versions.put(CacheConstants.DEPT_VERSION, 2L);
+        when(deptService.selectDeptAndChildIds(100L)).thenReturn(Arrays.asList(100L, 101L));
+        assertThat(filter(user, PERMISSION)).isEqualTo(" AND (d.dept_id IN ( 100,101 ) )");
+
+        // 角色数据权限变更后重新生成
+        versions.put(CacheConstants.DATA_SCOPE_VERSION, 2L);
+        filter(user, PERMISSION);
+        verify(deptService, times(3)).selectDeptAndChildIds(100L);
+
+        // 菜单权限字符修改后重新生成
+        versions.put(CacheConstants.MENU_VERSION, 2L);
+        filter(user, PERMISSION);
+        verify(deptService, times(4)).selectDeptAndChildIds(100L);
+    }
+
+    @Test
+    public void cacheKeySeparatesUsersAndPermissions()
+    {
+        SysUser deptUser = user(1L, role(10L, DataScopeAspect.DATA_SCOPE_DEPT, PERMISSION));
+        SysUser selfUser = user(2L, role(11L, DataScopeAspect.DATA_SCOPE_SELF, PERMISSION));
+
+        assertThat(filter(deptUser, PERMISSION)).isEqualTo(" AND (d.dept_id = 100 )");
+        assertThat(filter(selfUser, PERMISSION)).isEqualTo(" AND (u.user_id = 2 )");
+        // 角色不包含该权限字符时不查询任何数据
+        assertThat(filter(deptUser, "system:role:list")).isEqualTo(" AND (d.dept_id = 0 )");
+    }
+
+    @Test
+    public void customScopesMerged()
+    {
+        SysUser user = user(1L, role(10L, DataScopeAspect.DATA_SCOPE_CUSTOM, PERMISSION), role(11L, DataScopeAspect.DATA_SCOPE_CUSTOM, PERMISSION),
+                role(12L, DataScopeAspect.DATA_SCOPE_DEPT, PERMISSION));
+
+        assertThat(filter(user, PERMISSION)).isEqualTo(
+                " AND (d.dept_id IN ( SELECT dept_id FROM sys_role_dept WHERE role_id in (10,11) )  OR d.dept_id = 100 )");
+    }
+
+    @Test
+    public void allScopeAddsNoCondition()
+    {
+        SysUser user = user(1L, role(10L, DataScopeAspect.DATA_SCOPE_DEPT, PERMISSION), role(11L, DataScopeAspect.DATA_SCOPE_ALL, PERMISSION));
+
+        assertThat(filter(user, PERMISSION)).isNull();
+    }
+
+    /**
+     * 以用户查询条件执行数据权限过滤，返回写入的过滤条件
+     */
+    private String filter(SysUser user, String permission)
+    {
+        SysUser params = new SysUser();
+        JoinPoint joinPoint = mock(JoinPoint.class);
+        when(joinPoint.getArgs()).thenReturn(new Object[] { params });
+        aspect.dataScopeFilter(joinPoint, user, "d", "u", permission);
+        return (String) params.getParams().get(DataScopeAspect.DATA_SCOPE);
+    }
+
+    private static SysUser user(Long userId, SysRole... roles)
+    {
+        SysUser user = new SysUser();
+        user.setUserId(userId);
+        user.setDeptId(100L);
+        user.setRoles(Arrays.asList(roles));
+        return user;
+    }
+
+    private static SysRole role(Long roleId, String dataScope, String permission)
+    {
+        SysRole role = new SysRole();
+        role.setRoleId(roleId);
+        role.setDataScope(dataScope);
+        role.setStatus("0");
+        role.setPermissions(Collections.singleton(permission));
+        return role;
+    }
+}
@@ -0,0 +1,262 @@
+package com.ruoyi.framework.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.common.core.domain.entity.SysDept;
+import com.ruoyi.common.core.domain.entity.SysRole;
+import com.ruoyi.common.core.domain.entity.SysUser;
+import com.ruoyi.common.core.domain.model.LoginUser;
+import com.ruoyi.framework.web.service.SessionPermissionDictionary;
+
+/**
+ * 登录用户序列化测试
+ *
+ * Redis中的权限字典哈希由内存Map模拟，多个字典实例共享同一份数据即相当于多个节点
+ *
+ * @author ruoyi
+ */
+public class LoginUserRedisSerializerTest
+{
+    private static final byte MAGIC = (byte) 0xB7;
+
+    /** 模拟的权限字典哈希 */
+    private Map<String, String> store;
+
+    @BeforeEach
+    public void setUp()
+    {
+        store = new HashMap<String, String>();
+    }
+
+    @Test
+    public void binaryRoundTrip()
+    {
+        LoginUserRedisSerializer serializer = new LoginUserRedisSerializer(newDictionary(), true);
+        LoginUser loginUser = newLoginUser();
+
+        byte[] bytes = serializer.serialize(loginUser);
+        LoginUser result = serializer.deserialize(bytes);
+
+        assertThat(bytes[0]).isEqualTo(MAGIC);
+        assertThat(result.getUserId()).isEqualTo(1L);
+        assertThat(result.getDeptId()).isEqualTo(103L);
+        assertThat(result.getToken()).isEqualTo("token-1");
+        assertThat(result.getExpireTime()).isEqualTo(loginUser.getExpireTime());
+        assertThat(result.getIpaddr()).isEqualTo("127.0.0.1");
+        assertThat(result.getPermissions()).containsExactlyInAnyOrder("system:user:list", "system:user:edit");
+        assertThat(result.getUser().getUserName()).isEqualTo("admin");
+        assertThat(result.getUser().getDept().getDeptName()).isEqualTo("研发部门");
+        assertThat(result.getUser().getRoles()).hasSize(1);
+        assertThat(result.getUser().getRoles().get(0).getRoleKey()).isEqualTo("common");
+        assertThat(result.getUser().getRoles().get(0).getPermissions()).containsExactly("system:user:list");
+        assertThat(result.isDirty()).isFalse();
+    }
+
+    @Test
+    public void permissionsEncodedAsIds()
+    {
+        LoginUserRedisSerializer serializer = new LoginUserRedisSerializer(newDictionary(), true);
+
+        byte[] bytes = serializer.serialize(newLoginUser());
+
+        assertThat(store).containsValues("system:user:list", "system:user:edit");
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).doesNotContain("system:user:edit");
+    }
+
+    @Test
+    public void otherNodeResolvesIdsFromRedis()
+    {
+        byte[] bytes = new LoginUserRedisSerializer(newDictionary(), true).serialize(newLoginUser());
+
+        LoginUser result = new LoginUserRedisSerializer(newDictionary(), true).deserialize(bytes);
+
+        assertThat(result.getPermissions()).containsExactlyInAnyOrder("system:user:list", "system:user:edit");
+    }
+
+    @Test
+    public void allocationFailureWritesInline()
+    {
+        SessionPermissionDictionary dictionary = new SessionPermissionDictionary();
+        ReflectionTestUtils.setField(dictionary, "stringRedisTemplate", mock(StringRedisTemplate.class, invocation -> {
+            // toString 等Object方法仍正常返回，供日志输出
+            if (invocation.getMethod().getDeclaringClass() == Object.class)
+            {
+                return RETURNS_DEFAULTS.answer(invocation);
+            }
+            throw new IllegalStateException("redis down");
+        }));
+        LoginUserRedisSerializer serializer = new LoginUserRedisSerializer(dictionary, true);
+
+        LoginUser result = serializer.deserialize(serializer.serialize(newLoginUser()));
+
+        assertThat(result.getPermissions()).containsExactlyInAnyOrder("system:user:list", "system:user:edit");
+        assertThat(result.getUser().getRoles().get(0).getPermissions()).containsExactly("system:user:list");
+    }
+
+    @Test
+    public void legacyJsonMigratesToBinary()
+    {
+        byte[] json = new LoginUserRedisSerializer(newDictionary(), false).serialize(newLoginUser());
+
+        LoginUser result = new LoginUserRedisSerializer(newDictionary(), true).deserialize(json);
+
+        assertThat(json[0]).isNotEqualTo(MAGIC);
+        assertThat(result.getUser().getUserName()).isEqualTo("admin");
+        assertThat(result.getPermissions()).containsExactlyInAnyOrder("system:user:list", "system:user:edit");
+        assertThat(result.isDirty()).isTrue();
+    }
+
+    @Test
+    public void jsonModeKeepsJson()
+    {
+        LoginUserRedisSerializer serializer = new LoginUserRedisSerializer(newDictionary(), false);
+
+        LoginUser result = serializer.deserialize(serializer.serialize(newLoginUser()));
+
+        assertThat(result.getToken()).isEqualTo("token-1");
+        assertThat(result.isDirty()).isFalse();
+    }
+
+    @Test
+    public void staleEpochInvalidatesSession()
+    {
+        byte[] bytes = new LoginUserRedisSerializer(newDictionary(), true).serialize(newLoginUser());
+        // 字典被清空后由其他节点重新分配了纪元
+        store.clear();
+        store.put("epoch", "2");
+
+        assertThat(new LoginUserRedisSerializer(newDictionary(), true).deserialize(bytes)).isNull();
+    }
+
+    @Test
+    public void emptyBytesReturnNull()
+    {
+        LoginUserRedisSerializer serializer = new LoginUserRedisSerializer(newDictionary(), true);
+
+        assertThat(serializer.deserialize(null)).isNull();
+        assertThat(serializer.deserialize(new byte[0])).isNull();
+    }
+
+    private LoginUser newLoginUser()
+    {
+        SysDept dept = new SysDept();
+        dept.setDeptId(103L);
+        dept.setDeptName("研发部门");
+        SysRole role = new SysRole(2L);
+        role.setRoleKey("common");
+        role.setPermissions(new HashSet<String>(Collections.singletonList("system:user:list")));
+        SysUser user = new SysUser(1L);
+        user.setDeptId(103L);
+        user.setUserName("admin");
+        user.setDept(dept);
+        user.setRoles(new ArrayList<SysRole>(Collections.singletonList(role)));
+        Set<String> permissions = new HashSet<String>(Arrays.asList("system:user:list", "system:user:edit"));
+        LoginUser loginUser = new LoginUser(1L, 103L, user, permissions);
+        loginUser.setToken("token-1");
+        loginUser.setIpaddr("127.0.0.1");
+        loginUser.setLoginTime(System.currentTimeMillis());
+        loginUser.setExpireTime(loginUser.getLoginTime() + 30 * 60 * 1000L);
+        return loginUser;
+    }
+
+    /**
+     * 创建一个节点的字典，Redis访问落到共享的模拟哈希上
+     */
+    @SuppressWarnings("unchecked")
+    private SessionPermissionDictionary newDictionary()
+    {
+        HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class, invocation -> {
+            Object[] args = invocation.getArguments();
+            switch (invocation.getMethod().getName())
+            {
+                case "get":
+                    return store.get(String.valueOf(args[1]));
+                case "multiGet":
+                    List<Object> values = new ArrayList<Object>();
+                    for (Object field : (Collection<Object>) args[1])
+                    {
+                        values.add(store.get(String.valueOf(field)));
+                    }
+                    return values;
+                default:
+                    return null;
+            }
+        });
+        StringRedisTemplate template = mock(StringRedisTemplate.class, invocation -> {
+            if ("opsForHash".equals(invocation.getMethod().getName()))
+            {
+                return hashOperations;
+            }
+            if ("execute".equals(invocation.getMethod().getName()) && invocation.getArguments()[0] instanceof RedisScript)
+            {
+                return allocate(scriptArgs(invocation.getArguments()));
+            }
+            return null;
+        });
+        SessionPermissionDictionary dictionary = new SessionPermissionDictionary();
+        ReflectionTestUtils.setField(dictionary, "stringRedisTemplate", template);
+        return dictionary;
+    }
+
+    /**
+     * 可变参数可能已展开也可能仍为数组，统一展开
+     */
+    private static List<Object> scriptArgs(Object[] arguments)
+    {
+        List<Object> args = new ArrayList<Object>();
+        for (int i = 2; i < arguments.length; i++)
+        {
+            if (arguments[i] instanceof Object[])
+            {
+                args.addAll(Arrays.asList((Object[]) arguments[i]));
+            }
+            else
+            {
+                args.add(arguments[i]);
+            }
+        }
+        return args;
+    }
+
+    /**
+     * 与分配脚本相同的逻辑
+     */
+    private List<Object> allocate(List<Object> args)
+    {
+        store.putIfAbsent("epoch", String.valueOf(args.get(0)));
+        List<Object> result = new ArrayList<Object>();
+        result.add(Long.parseLong(store.get("epoch")));
+        for (int i = 1; i < args.size(); i++)
+        {
+            String permission = String.valueOf(args.get(i));
+            String id = store.get("p:" + permission);
+            if (id == null)
+            {
+                long seq = Long.parseLong(store.getOrDefault("seq", "0")) + 1;
+                id = String.valueOf(seq);
+                store.put("seq", id);
+                store.put("p:" + permission, id);
+                store.put("i:" + id, permission);
+            }
+            result.add(Long.parseLong(id));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,152 @@
+package com.ruoyi.framework.interceptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import com.ruoyi.common.annotation.HttpCache;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.redis.RedisCache;
+
+/**
+ * HTTP条件请求拦截器测试
+ *
+ * 版本号使用真实的CacheVersion，Redis中的计数器由内存Map模拟
+ *
+ * @author ruoyi
+ */
+public class HttpCacheInterceptorTest
+{
+    private HttpCacheInterceptor interceptor;
+
+    private CacheVersion cacheVersion;
+
+    private final Map<String, Long> versions = new HashMap<String, Long>();
+
+    private HandlerMethod cached;
+
+    private HandlerMethod uncached;
+
+    @BeforeEach
+    public void setUp() throws Exception
+    {
+        cached = new HandlerMethod(new TestController(), "list");
+        uncached = new HandlerMethod(new TestController(), "detail");
+        RedisCache redisCache = mock(RedisCache.class);
+        when(redisCache.getCacheObject(anyString())).thenAnswer(invocation -> versions.get(invocation.<String>getArgument(0)));
+        when(redisCache.hasKey(anyString())).thenAnswer(invocation -> versions.containsKey(invocation.<String>getArgument(0)));
+        when(redisCache.setCounterIfAbsent(anyString(), anyLong()))
+                .thenAnswer(invocation -> versions.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        when(redisCache.increment(anyString())).thenAnswer(invocation -> versions.merge(invocation.getArgument(0), 1L, Long::sum));
+        versions.put(CacheConstants.HTTP_CACHE_VERSION_KEY + "blog_article", 100L);
+        cacheVersion = new CacheVersion();
+        ReflectionTestUtils.setField(cacheVersion, "redisCache", redisCache);
+        interceptor = new HttpCacheInterceptor();
+        ReflectionTestUtils.setField(interceptor, "cacheVersion", cacheVersion);
+    }
+
+    @Test
+    public void firstRequestGetsETag() throws Exception
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(get(null), response, cached)).isTrue();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).startsWith("W/\"").endsWith("-" + Long.toString(100L, 36) + "\"");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("max-age=60, must-revalidate, private");
+        assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.AUTHORIZATION);
+    }
+
+    @Test
+    public void matchingETagReturnsNotModified() throws Exception
+    {
+        String etag = etag(get(null));
+        MockHttpServletRequest request = get(null);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(request, response, cached)).isFalse();
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    public void versionIncrementChangesETag() throws Exception
+    {
+        String etag = etag(get(null));
+        cacheVersion.increment("blog_article");
+        MockHttpServletRequest request = get(null);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(request, response, cached)).isTrue();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    @Test
+    public void etagDependsOnQueryAndToken() throws Exception
+    {
+        String guest = etag(get(null));
+        String user = etag(get("Bearer token-1"));
+        MockHttpServletRequest page2 = get(null);
+        page2.setQueryString("pageNum=2");
+
+        assertThat(user).isNotEqualTo(guest);
+        assertThat(user).doesNotContain("token-1");
+        assertThat(etag(page2)).isNotEqualTo(guest);
+        assertThat(etag(get(null))).isEqualTo(guest);
+    }
+
+    @Test
+    public void onlyAnnotatedReadsHandled() throws Exception
+    {
+        MockHttpServletResponse post = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("POST", "/blog/article/list"), post, cached)).isTrue();
+        assertThat(post.getHeader(HttpHeaders.ETAG)).isNull();
+
+        MockHttpServletResponse plain = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(get(null), plain, uncached)).isTrue();
+        assertThat(plain.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(plain.getHeader(HttpHeaders.CACHE_CONTROL)).isNull();
+    }
+
+    private String etag(MockHttpServletRequest request) throws Exception
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, cached);
+        return response.getHeader(HttpHeaders.ETAG);
+    }
+
+    private static MockHttpServletRequest get(String authorization)
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/blog/article/list");
+        if (authorization != null)
+        {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return request;
+    }
+
+    public static class TestController
+    {
+        @HttpCache(value = "blog_article", maxAge = 60)
+        public void list()
+        {
+        }
+
+        public void detail()
+        {
+        }
+    }
+}
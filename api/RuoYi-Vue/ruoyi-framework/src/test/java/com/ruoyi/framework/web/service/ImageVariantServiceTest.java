@@ -0,0 +1,209 @@
+package com.ruoyi.framework.web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.common.config.RuoYiConfig;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.redis.RedisCache;
+
+/**
+ * 上传图片多尺寸处理测试
+ *
+ * 尺寸记录的Redis Hash由内存Map模拟，线程池任务在测试中手动执行
+ *
+ * @author ruoyi
+ */
+public class ImageVariantServiceTest
+{
+    private static final String URL = "/profile/upload/2025/01/01/a.jpg";
+
+    @TempDir
+    Path profile;
+
+    private ImageVariantService service;
+
+    private RedisCache redisCache;
+
+    private CacheVersion cacheVersion;
+
+    /** image_variant Hash */
+    private final Map<String, String> records = new HashMap<String, String>();
+
+    /** 提交到线程池但尚未执行的任务 */
+    private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    @BeforeEach
+    public void setUp()
+    {
+        new RuoYiConfig().setProfile(profile.toString());
+        redisCache = mock(RedisCache.class, invocation -> {
+            Object[] args = invocation.getArguments();
+            switch (invocation.getMethod().getName())
+            {
+                case "setCacheMapValue":
+                    records.put((String) args[1], (String) args[2]);
+                    return null;
+                case "getCacheMapValue":
+                    return records.get(args[1]);
+                case "getMultiCacheMapValue":
+                    List<String> values = new ArrayList<String>();
+                    for (Object hKey : (Collection<?>) args[1])
+                    {
+                        values.add(records.get(hKey));
+                    }
+                    return values;
+                default:
+                    return RETURNS_DEFAULTS.answer(invocation);
+            }
+        });
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> tasks.add(invocation.getArgument(0))).when(executor).execute(any(Runnable.class));
+        service = new ImageVariantService();
+        ReflectionTestUtils.setField(service, "threadPoolTaskExecutor", executor);
+        ReflectionTestUtils.setField(service, "redisCache", redisCache);
+        cacheVersion = mock(CacheVersion.class);
+        ReflectionTestUtils.setField(service, "cacheVersion", cacheVersion);
+    }
+
+    @Test
+    public void uploadGeneratesVariants() throws Exception
+    {
+        File original = writeImage("a.jpg", 1200, 600);
+
+        service.generateVariantsAsync("http://localhost:8080" + URL);
+        service.generateVariantsAsync(URL);
+        assertThat(tasks).hasSize(1);
+        runTasks();
+
+        assertThat(ImageIO.read(new File(original.getParentFile(), "a_thumb.jpg")).getWidth()).isEqualTo(320);
+        assertThat(ImageIO.read(new File(original.getParentFile(), "a_medium.jpg")).getWidth()).isEqualTo(960);
+        assertThat(records.get("/upload/2025/01/01/a.jpg")).startsWith("1200:2:");
+        assertThat(original.getParentFile().list()).noneMatch(name -> name.endsWith(".tmp"));
+        assertThat(service.getSrcset(URL)).isEqualTo(
+                "/profile/upload/2025/01/01/a_thumb.jpg 320w, /profile/upload/2025/01/01/a_medium.jpg 960w, " + URL + " 1200w");
+        // 生成前缓存的列表响应失效
+        verify(cacheVersion).increment(CacheConstants.IMAGE_VARIANT_VERSION);
+    }
+
+    @Test
+    public void onlyDownscales() throws Exception
+    {
+        writeImage("a.jpg", 600, 300);
+
+        service.generateVariantsAsync(URL);
+        runTasks();
+
+        assertThat(records.get("/upload/2025/01/01/a.jpg")).startsWith("600:1:");
+        assertThat(service.getSrcset(URL)).isEqualTo("/profile/upload/2025/01/01/a_thumb.jpg 320w, " + URL + " 600w");
+    }
+
+    @Test
+    public void upperCaseExtensionNormalized() throws Exception
+    {
+        File original = writeImage("B.JPG", 1200, 600);
+
+        service.generateVariantsAsync("/profile/upload/2025/01/01/B.JPG");
+        runTasks();
+
+        assertThat(new File(original.getParentFile(), "B_thumb.jpg")).exists();
+        assertThat(new File(original.getParentFile(), "B_medium.jpg")).exists();
+        assertThat(service.getSrcset("/profile/upload/2025/01/01/B.JPG")).isEqualTo("/profile/upload/2025/01/01/B_thumb.jpg 320w, "
+                + "/profile/upload/2025/01/01/B_medium.jpg 960w, /profile/upload/2025/01/01/B.JPG 1200w");
+    }
+
+    @Test
+    public void oversizedImageNotDecoded() throws Exception
+    {
+        File original = writeImage("a.jpg", 17000, 8);
+
+        service.generateVariantsAsync(URL);
+        runTasks();
+
+        assertThat(records.get("/upload/2025/01/01/a.jpg")).isEqualTo("17000:0:0");
+        verify(cacheVersion, never()).increment(anyString());
+        assertThat(original.getParentFile().list()).containsExactly("a.jpg");
+        assertThat(service.getSrcset(URL)).isNull();
+        assertThat(service.getWebpSrcset(URL)).isNull();
+    }
+
+    @Test
+    public void pathsOutsideUploadIgnored()
+    {
+        service.generateVariantsAsync("/profile/upload/../../a.jpg");
+        service.generateVariantsAsync("/profile/upload/2025/01/01/a.gif");
+        service.generateVariantsAsync("/profile/upload/2025/01/01/a_thumb.jpg");
+
+        assertThat(tasks).isEmpty();
+        assertThat(service.getSrcset("/profile/avatar/a.jpg")).isNull();
+    }
+
+    @Test
+    public void pageRecordsLoadedInOneRead()
+    {
+        records.put("/upload/2025/01/01/a.jpg", "1200:2:1");
+        records.put("/upload/2025/01/01/b.png", "400:1:0");
+
+        service.loadVariants(Arrays.asList(URL, "/profile/upload/2025/01/01/b.png", URL, null, "https://cdn.example.com/c.jpg"));
+
+        verify(redisCache).getMultiCacheMapValue(CacheConstants.IMAGE_VARIANT_KEY,
+                Arrays.<Object>asList("/upload/2025/01/01/a.jpg", "/upload/2025/01/01/b.png"));
+        assertThat(service.getWebpSrcset(URL)).isEqualTo("/profile/upload/2025/01/01/a_thumb.webp 320w, /profile/upload/2025/01/01/a_medium.webp 960w");
+        assertThat(service.getSrcset("/profile/upload/2025/01/01/b.png")).isEqualTo(
+                "/profile/upload/2025/01/01/b_thumb.png 320w, /profile/upload/2025/01/01/b.png 400w");
+        verify(redisCache, never()).getCacheMapValue(anyString(), anyString());
+    }
+
+    @Test
+    public void legacyImageGeneratedOnce() throws Exception
+    {
+        writeImage("a.jpg", 1200, 600);
+
+        assertThat(service.getSrcset(URL)).isNull();
+        assertThat(tasks).hasSize(1);
+        runTasks();
+
+        assertThat(records.get("/upload/2025/01/01/a.jpg")).startsWith("1200:2:");
+        assertThat(service.getSrcset(URL)).endsWith(URL + " 1200w");
+        assertThat(tasks).isEmpty();
+    }
+
+    private File writeImage(String name, int width, int height) throws Exception
+    {
+        File file = profile.resolve("upload/2025/01/01/" + name).toFile();
+        file.getParentFile().mkdirs();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), name.substring(name.lastIndexOf('.') + 1), file);
+        return file;
+    }
+
+    private void runTasks()
+    {
+        List<Runnable> pending = new ArrayList<Runnable>(tasks);
+        tasks.clear();
+        for (Runnable task : pending)
+        {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ruoyi.framework.web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.common.core.domain.model.CompiledPermissions;
+import com.ruoyi.system.mapper.SysMenuMapper;
+
+/**
+ * 权限注册表与预编译权限测试
+ *
+ * @author ruoyi
+ */
+public class PermissionRegistryTest
+{
+    private PermissionRegistry registry;
+
+    @BeforeEach
+    public void setUp()
+    {
+        SysMenuMapper menuMapper = mock(SysMenuMapper.class);
+        when(menuMapper.selectMenuPerms()).thenReturn(Arrays.asList("system:user:list", " system:user:add,system:user:edit ",
+                "system:role:list", "monitor:job:list", "", null));
+        registry = new PermissionRegistry();
+        ReflectionTestUtils.setField(registry, "menuMapper", menuMapper);
+        registry.init();
+    }
+
+    @Test
+    public void registerMenuPerms()
+    {
+        int id = registry.getId("system:user:add");
+
+        assertThat(registry.getId("system:user:edit")).isNotEqualTo(id);
+        assertThat(registry.getId("system:user:add")).isEqualTo(id);
+        assertThat(registry.getId("system:user:list")).isLessThan(5);
+        assertThat(registry.getId("monitor:job:list")).isLessThan(5);
+    }
+
+    @Test
+    public void exactPermissions()
+    {
+        CompiledPermissions compiled = registry.compile(Arrays.asList("system:user:list", " system:role:list "));
+
+        assertThat(has(compiled, "system:user:list")).isTrue();
+        assertThat(has(compiled, "system:role:list")).isTrue();
+        assertThat(has(compiled, "system:user:edit")).isFalse();
+        assertThat(compiled.isAll()).isFalse();
+    }
+
+    @Test
+    public void wildcardExpandsThroughTrie()
+    {
+        CompiledPermissions compiled = registry.compile(Collections.singletonList("system:user:*"));
+
+        assertThat(has(compiled, "system:user:list")).isTrue();
+        assertThat(has(compiled, "system:user:add")).isTrue();
+        assertThat(has(compiled, "system:user:edit")).isTrue();
+        assertThat(has(compiled, "system:role:list")).isFalse();
+        assertThat(has(compiled, "monitor:job:list")).isFalse();
+    }
+
+    @Test
+    public void wildcardMatchesSingleSegment()
+    {
+        CompiledPermissions compiled = registry.compile(Collections.singletonList("*:*:list"));
+
+        assertThat(has(compiled, "system:user:list")).isTrue();
+        assertThat(has(compiled, "monitor:job:list")).isTrue();
+        assertThat(has(compiled, "system:user:add")).isFalse();
+        assertThat(has(compiled, "system:user:list:extra")).isFalse();
+        assertThat(has(compiled, "system:list")).isFalse();
+    }
+
+    @Test
+    public void wildcardMatchesPermissionRegisteredLater()
+    {
+        CompiledPermissions wildcard = registry.compile(Collections.singletonList("system:user:*"));
+        CompiledPermissions exact = registry.compile(Collections.singletonList("system:user:list"));
+
+        assertThat(has(wildcard, "system:user:export")).isTrue();
+        assertThat(has(exact, "system:user:export")).isFalse();
+        assertThat(has(wildcard, "system:dept:export")).isFalse();
+    }
+
+    @Test
+    public void allPermission()
+    {
+        CompiledPermissions compiled = registry.compile(Collections.singletonList("*:*:*"));
+
+        assertThat(compiled.isAll()).isTrue();
+        assertThat(has(compiled, "any:thing:here")).isTrue();
+    }
+
+    @Test
+    public void emptyPermissions()
+    {
+        CompiledPermissions compiled = registry.compile(null);
+
+        assertThat(compiled.isAll()).isFalse();
+        assertThat(has(compiled, "system:user:list")).isFalse();
+        assertThat(has(registry.compile(Arrays.asList("", " ")), "system:user:list")).isFalse();
+    }
+
+    @Test
+    public void matchesSegments()
+    {
+        assertThat(CompiledPermissions.matches(new String[] { "system", "*", "list" }, new String[] { "system", "user", "list" })).isTrue();
+        assertThat(CompiledPermissions.matches(new String[] { "system", "*", "list" }, new String[] { "system", "user", "add" })).isFalse();
+        assertThat(CompiledPermissions.matches(new String[] { "system", "*" }, new String[] { "system", "user", "list" })).isFalse();
+    }
+
+    private boolean has(CompiledPermissions compiled, String permission)
+    {
+        return compiled.has(registry.getId(permission), permission);
+    }
+}
@@ -0,0 +1,148 @@
+package com.ruoyi.framework.web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.common.core.domain.entity.SysUser;
+import com.ruoyi.common.core.domain.model.LoginUser;
+import com.ruoyi.system.service.ISysMenuService;
+import com.ruoyi.system.service.ISysRoleService;
+import com.ruoyi.system.service.ISysUserService;
+
+/**
+ * 在线会话权限刷新测试
+ *
+ * 线程池任务在测试中手动执行
+ *
+ * @author ruoyi
+ */
+public class SysPermissionServiceTest
+{
+    private SysPermissionService service;
+
+    private ISysUserService userService;
+
+    private TokenService tokenService;
+
+    /** 提交到线程池但尚未执行的任务 */
+    private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    @BeforeEach
+    public void setUp()
+    {
+        userService = mock(ISysUserService.class);
+        when(userService.selectUserByUserName(anyString())).thenAnswer(invocation -> user(invocation.getArgument(0)));
+        ISysMenuService menuService = mock(ISysMenuService.class);
+        when(menuService.selectMenuPermsByUserId(any())).thenReturn(new HashSet<String>(Arrays.asList("system:user:list")));
+        tokenService = mock(TokenService.class);
+        when(tokenService.hasLoginUser("admin")).thenReturn(true);
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> tasks.add(invocation.getArgument(0))).when(executor).execute(any(Runnable.class));
+        service = new SysPermissionService();
+        ReflectionTestUtils.setField(service, "roleService", mock(ISysRoleService.class));
+        ReflectionTestUtils.setField(service, "menuService", menuService);
+        ReflectionTestUtils.setField(service, "userService", userService);
+        ReflectionTestUtils.setField(service, "tokenService", tokenService);
+        ReflectionTestUtils.setField(service, "threadPoolTaskExecutor", executor);
+    }
+
+    @Test
+    public void roleRefreshRunsOutsideRequest()
+    {
+        when(userService.selectUserNamesByRoleId(2L)).thenReturn(Arrays.asList("admin", "ry", "admin"));
+
+        service.refreshLoginUsersByRoleId(2L);
+        verify(tokenService, never()).updateLoginUsers(anyString(), any());
+        assertThat(tasks).hasSize(1);
+        runTasks();
+
+        // 去重，且没有在线会话的用户不回库加载
+        verify(tokenService, times(1)).hasLoginUser("admin");
+        verify(userService, times(1)).selectUserByUserName("admin");
+        verify(userService, never()).selectUserByUserName("ry");
+        verify(tokenService, times(1)).updateLoginUsers(eq("admin"), any());
+    }
+
+    @Test
+    public void userRefreshLooksUpNames()
+    {
+        when(userService.selectUserNamesByUserIds(new Long[] { 1L, 2L })).thenReturn(Arrays.asList("admin", "ry"));
+
+        service.refreshLoginUsers(1L, 2L);
+        service.refreshLoginUsers();
+        runTasks();
+
+        verify(userService, times(1)).selectUserNamesByUserIds(any());
+        verify(userService, never()).selectUserById(any());
+        verify(tokenService, times(1)).updateLoginUsers(eq("admin"), any());
+    }
+
+    @Test
+    public void allOnlineUsersReloaded()
+    {
+        when(tokenService.selectOnlineUserNames()).thenReturn(new HashSet<String>(Arrays.asList("admin")));
+        when(userService.selectUserNamesByRoleId(3L)).thenReturn(Collections.<String>emptyList());
+
+        service.refreshAllLoginUsers();
+        service.refreshLoginUsersByRoleId(3L);
+        verify(tokenService, never()).selectOnlineUserNames();
+        assertThat(tasks).hasSize(1);
+        runTasks();
+
+        verify(tokenService).updateLoginUsers(eq("admin"), any());
+    }
+
+    @Test
+    public void sessionsReceiveReloadedPermissions()
+    {
+        when(userService.selectUserNamesByRoleId(2L)).thenReturn(Arrays.asList("admin"));
+        doAnswer(invocation -> {
+            LoginUser loginUser = new LoginUser();
+            invocation.<Consumer<LoginUser>>getArgument(1).accept(loginUser);
+            assertThat(loginUser.getPermissions()).containsExactly("system:user:list");
+            assertThat(loginUser.getDeptId()).isEqualTo(103L);
+            return 1;
+        }).when(tokenService).updateLoginUsers(eq("admin"), any());
+
+        service.refreshLoginUsersByRoleId(2L);
+        runTasks();
+
+        verify(tokenService).updateLoginUsers(eq("admin"), any());
+    }
+
+    private static SysUser user(String userName)
+    {
+        SysUser user = new SysUser();
+        user.setUserId(2L);
+        user.setUserName(userName);
+        user.setDeptId(103L);
+        return user;
+    }
+
+    private void runTasks()
+    {
+        List<Runnable> pending = new ArrayList<Runnable>(tasks);
+        tasks.clear();
+        for (Runnable task : pending)
+        {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,608 @@
+package com.ruoyi.framework.web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.domain.entity.SysUser;
+import com.ruoyi.common.core.domain.model.LoginUser;
+import com.ruoyi.common.core.redis.RedisCache;
+import com.ruoyi.framework.config.RecoverableRedisMessageListenerContainer;
+
+/**
+ * 令牌服务测试
+ *
+ * 会话与在线会话索引存储于内存中模拟的Redis，键的剩余时间单位为秒
+ *
+ * @author ruoyi
+ */
+public class TokenServiceTest
+{
+    /** 会话，key为Redis键 */
+    private final Map<String, LoginUser> sessions = new HashMap<String, LoginUser>();
+
+    /** 会话剩余时间（秒），key为Redis键 */
+    private final Map<String, Long> ttls = new HashMap<String, Long>();
+
+    /** 在线会话索引，key为索引键，值为 令牌 -> 过期时间 */
+    private final Map<String, Map<String, Double>> indexes = new HashMap<String, Map<String, Double>>();
+
+    /** 发布的变更通知 */
+    private final List<Object> published = new ArrayList<Object>();
+
+    private ValueOperations<String, LoginUser> valueOperations;
+
+    private RedisCache redisCache;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private RecoverableRedisMessageListenerContainer listenerContainer;
+
+    private TokenService tokenService;
+
+    @BeforeEach
+    public void setUp()
+    {
+        valueOperations = valueOperations();
+        redisCache = redisCache();
+        stringRedisTemplate = stringRedisTemplate();
+        listenerContainer = mock(RecoverableRedisMessageListenerContainer.class);
+        tokenService = tokenService(10);
+    }
+
+    @Test
+    public void nearCacheHitSkipsRedis()
+    {
+        LoginUser loginUser = loginUser("t1", "admin", "127.0.0.1");
+        tokenService.refreshToken(loginUser);
+
+        assertThat(tokenService.getLoginUserByUuid("t1")).isSameAs(loginUser);
+        assertThat(tokenService.getLoginUserByUuid("t1")).isSameAs(loginUser);
+
+        verify(valueOperations, never()).get(any());
+        verify(redisCache, never()).getExpire(anyString());
+    }
+
+    @Test
+    public void readThroughUsesRemainingTtl()
+    {
+        sessions.put(key("t1"), loginUser("t1", "admin", "127.0.0.1"));
+        ttls.put(key("t1"), 600L);
+
+        LoginUser loaded = tokenService.getLoginUserByUuid("t1");
+
+        assertThat(loaded.getExpireTime() - System.currentTimeMillis()).isBetween(590 * 1000L, 600 * 1000L);
+    }
+
+    @Test
+    public void nearCacheReadsThroughOnce()
+    {
+        sessions.put(key("t1"), loginUser("t1", "admin", "127.0.0.1"));
+        ttls.put(key("t1"), 600L);
+
+        assertThat(tokenService.getLoginUserByUuid("t1")).isNotNull();
+        assertThat(tokenService.getLoginUserByUuid("t1")).isNotNull();
+
+        verify(valueOperations, times(1)).get(key("t1"));
+    }
+
+    @Test
+    public void subscriptionRecoveryClearsNearCache()
+    {
+        tokenService.refreshToken(loginUser("t1", "admin", "127.0.0.1"));
+        // 订阅断开期间其他节点退出登录，变更通知丢失
+        sessions.remove(key("t1"));
+        ttls.remove(key("t1"));
+
+        recoveryCallback().run();
+
+        assertThat(tokenService.getLoginUserByUuid("t1")).isNull();
+        assertThat(tokenService.getLoginUserByUuid("t1")).isNull();
+        verify(valueOperations, times(2)).get(key("t1"));
+    }
+
+    @Test
+    public void changeNotificationEvictsNearCache()
+    {
+        tokenService.refreshToken(loginUser("t1", "admin", "127.0.0.1"));
+        tokenService.refreshToken(loginUser("t2", "ry", "127.0.0.1"));
+        MessageListener listener = listener();
+        // 其他节点修改了会话
+        LoginUser changed = loginUser("t1", "admin", "127.0.0.1");
+        sessions.put(key("t1"), changed);
+
+        listener.onMessage(message("t1"), null);
+        assertThat(tokenService.getLoginUserByUuid("t1")).isSameAs(changed);
+        assertThat(tokenService.getLoginUserByUuid("t2")).isNotNull();
+        verify(valueOperations, never()).get(key("t2"));
+
+        listener.onMessage(message("*"), null);
+        tokenService.getLoginUserByUuid("t2");
+        verify(valueOperations, times(1)).get(key("t2"));
+    }
+
+    @Test
+    public void setLoginUserNotifiesOtherNodes()
+    {
+        LoginUser loginUser = loginUser("t1", "admin", "127.0.0.1");
+
+        tokenService.setLoginUser(loginUser);
+
+        assertThat(sessions).containsEntry(key("t1"), loginUser);
+        assertThat(published).containsExactly("t1");
+    }
+
+    @Test
+    public void nearCacheDisabled()
+    {
+        TokenService service = tokenService(0);
+        sessions.put(key("t1"), loginUser("t1", "admin", "127.0.0.1"));
+        ttls.put(key("t1"), 600L);
+
+        service.getLoginUserByUuid("t1");
+        service.getLoginUserByUuid("t1");
+        service.setLoginUser(sessions.get(key("t1")));
+
+        verify(valueOperations, times(2)).get(key("t1"));
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    public void verifyTokenExtendsTtlWithoutRewrite()
+    {
+        LoginUser loginUser = loginUser("t1", "admin", "127.0.0.1");
+        tokenService.refreshToken(loginUser);
+        ttls.put(key("t1"), 600L);
+        loginUser.setExpireTime(System.currentTimeMillis() + 600 * 1000L);
+
+        tokenService.verifyToken(loginUser);
+        tokenService.verifyToken(loginUser);
+
+        assertThat(ttls.get(key("t1"))).isEqualTo(1800L);
+        assertThat(loginUser.getExpireTime() - System.currentTimeMillis()).isGreaterThan(1790 * 1000L);
+        assertThat(indexes.get(userIndex("admin")).get("t1")).isEqualTo(loginUser.getExpireTime().doubleValue());
+        verify(redisCache, times(1)).expire(anyString(), anyLong(), any(TimeUnit.class));
+        verify(valueOperations, times(1)).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    public void verifyTokenSkipsFreshToken()
+    {
+        LoginUser loginUser = loginUser("t1", "admin", "127.0.0.1");
+        tokenService.refreshToken(loginUser);
+
+        tokenService.verifyToken(loginUser);
+
+        verify(redisCache, never()).expire(anyString(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void verifyTokenRewritesDirtyUser()
+    {
+        LoginUser loginUser = loginUser("t1", "admin", "127.0.0.1");
+        tokenService.refreshToken(loginUser);
+        loginUser.setDirty(true);
+
+        tokenService.verifyToken(loginUser);
+
+        assertThat(loginUser.isDirty()).isFalse();
+        verify(valueOperations, times(2)).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+        assertThat(published).containsExactly("t1");
+    }
+
+    @Test
+    public void verifyTokenDoesNotRestoreDeletedToken()
+    {
+        LoginUser loginUser = loginUser("t1", "admin", "127.0.0.1");
+        tokenService.refreshToken(loginUser);
+        sessions.remove(key("t1"));
+        ttls.remove(key("t1"));
+        loginUser.setExpireTime(System.currentTimeMillis() + 600 * 1000L);
+
+        tokenService.verifyToken(loginUser);
+
+        assertThat(sessions).doesNotContainKey(key("t1"));
+        assertThat(tokenService.getLoginUserByUuid("t1")).isNull();
+    }
+
+    @Test
+    public void updateLoginUsersKeepsRemainingTtl()
+    {
+        tokenService.refreshToken(loginUser("t1", "admin", "127.0.0.1"));
+        tokenService.refreshToken(loginUser("t2", "admin", "127.0.0.2"));
+        tokenService.refreshToken(loginUser("t3", "ry", "127.0.0.1"));
+        ttls.put(key("t1"), 900L);
+        // t2 已过期，索引尚未清理
+        sessions.remove(key("t2"));
+        ttls.remove(key("t2"));
+
+        int updated = tokenService.updateLoginUsers("admin", loginUser -> loginUser.setPermissions(Collections.singleton("*:*:*")));
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(sessions.get(key("t1")).getPermissions()).containsExactly("*:*:*");
+        assertThat(ttls.get(key("t1"))).isEqualTo(900L);
+        assertThat(sessions).doesNotContainKey(key("t2"));
+        assertThat(sessions.get(key("t3")).getPermissions()).containsExactly("system:user:list");
+        assertThat(published).containsExactly("t1");
+        assertThat(tokenService.getLoginUserByUuid("t1").getPermissions()).containsExactly("*:*:*");
+    }
+
+    @Test
+    public void updateLoginUsersDoesNotRestoreLoggedOutSession()
+    {
+        tokenService.refreshToken(loginUser("t1", "admin", "127.0.0.1"));
+
+        // 修改期间会话被并发删除
+        int updated = tokenService.updateLoginUsers("admin", loginUser -> sessions.remove(key("t1")));
+
+        assertThat(updated).isZero();
+        assertThat(sessions).doesNotContainKey(key("t1"));
+        assertThat(tokenService.updateLoginUsers("nobody", loginUser -> {})).isZero();
+        assertThat(tokenService.updateLoginUsers(null, loginUser -> {})).isZero();
+    }
+
+    @Test
+    public void onlineUsersOrderedByExpiry()
+    {
+        addOnlineSessions();
+
+        assertThat(tokens(tokenService.selectOnlineLoginUsers(null, null, 0, 0))).containsExactly("t3", "t2", "t1");
+        assertThat(tokens(tokenService.selectOnlineLoginUsers("127.0.0.2", null, 0, 0))).containsExactly("t3", "t2");
+        assertThat(tokens(tokenService.selectOnlineLoginUsers(null, "admin", 0, 0))).containsExactly("t3", "t1");
+        // 登录地址优先于用户名
+        assertThat(tokens(tokenService.selectOnlineLoginUsers("127.0.0.1", "ry", 0, 0))).containsExactly("t1");
+        assertThat(tokens(tokenService.selectOnlineLoginUsers(null, null, 1, 1))).containsExactly("t2");
+        assertThat(tokenService.selectOnlineUserNames()).containsExactlyInAnyOrder("admin", "ry");
+    }
+
+    @Test
+    public void hasLoginUserReadsUserIndex()
+    {
+        addOnlineSessions();
+        indexes.get(userIndex("ry")).put("t2", 1000D);
+
+        assertThat(tokenService.hasLoginUser("admin")).isTrue();
+        assertThat(tokenService.hasLoginUser("ry")).isFalse();
+        assertThat(tokenService.hasLoginUser("nobody")).isFalse();
+        assertThat(tokenService.hasLoginUser(null)).isFalse();
+        verify(valueOperations, never()).get(any());
+    }
+
+    @Test
+    public void staleIndexEntriesRemoved()
+    {
+        addOnlineSessions();
+        sessions.remove(key("t2"));
+        indexes.get(allIndex()).put("t0", 1000D);
+
+        assertThat(tokenService.countOnlineLoginUsers(null, null)).isEqualTo(3);
+        assertThat(indexes.get(allIndex())).doesNotContainKey("t0");
+        assertThat(tokens(tokenService.selectOnlineLoginUsers(null, null, 0, 0))).containsExactly("t3", "t1");
+        assertThat(indexes.get(allIndex())).containsOnlyKeys("t1", "t3");
+        assertThat(tokenService.countOnlineLoginUsers(null, "admin")).isEqualTo(2);
+    }
+
+    @Test
+    public void delLoginUserByUserNameCleansIndexes()
+    {
+        addOnlineSessions();
+
+        assertThat(tokenService.delLoginUserByUserName("admin")).isEqualTo(2);
+
+        assertThat(sessions).containsOnlyKeys(key("t2"));
+        assertThat(indexes.get(userIndex("admin"))).isEmpty();
+        assertThat(indexes.get(allIndex())).containsOnlyKeys("t2");
+        assertThat(indexes.get(ipIndex("127.0.0.1"))).isEmpty();
+        assertThat(indexes.get(ipIndex("127.0.0.2"))).containsOnlyKeys("t2");
+        assertThat(published).containsExactlyInAnyOrder("t1", "t3");
+        assertThat(tokenService.getLoginUserByUuid("t1")).isNull();
+        assertThat(tokenService.delLoginUserByUserName("admin")).isZero();
+        assertThat(tokenService.delLoginUserByUserName("")).isZero();
+    }
+
+    @Test
+    public void delLoginUserCleansIndexes()
+    {
+        addOnlineSessions();
+
+        tokenService.delLoginUser("t2");
+
+        assertThat(sessions).doesNotContainKey(key("t2"));
+        assertThat(indexes.get(allIndex())).containsOnlyKeys("t1", "t3");
+        assertThat(indexes.get(userIndex("ry"))).isEmpty();
+        assertThat(indexes.get(ipIndex("127.0.0.2"))).containsOnlyKeys("t3");
+        assertThat(published).containsExactly("t2");
+        assertThat(tokenService.getLoginUserByUuid("t2")).isNull();
+    }
+
+    /**
+     * t1(admin, 127.0.0.1) 30分钟，t2(ry, 127.0.0.2) 40分钟，t3(admin, 127.0.0.2) 50分钟
+     */
+    private void addOnlineSessions()
+    {
+        ReflectionTestUtils.setField(tokenService, "expireTime", 30);
+        tokenService.refreshToken(loginUser("t1", "admin", "127.0.0.1"));
+        ReflectionTestUtils.setField(tokenService, "expireTime", 40);
+        tokenService.refreshToken(loginUser("t2", "ry", "127.0.0.2"));
+        ReflectionTestUtils.setField(tokenService, "expireTime", 50);
+        tokenService.refreshToken(loginUser("t3", "admin", "127.0.0.2"));
+        ReflectionTestUtils.setField(tokenService, "expireTime", 30);
+    }
+
+    private static List<String> tokens(List<LoginUser> loginUsers)
+    {
+        List<String> tokens = new ArrayList<String>();
+        for (LoginUser loginUser : loginUsers)
+        {
+            tokens.add(loginUser.getToken());
+        }
+        return tokens;
+    }
+
+    private TokenService tokenService(int localCacheExpireSeconds)
+    {
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, LoginUser> sessionRedisTemplate = mock(RedisTemplate.class);
+        when(sessionRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        TokenService service = new TokenService();
+        ReflectionTestUtils.setField(service, "header", "Authorization");
+        ReflectionTestUtils.setField(service, "secret", "test-secret");
+        ReflectionTestUtils.setField(service, "expireTime", 30);
+        ReflectionTestUtils.setField(service, "localCacheMaxSize", 100);
+        ReflectionTestUtils.setField(service, "localCacheExpireSeconds", localCacheExpireSeconds);
+        ReflectionTestUtils.setField(service, "refreshInterval", 60);
+        ReflectionTestUtils.setField(service, "redisCache", redisCache);
+        ReflectionTestUtils.setField(service, "sessionRedisTemplate", sessionRedisTemplate);
+        ReflectionTestUtils.setField(service, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(service, "redisMessageListenerContainer", listenerContainer);
+        service.init();
+        return service;
+    }
+
+    /**
+     * 基于内存的会话读写
+     */
+    @SuppressWarnings("unchecked")
+    private ValueOperations<String, LoginUser> valueOperations()
+    {
+        return mock(ValueOperations.class, invocation -> {
+            Object[] args = invocation.getArguments();
+            switch (invocation.getMethod().getName())
+            {
+                case "get":
+                    return sessions.get(args[0]);
+                case "set":
+                    sessions.put((String) args[0], (LoginUser) args[1]);
+                    ttls.put((String) args[0], ((TimeUnit) args[3]).toSeconds((Long) args[2]));
+                    return null;
+                case "setIfPresent":
+                    if (!sessions.containsKey(args[0]))
+                    {
+                        return false;
+                    }
+                    sessions.put((String) args[0], (LoginUser) args[1]);
+                    ttls.put((String) args[0], ((TimeUnit) args[3]).toSeconds((Long) args[2]));
+                    return true;
+                case "multiGet":
+                    List<LoginUser> users = new ArrayList<LoginUser>();
+                    for (Object key : (Iterable<Object>) args[0])
+                    {
+                        users.add(sessions.get(key));
+                    }
+                    return users;
+                default:
+                    return RETURNS_DEFAULTS.answer(invocation);
+            }
+        });
+    }
+
+    /**
+     * 基于内存的过期时间、删除与消息发布
+     */
+    @SuppressWarnings("unchecked")
+    private RedisCache redisCache()
+    {
+        RedisCache cache = mock(RedisCache.class, invocation -> {
+            Object[] args = invocation.getArguments();
+            switch (invocation.getMethod().getName())
+            {
+                case "getExpire":
+                    return ttls.getOrDefault(args[0], -2L);
+                case "expire":
+                    if (!sessions.containsKey(args[0]))
+                    {
+                        return false;
+                    }
+                    ttls.put((String) args[0], ((TimeUnit) args[2]).toSeconds((Long) args[1]));
+                    return true;
+                case "deleteObject":
+                    ttls.remove(args[0]);
+                    return sessions.remove(args[0]) != null;
+                case "unlink":
+                    long count = 0;
+                    for (String key : (Iterable<String>) args[0])
+                    {
+                        ttls.remove(key);
+                        count += sessions.remove(key) != null ? 1 : 0;
+                    }
+                    return count;
+                case "publish":
+                    published.add(args[1]);
+                    return null;
+                default:
+                    return RETURNS_DEFAULTS.answer(invocation);
+            }
+        });
+        RedisTemplate<Object, Object> template = mock(RedisTemplate.class);
+        doReturn(new StringRedisSerializer()).when(template).getValueSerializer();
+        cache.redisTemplate = template;
+        return cache;
+    }
+
+    /**
+     * 管道中的命令直接执行，有序集合操作基于内存
+     */
+    @SuppressWarnings("unchecked")
+    private StringRedisTemplate stringRedisTemplate()
+    {
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        ZSetOperations<String, String> zSetOperations = mock(ZSetOperations.class, invocation -> {
+            Object[] args = invocation.getArguments();
+            if (args.length == 0)
+            {
+                return RETURNS_DEFAULTS.answer(invocation);
+            }
+            Map<String, Double> index = indexes.computeIfAbsent((String) args[0], k -> new HashMap<String, Double>());
+            switch (invocation.getMethod().getName())
+            {
+                case "add":
+                    return index.put((String) args[1], (Double) args[2]) == null;
+                case "remove":
+                    long removed = 0;
+                    for (Object member : members(args))
+                    {
+                        removed += index.remove(member) != null ? 1 : 0;
+                    }
+                    return removed;
+                case "range":
+                    return range(index, (Long) args[1], (Long) args[2], false);
+                case "reverseRange":
+                    return range(index, (Long) args[1], (Long) args[2], true);
+                case "removeRangeByScore":
+                    long expired = index.values().stream().filter(score -> score >= (Double) args[1] && score <= (Double) args[2]).count();
+                    index.values().removeIf(score -> score >= (Double) args[1] && score <= (Double) args[2]);
+                    return expired;
+                case "zCard":
+                    return (long) index.size();
+                case "count":
+                    return index.values().stream().filter(score -> score >= (Double) args[1] && score <= (Double) args[2]).count();
+                default:
+                    return RETURNS_DEFAULTS.answer(invocation);
+            }
+        });
+        when(template.opsForZSet()).thenReturn(zSetOperations);
+        when(template.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            ((SessionCallback<Object>) invocation.getArgument(0)).execute(template);
+            return Collections.emptyList();
+        });
+        return template;
+    }
+
+    /**
+     * 按分值排序后截取，end为-1表示到末尾
+     */
+    private static Set<String> range(Map<String, Double> index, long start, long end, boolean reverse)
+    {
+        List<Map.Entry<String, Double>> entries = new ArrayList<Map.Entry<String, Double>>(index.entrySet());
+        Comparator<Map.Entry<String, Double>> comparator = Map.Entry.comparingByValue();
+        entries.sort(reverse ? comparator.reversed() : comparator);
+        Set<String> tokens = new LinkedHashSet<String>();
+        long last = end < 0 ? entries.size() - 1 : Math.min(end, entries.size() - 1);
+        for (long i = start; i <= last; i++)
+        {
+            tokens.add(entries.get((int) i).getKey());
+        }
+        return tokens;
+    }
+
+    /**
+     * 可变参数的成员，兼容展开与未展开两种形式
+     */
+    private static List<Object> members(Object[] args)
+    {
+        List<Object> members = new ArrayList<Object>();
+        for (int i = 1; i < args.length; i++)
+        {
+            if (args[i] instanceof Object[])
+            {
+                Collections.addAll(members, (Object[]) args[i]);
+            }
+            else
+            {
+                members.add(args[i]);
+            }
+        }
+        return members;
+    }
+
+    private MessageListener listener()
+    {
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), any(Topic.class));
+        return listener.getValue();
+    }
+
+    private Runnable recoveryCallback()
+    {
+        ArgumentCaptor<Runnable> callback = ArgumentCaptor.forClass(Runnable.class);
+        verify(listenerContainer).addRecoveryCallback(callback.capture());
+        return callback.getValue();
+    }
+
+    private static DefaultMessage message(String uuid)
+    {
+        return new DefaultMessage(CacheConstants.LOGIN_TOKEN_CHANNEL.getBytes(StandardCharsets.UTF_8), uuid.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static LoginUser loginUser(String token, String userName, String ipaddr)
+    {
+        SysUser user = new SysUser();
+        user.setUserName(userName);
+        LoginUser loginUser = new LoginUser(1L, 100L, user, Collections.singleton("system:user:list"));
+        loginUser.setToken(token);
+        loginUser.setIpaddr(ipaddr);
+        return loginUser;
+    }
+
+    private static String key(String token)
+    {
+        return CacheConstants.LOGIN_TOKEN_KEY + token;
+    }
+
+    private static String userIndex(String userName)
+    {
+        return CacheConstants.LOGIN_TOKEN_INDEX_KEY + "user:" + userName;
+    }
+
+    private static String ipIndex(String ipaddr)
+    {
+        return CacheConstants.LOGIN_TOKEN_INDEX_KEY + "ip:" + ipaddr;
+    }
+
+    private static String allIndex()
+    {
+        return CacheConstants.LOGIN_TOKEN_INDEX_KEY + "all";
+    }
+}
@@ -0,0 +1,45 @@
+package com.ruoyi.system.mapper;
+
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 部门层级闭包表 数据层
+ * 
+ * @author ruoyi
+ */
+public interface SysDeptClosureMapper
+{
+    /**
+     * 新增部门的闭包关系（自身及全部上级）
+     * 
+     * @param deptId 部门ID
+     * @param parentId 父部门ID
+     * @return 结果
+     */
+    public int insertDeptClosure(@Param("deptId") Long deptId, @Param("parentId") Long parentId);
+
+    /**
+     * 断开部门子树与原上级部门的关系，子树内部关系保持不变
+     * 
+     * @param deptId 子树根部门ID
+     * @return 结果
+     */
+    public int deleteDeptClosureLinks(Long deptId);
+
+    /**
+     * 将部门子树挂到新的上级部门下
+     * 
+     * @param deptId 子树根部门ID
+     * @param parentId 新的父部门ID
+     * @return 结果
+     */
+    public int insertDeptClosureLinks(@Param("deptId") Long deptId, @Param("parentId") Long parentId);
+
+    /**
+     * 删除部门的闭包关系
+     * 
+     * @param deptId 部门ID
+     * @return 结果
+     */
+    public int deleteDeptClosureByDeptId(Long deptId);
+}
@@ -37,20 +37,11 @@ public interface SysDeptMapper
     public SysDept selectDeptById(Long deptId);
 
     /**
-     * 根据ID查询所有子部门
+     * 查询全部部门的层级信息
      * 
-     * @param deptId 部门ID
-     * @return 部门列表
-     */
-    public List<SysDept> selectChildrenDeptById(Long deptId);
-
-    /**
-     * 根据ID查询所有子部门（正常状态）
-     * 
-     * @param deptId 部门ID
-     * @return 子部门数
+     * @return 部门列表，仅含部门ID、父部门ID、名称、显示顺序与状态
      */
-    public int selectNormalChildrenDeptById(Long deptId);
+    public List<SysDept> selectDeptHierarchy();
 
     /**
      * 是否存在子节点
@@ -101,12 +92,14 @@ public interface SysDeptMapper
     public void updateDeptStatusNormal(Long[] deptIds);
 
     /**
-     * 修改子元素关系
+     * 批量修改下级部门的祖级列表，单条语句但逐行改写整棵子树，写入量与子树规模成正比
      * 
-     * @param depts 子元素
+     * @param deptId 被移动的部门ID
+     * @param newAncestors 新的祖级列表
+     * @param oldAncestors 旧的祖级列表
      * @return 结果
      */
-    public int updateDeptChildren(@Param("depts") List<SysDept> depts);
+    public int updateDeptChildrenAncestors(@Param("deptId") Long deptId, @Param("newAncestors") String newAncestors, @Param("oldAncestors") String oldAncestors);
 
     /**
      * 删除部门管理信息
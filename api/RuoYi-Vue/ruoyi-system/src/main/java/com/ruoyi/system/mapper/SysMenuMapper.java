@@ -65,6 +65,14 @@ public interface SysMenuMapper
      */
     public List<SysMenu> selectMenuTreeByUserId(Long userId);
 
+    /**
+     * 根据角色ID查询菜单
+     *
+     * @param roleIds 角色ID组
+     * @return 菜单列表
+     */
+    public List<SysMenu> selectMenuTreeByRoleIds(@Param("roleIds") List<Long> roleIds);
+
     /**
      * 根据角色ID查询菜单树信息
      * 
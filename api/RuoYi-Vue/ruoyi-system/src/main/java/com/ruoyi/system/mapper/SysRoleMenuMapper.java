@@ -1,6 +1,7 @@
 package com.ruoyi.system.mapper;
 
 import java.util.List;
+import org.apache.ibatis.annotations.Param;
 import com.ruoyi.system.domain.SysRoleMenu;
 
 /**
@@ -41,4 +42,21 @@ public interface SysRoleMenuMapper
      * @return 结果
      */
     public int batchRoleMenu(List<SysRoleMenu> roleMenuList);
+
+    /**
+     * 查询角色已关联的菜单ID并加锁
+     * 
+     * @param roleId 角色ID
+     * @return 菜单ID集合
+     */
+    public List<Long> selectMenuIdsByRoleId(Long roleId);
+
+    /**
+     * 删除角色与指定菜单的关联
+     * 
+     * @param roleId 角色ID
+     * @param menuIds 需要删除的菜单ID
+     * @return 结果
+     */
+    public int deleteRoleMenuByMenuIds(@Param("roleId") Long roleId, @Param("menuIds") List<Long> menuIds);
 }
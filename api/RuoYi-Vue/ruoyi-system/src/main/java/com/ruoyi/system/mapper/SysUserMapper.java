@@ -52,6 +52,14 @@ public interface SysUserMapper
      */
     public SysUser selectUserById(Long userId);
 
+    /**
+     * 通过用户ID查询用户名
+     * 
+     * @param userIds 用户ID
+     * @return 用户名集合
+     */
+    public List<String> selectUserNamesByIds(Long[] userIds);
+
     /**
      * 新增用户信息
      * 
@@ -1,6 +1,7 @@
 package com.ruoyi.system.mapper;
 
 import java.util.List;
+import org.apache.ibatis.annotations.Param;
 import com.ruoyi.system.domain.SysUserPost;
 
 /**
@@ -41,4 +42,21 @@ public interface SysUserPostMapper
      * @return 结果
      */
     public int batchUserPost(List<SysUserPost> userPostList);
+
+    /**
+     * 查询用户已关联的岗位ID并加锁
+     * 
+     * @param userId 用户ID
+     * @return 岗位ID集合
+     */
+    public List<Long> selectPostIdsByUserId(Long userId);
+
+    /**
+     * 删除用户与指定岗位的关联
+     * 
+     * @param userId 用户ID
+     * @param postIds 需要删除的岗位ID
+     * @return 结果
+     */
+    public int deleteUserPostByPostIds(@Param("userId") Long userId, @Param("postIds") List<Long> postIds);
 }
@@ -59,4 +59,37 @@ public interface SysUserRoleMapper
      * @return 结果
      */
     public int deleteUserRoleInfos(@Param("roleId") Long roleId, @Param("userIds") Long[] userIds);
+
+    /**
+     * 查询用户已关联的角色ID并加锁
+     * 
+     * @param userId 用户ID
+     * @return 角色ID集合
+     */
+    public List<Long> selectRoleIdsByUserId(Long userId);
+
+    /**
+     * 查询用户已关联的正常状态角色ID
+     * 
+     * @param userId 用户ID
+     * @return 角色ID集合，按ID升序
+     */
+    public List<Long> selectNormalRoleIdsByUserId(Long userId);
+
+    /**
+     * 查询关联了角色的用户名
+     * 
+     * @param roleId 角色ID
+     * @return 用户名集合
+     */
+    public List<String> selectUserNamesByRoleId(Long roleId);
+
+    /**
+     * 删除用户与指定角色的关联
+     * 
+     * @param userId 用户ID
+     * @param roleIds 需要删除的角色ID
+     * @return 结果
+     */
+    public int deleteUserRoleByRoleIds(@Param("userId") Long userId, @Param("roleIds") List<Long> roleIds);
 }
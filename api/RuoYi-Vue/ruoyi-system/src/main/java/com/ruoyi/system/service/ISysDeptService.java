@@ -51,6 +51,14 @@ public interface ISysDeptService
      */
     public List<Long> selectDeptListByRoleId(Long roleId);
 
+    /**
+     * 查询部门及其全部下级部门ID
+     * 
+     * @param deptId 部门ID
+     * @return 部门ID列表，包含自身
+     */
+    public List<Long> selectDeptAndChildIds(Long deptId);
+
     /**
      * 根据部门ID查询信息
      * 
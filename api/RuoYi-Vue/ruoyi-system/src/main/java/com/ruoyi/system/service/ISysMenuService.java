@@ -54,6 +54,14 @@ public interface ISysMenuService
      */
     public List<SysMenu> selectMenuTreeByUserId(Long userId);
 
+    /**
+     * 根据用户ID查询前端路由，相同角色组合共用缓存
+     * 
+     * @param userId 用户ID
+     * @return 路由列表的JSON
+     */
+    public String selectRouterJsonByUserId(Long userId);
+
     /**
      * 根据角色ID查询菜单树信息
      * 
@@ -51,6 +51,22 @@ public interface ISysUserService
      */
     public SysUser selectUserById(Long userId);
 
+    /**
+     * 查询关联了角色的用户名，不受数据权限限制
+     * 
+     * @param roleId 角色ID
+     * @return 用户名集合
+     */
+    public List<String> selectUserNamesByRoleId(Long roleId);
+
+    /**
+     * 通过用户ID查询用户名，不受数据权限限制
+     * 
+     * @param userIds 用户ID
+     * @return 用户名集合
+     */
+    public List<String> selectUserNamesByUserIds(Long[] userIds);
+
     /**
      * 根据用户ID查询用户所属角色组
      * 
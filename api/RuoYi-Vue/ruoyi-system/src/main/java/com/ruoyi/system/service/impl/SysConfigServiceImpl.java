@@ -1,6 +1,5 @@
 package com.ruoyi.system.service.impl;
 
-import java.util.Collection;
 import java.util.List;
 import javax.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -187,8 +186,7 @@ public class SysConfigServiceImpl implements ISysConfigService
     @Override
     public void clearConfigCache()
     {
-        Collection<String> keys = redisCache.keys(CacheConstants.SYS_CONFIG_KEY + "*");
-        redisCache.deleteObject(keys);
+        redisCache.deleteByPattern(CacheConstants.SYS_CONFIG_KEY + "*");
     }
 
     /**
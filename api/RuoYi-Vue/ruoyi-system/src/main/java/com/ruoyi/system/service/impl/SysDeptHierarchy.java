@@ -0,0 +1,261 @@
+package com.ruoyi.system.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.constant.UserConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.domain.TreeSelect;
+import com.ruoyi.common.core.domain.entity.SysDept;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.system.mapper.SysDeptMapper;
+
+/**
+ * 部门层级快照
+ *
+ * 全部部门按先序遍历存为不可变快照，子树即先序序列中的连续区间，上下级判断只需比较区间；
+ * 部门变更后递增版本号，各节点发现版本变化时整体重建并替换快照
+ *
+ * @author ruoyi
+ */
+@Component
+public class SysDeptHierarchy
+{
+    @Autowired
+    private SysDeptMapper deptMapper;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 查询部门及其全部下级部门ID
+     *
+     * @param deptId 部门ID
+     * @return 部门ID列表，包含自身，按先序排列
+     */
+    public List<Long> selectDeptAndChildIds(Long deptId)
+    {
+        Snapshot current = getSnapshot();
+        Integer index = current.indexes.get(deptId);
+        if (index == null)
+        {
+            return new ArrayList<Long>(Collections.singletonList(deptId));
+        }
+        List<Long> deptIds = new ArrayList<Long>(current.ends[index] - index);
+        for (int i = index; i < current.ends[index]; i++)
+        {
+            deptIds.add(current.nodes[i].getDeptId());
+        }
+        return deptIds;
+    }
+
+    /**
+     * 判断部门是否为指定部门本身或其下级
+     *
+     * @param ancestorId 上级部门ID
+     * @param deptId 部门ID
+     * @return 结果
+     */
+    public boolean isDeptOrChild(Long ancestorId, Long deptId)
+    {
+        Snapshot current = getSnapshot();
+        Integer ancestor = current.indexes.get(ancestorId);
+        Integer index = current.indexes.get(deptId);
+        if (ancestor == null || index == null)
+        {
+            return StringUtils.isNotNull(deptId) && deptId.equals(ancestorId);
+        }
+        return ancestor <= index && index < current.ends[ancestor];
+    }
+
+    /**
+     * 统计正常状态的下级部门数量
+     *
+     * @param deptId 部门ID
+     * @return 下级部门数
+     */
+    public int countNormalChildren(Long deptId)
+    {
+        Snapshot current = getSnapshot();
+        Integer index = current.indexes.get(deptId);
+        if (index == null)
+        {
+            return 0;
+        }
+        int count = 0;
+        for (int i = index + 1; i < current.ends[index]; i++)
+        {
+            if (UserConstants.DEPT_NORMAL.equals(current.nodes[i].getStatus()))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 获取全部部门的下拉树
+     *
+     * @return 下拉树，随快照一起构建，调用方不得修改
+     */
+    public List<TreeSelect> getDeptTreeSelect()
+    {
+        return getSnapshot().treeSelects;
+    }
+
+    /**
+     * 按快照中的先序顺序将部门列表组装为树
+     *
+     * @param depts 部门列表
+     * @return 顶级部门列表
+     */
+    public List<SysDept> buildDeptTree(List<SysDept> depts)
+    {
+        Snapshot current = getSnapshot();
+        List<SysDept> sorted = new ArrayList<SysDept>(depts);
+        sorted.sort((a, b) -> Integer.compare(current.indexOf(a.getDeptId()), current.indexOf(b.getDeptId())));
+        Map<Long, SysDept> deptMap = new HashMap<Long, SysDept>(sorted.size() * 2);
+        for (SysDept dept : sorted)
+        {
+            dept.setChildren(new ArrayList<SysDept>());
+            deptMap.put(dept.getDeptId(), dept);
+        }
+        List<SysDept> returnList = new ArrayList<SysDept>();
+        for (SysDept dept : sorted)
+        {
+            SysDept parent = deptMap.get(dept.getParentId());
+            if (parent != null && parent != dept)
+            {
+                parent.getChildren().add(dept);
+            }
+            else
+            {
+                returnList.add(dept);
+            }
+        }
+        return returnList;
+    }
+
+    /**
+     * 获取当前快照，版本号变化后重建
+     */
+    private Snapshot getSnapshot()
+    {
+        long version = cacheVersion.get(CacheConstants.DEPT_VERSION);
+        Snapshot current = snapshot;
+        if (current == null || current.version != version)
+        {
+            synchronized (this)
+            {
+                current = snapshot;
+                if (current == null || current.version != version)
+                {
+                    current = new Snapshot(version, deptMapper.selectDeptHierarchy());
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 不可变的部门层级快照
+     */
+    private static class Snapshot
+    {
+        private final long version;
+
+        /** 先序排列的部门 */
+        private final SysDept[] nodes;
+
+        /** 子树在先序序列中的结束位置（不含） */
+        private final int[] ends;
+
+        /** 部门ID -> 先序位置 */
+        private final Map<Long, Integer> indexes;
+
+        private final List<TreeSelect> treeSelects;
+
+        Snapshot(long version, List<SysDept> depts)
+        {
+            this.version = version;
+            Map<Long, List<SysDept>> children = new HashMap<Long, List<SysDept>>();
+            Map<Long, SysDept> deptMap = new LinkedHashMap<Long, SysDept>();
+            for (SysDept dept : depts)
+            {
+                deptMap.put(dept.getDeptId(), dept);
+            }
+            List<SysDept> roots = new ArrayList<SysDept>();
+            for (SysDept dept : depts)
+            {
+                if (deptMap.containsKey(dept.getParentId()) && !dept.getParentId().equals(dept.getDeptId()))
+                {
+                    children.computeIfAbsent(dept.getParentId(), k -> new ArrayList<SysDept>()).add(dept);
+                }
+                else
+                {
+                    roots.add(dept);
+                }
+            }
+            this.nodes = new SysDept[deptMap.size()];
+            this.ends = new int[deptMap.size()];
+            this.indexes = new HashMap<Long, Integer>(deptMap.size() * 2);
+            this.treeSelects = new ArrayList<TreeSelect>();
+            int position = 0;
+            for (SysDept root : roots)
+            {
+                position = visit(root, children, position, treeSelects);
+            }
+            // 成环的部门不会从任何顶级部门到达，作为顶级部门追加
+            for (SysDept dept : deptMap.values())
+            {
+                if (!indexes.containsKey(dept.getDeptId()))
+                {
+                    position = visit(dept, children, position, treeSelects);
+                }
+            }
+        }
+
+        /**
+         * 先序遍历，返回子树结束位置
+         */
+        private int visit(SysDept dept, Map<Long, List<SysDept>> children, int position, List<TreeSelect> siblings)
+        {
+            int index = position++;
+            nodes[index] = dept;
+            indexes.put(dept.getDeptId(), index);
+            TreeSelect treeSelect = new TreeSelect();
+            treeSelect.setId(dept.getDeptId());
+            treeSelect.setLabel(dept.getDeptName());
+            treeSelect.setDisabled(StringUtils.equals(UserConstants.DEPT_DISABLE, dept.getStatus()));
+            treeSelect.setChildren(new ArrayList<TreeSelect>());
+            siblings.add(treeSelect);
+            for (SysDept child : children.getOrDefault(dept.getDeptId(), Collections.emptyList()))
+            {
+                if (!indexes.containsKey(child.getDeptId()))
+                {
+                    position = visit(child, children, position, treeSelect.getChildren());
+                }
+            }
+            ends[index] = position;
+            return position;
+        }
+
+        /**
+         * 快照中的先序位置，不存在的部门排在最后
+         */
+        private int indexOf(Long deptId)
+        {
+            Integer index = indexes.get(deptId);
+            return index == null ? Integer.MAX_VALUE : index;
+        }
+    }
+}
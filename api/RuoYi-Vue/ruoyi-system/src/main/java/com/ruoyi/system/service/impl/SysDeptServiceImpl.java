@@ -1,13 +1,17 @@
 package com.ruoyi.system.service.impl;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import com.ruoyi.common.annotation.DataScope;
+import com.ruoyi.common.constant.CacheConstants;
 import com.ruoyi.common.constant.UserConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
 import com.ruoyi.common.core.domain.TreeSelect;
 import com.ruoyi.common.core.domain.entity.SysDept;
 import com.ruoyi.common.core.domain.entity.SysRole;
@@ -17,6 +21,7 @@ import com.ruoyi.common.exception.ServiceException;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.spring.SpringUtils;
+import com.ruoyi.system.mapper.SysDeptClosureMapper;
 import com.ruoyi.system.mapper.SysDeptMapper;
 import com.ruoyi.system.mapper.SysRoleMapper;
 import com.ruoyi.system.service.ISysDeptService;
@@ -35,6 +40,15 @@ public class SysDeptServiceImpl implements ISysDeptService
     @Autowired
     private SysRoleMapper roleMapper;
 
+    @Autowired
+    private SysDeptClosureMapper deptClosureMapper;
+
+    @Autowired
+    private SysDeptHierarchy deptHierarchy;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
     /**
      * 查询部门管理数据
      * 
@@ -57,6 +71,11 @@ public class SysDeptServiceImpl implements ISysDeptService
     @Override
     public List<TreeSelect> selectDeptTreeList(SysDept dept)
     {
+        if (SecurityUtils.isAdmin(SecurityUtils.getUserId()) && isEmptyQuery(dept))
+        {
+            // 不受数据权限限制且无查询条件，直接使用内存中的部门树
+            return deptHierarchy.getDeptTreeSelect();
+        }
         List<SysDept> depts = SpringUtils.getAopProxy(this).selectDeptList(dept);
         return buildDeptTreeSelect(depts);
     }
@@ -70,22 +89,7 @@ public class SysDeptServiceImpl implements ISysDeptService
     @Override
     public List<SysDept> buildDeptTree(List<SysDept> depts)
     {
-        List<SysDept> returnList = new ArrayList<SysDept>();
-        List<Long> tempList = depts.stream().map(SysDept::getDeptId).collect(Collectors.toList());
-        for (SysDept dept : depts)
-        {
-            // 如果是顶级节点, 遍历该父节点的所有子节点
-            if (!tempList.contains(dept.getParentId()))
-            {
-                recursionFn(depts, dept);
-                returnList.add(dept);
-            }
-        }
-        if (returnList.isEmpty())
-        {
-            returnList = depts;
-        }
-        return returnList;
+        return deptHierarchy.buildDeptTree(depts);
     }
 
     /**
@@ -114,6 +118,54 @@ public class SysDeptServiceImpl implements ISysDeptService
         return deptMapper.selectDeptListByRoleId(roleId, role.isDeptCheckStrictly());
     }
 
+    /**
+     * 查询部门及其全部下级部门ID
+     * 
+     * @param deptId 部门ID
+     * @return 部门ID列表，包含自身
+     */
+    @Override
+    public List<Long> selectDeptAndChildIds(Long deptId)
+    {
+        if (StringUtils.isNull(deptId))
+        {
+            return new ArrayList<Long>();
+        }
+        return deptHierarchy.selectDeptAndChildIds(deptId);
+    }
+
+    /**
+     * 是否未设置任何查询条件
+     */
+    private boolean isEmptyQuery(SysDept dept)
+    {
+        return (StringUtils.isNull(dept.getDeptId()) || dept.getDeptId() == 0)
+                && (StringUtils.isNull(dept.getParentId()) || dept.getParentId() == 0)
+                && StringUtils.isEmpty(dept.getDeptName()) && StringUtils.isEmpty(dept.getStatus());
+    }
+
+    /**
+     * 部门变更提交后递增版本号，部门快照与数据权限SQL随之失效
+     */
+    private void afterDeptChange()
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    cacheVersion.increment(CacheConstants.DEPT_VERSION);
+                }
+            });
+        }
+        else
+        {
+            cacheVersion.increment(CacheConstants.DEPT_VERSION);
+        }
+    }
+
     /**
      * 根据部门ID查询信息
      * 
@@ -135,7 +187,7 @@ public class SysDeptServiceImpl implements ISysDeptService
     @Override
     public int selectNormalChildrenDeptById(Long deptId)
     {
-        return deptMapper.selectNormalChildrenDeptById(deptId);
+        return deptHierarchy.countNormalChildren(deptId);
     }
 
     /**
@@ -209,6 +261,7 @@ public class SysDeptServiceImpl implements ISysDeptService
      * @return 结果
      */
     @Override
+    @Transactional
     public int insertDept(SysDept dept)
     {
         SysDept info = deptMapper.selectDeptById(dept.getParentId());
@@ -218,7 +271,10 @@ public class SysDeptServiceImpl implements ISysDeptService
             throw new ServiceException("部门停用，不允许新增");
         }
         dept.setAncestors(info.getAncestors() + "," + dept.getParentId());
-        return deptMapper.insertDept(dept);
+        int rows = deptMapper.insertDept(dept);
+        deptClosureMapper.insertDeptClosure(dept.getDeptId(), dept.getParentId());
+        afterDeptChange();
+        return rows;
     }
 
     /**
@@ -228,15 +284,24 @@ public class SysDeptServiceImpl implements ISysDeptService
      * @return 结果
      */
     @Override
+    @Transactional
     public int updateDept(SysDept dept)
     {
         SysDept newParentDept = deptMapper.selectDeptById(dept.getParentId());
         SysDept oldDept = deptMapper.selectDeptById(dept.getDeptId());
         if (StringUtils.isNotNull(newParentDept) && StringUtils.isNotNull(oldDept))
         {
+            if (deptHierarchy.isDeptOrChild(dept.getDeptId(), newParentDept.getDeptId()))
+            {
+                throw new ServiceException("上级部门不能是自己或自己的下级部门");
+            }
             String newAncestors = newParentDept.getAncestors() + "," + newParentDept.getDeptId();
             String oldAncestors = oldDept.getAncestors();
             dept.setAncestors(newAncestors);
+            if (!newParentDept.getDeptId().equals(oldDept.getParentId()))
+            {
+                moveDeptClosure(dept.getDeptId(), newParentDept.getDeptId());
+            }
             updateDeptChildren(dept.getDeptId(), newAncestors, oldAncestors);
         }
         int result = deptMapper.updateDept(dept);
@@ -246,6 +311,7 @@ public class SysDeptServiceImpl implements ISysDeptService
             // 如果该部门是启用状态，则启用该部门的所有上级部门
             updateParentDeptStatusNormal(dept);
         }
+        afterDeptChange();
         return result;
     }
 
@@ -270,69 +336,38 @@ public class SysDeptServiceImpl implements ISysDeptService
      */
     public void updateDeptChildren(Long deptId, String newAncestors, String oldAncestors)
     {
-        List<SysDept> children = deptMapper.selectChildrenDeptById(deptId);
-        for (SysDept child : children)
-        {
-            child.setAncestors(child.getAncestors().replaceFirst(oldAncestors, newAncestors));
-        }
-        if (children.size() > 0)
+        if (!StringUtils.equals(newAncestors, oldAncestors))
         {
-            deptMapper.updateDeptChildren(children);
+            // 祖级列表为反范式字段，移动部门时整棵子树的每一行都要改写；层级查询已改用闭包表，此处仅为兼容仍读取该字段的代码
+            deptMapper.updateDeptChildrenAncestors(deptId, newAncestors, oldAncestors);
         }
     }
 
     /**
-     * 删除部门管理信息
+     * 将部门子树移动到新的上级部门下
      * 
-     * @param deptId 部门ID
-     * @return 结果
+     * @param deptId 被移动的部门ID
+     * @param parentId 新的父部门ID
      */
-    @Override
-    public int deleteDeptById(Long deptId)
+    private void moveDeptClosure(Long deptId, Long parentId)
     {
-        return deptMapper.deleteDeptById(deptId);
+        deptClosureMapper.deleteDeptClosureLinks(deptId);
+        deptClosureMapper.insertDeptClosureLinks(deptId, parentId);
     }
 
     /**
-     * 递归列表
-     */
-    private void recursionFn(List<SysDept> list, SysDept t)
-    {
-        // 得到子节点列表
-        List<SysDept> childList = getChildList(list, t);
-        t.setChildren(childList);
-        for (SysDept tChild : childList)
-        {
-            if (hasChild(list, tChild))
-            {
-                recursionFn(list, tChild);
-            }
-        }
-    }
-
-    /**
-     * 得到子节点列表
-     */
-    private List<SysDept> getChildList(List<SysDept> list, SysDept t)
-    {
-        List<SysDept> tlist = new ArrayList<SysDept>();
-        Iterator<SysDept> it = list.iterator();
-        while (it.hasNext())
-        {
-            SysDept n = (SysDept) it.next();
-            if (StringUtils.isNotNull(n.getParentId()) && n.getParentId().longValue() == t.getDeptId().longValue())
-            {
-                tlist.add(n);
-            }
-        }
-        return tlist;
-    }
-
-    /**
-     * 判断是否有子节点
+     * 删除部门管理信息
+     * 
+     * @param deptId 部门ID
+     * @return 结果
      */
-    private boolean hasChild(List<SysDept> list, SysDept t)
+    @Override
+    @Transactional
+    public int deleteDeptById(Long deptId)
     {
-        return getChildList(list, t).size() > 0;
+        int rows = deptMapper.deleteDeptById(deptId);
+        deptClosureMapper.deleteDeptClosureByDeptId(deptId);
+        afterDeptChange();
+        return rows;
     }
 }
@@ -8,14 +8,23 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.common.constant.CacheConstants;
 import com.ruoyi.common.constant.Constants;
 import com.ruoyi.common.constant.UserConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.cache.LocalCache;
+import com.ruoyi.common.core.cache.TwoLevelCache;
 import com.ruoyi.common.core.domain.TreeSelect;
 import com.ruoyi.common.core.domain.entity.SysMenu;
 import com.ruoyi.common.core.domain.entity.SysRole;
 import com.ruoyi.common.core.domain.entity.SysUser;
+import com.ruoyi.common.core.redis.RedisCache;
+import com.ruoyi.common.exception.ServiceException;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.system.domain.vo.MetaVo;
@@ -23,6 +32,7 @@ import com.ruoyi.system.domain.vo.RouterVo;
 import com.ruoyi.system.mapper.SysMenuMapper;
 import com.ruoyi.system.mapper.SysRoleMapper;
 import com.ruoyi.system.mapper.SysRoleMenuMapper;
+import com.ruoyi.system.mapper.SysUserRoleMapper;
 import com.ruoyi.system.service.ISysMenuService;
 
 /**
@@ -44,6 +54,28 @@ public class SysMenuServiceImpl implements ISysMenuService
     @Autowired
     private SysRoleMenuMapper roleMenuMapper;
 
+    @Autowired
+    private SysUserRoleMapper userRoleMapper;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private CacheVersion cacheVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** 前端路由JSON缓存，键为 菜单版本号:角色组合 */
+    private TwoLevelCache<String> routerCache;
+
+    @PostConstruct
+    public void init()
+    {
+        LocalCache<String, String> localCache = new LocalCache<String, String>(CacheConstants.SYS_ROUTERS_KEY, 256, 10 * 60 * 1000L);
+        routerCache = new TwoLevelCache<String>(localCache, redisCache, CacheConstants.SYS_ROUTERS_KEY, 60);
+    }
+
     /**
      * 根据用户查询系统菜单列表
      * 
@@ -142,6 +174,44 @@ public class SysMenuServiceImpl implements ISysMenuService
         return getChildPerms(menus, 0);
     }
 
+    /**
+     * 根据用户ID查询前端路由，相同角色组合共用缓存
+     * 
+     * @param userId 用户ID
+     * @return 路由列表的JSON
+     */
+    @Override
+    public String selectRouterJsonByUserId(Long userId)
+    {
+        boolean admin = SecurityUtils.isAdmin(userId);
+        List<Long> roleIds = admin ? null : userRoleMapper.selectNormalRoleIdsByUserId(userId);
+        String roleKey = admin ? "admin" : StringUtils.join(roleIds, ",");
+        String key = cacheVersion.get(CacheConstants.MENU_VERSION) + ":" + roleKey;
+        return routerCache.get(key, () -> {
+            List<SysMenu> menus;
+            if (admin)
+            {
+                menus = menuMapper.selectMenuTreeAll();
+            }
+            else if (roleIds.isEmpty())
+            {
+                menus = new ArrayList<SysMenu>();
+            }
+            else
+            {
+                menus = menuMapper.selectMenuTreeByRoleIds(roleIds);
+            }
+            try
+            {
+                return objectMapper.writeValueAsString(buildMenus(getChildPerms(menus, 0)));
+            }
+            catch (JsonProcessingException e)
+            {
+                throw new ServiceException("生成路由信息失败");
+            }
+        });
+    }
+
     /**
      * 根据角色ID查询菜单树信息
      * 
@@ -301,7 +371,9 @@ public class SysMenuServiceImpl implements ISysMenuService
     @Override
     public int insertMenu(SysMenu menu)
     {
-        return menuMapper.insertMenu(menu);
+        int rows = menuMapper.insertMenu(menu);
+        cacheVersion.increment(CacheConstants.MENU_VERSION);
+        return rows;
     }
 
     /**
@@ -313,7 +385,9 @@ public class SysMenuServiceImpl implements ISysMenuService
     @Override
     public int updateMenu(SysMenu menu)
     {
-        return menuMapper.updateMenu(menu);
+        int rows = menuMapper.updateMenu(menu);
+        cacheVersion.increment(CacheConstants.MENU_VERSION);
+        return rows;
     }
 
     /**
@@ -325,7 +399,9 @@ public class SysMenuServiceImpl implements ISysMenuService
     @Override
     public int deleteMenuById(Long menuId)
     {
-        return menuMapper.deleteMenuById(menuId);
+        int rows = menuMapper.deleteMenuById(menuId);
+        cacheVersion.increment(CacheConstants.MENU_VERSION);
+        return rows;
     }
 
     /**
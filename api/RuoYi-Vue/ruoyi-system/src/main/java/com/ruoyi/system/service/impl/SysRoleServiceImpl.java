@@ -8,11 +8,16 @@ import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import com.ruoyi.common.annotation.DataScope;
+import com.ruoyi.common.constant.CacheConstants;
 import com.ruoyi.common.constant.UserConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
 import com.ruoyi.common.core.domain.entity.SysRole;
 import com.ruoyi.common.core.domain.entity.SysUser;
 import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.common.utils.RelationUtils;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.spring.SpringUtils;
@@ -45,6 +50,9 @@ public class SysRoleServiceImpl implements ISysRoleService
     @Autowired
     private SysRoleDeptMapper roleDeptMapper;
 
+    @Autowired
+    private CacheVersion cacheVersion;
+
     /**
      * 根据条件分页查询角色数据
      * 
@@ -250,10 +258,22 @@ public class SysRoleServiceImpl implements ISysRoleService
     public int updateRole(SysRole role)
     {
         // 修改角色信息
-        roleMapper.updateRole(role);
-        // 删除角色与菜单关联
-        roleMenuMapper.deleteRoleMenuByRoleId(role.getRoleId());
-        return insertRoleMenu(role);
+        int rows = roleMapper.updateRole(role);
+        Long[] menuIds = role.getMenuIds();
+        if (StringUtils.isNull(menuIds))
+        {
+            // 未提交菜单时保持原有关联不变
+            afterRoleChange();
+            return rows;
+        }
+        // 按差异同步角色与菜单关联
+        Long roleId = role.getRoleId();
+        RelationUtils.sync(roleMenuMapper.selectMenuIdsByRoleId(roleId), menuIds,
+                removed -> roleMenuMapper.deleteRoleMenuByMenuIds(roleId, removed),
+                added -> insertRoleMenu(roleId, added));
+        afterRoleChange();
+        // 与整体重建关联时的返回值一致：角色菜单数，无菜单时为1
+        return menuIds.length > 0 ? menuIds.length : 1;
     }
 
     /**
@@ -265,7 +285,9 @@ public class SysRoleServiceImpl implements ISysRoleService
     @Override
     public int updateRoleStatus(SysRole role)
     {
-        return roleMapper.updateRole(role);
+        int rows = roleMapper.updateRole(role);
+        afterRoleChange();
+        return rows;
     }
 
     /**
@@ -283,7 +305,9 @@ public class SysRoleServiceImpl implements ISysRoleService
         // 删除角色与部门关联
         roleDeptMapper.deleteRoleDeptByRoleId(role.getRoleId());
         // 新增角色和部门信息（数据权限）
-        return insertRoleDept(role);
+        int rows = insertRoleDept(role);
+        afterRoleChange();
+        return rows;
     }
 
     /**
@@ -292,14 +316,25 @@ public class SysRoleServiceImpl implements ISysRoleService
      * @param role 角色对象
      */
     public int insertRoleMenu(SysRole role)
+    {
+        return insertRoleMenu(role.getRoleId(), Arrays.asList(role.getMenuIds()));
+    }
+
+    /**
+     * 新增角色菜单信息
+     * 
+     * @param roleId 角色ID
+     * @param menuIds 菜单组
+     */
+    public int insertRoleMenu(Long roleId, List<Long> menuIds)
     {
         int rows = 1;
         // 新增用户与角色管理
         List<SysRoleMenu> list = new ArrayList<SysRoleMenu>();
-        for (Long menuId : role.getMenuIds())
+        for (Long menuId : menuIds)
         {
             SysRoleMenu rm = new SysRoleMenu();
-            rm.setRoleId(role.getRoleId());
+            rm.setRoleId(roleId);
             rm.setMenuId(menuId);
             list.add(rm);
         }
@@ -348,7 +383,9 @@ public class SysRoleServiceImpl implements ISysRoleService
         roleMenuMapper.deleteRoleMenuByRoleId(roleId);
         // 删除角色与部门关联
         roleDeptMapper.deleteRoleDeptByRoleId(roleId);
-        return roleMapper.deleteRoleById(roleId);
+        int rows = roleMapper.deleteRoleById(roleId);
+        afterRoleChange();
+        return rows;
     }
 
     /**
@@ -375,7 +412,9 @@ public class SysRoleServiceImpl implements ISysRoleService
         roleMenuMapper.deleteRoleMenu(roleIds);
         // 删除角色与部门关联
         roleDeptMapper.deleteRoleDept(roleIds);
-        return roleMapper.deleteRoleByIds(roleIds);
+        int rows = roleMapper.deleteRoleByIds(roleIds);
+        afterRoleChange();
+        return rows;
     }
 
     /**
@@ -424,4 +463,26 @@ public class SysRoleServiceImpl implements ISysRoleService
         }
         return userRoleMapper.batchUserRole(list);
     }
+
+    /**
+     * 角色变更提交后递增数据权限与菜单版本号，已缓存的数据权限SQL与路由随之失效
+     */
+    private void afterRoleChange()
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    cacheVersion.increment(CacheConstants.DATA_SCOPE_VERSION, CacheConstants.MENU_VERSION);
+                }
+            });
+        }
+        else
+        {
+            cacheVersion.increment(CacheConstants.DATA_SCOPE_VERSION, CacheConstants.MENU_VERSION);
+        }
+    }
 }
@@ -16,6 +16,7 @@ import com.ruoyi.common.constant.UserConstants;
 import com.ruoyi.common.core.domain.entity.SysRole;
 import com.ruoyi.common.core.domain.entity.SysUser;
 import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.common.utils.RelationUtils;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.bean.BeanValidators;
@@ -129,6 +130,30 @@ public class SysUserServiceImpl implements ISysUserService
         return userMapper.selectUserById(userId);
     }
 
+    /**
+     * 查询关联了角色的用户名，不受数据权限限制
+     * 
+     * @param roleId 角色ID
+     * @return 用户名集合
+     */
+    @Override
+    public List<String> selectUserNamesByRoleId(Long roleId)
+    {
+        return userRoleMapper.selectUserNamesByRoleId(roleId);
+    }
+
+    /**
+     * 通过用户ID查询用户名，不受数据权限限制
+     * 
+     * @param userIds 用户ID
+     * @return 用户名集合
+     */
+    @Override
+    public List<String> selectUserNamesByUserIds(Long[] userIds)
+    {
+        return userMapper.selectUserNamesByIds(userIds);
+    }
+
     /**
      * 查询用户所属角色组
      * 
@@ -293,14 +318,10 @@ public class SysUserServiceImpl implements ISysUserService
     public int updateUser(SysUser user)
     {
         Long userId = user.getUserId();
-        // 删除用户与角色关联
-        userRoleMapper.deleteUserRoleByUserId(userId);
-        // 新增用户与角色管理
-        insertUserRole(user);
-        // 删除用户与岗位关联
-        userPostMapper.deleteUserPostByUserId(userId);
-        // 新增用户与岗位管理
-        insertUserPost(user);
+        // 按差异同步用户与角色关联
+        syncUserRole(userId, user.getRoleIds());
+        // 按差异同步用户与岗位关联
+        syncUserPost(userId, user.getPostIds());
         return userMapper.updateUser(user);
     }
 
@@ -314,8 +335,7 @@ public class SysUserServiceImpl implements ISysUserService
     @Transactional
     public void insertUserAuth(Long userId, Long[] roleIds)
     {
-        userRoleMapper.deleteUserRoleByUserId(userId);
-        insertUserRole(userId, roleIds);
+        syncUserRole(userId, roleIds);
     }
 
     /**
@@ -410,15 +430,25 @@ public class SysUserServiceImpl implements ISysUserService
      */
     public void insertUserPost(SysUser user)
     {
-        Long[] posts = user.getPostIds();
-        if (StringUtils.isNotEmpty(posts))
+        this.insertUserPost(user.getUserId(), user.getPostIds());
+    }
+
+    /**
+     * 新增用户岗位信息
+     * 
+     * @param userId 用户ID
+     * @param postIds 岗位组
+     */
+    public void insertUserPost(Long userId, Long[] postIds)
+    {
+        if (StringUtils.isNotEmpty(postIds))
         {
             // 新增用户与岗位管理
-            List<SysUserPost> list = new ArrayList<SysUserPost>(posts.length);
-            for (Long postId : posts)
+            List<SysUserPost> list = new ArrayList<SysUserPost>(postIds.length);
+            for (Long postId : postIds)
             {
                 SysUserPost up = new SysUserPost();
-                up.setUserId(user.getUserId());
+                up.setUserId(userId);
                 up.setPostId(postId);
                 list.add(up);
             }
@@ -449,6 +479,32 @@ public class SysUserServiceImpl implements ISysUserService
         }
     }
 
+    /**
+     * 按差异同步用户角色信息，仅删除取消的角色、新增增加的角色
+     * 
+     * @param userId 用户ID
+     * @param roleIds 角色组
+     */
+    public void syncUserRole(Long userId, Long[] roleIds)
+    {
+        RelationUtils.sync(userRoleMapper.selectRoleIdsByUserId(userId), roleIds,
+                removed -> userRoleMapper.deleteUserRoleByRoleIds(userId, removed),
+                added -> insertUserRole(userId, added.toArray(new Long[0])));
+    }
+
+    /**
+     * 按差异同步用户岗位信息，仅删除取消的岗位、新增增加的岗位
+     * 
+     * @param userId 用户ID
+     * @param postIds 岗位组
+     */
+    public void syncUserPost(Long userId, Long[] postIds)
+    {
+        RelationUtils.sync(userPostMapper.selectPostIdsByUserId(userId), postIds,
+                removed -> userPostMapper.deleteUserPostByPostIds(userId, removed),
+                added -> insertUserPost(userId, added.toArray(new Long[0])));
+    }
+
     /**
      * 通过用户ID删除用户
      * 
@@ -0,0 +1,164 @@
+package com.ruoyi.system.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * 部门层级闭包表 数据层测试
+ *
+ * 移动子树的SQL使用MySQL多表删除语法，需在MySQL上执行；无Docker环境时跳过
+ *
+ * 部门结构：100 -> (101 -> 103, 102)
+ *
+ * @author ruoyi
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class SysDeptClosureMapperTest
+{
+    private static final String MAPPER = "mapper/system/SysDeptClosureMapper.xml";
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>(DockerImageName.parse("mysql:5.7"));
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    private SqlSession sqlSession;
+
+    private SysDeptClosureMapper closureMapper;
+
+    @BeforeAll
+    public static void initFactory() throws Exception
+    {
+        UnpooledDataSource dataSource = new UnpooledDataSource(MYSQL.getDriverClassName(), MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        try (InputStream inputStream = Resources.getResourceAsStream(MAPPER))
+        {
+            new XMLMapperBuilder(inputStream, configuration, MAPPER, configuration.getSqlFragments()).parse();
+        }
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+        try (SqlSession session = sqlSessionFactory.openSession(true); Statement statement = session.getConnection().createStatement())
+        {
+            statement.execute("create table sys_dept_closure ("
+                    + " ancestor_id bigint(20) not null,"
+                    + " descendant_id bigint(20) not null,"
+                    + " depth int(4) not null,"
+                    + " primary key (ancestor_id, descendant_id),"
+                    + " key idx_descendant (descendant_id)"
+                    + ") engine=innodb");
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception
+    {
+        sqlSession = sqlSessionFactory.openSession(true);
+        try (Statement statement = sqlSession.getConnection().createStatement())
+        {
+            statement.execute("truncate table sys_dept_closure");
+        }
+        closureMapper = sqlSession.getMapper(SysDeptClosureMapper.class);
+        closureMapper.insertDeptClosure(100L, 0L);
+        closureMapper.insertDeptClosure(101L, 100L);
+        closureMapper.insertDeptClosure(103L, 101L);
+        closureMapper.insertDeptClosure(102L, 100L);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        sqlSession.close();
+    }
+
+    @Test
+    public void insertDeptClosure() throws Exception
+    {
+        assertThat(selectRows()).containsExactly(
+                "100-100-0", "100-101-1", "100-102-1", "100-103-2",
+                "101-101-0", "101-103-1",
+                "102-102-0",
+                "103-103-0");
+    }
+
+    @Test
+    public void moveSubtree() throws Exception
+    {
+        // 101（含下级103）从100移到102下
+        closureMapper.deleteDeptClosureLinks(101L);
+        assertThat(selectRows()).containsExactly(
+                "100-100-0", "100-102-1",
+                "101-101-0", "101-103-1",
+                "102-102-0",
+                "103-103-0");
+
+        closureMapper.insertDeptClosureLinks(101L, 102L);
+        assertThat(selectRows()).containsExactly(
+                "100-100-0", "100-101-2", "100-102-1", "100-103-3",
+                "101-101-0", "101-103-1",
+                "102-101-1", "102-102-0", "102-103-2",
+                "103-103-0");
+    }
+
+    @Test
+    public void moveSubtreeToTop() throws Exception
+    {
+        closureMapper.deleteDeptClosureLinks(101L);
+        closureMapper.insertDeptClosureLinks(101L, 0L);
+
+        assertThat(selectRows()).containsExactly(
+                "100-100-0", "100-102-1",
+                "101-101-0", "101-103-1",
+                "102-102-0",
+                "103-103-0");
+    }
+
+    @Test
+    public void deleteDeptClosureByDeptId() throws Exception
+    {
+        closureMapper.deleteDeptClosureByDeptId(103L);
+
+        assertThat(selectRows()).containsExactly(
+                "100-100-0", "100-101-1", "100-102-1",
+                "101-101-0",
+                "102-102-0");
+    }
+
+    /**
+     * 全部闭包关系，格式为 上级-下级-层级距离
+     */
+    private List<String> selectRows() throws Exception
+    {
+        List<String> rows = new ArrayList<String>();
+        Connection connection = sqlSession.getConnection();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("select ancestor_id, descendant_id, depth from sys_dept_closure order by ancestor_id, descendant_id"))
+        {
+            while (rs.next())
+            {
+                rows.add(rs.getLong(1) + "-" + rs.getLong(2) + "-" + rs.getInt(3));
+            }
+        }
+        return rows;
+    }
+}
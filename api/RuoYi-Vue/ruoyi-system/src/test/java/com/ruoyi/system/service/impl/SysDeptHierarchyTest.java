@@ -0,0 +1,139 @@
+package com.ruoyi.system.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.domain.TreeSelect;
+import com.ruoyi.common.core.domain.entity.SysDept;
+import com.ruoyi.system.mapper.SysDeptMapper;
+
+/**
+ * 部门层级快照测试
+ *
+ * 部门结构：100 -> (101 -> (103, 104停用), 102 -> 105)
+ *
+ * @author ruoyi
+ */
+public class SysDeptHierarchyTest
+{
+    private SysDeptMapper deptMapper;
+
+    private CacheVersion cacheVersion;
+
+    private SysDeptHierarchy hierarchy;
+
+    @BeforeEach
+    public void setUp()
+    {
+        deptMapper = mock(SysDeptMapper.class);
+        cacheVersion = mock(CacheVersion.class);
+        when(cacheVersion.get(CacheConstants.DEPT_VERSION)).thenReturn(1L);
+        when(deptMapper.selectDeptHierarchy()).thenReturn(Arrays.asList(dept(100L, 0L, "0"), dept(105L, 102L, "0"),
+                dept(101L, 100L, "0"), dept(103L, 101L, "0"), dept(104L, 101L, "1"), dept(102L, 100L, "0")));
+        hierarchy = new SysDeptHierarchy();
+        ReflectionTestUtils.setField(hierarchy, "deptMapper", deptMapper);
+        ReflectionTestUtils.setField(hierarchy, "cacheVersion", cacheVersion);
+    }
+
+    @Test
+    public void selectDeptAndChildIds()
+    {
+        assertThat(hierarchy.selectDeptAndChildIds(100L)).containsExactlyInAnyOrder(100L, 101L, 102L, 103L, 104L, 105L);
+        assertThat(hierarchy.selectDeptAndChildIds(101L)).containsExactlyInAnyOrder(101L, 103L, 104L);
+        assertThat(hierarchy.selectDeptAndChildIds(101L).get(0)).isEqualTo(101L);
+        assertThat(hierarchy.selectDeptAndChildIds(105L)).containsExactly(105L);
+        assertThat(hierarchy.selectDeptAndChildIds(999L)).containsExactly(999L);
+    }
+
+    @Test
+    public void isDeptOrChild()
+    {
+        assertThat(hierarchy.isDeptOrChild(100L, 105L)).isTrue();
+        assertThat(hierarchy.isDeptOrChild(101L, 101L)).isTrue();
+        assertThat(hierarchy.isDeptOrChild(101L, 104L)).isTrue();
+        assertThat(hierarchy.isDeptOrChild(101L, 105L)).isFalse();
+        assertThat(hierarchy.isDeptOrChild(103L, 101L)).isFalse();
+        assertThat(hierarchy.isDeptOrChild(999L, 999L)).isTrue();
+        assertThat(hierarchy.isDeptOrChild(999L, 100L)).isFalse();
+    }
+
+    @Test
+    public void countNormalChildren()
+    {
+        assertThat(hierarchy.countNormalChildren(100L)).isEqualTo(4);
+        assertThat(hierarchy.countNormalChildren(101L)).isEqualTo(1);
+        assertThat(hierarchy.countNormalChildren(103L)).isZero();
+        assertThat(hierarchy.countNormalChildren(999L)).isZero();
+    }
+
+    @Test
+    public void deptTreeSelect()
+    {
+        List<TreeSelect> tree = hierarchy.getDeptTreeSelect();
+
+        assertThat(tree).hasSize(1);
+        assertThat(tree.get(0).getId()).isEqualTo(100L);
+        assertThat(tree.get(0).getChildren()).extracting(TreeSelect::getId).containsExactly(101L, 102L);
+        TreeSelect dept101 = tree.get(0).getChildren().get(0);
+        assertThat(dept101.getChildren()).extracting(TreeSelect::getId).containsExactly(103L, 104L);
+        assertThat(dept101.getChildren().get(1).isDisabled()).isTrue();
+    }
+
+    @Test
+    public void buildDeptTreeFromSubset()
+    {
+        List<SysDept> depts = new ArrayList<SysDept>(Arrays.asList(dept(105L, 102L, "0"), dept(103L, 101L, "0"), dept(101L, 100L, "0")));
+
+        List<SysDept> tree = hierarchy.buildDeptTree(depts);
+
+        // 上级不在列表中的部门作为顶级部门，按先序排列
+        assertThat(tree).extracting(SysDept::getDeptId).containsExactly(101L, 105L);
+        assertThat(tree.get(0).getChildren()).extracting(SysDept::getDeptId).containsExactly(103L);
+    }
+
+    @Test
+    public void cycleDoesNotLoop()
+    {
+        when(deptMapper.selectDeptHierarchy()).thenReturn(Arrays.asList(dept(200L, 201L, "0"), dept(201L, 200L, "0")));
+
+        assertThat(hierarchy.selectDeptAndChildIds(200L)).containsExactlyInAnyOrder(200L, 201L);
+        assertThat(hierarchy.getDeptTreeSelect()).hasSize(1);
+    }
+
+    @Test
+    public void rebuildOnVersionChange()
+    {
+        hierarchy.selectDeptAndChildIds(100L);
+        hierarchy.isDeptOrChild(100L, 101L);
+        verify(deptMapper, times(1)).selectDeptHierarchy();
+
+        // 部门105移到101下
+        when(deptMapper.selectDeptHierarchy()).thenReturn(Arrays.asList(dept(100L, 0L, "0"), dept(101L, 100L, "0"),
+                dept(102L, 100L, "0"), dept(103L, 101L, "0"), dept(104L, 101L, "1"), dept(105L, 101L, "0")));
+        when(cacheVersion.get(CacheConstants.DEPT_VERSION)).thenReturn(2L);
+
+        assertThat(hierarchy.selectDeptAndChildIds(101L)).containsExactlyInAnyOrder(101L, 103L, 104L, 105L);
+        assertThat(hierarchy.isDeptOrChild(102L, 105L)).isFalse();
+        verify(deptMapper, times(2)).selectDeptHierarchy();
+    }
+
+    private static SysDept dept(Long deptId, Long parentId, String status)
+    {
+        SysDept dept = new SysDept();
+        dept.setDeptId(deptId);
+        dept.setParentId(parentId);
+        dept.setDeptName("部门" + deptId);
+        dept.setStatus(status);
+        return dept;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ruoyi.system.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.core.cache.CacheVersion;
+import com.ruoyi.common.core.domain.entity.SysMenu;
+import com.ruoyi.common.core.redis.RedisCache;
+import com.ruoyi.system.mapper.SysMenuMapper;
+import com.ruoyi.system.mapper.SysUserRoleMapper;
+
+/**
+ * 前端路由缓存测试
+ *
+ * 菜单结构：系统管理(1) -> 用户管理(100)
+ *
+ * @author ruoyi
+ */
+public class SysMenuServiceImplTest
+{
+    private SysMenuServiceImpl menuService;
+
+    private SysMenuMapper menuMapper;
+
+    private SysUserRoleMapper userRoleMapper;
+
+    private RedisCache redisCache;
+
+    /** 缓存版本号，key为缓存名称 */
+    private final Map<String, Long> versions = new HashMap<String, Long>();
+
+    @BeforeEach
+    public void setUp()
+    {
+        versions.put(CacheConstants.MENU_VERSION, 1L);
+        CacheVersion cacheVersion = mock(CacheVersion.class);
+        when(cacheVersion.get(anyString())).thenAnswer(invocation -> versions.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> versions.merge(invocation.getArgument(0), 1L, Long::sum)).when(cacheVersion).increment(anyString());
+        menuMapper = mock(SysMenuMapper.class);
+        when(menuMapper.selectMenuTreeByRoleIds(anyList())).thenAnswer(invocation -> menus());
+        when(menuMapper.selectMenuTreeAll()).thenAnswer(invocation -> menus());
+        userRoleMapper = mock(SysUserRoleMapper.class);
+        when(userRoleMapper.selectNormalRoleIdsByUserId(2L)).thenReturn(Arrays.asList(2L, 3L));
+        when(userRoleMapper.selectNormalRoleIdsByUserId(3L)).thenReturn(Arrays.asList(2L, 3L));
+        when(userRoleMapper.selectNormalRoleIdsByUserId(4L)).thenReturn(Collections.<Long>emptyList());
+        redisCache = mock(RedisCache.class);
+        menuService = new SysMenuServiceImpl();
+        ReflectionTestUtils.setField(menuService, "menuMapper", menuMapper);
+        ReflectionTestUtils.setField(menuService, "userRoleMapper", userRoleMapper);
+        ReflectionTestUtils.setField(menuService, "redisCache", redisCache);
+        ReflectionTestUtils.setField(menuService, "cacheVersion", cacheVersion);
+        ReflectionTestUtils.setField(menuService, "objectMapper", new ObjectMapper());
+        menuService.init();
+    }
+
+    @Test
+    public void routersSharedByRoleCombination()
+    {
+        String routers = menuService.selectRouterJsonByUserId(2L);
+
+        assertThat(routers).contains("\"path\":\"/system\"", "\"component\":\"system/user/index\"", "\"name\":\"User\"");
+        assertThat(menuService.selectRouterJsonByUserId(3L)).isSameAs(routers);
+        verify(menuMapper, times(1)).selectMenuTreeByRoleIds(Arrays.asList(2L, 3L));
+        verify(redisCache).setCacheObject(eq(CacheConstants.SYS_ROUTERS_KEY + "1:2,3"), eq(routers), eq(60), eq(TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void adminLoadsAllMenus()
+    {
+        assertThat(menuService.selectRouterJsonByUserId(1L)).contains("\"path\":\"/system\"");
+
+        verify(menuMapper).selectMenuTreeAll();
+        verify(userRoleMapper, never()).selectNormalRoleIdsByUserId(any());
+        verify(redisCache).setCacheObject(eq(CacheConstants.SYS_ROUTERS_KEY + "1:admin"), anyString(), eq(60), eq(TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void noRolesHasNoRouters()
+    {
+        assertThat(menuService.selectRouterJsonByUserId(4L)).isEqualTo("[]");
+
+        verify(menuMapper, never()).selectMenuTreeByRoleIds(anyList());
+    }
+
+    @Test
+    public void menuChangeRebuildsRouters()
+    {
+        menuService.selectRouterJsonByUserId(2L);
+
+        menuService.updateMenu(new SysMenu());
+        menuService.selectRouterJsonByUserId(2L);
+
+        verify(menuMapper, times(2)).selectMenuTreeByRoleIds(Arrays.asList(2L, 3L));
+        verify(redisCache).setCacheObject(eq(CacheConstants.SYS_ROUTERS_KEY + "2:2,3"), anyString(), eq(60), eq(TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void redisHitSkipsBuild()
+    {
+        when(redisCache.getCacheObject(CacheConstants.SYS_ROUTERS_KEY + "1:2,3")).thenReturn("[{\"path\":\"/cached\"}]");
+
+        assertThat(menuService.selectRouterJsonByUserId(2L)).isEqualTo("[{\"path\":\"/cached\"}]");
+
+        verify(menuMapper, never()).selectMenuTreeByRoleIds(anyList());
+    }
+
+    private static List<SysMenu> menus()
+    {
+        List<SysMenu> menus = new ArrayList<SysMenu>();
+        menus.add(menu(1L, 0L, "系统管理", "M", "system", null));
+        menus.add(menu(100L, 1L, "用户管理", "C", "user", "system/user/index"));
+        return menus;
+    }
+
+    private static SysMenu menu(Long menuId, Long parentId, String menuName, String menuType, String path, String component)
+    {
+        SysMenu menu = new SysMenu();
+        menu.setMenuId(menuId);
+        menu.setParentId(parentId);
+        menu.setMenuName(menuName);
+        menu.setMenuType(menuType);
+        menu.setPath(path);
+        menu.setComponent(component);
+        menu.setIsFrame("1");
+        menu.setIsCache("0");
+        menu.setVisible("0");
+        return menu;
+    }
+}
@@ -0,0 +1,11 @@
+-- ----------------------------
+-- 文章全文索引整理脚本（DBA 离线执行，勿放入应用请求路径）
+-- 大量增删改后合并 FULLTEXT 辅助表、清理已删除文档，不重建整表
+-- 需要 SUPER 或 SYSTEM_VARIABLES_ADMIN 权限，建议在低峰期执行
+-- ----------------------------
+USE blog_system;
+
+SET GLOBAL innodb_optimize_fulltext_only = ON;
+-- 单次处理的分词数受 innodb_ft_num_word_optimize 限制，索引较大时可重复执行直至耗时明显下降
+OPTIMIZE TABLE `blog_article`;
+SET GLOBAL innodb_optimize_fulltext_only = OFF;
@@ -0,0 +1,82 @@
+-- ----------------------------
+-- 博客模块增量升级脚本（已有库执行，新库直接使用 create.sql）
+-- ----------------------------
+USE blog_system;
+
+-- ----------------------------
+-- 文章全文索引 (ngram 分词，支持中文)
+-- InnoDB 每条 ALTER 只能新建一个 FULLTEXT 索引
+-- ----------------------------
+ALTER TABLE `blog_article` ADD FULLTEXT INDEX `ft_article_title` (`title`) WITH PARSER ngram;
+ALTER TABLE `blog_article` ADD FULLTEXT INDEX `ft_article_text` (`title`,`summary`,`content`) WITH PARSER ngram;
+
+-- ----------------------------
+-- 游标分页索引，匹配 (create_time, id) 倒序扫描
+-- ----------------------------
+ALTER TABLE `blog_article` ADD INDEX `idx_status_create` (`status`,`del_flag`,`create_time`,`article_id`);
+ALTER TABLE `blog_comment` DROP INDEX `idx_article_id`, ADD INDEX `idx_article_create` (`article_id`,`create_time`,`comment_id`);
+
+-- ----------------------------
+-- 分类/标签已发布文章数（物化统计，增量维护 + 定时对账）
+-- ----------------------------
+ALTER TABLE `blog_category` ADD COLUMN `article_count` int NOT NULL DEFAULT '0' COMMENT '已发布文章数' AFTER `sort`;
+ALTER TABLE `blog_tag` ADD COLUMN `article_count` int NOT NULL DEFAULT '0' COMMENT '已发布文章数' AFTER `name`;
+
+UPDATE `blog_category` c
+LEFT JOIN (SELECT category_id, COUNT(*) AS cnt FROM blog_article WHERE status = '1' AND del_flag = '0' GROUP BY category_id) s
+  ON s.category_id = c.category_id
+SET c.article_count = IFNULL(s.cnt, 0), c.update_time = c.update_time;
+
+UPDATE `blog_tag` t
+LEFT JOIN (SELECT bat.tag_id, COUNT(*) AS cnt FROM blog_article_tag bat
+           INNER JOIN blog_article ba ON ba.article_id = bat.article_id
+           WHERE ba.status = '1' AND ba.del_flag = '0' GROUP BY bat.tag_id) s
+  ON s.tag_id = t.tag_id
+SET t.article_count = IFNULL(s.cnt, 0), t.update_time = t.update_time;
+
+-- 每小时对账一次，默认启用
+INSERT INTO sys_job (job_name, job_group, invoke_target, cron_expression, misfire_policy, concurrent, status, create_by, create_time, remark)
+VALUES ('博客分类标签文章数对账', 'SYSTEM', 'blogTask.reconcileTermCounts', '0 15 * * * ?', '3', '1', '0', 'admin', sysdate(), '校正增量维护的分类/标签文章数');
+
+-- ----------------------------
+-- 文章浏览统计（分钟统计实时累加，定时任务汇总小时/天统计）
+-- ----------------------------
+CREATE TABLE `blog_article_stat` (
+  `article_id` bigint NOT NULL COMMENT '文章ID',
+  `granularity` char(1) NOT NULL COMMENT '粒度 (m=分钟, h=小时, d=天)',
+  `bucket_time` datetime NOT NULL COMMENT '时间桶起点',
+  `view_count` int NOT NULL DEFAULT '0' COMMENT '浏览量',
+  PRIMARY KEY (`granularity`,`bucket_time`,`article_id`),
+  KEY `idx_article_granularity_time` (`article_id`,`granularity`,`bucket_time`)
+) ENGINE=InnoDB COMMENT='博客文章浏览统计表';
+
+-- 每5分钟汇总一次，默认启用
+INSERT INTO sys_job (job_name, job_group, invoke_target, cron_expression, misfire_policy, concurrent, status, create_by, create_time, remark)
+VALUES ('博客文章浏览统计汇总', 'SYSTEM', 'blogTask.rollupArticleStats', '0 0/5 * * * ?', '3', '1', '0', 'admin', sysdate(), '由分钟统计汇总小时、天统计并清理过期明细');
+
+-- ----------------------------
+-- 文章静态快照补齐（升级后在定时任务页面"执行一次"，默认暂停）
+-- ----------------------------
+INSERT INTO sys_job (job_name, job_group, invoke_target, cron_expression, misfire_policy, concurrent, status, create_by, create_time, remark)
+VALUES ('博客文章快照补齐', 'SYSTEM', 'blogTask.refreshArticleSnapshots', '0 0 3 * * ?', '3', '1', '1', 'admin', sysdate(), '为已发布文章重新生成静态快照，快照目录丢失时手动执行');
+
+-- ----------------------------
+-- 部门层级闭包表（每个部门与自身及全部下级各一行）
+-- ----------------------------
+create table if not exists sys_dept_closure (
+  ancestor_id       bigint(20)      not null                   comment '上级部门id',
+  descendant_id     bigint(20)      not null                   comment '下级部门id',
+  depth             int(4)          not null                   comment '层级距离（自身为0）',
+  primary key (ancestor_id, descendant_id),
+  key idx_descendant (descendant_id)
+) engine=innodb comment = '部门层级闭包表';
+
+-- ----------------------------
+-- 初始化-按祖级列表生成闭包数据（先清空，重复执行时以当前祖级列表为准）
+-- ----------------------------
+truncate table sys_dept_closure;
+insert into sys_dept_closure (ancestor_id, descendant_id, depth)
+select d.dept_id, d.dept_id, 0 from sys_dept d
+union all
+select a.dept_id, d.dept_id, (length(d.ancestors) - length(replace(d.ancestors, ',', ''))) - (length(a.ancestors) - length(replace(a.ancestors, ',', '')))
+from sys_dept d join sys_dept a on find_in_set(a.dept_id, d.ancestors);
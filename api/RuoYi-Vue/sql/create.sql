@@ -16,6 +16,7 @@ CREATE TABLE `blog_category` (
   `name` varchar(128) NOT NULL COMMENT '分类名称',
   `description` varchar(512) DEFAULT NULL COMMENT '分类描述',
   `sort` int DEFAULT '0' COMMENT '排序字段',
+  `article_count` int NOT NULL DEFAULT '0' COMMENT '已发布文章数',
   `create_by` varchar(64) DEFAULT '' COMMENT '创建者',
   `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `update_by` varchar(64) DEFAULT '' COMMENT '更新者',
@@ -31,6 +32,7 @@ DROP TABLE IF EXISTS `blog_tag`;
 CREATE TABLE `blog_tag` (
   `tag_id` bigint NOT NULL AUTO_INCREMENT COMMENT '标签ID',
   `name` varchar(128) NOT NULL COMMENT '标签名称',
+  `article_count` int NOT NULL DEFAULT '0' COMMENT '已发布文章数',
   `create_by` varchar(64) DEFAULT '' COMMENT '创建者',
   `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `update_by` varchar(64) DEFAULT '' COMMENT '更新者',
@@ -63,7 +65,10 @@ CREATE TABLE `blog_article` (
   `remark` varchar(500) DEFAULT NULL COMMENT '备注',
   PRIMARY KEY (`article_id`),
   KEY `idx_user_id` (`user_id`),
-  KEY `idx_category_id` (`category_id`)
+  KEY `idx_category_id` (`category_id`),
+  KEY `idx_status_create` (`status`,`del_flag`,`create_time`,`article_id`),
+  FULLTEXT KEY `ft_article_title` (`title`) WITH PARSER ngram,
+  FULLTEXT KEY `ft_article_text` (`title`,`summary`,`content`) WITH PARSER ngram
 ) ENGINE=InnoDB AUTO_INCREMENT=100 COMMENT='博客文章表';
 
 -- ----------------------------
@@ -95,6 +100,19 @@ CREATE TABLE `blog_comment` (
   `update_by` varchar(64) DEFAULT '' COMMENT '更新者',
   `update_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`comment_id`),
-  KEY `idx_article_id` (`article_id`),
+  KEY `idx_article_create` (`article_id`,`create_time`,`comment_id`),
   KEY `idx_parent_id` (`parent_id`)
-) ENGINE=InnoDB AUTO_INCREMENT=100 COMMENT='博客评论表';
\ No newline at end of file
+) ENGINE=InnoDB AUTO_INCREMENT=100 COMMENT='博客评论表';
+
+-- ----------------------------
+-- 7. 文章浏览统计表 (分钟/小时/天预汇总)
+-- ----------------------------
+DROP TABLE IF EXISTS `blog_article_stat`;
+CREATE TABLE `blog_article_stat` (
+  `article_id` bigint NOT NULL COMMENT '文章ID',
+  `granularity` char(1) NOT NULL COMMENT '粒度 (m=分钟, h=小时, d=天)',
+  `bucket_time` datetime NOT NULL COMMENT '时间桶起点',
+  `view_count` int NOT NULL DEFAULT '0' COMMENT '浏览量',
+  PRIMARY KEY (`granularity`,`bucket_time`,`article_id`),
+  KEY `idx_article_granularity_time` (`article_id`,`granularity`,`bucket_time`)
+) ENGINE=InnoDB COMMENT='博客文章浏览统计表';
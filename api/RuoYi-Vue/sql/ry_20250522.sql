@@ -34,6 +34,27 @@ insert into sys_dept values(107,  101, '0,100,101',  '运维部门',   5, '若
 insert into sys_dept values(108,  102, '0,100,102',  '市场部门',   1, '若依', '15888888888', 'ry@qq.com', '0', '0', 'admin', sysdate(), '', null);
 insert into sys_dept values(109,  102, '0,100,102',  '财务部门',   2, '若依', '15888888888', 'ry@qq.com', '0', '0', 'admin', sysdate(), '', null);
 
+-- ----------------------------
+-- 部门层级闭包表（每个部门与自身及全部下级各一行）
+-- ----------------------------
+drop table if exists sys_dept_closure;
+create table sys_dept_closure (
+  ancestor_id       bigint(20)      not null                   comment '上级部门id',
+  descendant_id     bigint(20)      not null                   comment '下级部门id',
+  depth             int(4)          not null                   comment '层级距离（自身为0）',
+  primary key (ancestor_id, descendant_id),
+  key idx_descendant (descendant_id)
+) engine=innodb comment = '部门层级闭包表';
+
+-- ----------------------------
+-- 初始化-按祖级列表生成闭包数据
+-- ----------------------------
+insert ignore into sys_dept_closure (ancestor_id, descendant_id, depth)
+select d.dept_id, d.dept_id, 0 from sys_dept d
+union all
+select a.dept_id, d.dept_id, (length(d.ancestors) - length(replace(d.ancestors, ',', ''))) - (length(a.ancestors) - length(replace(a.ancestors, ',', '')))
+from sys_dept d join sys_dept a on find_in_set(a.dept_id, d.ancestors);
+
 
 -- ----------------------------
 -- 2、用户信息表
@@ -599,6 +620,9 @@ create table sys_job (
 insert into sys_job values(1, '系统默认（无参）', 'DEFAULT', 'ryTask.ryNoParams',        '0/10 * * * * ?', '3', '1', '1', 'admin', sysdate(), '', null, '');
 insert into sys_job values(2, '系统默认（有参）', 'DEFAULT', 'ryTask.ryParams(\'ry\')',  '0/15 * * * * ?', '3', '1', '1', 'admin', sysdate(), '', null, '');
 insert into sys_job values(3, '系统默认（多参）', 'DEFAULT', 'ryTask.ryMultipleParams(\'ry\', true, 2000L, 316.50D, 100)',  '0/20 * * * * ?', '3', '1', '1', 'admin', sysdate(), '', null, '');
+insert into sys_job values(4, '博客分类标签文章数对账', 'SYSTEM', 'blogTask.reconcileTermCounts', '0 15 * * * ?', '3', '1', '0', 'admin', sysdate(), '', null, '校正增量维护的分类/标签文章数');
+insert into sys_job values(5, '博客文章浏览统计汇总', 'SYSTEM', 'blogTask.rollupArticleStats', '0 0/5 * * * ?', '3', '1', '0', 'admin', sysdate(), '', null, '由分钟统计汇总小时、天统计并清理过期明细');
+insert into sys_job values(6, '博客文章快照补齐', 'SYSTEM', 'blogTask.refreshArticleSnapshots', '0 0 3 * * ?', '3', '1', '1', 'admin', sysdate(), '', null, '为已发布文章重新生成静态快照，快照目录丢失时手动执行');
 
 
 -- ----------------------------